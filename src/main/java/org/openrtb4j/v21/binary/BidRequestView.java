@@ -0,0 +1,297 @@
+package org.openrtb4j.v21.binary;
+
+import org.openrtb4j.v21.data.RawJson;
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.request.User;
+
+/**
+ * Read-only view of a bid request in the binary format described by
+ * {@link BinaryFormat}, for filtering and routing on a few fields without
+ * decoding the whole request. The getters mirror those of {@link BidRequest}
+ * and read their values from the encoded bytes on each call; site, app,
+ * device and user objects are decoded when asked for, and impressions are
+ * read through an {@link ImpressionView}.
+ *
+ * Wrapping a message checks its header and the framing of its top-level
+ * fields and records where each of them starts; the contents of nested
+ * objects are only checked when they are read, so getters may throw a
+ * {@link BinaryFormatException} as well. Messages encoded with a
+ * {@link StringDictionary} need the view to be given the same dictionary.
+ * Strings are decoded on each call
+ * and “ext” members are raw slices of the input, so the input must not be
+ * modified while the view or its values are in use.
+ *
+ * A view is re-pointed at every message it wraps, so a single instance serves
+ * any number of messages. It is not thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BidRequestView {
+
+    private static final BidRequest DEFAULTS = new BidRequest();
+
+    private static final byte[] KINDS = {
+            BinaryReader.STRING, // id
+            BinaryReader.OBJECT | BinaryReader.ARRAY, // imp
+            BinaryReader.OBJECT, // site
+            BinaryReader.OBJECT, // app
+            BinaryReader.OBJECT, // device
+            BinaryReader.OBJECT, // user
+            BinaryReader.INT, // at
+            BinaryReader.INT, // tmax
+            BinaryReader.STRING | BinaryReader.ARRAY, // wseat
+            BinaryReader.INT, // allimps
+            BinaryReader.STRING | BinaryReader.ARRAY, // cur
+            BinaryReader.STRING | BinaryReader.ARRAY, // bcat
+            BinaryReader.STRING | BinaryReader.ARRAY, // badv
+            BinaryReader.RAW_JSON, // ext
+    };
+
+    private final BinaryReader reader = new BinaryReader();
+
+    private final int[] offsets = new int[KINDS.length];
+
+    /**
+     * Offsets of the impressions of the wrapped message.
+     */
+    private int[] impOffsets = new int[8];
+
+    private int impCount;
+
+    private byte[] buf;
+
+    private int end;
+
+    /**
+     * @return the dictionary, or null
+     */
+    public StringDictionary getDictionary() {
+        return reader.getDictionary();
+    }
+
+    /**
+     * @param dictionary the dictionary the messages were encoded with, or
+     *            null for messages encoded without one
+     */
+    public void setDictionary(StringDictionary dictionary) {
+        reader.setDictionary(dictionary);
+    }
+
+    /**
+     * @param buf the encoded bid request
+     * @return this view
+     * @throws BinaryFormatException if the input is not a valid bid request
+     */
+    public BidRequestView wrap(byte[] buf) {
+        return wrap(buf, 0, buf.length);
+    }
+
+    /**
+     * @param buf the buffer holding the encoded bid request
+     * @param off the offset of the first byte of the bid request
+     * @param len the length of the bid request in bytes
+     * @return this view
+     * @throws BinaryFormatException if the input is not a valid bid request
+     */
+    public BidRequestView wrap(byte[] buf, int off, int len) {
+        this.buf = null;
+        BinaryReader r = reader;
+        r.reset(buf, off, len, BinaryFormat.REQUEST);
+        int objectEnd = r.beginObject();
+        if (objectEnd < 0) {
+            throw r.error("Null bid request");
+        }
+        r.index(KINDS, offsets);
+        r.endObject(objectEnd);
+        r.finish();
+        indexImpressions();
+        this.buf = buf;
+        this.end = off + len;
+        return this;
+    }
+
+    /**
+     * @return the id
+     */
+    public String getId() {
+        return seek(0) ? reader.readString() : DEFAULTS.getId();
+    }
+
+    /**
+     * @return the impressions, decoded on each call
+     */
+    public Impression[] getImp() {
+        if (!seek(1)) {
+            return DEFAULTS.getImp();
+        }
+        Impression[] imp = new Impression[reader.readCount()];
+        for (int i = 0; i < imp.length; i++) {
+            imp[i] = BinaryBidRequestDecoder.readImpression(reader);
+        }
+        return imp;
+    }
+
+    /**
+     * @return the number of impressions, 0 if there are none
+     */
+    public int getImpCount() {
+        checkWrapped();
+        return impCount;
+    }
+
+    /**
+     * Points a view at an impression.
+     *
+     * @param index the index of the impression
+     * @param view the view to point at the impression
+     * @return the view, or null for a null impression
+     * @throws IndexOutOfBoundsException if there is no impression at the index
+     */
+    public ImpressionView getImp(int index, ImpressionView view) {
+        int count = getImpCount();
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Impression " + index + " of " + count);
+        }
+        return view.wrap(buf, impOffsets[index], end, reader.getDictionary());
+    }
+
+    /**
+     * @return the site, decoded on each call
+     */
+    public Site getSite() {
+        return seek(2) ? BinaryBidRequestDecoder.readSite(reader) : DEFAULTS.getSite();
+    }
+
+    /**
+     * @return the app, decoded on each call
+     */
+    public App getApp() {
+        return seek(3) ? BinaryBidRequestDecoder.readApp(reader) : DEFAULTS.getApp();
+    }
+
+    /**
+     * @return the device, decoded on each call
+     */
+    public Device getDevice() {
+        return seek(4) ? BinaryBidRequestDecoder.readDevice(reader) : DEFAULTS.getDevice();
+    }
+
+    /**
+     * @return the user, decoded on each call
+     */
+    public User getUser() {
+        return seek(5) ? BinaryBidRequestDecoder.readUser(reader) : DEFAULTS.getUser();
+    }
+
+    /**
+     * @return the at
+     */
+    public int getAt() {
+        return seek(6) ? reader.readInt() : DEFAULTS.getAt();
+    }
+
+    /**
+     * @return the tmax
+     */
+    public Integer getTmax() {
+        return seek(7) ? reader.readInteger() : DEFAULTS.getTmax();
+    }
+
+    /**
+     * @return the wseat
+     */
+    public String[] getWseat() {
+        return seek(8) ? reader.readStringArray() : DEFAULTS.getWseat();
+    }
+
+    /**
+     * @return the allimps
+     */
+    public int getAllimps() {
+        return seek(9) ? reader.readInt() : DEFAULTS.getAllimps();
+    }
+
+    /**
+     * @return the cur
+     */
+    public String[] getCur() {
+        return seek(10) ? reader.readStringArray() : DEFAULTS.getCur();
+    }
+
+    /**
+     * @return the bcat
+     */
+    public String[] getBcat() {
+        return seek(11) ? reader.readStringArray() : DEFAULTS.getBcat();
+    }
+
+    /**
+     * @return the badv
+     */
+    public String[] getBadv() {
+        return seek(12) ? reader.readStringArray() : DEFAULTS.getBadv();
+    }
+
+    /**
+     * @return the ext as a string
+     */
+    public String getExt() {
+        RawJson ext = getRawExt();
+        return ext == null ? null : ext.toString();
+    }
+
+    /**
+     * @return the ext, a slice of the encoded bytes
+     */
+    public RawJson getRawExt() {
+        return seek(13) ? reader.readRawJson() : DEFAULTS.getRawExt();
+    }
+
+    /**
+     * @return whether the field is present, the reader then being positioned
+     *         at its value
+     * @throws IllegalStateException if no message has been wrapped
+     */
+    private boolean seek(int field) {
+        checkWrapped();
+        int offset = offsets[field];
+        if (offset < 0) {
+            return false;
+        }
+        reader.seek(offset);
+        return true;
+    }
+
+    private void checkWrapped() {
+        if (buf == null) {
+            throw new IllegalStateException("No bid request wrapped.");
+        }
+    }
+
+    /**
+     * Records where every impression starts, so that impressions are reached
+     * without skipping the ones before them.
+     */
+    private void indexImpressions() {
+        impCount = 0;
+        if (offsets[1] < 0) {
+            return;
+        }
+        reader.seek(offsets[1]);
+        int count = reader.readCount();
+        if (count > impOffsets.length) {
+            impOffsets = new int[Math.max(count, impOffsets.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            impOffsets[i] = reader.position();
+            reader.skip(BinaryReader.OBJECT);
+        }
+        impCount = count;
+    }
+
+}
@@ -0,0 +1,872 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.ByteBuffer;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Data;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Producer;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Segment;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.request.User;
+import org.openrtb4j.v21.data.request.Video;
+
+/**
+ * Decoder of the compact binary format described by {@link BinaryFormat}
+ * into the {@link BidRequest} object graph, the counterpart of
+ * {@link BinaryBidRequestEncoder}. Strings are decoded straight from their
+ * UTF-8 bytes, or to the interned instances of the {@link StringDictionary}
+ * they were encoded with, and “ext” members are captured as raw slices of the
+ * input, so the input must not be reused while they are reachable, see
+ * {@link org.openrtb4j.v21.data.RawJson}.
+ *
+ * A decoder keeps the state of its reader between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BinaryBidRequestDecoder {
+
+    private final BinaryReader reader = new BinaryReader();
+
+    /**
+     * @return the dictionary, or null
+     */
+    public StringDictionary getDictionary() {
+        return reader.getDictionary();
+    }
+
+    /**
+     * @param dictionary the dictionary the messages were encoded with, or
+     *            null for messages encoded without one
+     */
+    public void setDictionary(StringDictionary dictionary) {
+        reader.setDictionary(dictionary);
+    }
+
+    /**
+     * @param buf the encoded bid request
+     * @return the decoded bid request
+     * @throws BinaryFormatException if the input is not a valid bid request
+     */
+    public BidRequest decode(byte[] buf) {
+        return decode(buf, 0, buf.length);
+    }
+
+    /**
+     * @param buf the buffer holding the encoded bid request
+     * @param off the offset of the first byte of the bid request
+     * @param len the length of the bid request in bytes
+     * @return the decoded bid request
+     * @throws BinaryFormatException if the input is not a valid bid request
+     */
+    public BidRequest decode(byte[] buf, int off, int len) {
+        BinaryReader r = reader;
+        r.reset(buf, off, len, BinaryFormat.REQUEST);
+        BidRequest request = readBidRequest(r);
+        if (request == null) {
+            throw r.error("Null bid request");
+        }
+        r.finish();
+        return request;
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer, advancing its position to its
+     * limit. The bytes of a buffer without an accessible array are copied.
+     *
+     * @param buf the buffer holding the encoded bid request
+     * @return the decoded bid request
+     * @throws BinaryFormatException if the input is not a valid bid request
+     */
+    public BidRequest decode(ByteBuffer buf) {
+        int len = buf.remaining();
+        BidRequest request;
+        if (buf.hasArray()) {
+            request = decode(buf.array(), buf.arrayOffset() + buf.position(), len);
+            buf.position(buf.limit());
+        } else {
+            byte[] copy = new byte[len];
+            buf.get(copy);
+            request = decode(copy);
+        }
+        return request;
+    }
+
+    static BidRequest readBidRequest(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        BidRequest o = new BidRequest();
+        for (long present = r.readPresence(14); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // imp
+                o.setImp(readImpressions(r));
+                break;
+            case 2: // site
+                o.setSite(readSite(r));
+                break;
+            case 3: // app
+                o.setApp(readApp(r));
+                break;
+            case 4: // device
+                o.setDevice(readDevice(r));
+                break;
+            case 5: // user
+                o.setUser(readUser(r));
+                break;
+            case 6: // at
+                o.setAt(r.readInt());
+                break;
+            case 7: // tmax
+                o.setTmax(r.readInteger());
+                break;
+            case 8: // wseat
+                o.setWseat(r.readStringArray());
+                break;
+            case 9: // allimps
+                o.setAllimps(r.readInt());
+                break;
+            case 10: // cur
+                o.setCur(r.readStringArray());
+                break;
+            case 11: // bcat
+                o.setBcat(r.readStringArray());
+                break;
+            case 12: // badv
+                o.setBadv(r.readStringArray());
+                break;
+            case 13: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    static Impression readImpression(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Impression o = new Impression();
+        for (long present = r.readPresence(11); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // banner
+                o.setBanner(readBanner(r));
+                break;
+            case 2: // video
+                o.setVideo(readVideo(r));
+                break;
+            case 3: // displaymanager
+                o.setDisplaymanager(r.readString());
+                break;
+            case 4: // displaymanagerver
+                o.setDisplaymanagerver(r.readString());
+                break;
+            case 5: // instl
+                o.setInstl(r.readInt());
+                break;
+            case 6: // tagid
+                o.setTagid(r.readString());
+                break;
+            case 7: // bidfloor
+                o.setBidfloor(r.readFloat());
+                break;
+            case 8: // bidfloorcur
+                o.setBidfloorcur(r.readString());
+                break;
+            case 9: // iframebuster
+                o.setIframebuster(r.readStringArray());
+                break;
+            case 10: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static Impression[] readImpressions(BinaryReader r) {
+        int n = r.readCount();
+        Impression[] items = new Impression[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = readImpression(r);
+        }
+        return items;
+    }
+
+    static Banner readBanner(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Banner o = new Banner();
+        for (long present = r.readPresence(11); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // w
+                o.setW(r.readInteger());
+                break;
+            case 1: // h
+                o.setH(r.readInteger());
+                break;
+            case 2: // id
+                o.setId(r.readString());
+                break;
+            case 3: // pos
+                o.setPos(r.readInteger());
+                break;
+            case 4: // btype
+                o.setBtype(r.readIntegerArray());
+                break;
+            case 5: // battr
+                o.setBattr(r.readIntegerArray());
+                break;
+            case 6: // mimes
+                o.setMimes(r.readStringArray());
+                break;
+            case 7: // topframe
+                o.setTopframe(r.readInt());
+                break;
+            case 8: // expdir
+                o.setExpdir(r.readIntegerArray());
+                break;
+            case 9: // api
+                o.setApi(r.readIntegerArray());
+                break;
+            case 10: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static Banner[] readBanners(BinaryReader r) {
+        int n = r.readCount();
+        Banner[] items = new Banner[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = readBanner(r);
+        }
+        return items;
+    }
+
+    static Video readVideo(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Video o = new Video();
+        for (long present = r.readPresence(21); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // mimes
+                o.setMimes(r.readStringArray());
+                break;
+            case 1: // linearity
+                o.setLinearity(r.readInteger());
+                break;
+            case 2: // minduration
+                o.setMinduration(r.readInteger());
+                break;
+            case 3: // maxduration
+                o.setMaxduration(r.readInteger());
+                break;
+            case 4: // protocol
+                o.setProtocol(r.readInteger());
+                break;
+            case 5: // w
+                o.setW(r.readInteger());
+                break;
+            case 6: // h
+                o.setH(r.readInteger());
+                break;
+            case 7: // startdelay
+                o.setStartdelay(r.readInteger());
+                break;
+            case 8: // sequence
+                o.setSequence(r.readInt());
+                break;
+            case 9: // battr
+                o.setBattr(r.readIntegerArray());
+                break;
+            case 10: // maxextended
+                o.setMaxextended(r.readInteger());
+                break;
+            case 11: // minbitrate
+                o.setMinbitrate(r.readInteger());
+                break;
+            case 12: // maxbitrate
+                o.setMaxbitrate(r.readInteger());
+                break;
+            case 13: // boxingallowed
+                o.setBoxingallowed(r.readInt());
+                break;
+            case 14: // playbackmethod
+                o.setPlaybackmethod(r.readIntegerArray());
+                break;
+            case 15: // delivery
+                o.setDelivery(r.readIntegerArray());
+                break;
+            case 16: // pos
+                o.setPos(r.readInteger());
+                break;
+            case 17: // companionad
+                o.setCompanionad(readBanners(r));
+                break;
+            case 18: // api
+                o.setApi(r.readIntegerArray());
+                break;
+            case 19: // companiontype
+                o.setCompaniontype(r.readIntegerArray());
+                break;
+            case 20: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    static Site readSite(BinaryReader r) {
+        DeltaReader delta = r.getDelta();
+        return delta == null ? readSiteObject(r) : delta.readSite(r);
+    }
+
+    static Site readSiteObject(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Site o = new Site();
+        for (long present = r.readPresence(14); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // domain
+                o.setDomain(r.readString());
+                break;
+            case 3: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 4: // sectioncat
+                o.setSectioncat(r.readStringArray());
+                break;
+            case 5: // pagecat
+                o.setPagecat(r.readStringArray());
+                break;
+            case 6: // page
+                o.setPage(r.readString());
+                break;
+            case 7: // privacypolicy
+                o.setPrivacypolicy(r.readInteger());
+                break;
+            case 8: // ref
+                o.setRef(r.readString());
+                break;
+            case 9: // search
+                o.setSearch(r.readString());
+                break;
+            case 10: // publisher
+                o.setPublisher(readPublisher(r));
+                break;
+            case 11: // content
+                o.setContent(readContent(r));
+                break;
+            case 12: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 13: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    static App readApp(BinaryReader r) {
+        DeltaReader delta = r.getDelta();
+        return delta == null ? readAppObject(r) : delta.readApp(r);
+    }
+
+    static App readAppObject(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        App o = new App();
+        for (long present = r.readPresence(15); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // domain
+                o.setDomain(r.readString());
+                break;
+            case 3: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 4: // sectioncat
+                o.setSectioncat(r.readStringArray());
+                break;
+            case 5: // pagecat
+                o.setPagecat(r.readStringArray());
+                break;
+            case 6: // ver
+                o.setVer(r.readString());
+                break;
+            case 7: // bundle
+                o.setBundle(r.readString());
+                break;
+            case 8: // privacypolicy
+                o.setPrivacypolicy(r.readInteger());
+                break;
+            case 9: // paid
+                o.setPaid(r.readInteger());
+                break;
+            case 10: // publisher
+                o.setPublisher(readPublisher(r));
+                break;
+            case 11: // content
+                o.setContent(readContent(r));
+                break;
+            case 12: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 13: // storeurl
+                o.setStoreurl(r.readString());
+                break;
+            case 14: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    static Publisher readPublisher(BinaryReader r) {
+        DeltaReader delta = r.getDelta();
+        return delta == null ? readPublisherObject(r) : delta.readPublisher(r);
+    }
+
+    static Publisher readPublisherObject(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Publisher o = new Publisher();
+        for (long present = r.readPresence(5); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 3: // domain
+                o.setDomain(r.readString());
+                break;
+            case 4: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    static Content readContent(BinaryReader r) {
+        DeltaReader delta = r.getDelta();
+        return delta == null ? readContentObject(r) : delta.readContent(r);
+    }
+
+    static Content readContentObject(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Content o = new Content();
+        for (long present = r.readPresence(20); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // episode
+                o.setEpisode(r.readInteger());
+                break;
+            case 2: // title
+                o.setTitle(r.readString());
+                break;
+            case 3: // series
+                o.setSeries(r.readString());
+                break;
+            case 4: // season
+                o.setSeason(r.readString());
+                break;
+            case 5: // url
+                o.setUrl(r.readString());
+                break;
+            case 6: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 7: // videoquality
+                o.setVideoquality(r.readInteger());
+                break;
+            case 8: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 9: // contentrating
+                o.setContentrating(r.readString());
+                break;
+            case 10: // userrating
+                o.setUserrating(r.readString());
+                break;
+            case 11: // context
+                o.setContext(r.readString());
+                break;
+            case 12: // livestream
+                o.setLivestream(r.readInteger());
+                break;
+            case 13: // sourcerelationship
+                o.setSourcerelationship(r.readInteger());
+                break;
+            case 14: // producer
+                o.setProducer(readProducer(r));
+                break;
+            case 15: // len
+                o.setLen(r.readInteger());
+                break;
+            case 16: // qagmediarating
+                o.setQagmediarating(r.readInteger());
+                break;
+            case 17: // embeddable
+                o.setEmbeddable(r.readInteger());
+                break;
+            case 18: // language
+                o.setLanguage(r.readString());
+                break;
+            case 19: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static Producer readProducer(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Producer o = new Producer();
+        for (long present = r.readPresence(5); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 3: // domain
+                o.setDomain(r.readString());
+                break;
+            case 4: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    static Device readDevice(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Device o = new Device();
+        for (long present = r.readPresence(20); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // dnt
+                o.setDnt(r.readInteger());
+                break;
+            case 1: // ua
+                o.setUa(r.readString());
+                break;
+            case 2: // ip
+                o.setIp(r.readString());
+                break;
+            case 3: // geo
+                o.setGeo(readGeo(r));
+                break;
+            case 4: // didsha1
+                o.setDidsha1(r.readString());
+                break;
+            case 5: // didmd5
+                o.setDidmd5(r.readString());
+                break;
+            case 6: // dpidsha1
+                o.setDpidsha1(r.readString());
+                break;
+            case 7: // dpidmd5
+                o.setDpidmd5(r.readString());
+                break;
+            case 8: // ipv6
+                o.setIpv6(r.readString());
+                break;
+            case 9: // carrier
+                o.setCarrier(r.readString());
+                break;
+            case 10: // language
+                o.setLanguage(r.readString());
+                break;
+            case 11: // make
+                o.setMake(r.readString());
+                break;
+            case 12: // model
+                o.setModel(r.readString());
+                break;
+            case 13: // os
+                o.setOs(r.readString());
+                break;
+            case 14: // osv
+                o.setOsv(r.readString());
+                break;
+            case 15: // js
+                o.setJs(r.readInteger());
+                break;
+            case 16: // connectiontype
+                o.setConnectiontype(r.readInteger());
+                break;
+            case 17: // devicetype
+                o.setDevicetype(r.readInteger());
+                break;
+            case 18: // flashver
+                o.setFlashver(r.readString());
+                break;
+            case 19: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static Geo readGeo(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Geo o = new Geo();
+        for (long present = r.readPresence(10); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // lat
+                o.setLat(r.readFloat());
+                break;
+            case 1: // lon
+                o.setLon(r.readFloat());
+                break;
+            case 2: // country
+                o.setCountry(r.readString());
+                break;
+            case 3: // region
+                o.setRegion(r.readString());
+                break;
+            case 4: // regionfips104
+                o.setRegionfips104(r.readString());
+                break;
+            case 5: // metro
+                o.setMetro(r.readString());
+                break;
+            case 6: // city
+                o.setCity(r.readString());
+                break;
+            case 7: // zip
+                o.setZip(r.readString());
+                break;
+            case 8: // type
+                o.setType(r.readInteger());
+                break;
+            case 9: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    static User readUser(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        User o = new User();
+        for (long present = r.readPresence(9); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // buyeruid
+                o.setBuyeruid(r.readString());
+                break;
+            case 2: // yob
+                o.setYob(r.readInteger());
+                break;
+            case 3: // gender
+                o.setGender(r.readString());
+                break;
+            case 4: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 5: // customdata
+                o.setCustomdata(r.readString());
+                break;
+            case 6: // geo
+                o.setGeo(readGeo(r));
+                break;
+            case 7: // data
+                o.setData(readDataArray(r));
+                break;
+            case 8: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static Data readData(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Data o = new Data();
+        for (long present = r.readPresence(4); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // segment
+                o.setSegment(readSegments(r));
+                break;
+            case 3: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static Data[] readDataArray(BinaryReader r) {
+        int n = r.readCount();
+        Data[] items = new Data[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = readData(r);
+        }
+        return items;
+    }
+
+    private static Segment readSegment(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Segment o = new Segment();
+        for (long present = r.readPresence(4); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // value
+                o.setValue(r.readString());
+                break;
+            case 3: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static Segment[] readSegments(BinaryReader r) {
+        int n = r.readCount();
+        Segment[] items = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = readSegment(r);
+        }
+        return items;
+    }
+
+}
@@ -0,0 +1,456 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Data;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Producer;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Segment;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.request.User;
+import org.openrtb4j.v21.data.request.Video;
+
+/**
+ * Encoder of the {@link BidRequest} object graph into the compact binary format
+ * described by {@link BinaryFormat}, the counterpart of
+ * {@link BinaryBidRequestDecoder}. Every field of the specification is kept,
+ * while null fields and fields holding their default value take no space
+ * beyond their presence bit.
+ *
+ * An encoder keeps a scratch buffer between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BinaryBidRequestEncoder {
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+    /**
+     * @return the dictionary, or null
+     */
+    public StringDictionary getDictionary() {
+        return writer.getDictionary();
+    }
+
+    /**
+     * @param dictionary the dictionary of the strings to write as codes, or
+     *            null to write every string
+     */
+    public void setDictionary(StringDictionary dictionary) {
+        writer.setDictionary(dictionary);
+    }
+
+    /**
+     * @param request the bid request
+     * @return the encoded bid request
+     */
+    public byte[] encode(BidRequest request) {
+        BinaryWriter w = writer;
+        w.reset(BinaryFormat.REQUEST);
+        writeBidRequest(w, request);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    /**
+     * Encodes a bid request into the remaining space of a buffer, advancing its
+     * position past the written bytes.
+     *
+     * @param request the bid request
+     * @param buf the buffer to write to
+     * @throws BufferOverflowException if the remaining space is too small, the
+     *             position is then left unchanged
+     */
+    public void encode(BidRequest request, ByteBuffer buf) {
+        BinaryWriter w = writer;
+        w.reset(BinaryFormat.REQUEST);
+        writeBidRequest(w, request);
+        buf.put(w.buffer(), 0, w.length());
+    }
+
+    static void writeBidRequest(BinaryWriter w, BidRequest o) {
+        int m = w.beginObject(14);
+        w.field(m, 0, o.getId()); // id
+        writeImpressions(w, m, 1, o.getImp()); // imp
+        writeSite(w, m, 2, o.getSite()); // site
+        writeApp(w, m, 3, o.getApp()); // app
+        writeDevice(w, m, 4, o.getDevice()); // device
+        writeUser(w, m, 5, o.getUser()); // user
+        w.field(m, 6, o.getAt(), 2); // at
+        w.field(m, 7, o.getTmax()); // tmax
+        w.field(m, 8, o.getWseat()); // wseat
+        w.field(m, 9, o.getAllimps(), 0); // allimps
+        w.field(m, 10, o.getCur()); // cur
+        w.field(m, 11, o.getBcat()); // bcat
+        w.field(m, 12, o.getBadv()); // badv
+        w.field(m, 13, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeImpressions(BinaryWriter w, int mark, int field, Impression[] items) {
+        if (items != null) {
+            w.present(mark, field);
+            w.writeVarint(items.length);
+            for (Impression item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeImpression(w, item);
+                }
+            }
+        }
+    }
+
+    private static void writeImpression(BinaryWriter w, Impression o) {
+        int m = w.beginObject(11);
+        w.field(m, 0, o.getId()); // id
+        writeBanner(w, m, 1, o.getBanner()); // banner
+        writeVideo(w, m, 2, o.getVideo()); // video
+        w.field(m, 3, o.getDisplaymanager()); // displaymanager
+        w.field(m, 4, o.getDisplaymanagerver()); // displaymanagerver
+        w.field(m, 5, o.getInstl(), 0); // instl
+        w.field(m, 6, o.getTagid()); // tagid
+        w.field(m, 7, o.getBidfloor(), 0f); // bidfloor
+        w.field(m, 8, o.getBidfloorcur(), "USD"); // bidfloorcur
+        w.field(m, 9, o.getIframebuster()); // iframebuster
+        w.field(m, 10, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeBanner(BinaryWriter w, int mark, int field, Banner o) {
+        if (o != null) {
+            w.present(mark, field);
+            writeBanner(w, o);
+        }
+    }
+
+    private static void writeBanners(BinaryWriter w, int mark, int field, Banner[] items) {
+        if (items != null) {
+            w.present(mark, field);
+            w.writeVarint(items.length);
+            for (Banner item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeBanner(w, item);
+                }
+            }
+        }
+    }
+
+    private static void writeBanner(BinaryWriter w, Banner o) {
+        int m = w.beginObject(11);
+        w.field(m, 0, o.getW()); // w
+        w.field(m, 1, o.getH()); // h
+        w.field(m, 2, o.getId()); // id
+        w.field(m, 3, o.getPos()); // pos
+        w.field(m, 4, o.getBtype()); // btype
+        w.field(m, 5, o.getBattr()); // battr
+        w.field(m, 6, o.getMimes()); // mimes
+        w.field(m, 7, o.getTopframe(), 0); // topframe
+        w.field(m, 8, o.getExpdir()); // expdir
+        w.field(m, 9, o.getApi()); // api
+        w.field(m, 10, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeVideo(BinaryWriter w, int mark, int field, Video o) {
+        if (o != null) {
+            w.present(mark, field);
+            writeVideo(w, o);
+        }
+    }
+
+    private static void writeVideo(BinaryWriter w, Video o) {
+        int m = w.beginObject(21);
+        w.field(m, 0, o.getMimes()); // mimes
+        w.field(m, 1, o.getLinearity()); // linearity
+        w.field(m, 2, o.getMinduration()); // minduration
+        w.field(m, 3, o.getMaxduration()); // maxduration
+        w.field(m, 4, o.getProtocol()); // protocol
+        w.field(m, 5, o.getW()); // w
+        w.field(m, 6, o.getH()); // h
+        w.field(m, 7, o.getStartdelay()); // startdelay
+        w.field(m, 8, o.getSequence(), 1); // sequence
+        w.field(m, 9, o.getBattr()); // battr
+        w.field(m, 10, o.getMaxextended()); // maxextended
+        w.field(m, 11, o.getMinbitrate()); // minbitrate
+        w.field(m, 12, o.getMaxbitrate()); // maxbitrate
+        w.field(m, 13, o.getBoxingallowed(), 1); // boxingallowed
+        w.field(m, 14, o.getPlaybackmethod()); // playbackmethod
+        w.field(m, 15, o.getDelivery()); // delivery
+        w.field(m, 16, o.getPos()); // pos
+        writeBanners(w, m, 17, o.getCompanionad()); // companionad
+        w.field(m, 18, o.getApi()); // api
+        w.field(m, 19, o.getCompaniontype()); // companiontype
+        w.field(m, 20, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeSite(BinaryWriter w, int mark, int field, Site o) {
+        if (o != null) {
+            w.present(mark, field);
+            if (w.getDelta() == null) {
+                writeSite(w, o);
+            } else {
+                w.getDelta().writeSite(w, o);
+            }
+        }
+    }
+
+    static void writeSite(BinaryWriter w, Site o) {
+        int m = w.beginObject(14);
+        w.field(m, 0, o.getId()); // id
+        w.field(m, 1, o.getName()); // name
+        w.field(m, 2, o.getDomain()); // domain
+        w.field(m, 3, o.getCat()); // cat
+        w.field(m, 4, o.getSectioncat()); // sectioncat
+        w.field(m, 5, o.getPagecat()); // pagecat
+        w.field(m, 6, o.getPage()); // page
+        w.field(m, 7, o.getPrivacypolicy()); // privacypolicy
+        w.field(m, 8, o.getRef()); // ref
+        w.field(m, 9, o.getSearch()); // search
+        writePublisher(w, m, 10, o.getPublisher()); // publisher
+        writeContent(w, m, 11, o.getContent()); // content
+        w.field(m, 12, o.getKeywords()); // keywords
+        w.field(m, 13, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeApp(BinaryWriter w, int mark, int field, App o) {
+        if (o != null) {
+            w.present(mark, field);
+            if (w.getDelta() == null) {
+                writeApp(w, o);
+            } else {
+                w.getDelta().writeApp(w, o);
+            }
+        }
+    }
+
+    static void writeApp(BinaryWriter w, App o) {
+        int m = w.beginObject(15);
+        w.field(m, 0, o.getId()); // id
+        w.field(m, 1, o.getName()); // name
+        w.field(m, 2, o.getDomain()); // domain
+        w.field(m, 3, o.getCat()); // cat
+        w.field(m, 4, o.getSectioncat()); // sectioncat
+        w.field(m, 5, o.getPagecat()); // pagecat
+        w.field(m, 6, o.getVer()); // ver
+        w.field(m, 7, o.getBundle()); // bundle
+        w.field(m, 8, o.getPrivacypolicy()); // privacypolicy
+        w.field(m, 9, o.getPaid()); // paid
+        writePublisher(w, m, 10, o.getPublisher()); // publisher
+        writeContent(w, m, 11, o.getContent()); // content
+        w.field(m, 12, o.getKeywords()); // keywords
+        w.field(m, 13, o.getStoreurl()); // storeurl
+        w.field(m, 14, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writePublisher(BinaryWriter w, int mark, int field, Publisher o) {
+        if (o != null) {
+            w.present(mark, field);
+            if (w.getDelta() == null) {
+                writePublisher(w, o);
+            } else {
+                w.getDelta().writePublisher(w, o);
+            }
+        }
+    }
+
+    static void writePublisher(BinaryWriter w, Publisher o) {
+        int m = w.beginObject(5);
+        w.field(m, 0, o.getId()); // id
+        w.field(m, 1, o.getName()); // name
+        w.field(m, 2, o.getCat()); // cat
+        w.field(m, 3, o.getDomain()); // domain
+        w.field(m, 4, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeContent(BinaryWriter w, int mark, int field, Content o) {
+        if (o != null) {
+            w.present(mark, field);
+            if (w.getDelta() == null) {
+                writeContent(w, o);
+            } else {
+                w.getDelta().writeContent(w, o);
+            }
+        }
+    }
+
+    static void writeContent(BinaryWriter w, Content o) {
+        int m = w.beginObject(20);
+        w.field(m, 0, o.getId()); // id
+        w.field(m, 1, o.getEpisode()); // episode
+        w.field(m, 2, o.getTitle()); // title
+        w.field(m, 3, o.getSeries()); // series
+        w.field(m, 4, o.getSeason()); // season
+        w.field(m, 5, o.getUrl()); // url
+        w.field(m, 6, o.getCat()); // cat
+        w.field(m, 7, o.getVideoquality()); // videoquality
+        w.field(m, 8, o.getKeywords()); // keywords
+        w.field(m, 9, o.getContentrating()); // contentrating
+        w.field(m, 10, o.getUserrating()); // userrating
+        w.field(m, 11, o.getContext()); // context
+        w.field(m, 12, o.getLivestream()); // livestream
+        w.field(m, 13, o.getSourcerelationship()); // sourcerelationship
+        writeProducer(w, m, 14, o.getProducer()); // producer
+        w.field(m, 15, o.getLen()); // len
+        w.field(m, 16, o.getQagmediarating()); // qagmediarating
+        w.field(m, 17, o.getEmbeddable()); // embeddable
+        w.field(m, 18, o.getLanguage()); // language
+        w.field(m, 19, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeProducer(BinaryWriter w, int mark, int field, Producer o) {
+        if (o != null) {
+            w.present(mark, field);
+            writeProducer(w, o);
+        }
+    }
+
+    private static void writeProducer(BinaryWriter w, Producer o) {
+        int m = w.beginObject(5);
+        w.field(m, 0, o.getId()); // id
+        w.field(m, 1, o.getName()); // name
+        w.field(m, 2, o.getCat()); // cat
+        w.field(m, 3, o.getDomain()); // domain
+        w.field(m, 4, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeDevice(BinaryWriter w, int mark, int field, Device o) {
+        if (o != null) {
+            w.present(mark, field);
+            writeDevice(w, o);
+        }
+    }
+
+    private static void writeDevice(BinaryWriter w, Device o) {
+        int m = w.beginObject(20);
+        w.field(m, 0, o.getDnt()); // dnt
+        w.field(m, 1, o.getUa()); // ua
+        w.field(m, 2, o.getIp()); // ip
+        writeGeo(w, m, 3, o.getGeo()); // geo
+        w.field(m, 4, o.getDidsha1()); // didsha1
+        w.field(m, 5, o.getDidmd5()); // didmd5
+        w.field(m, 6, o.getDpidsha1()); // dpidsha1
+        w.field(m, 7, o.getDpidmd5()); // dpidmd5
+        w.field(m, 8, o.getIpv6()); // ipv6
+        w.field(m, 9, o.getCarrier()); // carrier
+        w.field(m, 10, o.getLanguage()); // language
+        w.field(m, 11, o.getMake()); // make
+        w.field(m, 12, o.getModel()); // model
+        w.field(m, 13, o.getOs()); // os
+        w.field(m, 14, o.getOsv()); // osv
+        w.field(m, 15, o.getJs()); // js
+        w.field(m, 16, o.getConnectiontype()); // connectiontype
+        w.field(m, 17, o.getDevicetype()); // devicetype
+        w.field(m, 18, o.getFlashver()); // flashver
+        w.field(m, 19, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeGeo(BinaryWriter w, int mark, int field, Geo o) {
+        if (o != null) {
+            w.present(mark, field);
+            writeGeo(w, o);
+        }
+    }
+
+    private static void writeGeo(BinaryWriter w, Geo o) {
+        int m = w.beginObject(10);
+        w.field(m, 0, o.getLat()); // lat
+        w.field(m, 1, o.getLon()); // lon
+        w.field(m, 2, o.getCountry()); // country
+        w.field(m, 3, o.getRegion()); // region
+        w.field(m, 4, o.getRegionfips104()); // regionfips104
+        w.field(m, 5, o.getMetro()); // metro
+        w.field(m, 6, o.getCity()); // city
+        w.field(m, 7, o.getZip()); // zip
+        w.field(m, 8, o.getType()); // type
+        w.field(m, 9, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeUser(BinaryWriter w, int mark, int field, User o) {
+        if (o != null) {
+            w.present(mark, field);
+            writeUser(w, o);
+        }
+    }
+
+    private static void writeUser(BinaryWriter w, User o) {
+        int m = w.beginObject(9);
+        w.field(m, 0, o.getId()); // id
+        w.field(m, 1, o.getBuyeruid()); // buyeruid
+        w.field(m, 2, o.getYob()); // yob
+        w.field(m, 3, o.getGender()); // gender
+        w.field(m, 4, o.getKeywords()); // keywords
+        w.field(m, 5, o.getCustomdata()); // customdata
+        writeGeo(w, m, 6, o.getGeo()); // geo
+        writeDataArray(w, m, 7, o.getData()); // data
+        w.field(m, 8, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeDataArray(BinaryWriter w, int mark, int field, Data[] items) {
+        if (items != null) {
+            w.present(mark, field);
+            w.writeVarint(items.length);
+            for (Data item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeData(w, item);
+                }
+            }
+        }
+    }
+
+    private static void writeData(BinaryWriter w, Data o) {
+        int m = w.beginObject(4);
+        w.field(m, 0, o.getId()); // id
+        w.field(m, 1, o.getName()); // name
+        writeSegments(w, m, 2, o.getSegment()); // segment
+        w.field(m, 3, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeSegments(BinaryWriter w, int mark, int field, Segment[] items) {
+        if (items != null) {
+            w.present(mark, field);
+            w.writeVarint(items.length);
+            for (Segment item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeSegment(w, item);
+                }
+            }
+        }
+    }
+
+    private static void writeSegment(BinaryWriter w, Segment o) {
+        int m = w.beginObject(4);
+        w.field(m, 0, o.getId()); // id
+        w.field(m, 1, o.getName()); // name
+        w.field(m, 2, o.getValue()); // value
+        w.field(m, 3, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+}
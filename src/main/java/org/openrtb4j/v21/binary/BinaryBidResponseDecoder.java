@@ -0,0 +1,224 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.ByteBuffer;
+
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+
+/**
+ * Decoder of the compact binary format described by {@link BinaryFormat}
+ * into the {@link BidResponse} object graph, the counterpart of
+ * {@link BinaryBidResponseEncoder}. Strings are decoded straight from their
+ * UTF-8 bytes, or to the interned instances of the {@link StringDictionary}
+ * they were encoded with, and “ext” members are captured as raw slices of the
+ * input, so the input must not be reused while they are reachable, see
+ * {@link org.openrtb4j.v21.data.RawJson}.
+ *
+ * A decoder keeps the state of its reader between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BinaryBidResponseDecoder {
+
+    private final BinaryReader reader = new BinaryReader();
+
+    /**
+     * @return the dictionary, or null
+     */
+    public StringDictionary getDictionary() {
+        return reader.getDictionary();
+    }
+
+    /**
+     * @param dictionary the dictionary the messages were encoded with, or
+     *            null for messages encoded without one
+     */
+    public void setDictionary(StringDictionary dictionary) {
+        reader.setDictionary(dictionary);
+    }
+
+    /**
+     * @param buf the encoded bid response
+     * @return the decoded bid response
+     * @throws BinaryFormatException if the input is not a valid bid response
+     */
+    public BidResponse decode(byte[] buf) {
+        return decode(buf, 0, buf.length);
+    }
+
+    /**
+     * @param buf the buffer holding the encoded bid response
+     * @param off the offset of the first byte of the bid response
+     * @param len the length of the bid response in bytes
+     * @return the decoded bid response
+     * @throws BinaryFormatException if the input is not a valid bid response
+     */
+    public BidResponse decode(byte[] buf, int off, int len) {
+        BinaryReader r = reader;
+        r.reset(buf, off, len, BinaryFormat.RESPONSE);
+        BidResponse response = readBidResponse(r);
+        if (response == null) {
+            throw r.error("Null bid response");
+        }
+        r.finish();
+        return response;
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer, advancing its position to its
+     * limit. The bytes of a buffer without an accessible array are copied.
+     *
+     * @param buf the buffer holding the encoded bid response
+     * @return the decoded bid response
+     * @throws BinaryFormatException if the input is not a valid bid response
+     */
+    public BidResponse decode(ByteBuffer buf) {
+        int len = buf.remaining();
+        BidResponse response;
+        if (buf.hasArray()) {
+            response = decode(buf.array(), buf.arrayOffset() + buf.position(), len);
+            buf.position(buf.limit());
+        } else {
+            byte[] copy = new byte[len];
+            buf.get(copy);
+            response = decode(copy);
+        }
+        return response;
+    }
+
+    private static BidResponse readBidResponse(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        BidResponse o = new BidResponse();
+        for (long present = r.readPresence(6); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // seatbid
+                o.setSeatbid(readSeatBids(r));
+                break;
+            case 2: // bidid
+                o.setBidid(r.readString());
+                break;
+            case 3: // cur
+                o.setCur(r.readString());
+                break;
+            case 4: // customdata
+                o.setCustomdata(r.readString());
+                break;
+            case 5: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static SeatBid readSeatBid(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        SeatBid o = new SeatBid();
+        for (long present = r.readPresence(4); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // bid
+                o.setBid(readBids(r));
+                break;
+            case 1: // seat
+                o.setSeat(r.readString());
+                break;
+            case 2: // group
+                o.setGroup(r.readInteger());
+                break;
+            case 3: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static SeatBid[] readSeatBids(BinaryReader r) {
+        int n = r.readCount();
+        SeatBid[] items = new SeatBid[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = readSeatBid(r);
+        }
+        return items;
+    }
+
+    private static Bid readBid(BinaryReader r) {
+        int end = r.beginObject();
+        if (end < 0) {
+            return null;
+        }
+        Bid o = new Bid();
+        for (long present = r.readPresence(12); present != 0; present &= present - 1) {
+            switch (Long.numberOfTrailingZeros(present)) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // impid
+                o.setImpid(r.readString());
+                break;
+            case 2: // price
+                o.setPrice(r.readFloat());
+                break;
+            case 3: // adid
+                o.setAdid(r.readString());
+                break;
+            case 4: // nurl
+                o.setNurl(r.readString());
+                break;
+            case 5: // adm
+                o.setAdm(r.readString());
+                break;
+            case 6: // adomain
+                o.setAdomain(r.readStringArray());
+                break;
+            case 7: // iurl
+                o.setIurl(r.readString());
+                break;
+            case 8: // cid
+                o.setCid(r.readString());
+                break;
+            case 9: // crid
+                o.setCrid(r.readString());
+                break;
+            case 10: // attr
+                o.setAttr(r.readIntegerArray());
+                break;
+            case 11: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                break;
+            }
+        }
+        r.endObject(end);
+        return o;
+    }
+
+    private static Bid[] readBids(BinaryReader r) {
+        int n = r.readCount();
+        Bid[] items = new Bid[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = readBid(r);
+        }
+        return items;
+    }
+
+}
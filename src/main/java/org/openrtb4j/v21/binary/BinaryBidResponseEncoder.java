@@ -0,0 +1,135 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+
+/**
+ * Encoder of the {@link BidResponse} object graph into the compact binary format
+ * described by {@link BinaryFormat}, the counterpart of
+ * {@link BinaryBidResponseDecoder}. Every field of the specification is kept,
+ * while null fields and fields holding their default value take no space
+ * beyond their presence bit.
+ *
+ * An encoder keeps a scratch buffer between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BinaryBidResponseEncoder {
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+    /**
+     * @return the dictionary, or null
+     */
+    public StringDictionary getDictionary() {
+        return writer.getDictionary();
+    }
+
+    /**
+     * @param dictionary the dictionary of the strings to write as codes, or
+     *            null to write every string
+     */
+    public void setDictionary(StringDictionary dictionary) {
+        writer.setDictionary(dictionary);
+    }
+
+    /**
+     * @param response the bid response
+     * @return the encoded bid response
+     */
+    public byte[] encode(BidResponse response) {
+        BinaryWriter w = writer;
+        w.reset(BinaryFormat.RESPONSE);
+        writeBidResponse(w, response);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    /**
+     * Encodes a bid response into the remaining space of a buffer, advancing its
+     * position past the written bytes.
+     *
+     * @param response the bid response
+     * @param buf the buffer to write to
+     * @throws BufferOverflowException if the remaining space is too small, the
+     *             position is then left unchanged
+     */
+    public void encode(BidResponse response, ByteBuffer buf) {
+        BinaryWriter w = writer;
+        w.reset(BinaryFormat.RESPONSE);
+        writeBidResponse(w, response);
+        buf.put(w.buffer(), 0, w.length());
+    }
+
+    private static void writeBidResponse(BinaryWriter w, BidResponse o) {
+        int m = w.beginObject(6);
+        w.field(m, 0, o.getId()); // id
+        writeSeatBids(w, m, 1, o.getSeatbid()); // seatbid
+        w.field(m, 2, o.getBidid()); // bidid
+        w.field(m, 3, o.getCur(), "USD"); // cur
+        w.field(m, 4, o.getCustomdata()); // customdata
+        w.field(m, 5, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeSeatBids(BinaryWriter w, int mark, int field, SeatBid[] items) {
+        if (items != null) {
+            w.present(mark, field);
+            w.writeVarint(items.length);
+            for (SeatBid item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeSeatBid(w, item);
+                }
+            }
+        }
+    }
+
+    private static void writeSeatBid(BinaryWriter w, SeatBid o) {
+        int m = w.beginObject(4);
+        writeBids(w, m, 0, o.getBid()); // bid
+        w.field(m, 1, o.getSeat()); // seat
+        w.field(m, 2, o.getGroup()); // group
+        w.field(m, 3, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+    private static void writeBids(BinaryWriter w, int mark, int field, Bid[] items) {
+        if (items != null) {
+            w.present(mark, field);
+            w.writeVarint(items.length);
+            for (Bid item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeBid(w, item);
+                }
+            }
+        }
+    }
+
+    private static void writeBid(BinaryWriter w, Bid o) {
+        int m = w.beginObject(12);
+        w.field(m, 0, o.getId()); // id
+        w.field(m, 1, o.getImpid()); // impid
+        w.field(m, 2, o.getPrice()); // price
+        w.field(m, 3, o.getAdid()); // adid
+        w.field(m, 4, o.getNurl()); // nurl
+        w.field(m, 5, o.getAdm()); // adm
+        w.field(m, 6, o.getAdomain()); // adomain
+        w.field(m, 7, o.getIurl()); // iurl
+        w.field(m, 8, o.getCid()); // cid
+        w.field(m, 9, o.getCrid()); // crid
+        w.field(m, 10, o.getAttr()); // attr
+        w.field(m, 11, o.getRawExt()); // ext
+        w.endObject(m);
+    }
+
+}
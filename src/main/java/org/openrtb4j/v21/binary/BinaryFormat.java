@@ -0,0 +1,85 @@
+package org.openrtb4j.v21.binary;
+
+/**
+ * Constants of the compact binary format of bid requests and responses, meant
+ * for hops between services of the same operator rather than for exchanges.
+ *
+ * A message starts with a four byte header: the magic bytes 'O' and 'R', the
+ * kind of message, {@link #REQUEST} or {@link #RESPONSE}, and the format
+ * version. When the message was encoded with a {@link StringDictionary}, the
+ * kind carries the {@link #DICTIONARY} flag and the header is followed by the
+ * version of the dictionary as a varint. The top-level object follows, except
+ * in a delta stream, see below.
+ *
+ * An object is written as a varint length header, which is zero for a null
+ * element of an array and otherwise the number of bytes of the object plus
+ * one, followed by a presence bitmap of one bit per field of the class, in
+ * the declaration order of the fields and the OpenRTB specification, and the
+ * values of the present fields in the same order. A field is present when it
+ * is not null and does not hold the default value of the specification.
+ * The bitmap has a fixed size per class of one byte per eight fields, bit i
+ * of byte n standing for field 8n + i.
+ *
+ * Values are written as follows.
+ * <ul>
+ * <li>Integers as zig-zag encoded varints.</li>
+ * <li>Floats as the four little-endian bytes of their IEEE 754 form.</li>
+ * <li>Strings as a varint header followed by their UTF-8 bytes: the header is
+ * zero for a null element of an array and otherwise the number of bytes plus
+ * one shifted left by one. Strings of the dictionary are written as an odd
+ * header alone, their code shifted left by one with the low bit set.</li>
+ * <li>Arrays as a varint element count followed by the elements. Integer
+ * elements are written as varints of their zig-zag encoding plus one, zero
+ * standing for null.</li>
+ * <li>“ext” values as a varint length followed by the raw JSON bytes.</li>
+ * </ul>
+ * Varints are unsigned little-endian base 128, seven bits per byte with the
+ * high bit marking that more bytes follow.
+ *
+ * The messages of a delta stream, see {@link DeltaBidRequestEncoder}, carry
+ * the {@link #STREAM} flag in their kind. Their header is followed by the
+ * sequence number of the message and the number of definitions, as varints,
+ * then by the definitions and the top-level object. Site, app, publisher and
+ * content values are written as a varint reference instead, zero followed by
+ * the object for an object without id, or the slot plus one of an object
+ * defined by this or an earlier message of the stream. A definition starts
+ * with a varint of the slot shifted left by three, the type shifted left by
+ * one, 0 for site, 1 for app, 2 for publisher and 3 for content, and the
+ * operation in the low bit. A full definition, operation 0, is followed by
+ * the object. A diff, operation 1, is followed by its varint length and its
+ * body: the presence bitmap of the new object, a bitmap of the fields whose
+ * value differs from the previous object of the slot, and the values of the
+ * present fields among them. Values are compared as bytes, so both sides
+ * must use the same dictionary.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class BinaryFormat {
+
+    static final byte MAGIC_0 = 'O';
+
+    static final byte MAGIC_1 = 'R';
+
+    static final byte REQUEST = 1;
+
+    static final byte RESPONSE = 2;
+
+    /**
+     * Flag of the kind of a message encoded with a dictionary.
+     */
+    static final byte DICTIONARY = (byte) 0x80;
+
+    /**
+     * Flag of the kind of a message of a delta stream.
+     */
+    static final byte STREAM = 0x40;
+
+    static final byte VERSION = 1;
+
+    static final int HEADER_LENGTH = 4;
+
+    private BinaryFormat() {
+    }
+
+}
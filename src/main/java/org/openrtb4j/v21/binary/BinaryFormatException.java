@@ -0,0 +1,36 @@
+package org.openrtb4j.v21.binary;
+
+/**
+ * Thrown when the binary input cannot be decoded into the OpenRTB object
+ * graph, because it is truncated, malformed or of an unsupported version.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BinaryFormatException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Offset in the input, relative to the start of the buffer, at which the
+     * problem was detected.
+     */
+    private final long offset;
+
+    /**
+     * @param message the problem description
+     * @param offset the offset in the input buffer
+     */
+    public BinaryFormatException(String message, long offset) {
+        super(message + " at offset " + offset);
+        this.offset = offset;
+    }
+
+    /**
+     * @return the offset in the input buffer
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+}
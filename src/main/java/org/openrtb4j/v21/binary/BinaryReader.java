@@ -0,0 +1,425 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.charset.StandardCharsets;
+
+import org.openrtb4j.v21.data.RawJson;
+
+/**
+ * Forward-only reader of the binary format, see {@link BinaryFormat}, over a
+ * region of a byte array. Every length and count is checked against the end
+ * of the input before it is used, so a malformed message fails with a
+ * {@link BinaryFormatException} rather than an oversized allocation. Codes
+ * of strings are looked up in the dictionary the message was encoded with.
+ *
+ * A reader is reusable across messages but is not thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class BinaryReader {
+
+    static final byte INT = 0;
+
+    static final byte FLOAT = 1;
+
+    static final byte STRING = 2;
+
+    static final byte OBJECT = 3;
+
+    static final byte RAW_JSON = 4;
+
+    /**
+     * A reference of a delta stream, followed by an object when it is zero.
+     */
+    static final byte REFERENCE = 5;
+
+    /**
+     * Flag of a kind of value for an array of such values.
+     */
+    static final byte ARRAY = 8;
+
+    /**
+     * Boxed integers up to this value are cached, which covers the usual
+     * enumerations, sizes and durations.
+     */
+    private static final int CACHED_INTEGERS = 2048;
+
+    private static final Integer[] INTEGERS = new Integer[CACHED_INTEGERS + 1];
+
+    static {
+        for (int i = 0; i < INTEGERS.length; i++) {
+            INTEGERS[i] = Integer.valueOf(i);
+        }
+    }
+
+    private byte[] buf;
+
+    private int pos;
+
+    private int end;
+
+    private StringDictionary dictionary;
+
+    private DeltaReader delta;
+
+    /**
+     * @return the state of the delta stream being read, or null
+     */
+    DeltaReader getDelta() {
+        return delta;
+    }
+
+    /**
+     * @param delta the state of the delta stream to read, or null to read
+     *            standalone messages
+     */
+    void setDelta(DeltaReader delta) {
+        this.delta = delta;
+    }
+
+    /**
+     * @param dictionary the dictionary to decode codes of strings with, or
+     *            null
+     */
+    void setDictionary(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * @return the dictionary, or null
+     */
+    StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Points the reader at a message and reads its header.
+     *
+     * @param kind the expected kind of message
+     * @throws BinaryFormatException if the header does not match, or the
+     *             message was encoded with another dictionary
+     */
+    void reset(byte[] buf, int off, int len, byte kind) {
+        this.buf = buf;
+        this.pos = off;
+        this.end = off + len;
+        if (len < BinaryFormat.HEADER_LENGTH || buf[off] != BinaryFormat.MAGIC_0 || buf[off + 1] != BinaryFormat.MAGIC_1) {
+            throw error("Not a binary OpenRTB message");
+        }
+        boolean stream = (buf[off + 2] & BinaryFormat.STREAM) != 0;
+        if ((buf[off + 2] & ~(BinaryFormat.DICTIONARY | BinaryFormat.STREAM)) != kind || stream != (delta != null)) {
+            throw error("Unexpected kind of message " + buf[off + 2]);
+        }
+        if (buf[off + 3] != BinaryFormat.VERSION) {
+            throw error("Unsupported version " + buf[off + 3]);
+        }
+        pos += BinaryFormat.HEADER_LENGTH;
+        if ((buf[off + 2] & BinaryFormat.DICTIONARY) != 0) {
+            long version = readVarint();
+            if (dictionary == null) {
+                throw error("Dictionary " + version + " required");
+            }
+            if (version != dictionary.getVersion()) {
+                throw error("Dictionary " + version + " required, " + dictionary.getVersion() + " given");
+            }
+        }
+    }
+
+    /**
+     * Points the reader at a region of a message whose header has already
+     * been checked.
+     */
+    void wrap(byte[] buf, int start, int end, StringDictionary dictionary) {
+        this.buf = buf;
+        this.pos = start;
+        this.end = end;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Moves the reader to an offset within the input.
+     */
+    void seek(int position) {
+        pos = position;
+    }
+
+    /**
+     * Fails unless the whole input has been read.
+     */
+    void finish() {
+        if (pos != end) {
+            throw error("Trailing bytes");
+        }
+    }
+
+    /**
+     * Reads the length header of an object.
+     *
+     * @return the offset of the end of the object, or -1 for null
+     */
+    int beginObject() {
+        int header = readLength();
+        if (header == 0) {
+            return -1;
+        }
+        return check(header - 1);
+    }
+
+    /**
+     * Reads the presence bitmap of an object.
+     *
+     * @param fields the number of fields of the class
+     * @return the presence bits, bit i for field i
+     */
+    long readPresence(int fields) {
+        int bitmap = (fields + 7) >> 3;
+        check(bitmap);
+        long present = 0;
+        for (int i = 0; i < bitmap; i++) {
+            present |= (buf[pos++] & 0xFFL) << (i * 8);
+        }
+        if (present >>> fields != 0) {
+            throw error("Unknown field");
+        }
+        return present;
+    }
+
+    /**
+     * Reads the presence bitmap of an object and skips its values, recording
+     * where each of them starts.
+     *
+     * @param kinds the kind of value of each field of the class
+     * @param offsets receives the offset of the value of each field, or -1
+     *            for an absent field
+     */
+    void index(byte[] kinds, int[] offsets) {
+        long present = readPresence(kinds.length);
+        for (int i = 0; i < kinds.length; i++) {
+            if ((present & 1L << i) == 0) {
+                offsets[i] = -1;
+            } else {
+                offsets[i] = pos;
+                skip(kinds[i]);
+            }
+        }
+    }
+
+    /**
+     * Skips a value, checking only its framing.
+     *
+     * @param kind the kind of value, possibly flagged as {@link #ARRAY}
+     */
+    void skip(byte kind) {
+        if ((kind & ARRAY) != 0) {
+            byte element = (byte) (kind & ~ARRAY);
+            for (int n = readCount(); n > 0; n--) {
+                skip(element);
+            }
+            return;
+        }
+        switch (kind) {
+        case INT:
+            readVarint();
+            break;
+        case FLOAT:
+            pos = check(4);
+            break;
+        case STRING:
+            long header = readVarint();
+            if ((header & 1) == 0 && header != 0) {
+                pos = check(length(header));
+            }
+            break;
+        case OBJECT:
+            int objectEnd = beginObject();
+            if (objectEnd >= 0) {
+                pos = objectEnd;
+            }
+            break;
+        case RAW_JSON:
+            pos = check(readLength());
+            break;
+        case REFERENCE:
+            if (readVarint() == 0) {
+                skip(OBJECT);
+            }
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown kind " + kind);
+        }
+    }
+
+    /**
+     * Fails unless the object ending at the given offset has been read
+     * completely.
+     */
+    void endObject(int objectEnd) {
+        if (pos != objectEnd) {
+            throw error("Object length mismatch");
+        }
+    }
+
+    int readInt() {
+        long value = readVarint();
+        if (value >>> 32 != 0) {
+            throw error("Integer out of range");
+        }
+        return unzigzag(value);
+    }
+
+    Integer readInteger() {
+        return box(readInt());
+    }
+
+    float readFloat() {
+        check(4);
+        int bits = (buf[pos] & 0xFF) | (buf[pos + 1] & 0xFF) << 8 | (buf[pos + 2] & 0xFF) << 16
+                | (buf[pos + 3] & 0xFF) << 24;
+        pos += 4;
+        return Float.intBitsToFloat(bits);
+    }
+
+    /**
+     * @return the string, or null for a null element of an array
+     */
+    String readString() {
+        long header = readVarint();
+        if (header == 0) {
+            return null;
+        }
+        if ((header & 1) != 0) {
+            return lookup(header >>> 1);
+        }
+        int len = length(header);
+        check(len);
+        int start = pos;
+        pos += len;
+        return new String(buf, start, len, StandardCharsets.UTF_8);
+    }
+
+    String[] readStringArray() {
+        int n = readCount();
+        String[] values = new String[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = readString();
+        }
+        return values;
+    }
+
+    Integer[] readIntegerArray() {
+        int n = readCount();
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            long value = readVarint();
+            if (value > 0x100000000L) {
+                throw error("Integer out of range");
+            }
+            values[i] = value == 0 ? null : box(unzigzag(value - 1));
+        }
+        return values;
+    }
+
+    /**
+     * @return the raw JSON, a slice of the input
+     */
+    RawJson readRawJson() {
+        int len = readLength();
+        check(len);
+        int start = pos;
+        pos += len;
+        return new RawJson(buf, start, len);
+    }
+
+    /**
+     * Reads the number of elements of an array, each of which takes at
+     * least a byte.
+     */
+    int readCount() {
+        int n = readLength();
+        check(n);
+        return n;
+    }
+
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos == end) {
+                throw error("Truncated varint");
+            }
+            byte b = buf[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw error("Varint too long");
+    }
+
+    /**
+     * @return the input
+     */
+    byte[] buffer() {
+        return buf;
+    }
+
+    /**
+     * @return the offset in the input
+     */
+    int position() {
+        return pos;
+    }
+
+    BinaryFormatException error(String message) {
+        return new BinaryFormatException(message, pos);
+    }
+
+    /**
+     * @return the number of bytes of a string with the given even header
+     */
+    private int length(long header) {
+        if (header >>> 32 != 0) {
+            throw error("Invalid string header");
+        }
+        return (int) (header >>> 1) - 1;
+    }
+
+    private String lookup(long code) {
+        if (dictionary == null) {
+            throw error("String code without dictionary");
+        }
+        if (code >= dictionary.size()) {
+            throw error("Unknown string code " + code);
+        }
+        return dictionary.get((int) code);
+    }
+
+    private int readLength() {
+        long value = readVarint();
+        if (value > Integer.MAX_VALUE) {
+            throw error("Length out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Checks that the given number of bytes follows.
+     *
+     * @return the offset just past them
+     */
+    private int check(int len) {
+        if (len > end - pos) {
+            throw error("Truncated input");
+        }
+        return pos + len;
+    }
+
+    private static int unzigzag(long value) {
+        int v = (int) value;
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static Integer box(int value) {
+        return value >= 0 && value <= CACHED_INTEGERS ? INTEGERS[value] : Integer.valueOf(value);
+    }
+
+}
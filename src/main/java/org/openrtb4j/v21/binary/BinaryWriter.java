@@ -0,0 +1,371 @@
+package org.openrtb4j.v21.binary;
+
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.RawJson;
+
+/**
+ * Forward-only writer of the binary format, see {@link BinaryFormat}, into a
+ * scratch array that grows as needed and is kept between messages.
+ *
+ * The length header of an object is only known once the object is written,
+ * so one byte is reserved for it up front and the object is moved when its
+ * header turns out to be longer, i.e. for objects of 127 bytes and more.
+ * Fields set their bit in the presence bitmap of the object as they are
+ * written. Strings found in the dictionary, if any, are written as their
+ * code.
+ *
+ * A writer is reusable across messages but is not thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class BinaryWriter {
+
+    private byte[] buf = new byte[256];
+
+    private int pos;
+
+    private StringDictionary dictionary;
+
+    /**
+     * Receives every string written, when building a dictionary.
+     */
+    private DictionaryBuilder counter;
+
+    private DeltaWriter delta;
+
+    /**
+     * Starts a new message of the given kind by writing its header.
+     */
+    void reset(byte kind) {
+        pos = 0;
+        ensure(BinaryFormat.HEADER_LENGTH);
+        buf[pos++] = BinaryFormat.MAGIC_0;
+        buf[pos++] = BinaryFormat.MAGIC_1;
+        buf[pos++] = dictionary == null ? kind : (byte) (kind | BinaryFormat.DICTIONARY);
+        buf[pos++] = BinaryFormat.VERSION;
+        if (dictionary != null) {
+            writeVarint(dictionary.getVersion());
+        }
+    }
+
+    /**
+     * Starts a fragment of a message, without a header.
+     */
+    void reset() {
+        pos = 0;
+    }
+
+    /**
+     * @return the state of the delta stream being written, or null
+     */
+    DeltaWriter getDelta() {
+        return delta;
+    }
+
+    /**
+     * @param delta the state of the delta stream to write, or null to write
+     *            standalone messages
+     */
+    void setDelta(DeltaWriter delta) {
+        this.delta = delta;
+    }
+
+    /**
+     * @return the dictionary, or null
+     */
+    StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param dictionary the dictionary of the strings to write as codes, or
+     *            null
+     */
+    void setDictionary(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * @param counter the builder counting the strings written, or null
+     */
+    void setCounter(DictionaryBuilder counter) {
+        this.counter = counter;
+    }
+
+    /**
+     * @return the array holding the message
+     */
+    byte[] buffer() {
+        return buf;
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    int length() {
+        return pos;
+    }
+
+    /**
+     * Starts an object, reserving its length header and presence bitmap.
+     *
+     * @param fields the number of fields of the class
+     * @return the mark of the object, for {@link #present(int, int)} and
+     *         {@link #endObject(int)}
+     */
+    int beginObject(int fields) {
+        int bitmap = (fields + 7) >> 3;
+        ensure(1 + bitmap);
+        int mark = pos;
+        Arrays.fill(buf, pos, pos + 1 + bitmap, (byte) 0);
+        pos += 1 + bitmap;
+        return mark;
+    }
+
+    /**
+     * Completes an object by writing its length header.
+     */
+    void endObject(int mark) {
+        int len = pos - mark - 1;
+        int header = len + 1;
+        int width = width(header);
+        if (width > 1) {
+            ensure(width - 1);
+            System.arraycopy(buf, mark + 1, buf, mark + width, len);
+            pos += width - 1;
+        }
+        int end = pos;
+        pos = mark;
+        writeVarint(header);
+        pos = end;
+    }
+
+    /**
+     * Writes a null element of an array of objects or strings.
+     */
+    void writeNull() {
+        ensure(1);
+        buf[pos++] = 0;
+    }
+
+    /**
+     * Sets the presence bit of a field of the object being written.
+     */
+    void present(int mark, int field) {
+        buf[mark + 1 + (field >> 3)] |= (byte) (1 << (field & 7));
+    }
+
+    void field(int mark, int field, String value) {
+        if (value != null) {
+            present(mark, field);
+            writeString(value);
+        }
+    }
+
+    void field(int mark, int field, String value, String defaultValue) {
+        if (!defaultValue.equals(value)) {
+            field(mark, field, value);
+        }
+    }
+
+    void field(int mark, int field, Integer value) {
+        if (value != null) {
+            present(mark, field);
+            writeInt(value.intValue());
+        }
+    }
+
+    void field(int mark, int field, int value, int defaultValue) {
+        if (value != defaultValue) {
+            present(mark, field);
+            writeInt(value);
+        }
+    }
+
+    void field(int mark, int field, Float value) {
+        if (value != null) {
+            present(mark, field);
+            writeFloat(value.floatValue());
+        }
+    }
+
+    void field(int mark, int field, float value, float defaultValue) {
+        if (value != defaultValue) {
+            present(mark, field);
+            writeFloat(value);
+        }
+    }
+
+    void field(int mark, int field, String[] values) {
+        if (values != null) {
+            present(mark, field);
+            writeVarint(values.length);
+            for (String value : values) {
+                if (value == null) {
+                    writeNull();
+                } else {
+                    writeString(value);
+                }
+            }
+        }
+    }
+
+    void field(int mark, int field, Integer[] values) {
+        if (values != null) {
+            present(mark, field);
+            writeVarint(values.length);
+            for (Integer value : values) {
+                writeVarint(value == null ? 0 : zigzag(value.intValue()) + 1);
+            }
+        }
+    }
+
+    void field(int mark, int field, RawJson value) {
+        if (value != null) {
+            present(mark, field);
+            writeVarint(value.length());
+            ensure(value.length());
+            System.arraycopy(value.buffer(), value.offset(), buf, pos, value.length());
+            pos += value.length();
+        }
+    }
+
+    void writeInt(int value) {
+        writeVarint(zigzag(value));
+    }
+
+    void writeFloat(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        ensure(4);
+        buf[pos++] = (byte) bits;
+        buf[pos++] = (byte) (bits >> 8);
+        buf[pos++] = (byte) (bits >> 16);
+        buf[pos++] = (byte) (bits >> 24);
+    }
+
+    /**
+     * Writes a non-null string, as its code if it is in the dictionary.
+     * Otherwise its UTF-8 length is counted first, in a separate pass, so that
+     * the header can precede the bytes; lone surrogates are replaced by
+     * U+FFFD.
+     */
+    void writeString(String value) {
+        if (counter != null) {
+            counter.count(value);
+        }
+        if (dictionary != null) {
+            int code = dictionary.code(value);
+            if (code >= 0) {
+                writeVarint((long) code << 1 | 1);
+                return;
+            }
+        }
+        int n = value.length();
+        int len = utf8Length(value);
+        writeVarint((len + 1L) << 1);
+        ensure(len);
+        byte[] b = buf;
+        int p = pos;
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                b[p++] = (byte) c;
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | (c >> 6));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                int cp = Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))
+                        ? Character.toCodePoint(c, value.charAt(++i)) : 0xFFFD;
+                if (cp < 0x10000) {
+                    b[p++] = (byte) (0xE0 | (cp >> 12));
+                    b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    b[p++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    b[p++] = (byte) (0xF0 | (cp >> 18));
+                    b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    b[p++] = (byte) (0x80 | (cp & 0x3F));
+                }
+            } else {
+                b[p++] = (byte) (0xE0 | (c >> 12));
+                b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        pos = p;
+    }
+
+    /**
+     * Writes bits as a bitmap of one byte per eight fields.
+     */
+    void writeBitmap(long bits, int fields) {
+        int bitmap = (fields + 7) >> 3;
+        ensure(bitmap);
+        for (int i = 0; i < bitmap; i++) {
+            buf[pos++] = (byte) (bits >>> (i * 8));
+        }
+    }
+
+    void writeBytes(byte[] b, int off, int len) {
+        ensure(len);
+        System.arraycopy(b, off, buf, pos, len);
+        pos += len;
+    }
+
+    void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    /**
+     * @return the number of bytes of a string encoded as UTF-8
+     */
+    static int utf8Length(String value) {
+        int n = value.length();
+        int len = n;
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    len++;
+                } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // Four bytes for two chars
+                    len += 2;
+                    i++;
+                } else {
+                    len += 2;
+                }
+            }
+        }
+        return len;
+    }
+
+    static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * @return the number of bytes of a varint
+     */
+    static int width(long value) {
+        int width = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            width++;
+        }
+        return width;
+    }
+
+    private void ensure(int n) {
+        if (pos + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+        }
+    }
+
+}
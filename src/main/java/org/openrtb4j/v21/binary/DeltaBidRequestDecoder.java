@@ -0,0 +1,126 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.ByteBuffer;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+
+/**
+ * Stateful decoder of the delta stream of bid requests written by a
+ * {@link DeltaBidRequestEncoder} over one connection.
+ *
+ * Sites, apps, publishers and content objects are decoded once per
+ * definition and the same instances are returned in every request that
+ * references them, which saves both their decoding and their allocation.
+ * They must therefore be treated as read-only. Other objects are decoded as
+ * by {@link BinaryBidRequestDecoder}.
+ *
+ * Messages must be decoded in the order they were encoded, none missing;
+ * a message out of sequence is rejected. A message that fails to decode
+ * leaves the stream out of sync, and every further message is rejected until
+ * both ends are {@link #reset()}.
+ *
+ * A decoder keeps the state of its stream and is therefore not thread-safe;
+ * use one instance per connection.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class DeltaBidRequestDecoder {
+
+    private final BinaryReader reader = new BinaryReader();
+
+    private final DeltaReader delta;
+
+    public DeltaBidRequestDecoder() {
+        this(DeltaBidRequestEncoder.DEFAULT_SLOTS);
+    }
+
+    /**
+     * @param slots the largest number of slots per type of object, which
+     *            bounds the memory taken by the state of the stream
+     * @throws IllegalArgumentException if the number of slots is not positive
+     */
+    public DeltaBidRequestDecoder(int slots) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("slots must be positive.");
+        }
+        delta = new DeltaReader(slots);
+        reader.setDelta(delta);
+    }
+
+    /**
+     * @return the dictionary, or null
+     */
+    public StringDictionary getDictionary() {
+        return reader.getDictionary();
+    }
+
+    /**
+     * @param dictionary the dictionary the stream is encoded with, or null
+     */
+    public void setDictionary(StringDictionary dictionary) {
+        reader.setDictionary(dictionary);
+    }
+
+    /**
+     * Restarts the stream, forgetting the objects received so far.
+     */
+    public void reset() {
+        delta.reset();
+    }
+
+    /**
+     * @param buf the next message of the stream
+     * @return the decoded bid request
+     * @throws BinaryFormatException if the input is not the next message of
+     *             the stream
+     */
+    public BidRequest decode(byte[] buf) {
+        return decode(buf, 0, buf.length);
+    }
+
+    /**
+     * @param buf the buffer holding the next message of the stream
+     * @param off the offset of the first byte of the message
+     * @param len the length of the message in bytes
+     * @return the decoded bid request
+     * @throws BinaryFormatException if the input is not the next message of
+     *             the stream
+     */
+    public BidRequest decode(byte[] buf, int off, int len) {
+        BinaryReader r = reader;
+        r.reset(buf, off, len, BinaryFormat.REQUEST);
+        delta.begin(r);
+        BidRequest request = BinaryBidRequestDecoder.readBidRequest(r);
+        if (request == null) {
+            throw r.error("Null bid request");
+        }
+        r.finish();
+        delta.complete();
+        return request;
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer, advancing its position to its
+     * limit. The bytes of a buffer without an accessible array are copied.
+     *
+     * @param buf the buffer holding the next message of the stream
+     * @return the decoded bid request
+     * @throws BinaryFormatException if the input is not the next message of
+     *             the stream
+     */
+    public BidRequest decode(ByteBuffer buf) {
+        int len = buf.remaining();
+        BidRequest request;
+        if (buf.hasArray()) {
+            request = decode(buf.array(), buf.arrayOffset() + buf.position(), len);
+            buf.position(buf.limit());
+        } else {
+            byte[] copy = new byte[len];
+            buf.get(copy);
+            request = decode(copy);
+        }
+        return request;
+    }
+
+}
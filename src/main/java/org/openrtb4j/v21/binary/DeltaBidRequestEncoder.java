@@ -0,0 +1,140 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+
+/**
+ * Stateful encoder of the bid requests sent over one connection into a
+ * delta stream of the binary format, see {@link BinaryFormat}, decoded by a
+ * single {@link DeltaBidRequestDecoder} on the other end.
+ *
+ * Consecutive requests for the same publisher carry the same site or app,
+ * publisher and content objects. The encoder assigns each such object with an
+ * id a slot, sends it in full once and from then on sends only its slot, or a
+ * diff of the fields that changed when it changes. Objects without id are
+ * sent in full every time.
+ *
+ * Messages must be decoded in the order they were encoded, none missing, so
+ * the stream suits ordered and reliable transports. When the connection is
+ * re-established, both ends must be {@link #reset()}. A message that is not
+ * returned, because encoding failed or the buffer was too small, leaves the
+ * stream in sync.
+ *
+ * An encoder keeps the state of its stream and is therefore not thread-safe;
+ * use one instance per connection.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class DeltaBidRequestEncoder {
+
+    /**
+     * The default number of slots per type of object.
+     */
+    public static final int DEFAULT_SLOTS = 1024;
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+    private final BinaryWriter body = new BinaryWriter();
+
+    private final DeltaWriter delta;
+
+    public DeltaBidRequestEncoder() {
+        this(DEFAULT_SLOTS);
+    }
+
+    /**
+     * @param slots the number of slots per type of object, which must not
+     *            exceed that of the decoder
+     * @throws IllegalArgumentException if the number of slots is not positive
+     */
+    public DeltaBidRequestEncoder(int slots) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("slots must be positive.");
+        }
+        delta = new DeltaWriter(slots);
+        body.setDelta(delta);
+    }
+
+    /**
+     * @return the dictionary, or null
+     */
+    public StringDictionary getDictionary() {
+        return writer.getDictionary();
+    }
+
+    /**
+     * Sets the dictionary, which must be that of the decoder. Changing it
+     * forgets the objects sent so far.
+     *
+     * @param dictionary the dictionary of the strings to write as codes, or
+     *            null to write every string
+     */
+    public void setDictionary(StringDictionary dictionary) {
+        writer.setDictionary(dictionary);
+        body.setDictionary(dictionary);
+        delta.setDictionary(dictionary);
+        delta.clear();
+    }
+
+    /**
+     * Restarts the stream, forgetting the objects sent so far.
+     */
+    public void reset() {
+        delta.reset();
+    }
+
+    /**
+     * @param request the bid request
+     * @return the next message of the stream
+     */
+    public byte[] encode(BidRequest request) {
+        BinaryWriter w = write(request);
+        byte[] message = Arrays.copyOf(w.buffer(), w.length());
+        delta.commit();
+        return message;
+    }
+
+    /**
+     * Encodes a bid request into the remaining space of a buffer, advancing its
+     * position past the written bytes.
+     *
+     * @param request the bid request
+     * @param buf the buffer to write to
+     * @throws BufferOverflowException if the remaining space is too small, the
+     *             position is then left unchanged
+     */
+    public void encode(BidRequest request, ByteBuffer buf) {
+        BinaryWriter w = write(request);
+        if (buf.remaining() < w.length()) {
+            delta.clear();
+            throw new BufferOverflowException();
+        }
+        buf.put(w.buffer(), 0, w.length());
+        delta.commit();
+    }
+
+    private BinaryWriter write(BidRequest request) {
+        DeltaWriter d = delta;
+        d.begin();
+        body.reset();
+        try {
+            BinaryBidRequestEncoder.writeBidRequest(body, request);
+        } catch (RuntimeException e) {
+            // The slots may hold objects the decoder will never see
+            d.clear();
+            throw e;
+        }
+        BinaryWriter w = writer;
+        w.reset((byte) (BinaryFormat.REQUEST | BinaryFormat.STREAM));
+        w.writeVarint(d.sequence() & 0xFFFFFFFFL);
+        w.writeVarint(d.count());
+        w.writeBytes(d.definitions().buffer(), 0, d.definitions().length());
+        w.writeBytes(body.buffer(), 0, body.length());
+        return w;
+    }
+
+}
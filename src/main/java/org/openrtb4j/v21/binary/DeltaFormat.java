@@ -0,0 +1,109 @@
+package org.openrtb4j.v21.binary;
+
+/**
+ * Constants of the definitions of a delta stream, see {@link BinaryFormat},
+ * shared by {@link DeltaWriter} and {@link DeltaReader}.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class DeltaFormat {
+
+    static final int SITE = 0;
+
+    static final int APP = 1;
+
+    static final int PUBLISHER = 2;
+
+    static final int CONTENT = 3;
+
+    static final int TYPES = 4;
+
+    static final String[] NAMES = { "site", "app", "publisher", "content" };
+
+    static final int FULL = 0;
+
+    static final int DIFF = 1;
+
+    /**
+     * The largest number of fields of the defined classes.
+     */
+    static final int MAX_FIELDS = 20;
+
+    /**
+     * The kinds of value of the fields of each type, in the order of the
+     * fields.
+     */
+    static final byte[][] KINDS = {
+            // Site
+            { BinaryReader.STRING, BinaryReader.STRING, BinaryReader.STRING,
+                    BinaryReader.STRING | BinaryReader.ARRAY, BinaryReader.STRING | BinaryReader.ARRAY,
+                    BinaryReader.STRING | BinaryReader.ARRAY, BinaryReader.STRING, BinaryReader.INT,
+                    BinaryReader.STRING, BinaryReader.STRING, BinaryReader.REFERENCE, BinaryReader.REFERENCE,
+                    BinaryReader.STRING, BinaryReader.RAW_JSON },
+            // App
+            { BinaryReader.STRING, BinaryReader.STRING, BinaryReader.STRING,
+                    BinaryReader.STRING | BinaryReader.ARRAY, BinaryReader.STRING | BinaryReader.ARRAY,
+                    BinaryReader.STRING | BinaryReader.ARRAY, BinaryReader.STRING, BinaryReader.STRING,
+                    BinaryReader.INT, BinaryReader.INT, BinaryReader.REFERENCE, BinaryReader.REFERENCE,
+                    BinaryReader.STRING, BinaryReader.STRING, BinaryReader.RAW_JSON },
+            // Publisher
+            { BinaryReader.STRING, BinaryReader.STRING, BinaryReader.STRING | BinaryReader.ARRAY,
+                    BinaryReader.STRING, BinaryReader.RAW_JSON },
+            // Content
+            { BinaryReader.STRING, BinaryReader.INT, BinaryReader.STRING, BinaryReader.STRING,
+                    BinaryReader.STRING, BinaryReader.STRING, BinaryReader.STRING | BinaryReader.ARRAY,
+                    BinaryReader.INT, BinaryReader.STRING, BinaryReader.STRING, BinaryReader.STRING,
+                    BinaryReader.STRING, BinaryReader.INT, BinaryReader.INT, BinaryReader.OBJECT,
+                    BinaryReader.INT, BinaryReader.INT, BinaryReader.INT, BinaryReader.STRING,
+                    BinaryReader.RAW_JSON } };
+
+    private DeltaFormat() {
+    }
+
+    /**
+     * Indexes the values of an encoded object.
+     *
+     * @param offsets receives the offset of the value of each field, or -1
+     *            for an absent field
+     * @param ends receives the offset just past the value of each present
+     *            field
+     * @return the presence bits of the object
+     */
+    static long index(BinaryReader r, byte[] object, int len, int type, int[] offsets, int[] ends) {
+        r.wrap(object, 0, len, null);
+        int end = r.beginObject();
+        if (end < 0) {
+            throw r.error("Null " + NAMES[type]);
+        }
+        byte[] kinds = KINDS[type];
+        r.index(kinds, offsets);
+        r.endObject(end);
+        long present = 0;
+        int next = end;
+        for (int i = kinds.length - 1; i >= 0; i--) {
+            if (offsets[i] >= 0) {
+                present |= 1L << i;
+                ends[i] = next;
+                next = offsets[i];
+            }
+        }
+        return present;
+    }
+
+    /**
+     * @return whether the ranges hold the same bytes
+     */
+    static boolean equal(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+        if (aTo - aFrom != bTo - bFrom) {
+            return false;
+        }
+        for (int i = aFrom, j = bFrom; i < aTo; i++, j++) {
+            if (a[i] != b[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
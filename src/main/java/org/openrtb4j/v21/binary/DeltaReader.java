@@ -0,0 +1,206 @@
+package org.openrtb4j.v21.binary;
+
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Site;
+
+/**
+ * Receiving state of a delta stream, see {@link BinaryFormat}: the encoded
+ * form and the decoded instance of the object of every slot. An object is
+ * decoded once per definition, and references to its slot return the same
+ * instance until the slot is defined again.
+ *
+ * A message that fails to decode may have updated some slots, so the state
+ * is then out of sync with the sender and every further message is rejected
+ * until {@link #reset()}.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class DeltaReader {
+
+    private final int capacity;
+
+    private final byte[][][] objects = new byte[DeltaFormat.TYPES][][];
+
+    private final Object[][] instances = new Object[DeltaFormat.TYPES][];
+
+    private final BinaryReader reader = new BinaryReader();
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+    private final int[] offsets = new int[DeltaFormat.MAX_FIELDS];
+
+    private final int[] ends = new int[DeltaFormat.MAX_FIELDS];
+
+    private int sequence;
+
+    private boolean failed;
+
+    /**
+     * @param capacity the largest number of slots per type
+     */
+    DeltaReader(int capacity) {
+        this.capacity = capacity;
+        reader.setDelta(this);
+        reset();
+    }
+
+    /**
+     * Forgets every slot and restarts the sequence.
+     */
+    void reset() {
+        for (int i = 0; i < DeltaFormat.TYPES; i++) {
+            objects[i] = new byte[Math.min(capacity, 16)][];
+            instances[i] = new Object[objects[i].length];
+        }
+        sequence = 0;
+        failed = false;
+    }
+
+    /**
+     * Reads the sequence number and the definitions of a message, the reader
+     * being positioned after the header.
+     *
+     * @throws BinaryFormatException if the message is malformed or out of
+     *             sequence, or an earlier message failed
+     */
+    void begin(BinaryReader r) {
+        if (failed) {
+            throw r.error("Delta stream out of sync");
+        }
+        failed = true;
+        long received = r.readVarint();
+        if (received != (sequence & 0xFFFFFFFFL)) {
+            throw r.error("Message " + received + " out of sequence, expected " + sequence);
+        }
+        for (int n = r.readCount(); n > 0; n--) {
+            long header = r.readVarint();
+            int type = (int) (header >> 1 & 3);
+            long index = header >>> 3;
+            if (index >= capacity) {
+                throw r.error("Slot " + index + " out of range");
+            }
+            int slot = (int) index;
+            byte[] object;
+            if ((header & 1) == DeltaFormat.FULL) {
+                int start = r.position();
+                r.skip(BinaryReader.OBJECT);
+                object = Arrays.copyOfRange(r.buffer(), start, r.position());
+            } else {
+                byte[] old = slot < objects[type].length ? objects[type][slot] : null;
+                if (old == null) {
+                    throw r.error("Diff of undefined " + DeltaFormat.NAMES[type] + " " + slot);
+                }
+                int len = r.readCount();
+                int start = r.position();
+                object = apply(r, type, old, start, start + len);
+                r.seek(start + len);
+            }
+            define(r, type, slot, object);
+        }
+    }
+
+    /**
+     * Completes a message that has been decoded.
+     */
+    void complete() {
+        sequence++;
+        failed = false;
+    }
+
+    Site readSite(BinaryReader r) {
+        return (Site) resolve(r, DeltaFormat.SITE);
+    }
+
+    App readApp(BinaryReader r) {
+        return (App) resolve(r, DeltaFormat.APP);
+    }
+
+    Publisher readPublisher(BinaryReader r) {
+        return (Publisher) resolve(r, DeltaFormat.PUBLISHER);
+    }
+
+    Content readContent(BinaryReader r) {
+        return (Content) resolve(r, DeltaFormat.CONTENT);
+    }
+
+    private Object resolve(BinaryReader r, int type) {
+        long reference = r.readVarint();
+        if (reference == 0) {
+            return readObject(r, type);
+        }
+        long slot = reference - 1;
+        Object o = slot < instances[type].length ? instances[type][(int) slot] : null;
+        if (o == null) {
+            throw r.error("Undefined " + DeltaFormat.NAMES[type] + " " + slot);
+        }
+        return o;
+    }
+
+    private void define(BinaryReader r, int type, int slot, byte[] object) {
+        if (slot >= objects[type].length) {
+            int length = Math.min(capacity, Math.max(slot + 1, objects[type].length * 2));
+            objects[type] = Arrays.copyOf(objects[type], length);
+            instances[type] = Arrays.copyOf(instances[type], length);
+        }
+        BinaryReader d = reader;
+        d.wrap(object, 0, object.length, r.getDictionary());
+        Object o = readObject(d, type);
+        if (o == null || d.position() != object.length) {
+            throw r.error("Invalid " + DeltaFormat.NAMES[type] + " " + slot);
+        }
+        objects[type][slot] = object;
+        instances[type][slot] = o;
+    }
+
+    /**
+     * Applies a diff to the object of a slot.
+     *
+     * @return the new encoding of the object
+     */
+    private byte[] apply(BinaryReader r, int type, byte[] old, int start, int end) {
+        long oldPresent = DeltaFormat.index(reader, old, old.length, type, offsets, ends);
+        byte[] kinds = DeltaFormat.KINDS[type];
+        BinaryReader d = reader;
+        d.wrap(r.buffer(), start, end, null);
+        long present = d.readPresence(kinds.length);
+        long changed = d.readPresence(kinds.length);
+        BinaryWriter w = writer;
+        w.reset();
+        int mark = w.beginObject(kinds.length);
+        for (long bits = present; bits != 0; bits &= bits - 1) {
+            int i = Long.numberOfTrailingZeros(bits);
+            w.present(mark, i);
+            if ((changed & 1L << i) != 0) {
+                int from = d.position();
+                d.skip(kinds[i]);
+                w.writeBytes(r.buffer(), from, d.position() - from);
+            } else if ((oldPresent & 1L << i) != 0) {
+                w.writeBytes(old, offsets[i], ends[i] - offsets[i]);
+            } else {
+                throw r.error("Unchanged " + DeltaFormat.NAMES[type] + " field " + i + " absent");
+            }
+        }
+        d.endObject(end);
+        w.endObject(mark);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    private static Object readObject(BinaryReader r, int type) {
+        switch (type) {
+        case DeltaFormat.SITE:
+            return BinaryBidRequestDecoder.readSiteObject(r);
+        case DeltaFormat.APP:
+            return BinaryBidRequestDecoder.readAppObject(r);
+        case DeltaFormat.PUBLISHER:
+            return BinaryBidRequestDecoder.readPublisherObject(r);
+        default:
+            return BinaryBidRequestDecoder.readContentObject(r);
+        }
+    }
+
+}
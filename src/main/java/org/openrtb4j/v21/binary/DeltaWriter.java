@@ -0,0 +1,292 @@
+package org.openrtb4j.v21.binary;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Site;
+
+/**
+ * Sending state of a delta stream, see {@link BinaryFormat}: the slots of
+ * the sites, apps, publishers and content objects sent so far, keyed by their
+ * id, along with their encoded form as last sent.
+ *
+ * Every object with an id is encoded on every message and compared with its
+ * slot. An unchanged object whose nested objects are unchanged too is
+ * referenced alone; otherwise it is defined again, as a diff when that is
+ * shorter. When a table is full, the least recently used slot is reused.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class DeltaWriter {
+
+    private final Table[] tables = new Table[DeltaFormat.TYPES];
+
+    private final BinaryWriter[] scratch = new BinaryWriter[DeltaFormat.TYPES];
+
+    private final BinaryWriter definitions = new BinaryWriter();
+
+    private final BinaryWriter diff = new BinaryWriter();
+
+    private final BinaryReader reader = new BinaryReader();
+
+    private final int[] oldOffsets = new int[DeltaFormat.MAX_FIELDS];
+
+    private final int[] oldEnds = new int[DeltaFormat.MAX_FIELDS];
+
+    private final int[] newOffsets = new int[DeltaFormat.MAX_FIELDS];
+
+    private final int[] newEnds = new int[DeltaFormat.MAX_FIELDS];
+
+    private int count;
+
+    private int sequence;
+
+    /**
+     * The number of definitions written since the stream started, which
+     * orders them.
+     */
+    private int stamp;
+
+    /**
+     * The latest stamp of the slots referenced by the object being encoded.
+     */
+    private int dependencies;
+
+    /**
+     * @param slots the number of slots per type
+     */
+    DeltaWriter(int slots) {
+        for (int i = 0; i < DeltaFormat.TYPES; i++) {
+            tables[i] = new Table(slots);
+            scratch[i] = new BinaryWriter();
+            scratch[i].setDelta(this);
+        }
+    }
+
+    void setDictionary(StringDictionary dictionary) {
+        for (BinaryWriter w : scratch) {
+            w.setDictionary(dictionary);
+        }
+    }
+
+    /**
+     * Starts the definitions of a message.
+     */
+    void begin() {
+        definitions.reset();
+        count = 0;
+        dependencies = 0;
+    }
+
+    /**
+     * @return the sequence number of the message
+     */
+    int sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the number of definitions of the message
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return the definitions of the message
+     */
+    BinaryWriter definitions() {
+        return definitions;
+    }
+
+    /**
+     * Completes a message that has been sent.
+     */
+    void commit() {
+        sequence++;
+    }
+
+    /**
+     * Forgets every slot, so that objects are defined again from the next
+     * message on; the sequence goes on.
+     */
+    void clear() {
+        for (Table table : tables) {
+            table.clear();
+        }
+    }
+
+    /**
+     * Forgets every slot and restarts the sequence.
+     */
+    void reset() {
+        clear();
+        sequence = 0;
+        stamp = 0;
+    }
+
+    void writeSite(BinaryWriter w, Site o) {
+        write(w, DeltaFormat.SITE, o.getId(), o);
+    }
+
+    void writeApp(BinaryWriter w, App o) {
+        write(w, DeltaFormat.APP, o.getId(), o);
+    }
+
+    void writePublisher(BinaryWriter w, Publisher o) {
+        write(w, DeltaFormat.PUBLISHER, o.getId(), o);
+    }
+
+    void writeContent(BinaryWriter w, Content o) {
+        write(w, DeltaFormat.CONTENT, o.getId(), o);
+    }
+
+    private void write(BinaryWriter w, int type, String id, Object o) {
+        if (id == null) {
+            w.writeVarint(0);
+            writeObject(w, type, o);
+            return;
+        }
+        int outer = dependencies;
+        dependencies = 0;
+        BinaryWriter s = scratch[type];
+        s.reset();
+        writeObject(s, type, o);
+        Slot slot = tables[type].get(id);
+        if (slot.object == null || dependencies > slot.stamp
+                || !DeltaFormat.equal(slot.object, 0, slot.length, s.buffer(), 0, s.length())) {
+            define(type, slot, s);
+            slot.stamp = ++stamp;
+        }
+        dependencies = Math.max(outer, slot.stamp);
+        w.writeVarint(slot.index + 1L);
+    }
+
+    private void define(int type, Slot slot, BinaryWriter s) {
+        long header = (long) slot.index << 3 | type << 1;
+        if (slot.object != null && diff(type, slot, s) < s.length()) {
+            definitions.writeVarint(header | DeltaFormat.DIFF);
+            definitions.writeVarint(diff.length());
+            definitions.writeBytes(diff.buffer(), 0, diff.length());
+        } else {
+            definitions.writeVarint(header | DeltaFormat.FULL);
+            definitions.writeBytes(s.buffer(), 0, s.length());
+        }
+        count++;
+        if (slot.object == null || slot.object.length < s.length()) {
+            slot.object = Arrays.copyOf(s.buffer(), s.length());
+        } else {
+            System.arraycopy(s.buffer(), 0, slot.object, 0, s.length());
+        }
+        slot.length = s.length();
+    }
+
+    /**
+     * Writes the diff between the object of a slot and its new encoding.
+     *
+     * @return the length of the diff
+     */
+    private int diff(int type, Slot slot, BinaryWriter s) {
+        long oldPresent = DeltaFormat.index(reader, slot.object, slot.length, type, oldOffsets, oldEnds);
+        long newPresent = DeltaFormat.index(reader, s.buffer(), s.length(), type, newOffsets, newEnds);
+        int fields = DeltaFormat.KINDS[type].length;
+        long changed = oldPresent ^ newPresent;
+        for (long both = oldPresent & newPresent; both != 0; both &= both - 1) {
+            int i = Long.numberOfTrailingZeros(both);
+            if (!DeltaFormat.equal(slot.object, oldOffsets[i], oldEnds[i], s.buffer(), newOffsets[i], newEnds[i])) {
+                changed |= 1L << i;
+            }
+        }
+        diff.reset();
+        diff.writeBitmap(newPresent, fields);
+        diff.writeBitmap(changed, fields);
+        for (long values = changed & newPresent; values != 0; values &= values - 1) {
+            int i = Long.numberOfTrailingZeros(values);
+            diff.writeBytes(s.buffer(), newOffsets[i], newEnds[i] - newOffsets[i]);
+        }
+        return diff.length();
+    }
+
+    private static void writeObject(BinaryWriter w, int type, Object o) {
+        switch (type) {
+        case DeltaFormat.SITE:
+            BinaryBidRequestEncoder.writeSite(w, (Site) o);
+            break;
+        case DeltaFormat.APP:
+            BinaryBidRequestEncoder.writeApp(w, (App) o);
+            break;
+        case DeltaFormat.PUBLISHER:
+            BinaryBidRequestEncoder.writePublisher(w, (Publisher) o);
+            break;
+        default:
+            BinaryBidRequestEncoder.writeContent(w, (Content) o);
+            break;
+        }
+    }
+
+    /**
+     * A slot and the encoding of its object as last sent.
+     */
+    private static final class Slot {
+
+        final int index;
+
+        byte[] object;
+
+        int length;
+
+        /**
+         * The stamp of the last definition of the slot.
+         */
+        int stamp;
+
+        Slot(int index) {
+            this.index = index;
+        }
+
+    }
+
+    /**
+     * The slots of a type, in the order of their last use.
+     */
+    private static final class Table {
+
+        private final LinkedHashMap<String, Slot> slots = new LinkedHashMap<String, Slot>(16, 0.75f, true);
+
+        private final int capacity;
+
+        Table(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * @return the slot of the id, a new or recycled one without object if
+         *         the id has none
+         */
+        Slot get(String id) {
+            Slot slot = slots.get(id);
+            if (slot == null) {
+                int index = slots.size();
+                if (index == capacity) {
+                    Iterator<Slot> eldest = slots.values().iterator();
+                    index = eldest.next().index;
+                    eldest.remove();
+                }
+                slot = new Slot(index);
+                slots.put(id, slot);
+            }
+            return slot;
+        }
+
+        void clear() {
+            slots.clear();
+        }
+
+    }
+
+}
@@ -0,0 +1,199 @@
+package org.openrtb4j.v21.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.json.NdjsonReader;
+
+/**
+ * Builder of a {@link StringDictionary} from a sample of bid requests. Every
+ * string of the sample is counted, and the strings occurring at least as
+ * often as the given share of the requests make up the dictionary, the most
+ * frequent first so that they get the shortest codes. Unique values such as
+ * ids never qualify.
+ *
+ * The {@link #main(String[])} method builds a dictionary from logged requests,
+ * see {@link NdjsonReader}:
+ *
+ * <pre>
+ * java org.openrtb4j.v21.binary.DictionaryBuilder version output input...
+ * </pre>
+ *
+ * A builder is not thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class DictionaryBuilder {
+
+    /**
+     * Strings seen once are dropped when the number of distinct strings
+     * reaches this, which bounds the memory taken by unique values.
+     */
+    private static final int MAX_CANDIDATES = 1 << 20;
+
+    private static final Comparator<Map.Entry<String, int[]>> BY_COUNT = new Comparator<Map.Entry<String, int[]>>() {
+
+        @Override
+        public int compare(Map.Entry<String, int[]> a, Map.Entry<String, int[]> b) {
+            int c = Integer.compare(b.getValue()[0], a.getValue()[0]);
+            return c != 0 ? c : a.getKey().compareTo(b.getKey());
+        }
+
+    };
+
+    private final HashMap<String, int[]> counts = new HashMap<String, int[]>();
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+    private int candidates = MAX_CANDIDATES;
+
+    private int requests;
+
+    private double minFrequency = 0.01;
+
+    private int maxSize = 4096;
+
+    private int maxLength = 256;
+
+    public DictionaryBuilder() {
+        writer.setCounter(this);
+    }
+
+    /**
+     * @return the minimum number of occurrences of a string per request
+     */
+    public double getMinFrequency() {
+        return minFrequency;
+    }
+
+    /**
+     * @param minFrequency the minimum number of occurrences of a string per
+     *            request, 0.01 by default
+     */
+    public void setMinFrequency(double minFrequency) {
+        this.minFrequency = minFrequency;
+    }
+
+    /**
+     * @return the maximum number of strings
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param maxSize the maximum number of strings, 4096 by default
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the maximum length of a string in chars
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @param maxLength the maximum length of a string in chars, 256 by default
+     */
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return the number of requests added
+     */
+    public int getRequests() {
+        return requests;
+    }
+
+    /**
+     * Counts the strings of a request of the sample.
+     *
+     * @param request the bid request
+     */
+    public void add(BidRequest request) {
+        writer.reset(BinaryFormat.REQUEST);
+        BinaryBidRequestEncoder.writeBidRequest(writer, request);
+        requests++;
+    }
+
+    /**
+     * @param version the version of the dictionary
+     * @return the dictionary of the strings counted so far
+     */
+    public StringDictionary build(int version) {
+        int minCount = Math.max(2, (int) Math.ceil(minFrequency * requests));
+        List<Map.Entry<String, int[]>> entries = new ArrayList<Map.Entry<String, int[]>>();
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            if (entry.getValue()[0] >= minCount) {
+                entries.add(entry);
+            }
+        }
+        Collections.sort(entries, BY_COUNT);
+        List<String> strings = new ArrayList<String>();
+        for (int i = 0; i < entries.size() && i < maxSize; i++) {
+            strings.add(entries.get(i).getKey());
+        }
+        return new StringDictionary(version, strings);
+    }
+
+    void count(String value) {
+        if (value.length() > maxLength) {
+            return;
+        }
+        int[] count = counts.get(value);
+        if (count != null) {
+            count[0]++;
+            return;
+        }
+        if (counts.size() >= candidates) {
+            counts.values().removeIf(c -> c[0] == 1);
+            candidates = Math.max(MAX_CANDIDATES, counts.size() * 2);
+        }
+        counts.put(value, new int[] { 1 });
+    }
+
+    /**
+     * Builds a dictionary from files of bid requests, one JSON object per
+     * line, and writes it to a file.
+     *
+     * @param args the version of the dictionary, the output file and the
+     *            input files
+     * @throws IOException if reading or writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: DictionaryBuilder version output input...");
+            System.exit(2);
+        }
+        int version = Integer.parseInt(args[0]);
+        DictionaryBuilder builder = new DictionaryBuilder();
+        for (int i = 2; i < args.length; i++) {
+            try (Stream<BidRequest> requests = NdjsonReader.bidRequests(Paths.get(args[i])).stream()) {
+                requests.sequential().forEach(builder::add);
+            }
+        }
+        StringDictionary dictionary = builder.build(version);
+        Path output = Paths.get(args[1]);
+        try (OutputStream out = Files.newOutputStream(output)) {
+            dictionary.write(out);
+        }
+        System.err.println(dictionary.size() + " strings from " + builder.getRequests() + " requests");
+    }
+
+}
@@ -0,0 +1,161 @@
+package org.openrtb4j.v21.binary;
+
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.RawJson;
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Video;
+
+/**
+ * Read-only view of an impression of a bid request in the binary format, see
+ * {@link BidRequestView#getImp(int, ImpressionView)}. The getters mirror those
+ * of {@link Impression} and read their values from the encoded bytes on each
+ * call; banner and video objects are decoded when asked for.
+ *
+ * A view is re-pointed at every impression it is passed for, so a single
+ * instance serves any number of messages. It is not thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class ImpressionView {
+
+    private static final Impression DEFAULTS = new Impression();
+
+    private static final byte[] KINDS = {
+            BinaryReader.STRING, // id
+            BinaryReader.OBJECT, // banner
+            BinaryReader.OBJECT, // video
+            BinaryReader.STRING, // displaymanager
+            BinaryReader.STRING, // displaymanagerver
+            BinaryReader.INT, // instl
+            BinaryReader.STRING, // tagid
+            BinaryReader.FLOAT, // bidfloor
+            BinaryReader.STRING, // bidfloorcur
+            BinaryReader.STRING | BinaryReader.ARRAY, // iframebuster
+            BinaryReader.RAW_JSON, // ext
+    };
+
+    private final BinaryReader reader = new BinaryReader();
+
+    private final int[] offsets = new int[KINDS.length];
+
+    /**
+     * Points the view at an impression and indexes its fields.
+     *
+     * @return this view, or null for a null impression, the view then
+     *         holding the defaults of every field
+     */
+    ImpressionView wrap(byte[] buf, int start, int end, StringDictionary dictionary) {
+        BinaryReader r = reader;
+        r.wrap(buf, start, end, dictionary);
+        int objectEnd = r.beginObject();
+        if (objectEnd < 0) {
+            Arrays.fill(offsets, -1);
+            return null;
+        }
+        r.index(KINDS, offsets);
+        r.endObject(objectEnd);
+        return this;
+    }
+
+    /**
+     * @return the id
+     */
+    public String getId() {
+        return seek(0) ? reader.readString() : DEFAULTS.getId();
+    }
+
+    /**
+     * @return the banner, decoded on each call
+     */
+    public Banner getBanner() {
+        return seek(1) ? BinaryBidRequestDecoder.readBanner(reader) : DEFAULTS.getBanner();
+    }
+
+    /**
+     * @return the video, decoded on each call
+     */
+    public Video getVideo() {
+        return seek(2) ? BinaryBidRequestDecoder.readVideo(reader) : DEFAULTS.getVideo();
+    }
+
+    /**
+     * @return the displaymanager
+     */
+    public String getDisplaymanager() {
+        return seek(3) ? reader.readString() : DEFAULTS.getDisplaymanager();
+    }
+
+    /**
+     * @return the displaymanagerver
+     */
+    public String getDisplaymanagerver() {
+        return seek(4) ? reader.readString() : DEFAULTS.getDisplaymanagerver();
+    }
+
+    /**
+     * @return the instl
+     */
+    public int getInstl() {
+        return seek(5) ? reader.readInt() : DEFAULTS.getInstl();
+    }
+
+    /**
+     * @return the tagid
+     */
+    public String getTagid() {
+        return seek(6) ? reader.readString() : DEFAULTS.getTagid();
+    }
+
+    /**
+     * @return the bidfloor
+     */
+    public float getBidfloor() {
+        return seek(7) ? reader.readFloat() : DEFAULTS.getBidfloor();
+    }
+
+    /**
+     * @return the bidfloorcur
+     */
+    public String getBidfloorcur() {
+        return seek(8) ? reader.readString() : DEFAULTS.getBidfloorcur();
+    }
+
+    /**
+     * @return the iframebuster
+     */
+    public String[] getIframebuster() {
+        return seek(9) ? reader.readStringArray() : DEFAULTS.getIframebuster();
+    }
+
+    /**
+     * @return the ext as a string
+     */
+    public String getExt() {
+        RawJson ext = getRawExt();
+        return ext == null ? null : ext.toString();
+    }
+
+    /**
+     * @return the ext, a slice of the encoded bytes
+     */
+    public RawJson getRawExt() {
+        return seek(10) ? reader.readRawJson() : DEFAULTS.getRawExt();
+    }
+
+    /**
+     * @return whether the field is present, the reader then being positioned
+     *         at its value
+     */
+    private boolean seek(int field) {
+        int offset = offsets[field];
+        if (offset < 0) {
+            return false;
+        }
+        reader.seek(offset);
+        return true;
+    }
+
+}
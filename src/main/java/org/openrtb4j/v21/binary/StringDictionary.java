@@ -0,0 +1,151 @@
+package org.openrtb4j.v21.binary;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Versioned dictionary of strings shared by the encoders and decoders of the
+ * binary format, see {@link BinaryFormat}. Strings of the dictionary are
+ * written as their code instead of their bytes and decoded to the single
+ * interned instance held by the dictionary, which suits the low-cardinality
+ * fields repeated in every message: operating systems, makes, carriers,
+ * countries, MIME types, currencies and domains. Codes are assigned in the
+ * order of the strings, so the most frequent strings should come first to
+ * take a single byte; see {@link DictionaryBuilder}.
+ *
+ * A message records the version of the dictionary it was encoded with and
+ * the decoder must use a dictionary of the same version; the strings of a
+ * version must therefore never change once messages have been encoded with
+ * it. Dictionaries are immutable and may be shared by any number of threads.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public final class StringDictionary {
+
+    private final int version;
+
+    private final String[] strings;
+
+    private final HashMap<String, Integer> codes;
+
+    /**
+     * The length of the longest string, longer strings need no lookup.
+     */
+    private final int maxLength;
+
+    /**
+     * @param version the version of the dictionary
+     * @param strings the distinct strings of the dictionary, the most
+     *            frequent first
+     * @throws IllegalArgumentException if the version is negative or a
+     *             string is repeated
+     * @throws NullPointerException if a string is null
+     */
+    public StringDictionary(int version, List<String> strings) {
+        if (version < 0) {
+            throw new IllegalArgumentException("version cannot be negative.");
+        }
+        this.version = version;
+        this.strings = new String[strings.size()];
+        this.codes = new HashMap<String, Integer>(strings.size() * 2);
+        int max = 0;
+        for (int i = 0; i < this.strings.length; i++) {
+            String value = strings.get(i);
+            if (value == null) {
+                throw new NullPointerException("strings cannot contain null.");
+            }
+            if (codes.put(value, Integer.valueOf(i)) != null) {
+                throw new IllegalArgumentException("Duplicate string " + value);
+            }
+            this.strings[i] = value.intern();
+            max = Math.max(max, value.length());
+        }
+        this.maxLength = max;
+    }
+
+    /**
+     * @return the version of the dictionary
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the number of strings
+     */
+    public int size() {
+        return strings.length;
+    }
+
+    /**
+     * @param code the code of a string
+     * @return the interned string
+     * @throws IndexOutOfBoundsException if there is no string with the code
+     */
+    public String get(int code) {
+        return strings[code];
+    }
+
+    /**
+     * @param value a string
+     * @return the code of the string, or -1 if it is not in the dictionary
+     */
+    public int code(String value) {
+        if (value.length() > maxLength) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        return code == null ? -1 : code.intValue();
+    }
+
+    /**
+     * Writes the dictionary in the form read by {@link #read(InputStream)}.
+     *
+     * @param out the stream to write to, which is not closed
+     * @throws IOException if the stream fails or a string is longer than
+     *             65535 bytes in modified UTF-8
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(version);
+        data.writeInt(strings.length);
+        for (String value : strings) {
+            data.writeUTF(value);
+        }
+        data.flush();
+    }
+
+    /**
+     * @param in the stream to read from, which is not closed
+     * @return the dictionary
+     * @throws IOException if the stream fails or does not hold a dictionary
+     */
+    public static StringDictionary read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int version = data.readInt();
+        int size = data.readInt();
+        if (version < 0 || size < 0) {
+            throw new IOException("Not a string dictionary");
+        }
+        String[] strings = new String[Math.min(size, 1 << 16)];
+        for (int i = 0; i < size; i++) {
+            if (i == strings.length) {
+                strings = Arrays.copyOf(strings, Math.min(size, strings.length * 2));
+            }
+            strings[i] = data.readUTF();
+        }
+        try {
+            return new StringDictionary(version, Arrays.asList(strings));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package org.openrtb4j.v21.columnar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.binary.BinaryBidRequestDecoder;
+import org.openrtb4j.v21.binary.BinaryBidResponseDecoder;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.response.BidResponse;
+
+/**
+ * Cursor over the auctions of a columnar file matching a filter, created by
+ * {@link AuctionFileReader#scan(AuctionFilter)}. The request and the
+ * response of an auction are only decoded when asked for.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class AuctionCursor {
+
+    private final AuctionFileReader reader;
+
+    private final AuctionFilter filter;
+
+    private final BinaryBidRequestDecoder requestDecoder = new BinaryBidRequestDecoder();
+
+    private final BinaryBidResponseDecoder responseDecoder = new BinaryBidResponseDecoder();
+
+    private int rowGroup = -1;
+
+    private RowGroup group;
+
+    private boolean[] selected = new boolean[0];
+
+    private int row = -1;
+
+    private int rowGroupsRead;
+
+    private int rowGroupsSkipped;
+
+    AuctionCursor(AuctionFileReader reader, AuctionFilter filter) {
+        this.reader = reader;
+        this.filter = filter;
+    }
+
+    /**
+     * Moves to the next matching auction.
+     *
+     * @return false if there is none
+     * @throws IOException if the file cannot be read
+     * @throws ColumnarFormatException if the file is malformed
+     */
+    public boolean next() throws IOException {
+        try {
+            while (true) {
+                if (group != null) {
+                    while (++row < group.size()) {
+                        if (selected[row]) {
+                            return true;
+                        }
+                    }
+                    group = null;
+                }
+                if (++rowGroup >= reader.getRowGroupCount()) {
+                    rowGroup = reader.getRowGroupCount();
+                    return false;
+                }
+                int rows = reader.rows(rowGroup);
+                ColumnChunk[] chunks = reader.chunks(rowGroup);
+                if (rows == 0 || !filter.mayMatch(chunks)) {
+                    rowGroupsSkipped++;
+                    continue;
+                }
+                rowGroupsRead++;
+                group = new RowGroup(reader, chunks, rows);
+                if (selected.length < rows) {
+                    selected = new boolean[rows];
+                }
+                Arrays.fill(selected, 0, rows, true);
+                filter.filter(group, selected);
+                row = -1;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return the bid request of the current auction
+     * @throws IOException if the file cannot be read
+     * @throws IllegalStateException if there is no current auction
+     */
+    public BidRequest getRequest() throws IOException {
+        return requestDecoder.decode(payload(AuctionFileFormat.REQUEST), offset(AuctionFileFormat.REQUEST),
+                group.lengths(AuctionFileFormat.REQUEST)[row]);
+    }
+
+    /**
+     * @return the bid response of the current auction, or null if there was
+     *         none
+     * @throws IOException if the file cannot be read
+     * @throws IllegalStateException if there is no current auction
+     */
+    public BidResponse getResponse() throws IOException {
+        byte[] payload = payload(AuctionFileFormat.RESPONSE);
+        int offset = offset(AuctionFileFormat.RESPONSE);
+        return offset < 0 ? null
+                : responseDecoder.decode(payload, offset, group.lengths(AuctionFileFormat.RESPONSE)[row]);
+    }
+
+    /**
+     * @return the number of row groups read so far
+     */
+    public int getRowGroupsRead() {
+        return rowGroupsRead;
+    }
+
+    /**
+     * @return the number of row groups skipped so far on their statistics
+     */
+    public int getRowGroupsSkipped() {
+        return rowGroupsSkipped;
+    }
+
+    private byte[] payload(int column) throws IOException {
+        if (group == null) {
+            throw new IllegalStateException("There is no current auction.");
+        }
+        try {
+            return group.bytes(column);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private int offset(int column) {
+        return group.offsets(column)[row];
+    }
+
+}
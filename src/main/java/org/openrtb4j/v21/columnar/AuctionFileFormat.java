@@ -0,0 +1,116 @@
+package org.openrtb4j.v21.columnar;
+
+/**
+ * Constants of the columnar file format of archived auctions, written by
+ * {@link AuctionFileWriter} and read by {@link AuctionFileReader}.
+ *
+ * A file starts with the magic bytes 'O', 'R', 'T', 'A' and the format
+ * version, followed by the column chunks of the row groups, and ends with the
+ * footer, its length as a four byte big-endian integer and the magic bytes
+ * again. Every row is an auction: a bid request and the bid response to it,
+ * if any. Besides the binary encoding of the request and of the response, a
+ * few fields are held as columns of their own so that readers can filter on
+ * them without decoding the auctions.
+ *
+ * A row group holds a chunk of every column, in column order, each chunk
+ * being compressed with deflate. Uncompressed, a chunk holds a value per row.
+ * <ul>
+ * <li>{@link #INT} values are four byte integers, {@link BidRequestBatch#NULL}
+ * standing for null.</li>
+ * <li>{@link #FLOAT} values are the four bytes of their IEEE 754 form, NaN
+ * standing for null.</li>
+ * <li>{@link #STRING} values of a {@link #PLAIN} chunk and {@link #BYTES}
+ * values are a four byte length, -1 for null, followed by the bytes, the
+ * UTF-8 bytes for strings. A {@link #DICTIONARY} chunk holds a four byte
+ * code per value instead, -1 for null, the dictionary being kept in the
+ * footer.</li>
+ * </ul>
+ * Integers are big-endian, as written by {@link java.io.DataOutput}.
+ *
+ * The footer lists the name and type of every column, then every row group:
+ * its number of rows and, for every column chunk, the position of the chunk
+ * in the file as an eight byte integer, its length compressed and
+ * uncompressed, its encoding and its statistics. Readers reject an
+ * uncompressed length beyond {@link #MAX_COMPRESSION_RATIO} times the
+ * compressed one. The statistics are the
+ * number of null values, the minimum and the maximum of the non-null values
+ * of the chunk, if any and unless the column is {@link #BYTES}, and the
+ * dictionary of a {@link #DICTIONARY} chunk as a count followed by the
+ * strings. Strings of the footer are written as in a chunk.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class AuctionFileFormat {
+
+    static final byte[] MAGIC = { 'O', 'R', 'T', 'A' };
+
+    static final byte VERSION = 1;
+
+    static final byte INT = 0;
+
+    static final byte FLOAT = 1;
+
+    static final byte STRING = 2;
+
+    static final byte BYTES = 3;
+
+    /**
+     * The largest ratio of the uncompressed to the compressed length of a
+     * chunk: deflate never expands more than 1032 times.
+     */
+    static final int MAX_COMPRESSION_RATIO = 1032;
+
+    static final byte PLAIN = 0;
+
+    static final byte DICTIONARY = 1;
+
+    /**
+     * Id of the bid request.
+     */
+    static final int ID = 0;
+
+    /**
+     * Domain of the site, or of the app.
+     */
+    static final int DOMAIN = 1;
+
+    /**
+     * Bundle of the app.
+     */
+    static final int BUNDLE = 2;
+
+    /**
+     * Country of the geo of the device.
+     */
+    static final int COUNTRY = 3;
+
+    /**
+     * Devicetype of the device.
+     */
+    static final int DEVICETYPE = 4;
+
+    /**
+     * Highest price of the bids of the response.
+     */
+    static final int PRICE = 5;
+
+    /**
+     * Binary encoding of the bid request.
+     */
+    static final int REQUEST = 6;
+
+    /**
+     * Binary encoding of the bid response.
+     */
+    static final int RESPONSE = 7;
+
+    static final String[] NAMES = { "id", "domain", "bundle", "country", "devicetype", "price", "request",
+            "response" };
+
+    static final byte[] TYPES = { STRING, STRING, STRING, STRING, INT, FLOAT, BYTES, BYTES };
+
+    private AuctionFileFormat() {
+    }
+
+}
@@ -0,0 +1,207 @@
+package org.openrtb4j.v21.columnar;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reader of a columnar file of archived auctions written by an
+ * {@link AuctionFileWriter}.
+ *
+ * The footer is read when the reader is opened. Auctions are then read with
+ * cursors, see {@link #scan(AuctionFilter)}, which only read the row groups
+ * whose statistics allow a match and, within them, only decode the matching
+ * auctions. A reader and its cursors are not thread-safe; threads scanning
+ * the same file use readers of their own.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class AuctionFileReader implements Closeable {
+
+    private static final int HEADER = AuctionFileFormat.MAGIC.length + 1;
+
+    private static final int TRAILER = 4 + AuctionFileFormat.MAGIC.length;
+
+    private final FileChannel channel;
+
+    private final Inflater inflater = new Inflater();
+
+    private long footerOffset;
+
+    private ColumnChunk[][] rowGroups;
+
+    private int[] rowCounts;
+
+    /**
+     * Opens a file and reads its footer.
+     *
+     * @param file the file to read
+     * @throws IOException if the file cannot be read
+     * @throws ColumnarFormatException if the file is not a valid columnar
+     *             file of auctions
+     */
+    public AuctionFileReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            readFooter();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of row groups
+     */
+    public int getRowGroupCount() {
+        return rowGroups.length;
+    }
+
+    /**
+     * @return the number of auctions
+     */
+    public long getRowCount() {
+        long rows = 0;
+        for (int count : rowCounts) {
+            rows += count;
+        }
+        return rows;
+    }
+
+    /**
+     * @param filter the filter of the auctions to read
+     * @return a cursor over the matching auctions, in file order
+     */
+    public AuctionCursor scan(AuctionFilter filter) {
+        if (filter == null) {
+            throw new NullPointerException("filter cannot be null.");
+        }
+        return new AuctionCursor(this, filter);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    ColumnChunk[] chunks(int rowGroup) {
+        return rowGroups[rowGroup];
+    }
+
+    int rows(int rowGroup) {
+        return rowCounts[rowGroup];
+    }
+
+    /**
+     * Inflates a chunk into a buffer grown as output comes, so that a wrong
+     * uncompressed length costs no more memory than the actual content.
+     *
+     * @return the uncompressed bytes of a chunk
+     */
+    ByteBuffer readChunk(ColumnChunk chunk) throws IOException {
+        if (chunk.offset < HEADER || chunk.offset + chunk.length > footerOffset) {
+            throw new ColumnarFormatException("Invalid column chunk", chunk.offset);
+        }
+        inflater.reset();
+        inflater.setInput(read(chunk.offset, chunk.length));
+        // One byte more than expected tells content beyond the length
+        long limit = chunk.rawLength + 1L;
+        byte[] raw = new byte[(int) Math.min(limit, 4L * chunk.length + 64)];
+        int length = 0;
+        try {
+            while (!inflater.finished() && length < limit) {
+                if (length == raw.length) {
+                    raw = Arrays.copyOf(raw, (int) Math.min(limit, 2L * length));
+                }
+                int n = inflater.inflate(raw, length, raw.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+        } catch (DataFormatException e) {
+            throw new ColumnarFormatException("Corrupt column chunk: " + e.getMessage(), chunk.offset);
+        }
+        if (!inflater.finished() || length != chunk.rawLength) {
+            throw new ColumnarFormatException("Corrupt column chunk", chunk.offset);
+        }
+        return ByteBuffer.wrap(raw, 0, length);
+    }
+
+    private void readFooter() throws IOException {
+        long size = channel.size();
+        if (size < HEADER + TRAILER) {
+            throw new ColumnarFormatException("Truncated file", size);
+        }
+        byte[] header = read(0, HEADER);
+        ByteBuffer trailer = ByteBuffer.wrap(read(size - TRAILER, TRAILER));
+        int footerLength = trailer.getInt();
+        for (int i = 0; i < AuctionFileFormat.MAGIC.length; i++) {
+            if (header[i] != AuctionFileFormat.MAGIC[i] || trailer.get() != AuctionFileFormat.MAGIC[i]) {
+                throw new ColumnarFormatException("Not a columnar file of auctions", 0);
+            }
+        }
+        if (header[HEADER - 1] != AuctionFileFormat.VERSION) {
+            throw new ColumnarFormatException("Unsupported version " + header[HEADER - 1], HEADER - 1);
+        }
+        footerOffset = size - TRAILER - footerLength;
+        if (footerLength < 0 || footerOffset < HEADER) {
+            throw new ColumnarFormatException("Invalid footer length " + footerLength, size - TRAILER);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(read(footerOffset, footerLength)));
+        try {
+            int columns = in.readInt();
+            boolean supported = columns == AuctionFileFormat.NAMES.length;
+            for (int c = 0; supported && c < columns; c++) {
+                supported = in.readUTF().equals(AuctionFileFormat.NAMES[c])
+                        && in.readByte() == AuctionFileFormat.TYPES[c];
+            }
+            if (!supported) {
+                throw new ColumnarFormatException("Unsupported columns", footerOffset);
+            }
+            int groups = in.readInt();
+            if (groups < 0 || groups > in.available() / 4) {
+                throw new IOException("Invalid row group count " + groups + ".");
+            }
+            rowGroups = new ColumnChunk[groups][];
+            rowCounts = new int[groups];
+            for (int g = 0; g < groups; g++) {
+                rowCounts[g] = in.readInt();
+                if (rowCounts[g] < 0) {
+                    throw new IOException("Invalid row count " + rowCounts[g] + ".");
+                }
+                rowGroups[g] = new ColumnChunk[columns];
+                for (int c = 0; c < columns; c++) {
+                    rowGroups[g][c] = ColumnChunk.read(in, AuctionFileFormat.TYPES[c]);
+                    // Every value takes at least four bytes
+                    if (rowGroups[g][c].rawLength < 4L * rowCounts[g]) {
+                        throw new IOException("Invalid row count " + rowCounts[g] + ".");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ColumnarFormatException("Malformed footer: " + e.getMessage(), footerOffset);
+        }
+    }
+
+    private byte[] read(long offset, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, offset + buf.position()) < 0) {
+                throw new ColumnarFormatException("Truncated file", offset + buf.position());
+            }
+        }
+        return buf.array();
+    }
+
+}
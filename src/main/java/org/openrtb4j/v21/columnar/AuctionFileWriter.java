@@ -0,0 +1,381 @@
+package org.openrtb4j.v21.columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.openrtb4j.v21.binary.BinaryBidRequestEncoder;
+import org.openrtb4j.v21.binary.BinaryBidResponseEncoder;
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+
+/**
+ * Writer of a columnar file of archived auctions, in the format described by
+ * {@link AuctionFileFormat}, to be read back with {@link AuctionFileReader}.
+ *
+ * Auctions are buffered until a row group is full, then written as a
+ * compressed chunk per column along with the statistics readers use to skip
+ * row groups. String chunks with few distinct values are dictionary encoded.
+ * The footer is written on {@link #close()}, without which the file cannot
+ * be read. A writer is not thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class AuctionFileWriter implements Closeable {
+
+    /**
+     * The default number of auctions of a row group.
+     */
+    public static final int DEFAULT_ROW_GROUP_SIZE = 8192;
+
+    /**
+     * The default largest number of distinct values of a dictionary encoded
+     * chunk.
+     */
+    public static final int DEFAULT_MAX_DICTIONARY_SIZE = 1024;
+
+    private final OutputStream out;
+
+    private long position;
+
+    private int rowGroupSize = DEFAULT_ROW_GROUP_SIZE;
+
+    private int maxDictionarySize = DEFAULT_MAX_DICTIONARY_SIZE;
+
+    private final Deflater deflater = new Deflater();
+
+    private final BinaryBidRequestEncoder requestEncoder = new BinaryBidRequestEncoder();
+
+    private final BinaryBidResponseEncoder responseEncoder = new BinaryBidResponseEncoder();
+
+    private final List<ColumnChunk[]> rowGroups = new ArrayList<ColumnChunk[]>();
+
+    private final List<Integer> rowCounts = new ArrayList<Integer>();
+
+    private int rows;
+
+    private StringColumn.Builder[] strings;
+
+    private int[] devicetype = new int[64];
+
+    private float[] price = new float[64];
+
+    private final byte[][][] payloads = new byte[2][64][];
+
+    private final ByteArrayOutputStream raw = new ByteArrayOutputStream();
+
+    private byte[] compressed = new byte[4096];
+
+    private boolean closed;
+
+    /**
+     * Starts a file, writing its header.
+     *
+     * @param out the stream to write the file to, closed by {@link #close()}
+     * @throws IOException if the header cannot be written
+     */
+    public AuctionFileWriter(OutputStream out) throws IOException {
+        this.out = out;
+        out.write(AuctionFileFormat.MAGIC);
+        out.write(AuctionFileFormat.VERSION);
+        position = AuctionFileFormat.MAGIC.length + 1;
+        strings = newStrings();
+    }
+
+    /**
+     * @return the number of auctions of a row group
+     */
+    public int getRowGroupSize() {
+        return rowGroupSize;
+    }
+
+    /**
+     * Row groups are the unit of skipping: smaller groups have tighter
+     * statistics, larger ones compress better.
+     *
+     * @param rowGroupSize the number of auctions of a row group
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public void setRowGroupSize(int rowGroupSize) {
+        if (rowGroupSize <= 0) {
+            throw new IllegalArgumentException("rowGroupSize must be positive.");
+        }
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    /**
+     * @return the largest number of distinct values of a dictionary encoded
+     *         chunk
+     */
+    public int getMaxDictionarySize() {
+        return maxDictionarySize;
+    }
+
+    /**
+     * @param maxDictionarySize the largest number of distinct values of a
+     *            dictionary encoded chunk, 0 disabling dictionaries
+     */
+    public void setMaxDictionarySize(int maxDictionarySize) {
+        this.maxDictionarySize = maxDictionarySize;
+    }
+
+    /**
+     * @param level the deflate compression level, from 0 to 9, or -1 for the
+     *            default level
+     * @throws IllegalArgumentException if the level is out of range
+     */
+    public void setCompressionLevel(int level) {
+        deflater.setLevel(level);
+    }
+
+    /**
+     * Appends an auction.
+     *
+     * @param request the bid request
+     * @param response the bid response, or null if there was none
+     * @throws IOException if a row group cannot be written
+     * @throws IllegalStateException if the writer is closed
+     */
+    public void write(BidRequest request, BidResponse response) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The writer is closed.");
+        }
+        if (rows == devicetype.length) {
+            int n = rows * 2;
+            devicetype = Arrays.copyOf(devicetype, n);
+            price = Arrays.copyOf(price, n);
+            payloads[0] = Arrays.copyOf(payloads[0], n);
+            payloads[1] = Arrays.copyOf(payloads[1], n);
+        }
+        Site site = request.getSite();
+        App app = request.getApp();
+        Device device = request.getDevice();
+        strings[AuctionFileFormat.ID].add(request.getId());
+        strings[AuctionFileFormat.DOMAIN].add(site != null && site.getDomain() != null ? site.getDomain()
+                : app != null ? app.getDomain() : null);
+        strings[AuctionFileFormat.BUNDLE].add(app == null ? null : app.getBundle());
+        strings[AuctionFileFormat.COUNTRY].add(device == null || device.getGeo() == null ? null
+                : device.getGeo().getCountry());
+        Integer type = device == null ? null : device.getDevicetype();
+        devicetype[rows] = type == null ? BidRequestBatch.NULL : type.intValue();
+        price[rows] = price(response);
+        payloads[0][rows] = requestEncoder.encode(request);
+        payloads[1][rows] = response == null ? null : responseEncoder.encode(response);
+        if (++rows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    /**
+     * Writes the buffered auctions and the footer, then closes the stream.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (rows > 0) {
+                flushRowGroup();
+            }
+            raw.reset();
+            DataOutputStream footer = new DataOutputStream(raw);
+            footer.writeInt(AuctionFileFormat.NAMES.length);
+            for (int i = 0; i < AuctionFileFormat.NAMES.length; i++) {
+                footer.writeUTF(AuctionFileFormat.NAMES[i]);
+                footer.writeByte(AuctionFileFormat.TYPES[i]);
+            }
+            footer.writeInt(rowGroups.size());
+            for (int i = 0; i < rowGroups.size(); i++) {
+                footer.writeInt(rowCounts.get(i).intValue());
+                ColumnChunk[] chunks = rowGroups.get(i);
+                for (int c = 0; c < chunks.length; c++) {
+                    chunks[c].write(footer, AuctionFileFormat.TYPES[c]);
+                }
+            }
+            raw.writeTo(out);
+            new DataOutputStream(out).writeInt(raw.size());
+            out.write(AuctionFileFormat.MAGIC);
+            out.flush();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        ColumnChunk[] chunks = new ColumnChunk[AuctionFileFormat.NAMES.length];
+        for (int c = 0; c < chunks.length; c++) {
+            raw.reset();
+            DataOutputStream data = new DataOutputStream(raw);
+            ColumnChunk chunk = new ColumnChunk();
+            switch (AuctionFileFormat.TYPES[c]) {
+            case AuctionFileFormat.INT:
+                writeInts(data, devicetype, chunk);
+                break;
+            case AuctionFileFormat.FLOAT:
+                writeFloats(data, price, chunk);
+                break;
+            case AuctionFileFormat.STRING:
+                writeStrings(data, strings[c].build(), chunk);
+                break;
+            default:
+                writeBytes(data, payloads[c - AuctionFileFormat.REQUEST], chunk);
+            }
+            writeChunk(chunk);
+            chunks[c] = chunk;
+        }
+        rowGroups.add(chunks);
+        rowCounts.add(Integer.valueOf(rows));
+        Arrays.fill(payloads[0], 0, rows, null);
+        Arrays.fill(payloads[1], 0, rows, null);
+        rows = 0;
+        strings = newStrings();
+    }
+
+    private void writeInts(DataOutputStream data, int[] values, ColumnChunk chunk) throws IOException {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < rows; i++) {
+            int value = values[i];
+            data.writeInt(value);
+            if (value == BidRequestBatch.NULL) {
+                chunk.nullCount++;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        if (chunk.nullCount < rows) {
+            chunk.min = Integer.valueOf(min);
+            chunk.max = Integer.valueOf(max);
+        }
+    }
+
+    private void writeFloats(DataOutputStream data, float[] values, ColumnChunk chunk) throws IOException {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < rows; i++) {
+            float value = values[i];
+            data.writeFloat(value);
+            if (Float.isNaN(value)) {
+                chunk.nullCount++;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        if (chunk.nullCount < rows) {
+            chunk.min = Float.valueOf(min);
+            chunk.max = Float.valueOf(max);
+        }
+    }
+
+    private void writeStrings(DataOutputStream data, StringColumn column, ColumnChunk chunk) throws IOException {
+        String[] dictionary = column.getDictionary();
+        int[] codes = column.getCodes();
+        boolean encode = dictionary.length <= maxDictionarySize && dictionary.length < rows;
+        chunk.encoding = encode ? AuctionFileFormat.DICTIONARY : AuctionFileFormat.PLAIN;
+        for (int i = 0; i < rows; i++) {
+            int code = codes[i];
+            if (code < 0) {
+                chunk.nullCount++;
+            }
+            if (encode) {
+                data.writeInt(code);
+            } else {
+                ColumnChunk.writeString(data, code < 0 ? null : dictionary[code]);
+            }
+        }
+        for (String value : dictionary) {
+            if (chunk.min == null || value.compareTo((String) chunk.min) < 0) {
+                chunk.min = value;
+            }
+            if (chunk.max == null || value.compareTo((String) chunk.max) > 0) {
+                chunk.max = value;
+            }
+        }
+        if (encode) {
+            chunk.dictionary = dictionary;
+        }
+    }
+
+    private void writeBytes(DataOutputStream data, byte[][] values, ColumnChunk chunk) throws IOException {
+        for (int i = 0; i < rows; i++) {
+            byte[] value = values[i];
+            if (value == null) {
+                chunk.nullCount++;
+                data.writeInt(-1);
+            } else {
+                data.writeInt(value.length);
+                data.write(value);
+            }
+        }
+    }
+
+    /**
+     * Compresses the chunk held by {@link #raw} and writes it.
+     */
+    private void writeChunk(ColumnChunk chunk) throws IOException {
+        chunk.offset = position;
+        chunk.rawLength = raw.size();
+        deflater.reset();
+        deflater.setInput(raw.toByteArray());
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        out.write(compressed, 0, length);
+        chunk.length = length;
+        position += length;
+    }
+
+    private static float price(BidResponse response) {
+        float max = Float.NaN;
+        if (response == null || response.getSeatbid() == null) {
+            return max;
+        }
+        for (SeatBid seatbid : response.getSeatbid()) {
+            if (seatbid == null || seatbid.getBid() == null) {
+                continue;
+            }
+            for (Bid bid : seatbid.getBid()) {
+                Float price = bid == null ? null : bid.getPrice();
+                if (price != null && (Float.isNaN(max) || price.floatValue() > max)) {
+                    max = price.floatValue();
+                }
+            }
+        }
+        return max;
+    }
+
+    private static StringColumn.Builder[] newStrings() {
+        StringColumn.Builder[] strings = new StringColumn.Builder[AuctionFileFormat.REQUEST];
+        for (int c = 0; c < strings.length; c++) {
+            if (AuctionFileFormat.TYPES[c] == AuctionFileFormat.STRING) {
+                strings[c] = new StringColumn.Builder();
+            }
+        }
+        return strings;
+    }
+
+}
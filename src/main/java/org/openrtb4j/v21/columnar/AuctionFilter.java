@@ -0,0 +1,251 @@
+package org.openrtb4j.v21.columnar;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Filter of the auctions read by an {@link AuctionFileReader}, evaluated
+ * against the statistics of a row group first, so that groups where no
+ * auction can match are skipped without being read, then against the
+ * columns of the groups that are read, before any auction is decoded.
+ *
+ * Filters are immutable and may be shared by any number of threads.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public abstract class AuctionFilter {
+
+    private static final AuctionFilter ALL = new AuctionFilter() {
+
+        @Override
+        boolean mayMatch(ColumnChunk[] chunks) {
+            return true;
+        }
+
+        @Override
+        void filter(RowGroup group, boolean[] selected) {
+        }
+
+    };
+
+    AuctionFilter() {
+    }
+
+    /**
+     * @return a filter matching every auction
+     */
+    public static AuctionFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @param countries the countries of the geo of the device to match
+     * @return a filter of auctions whose request comes from one of the
+     *         countries
+     */
+    public static AuctionFilter country(String... countries) {
+        return new StringIn(AuctionFileFormat.COUNTRY, countries);
+    }
+
+    /**
+     * @param domains the domains of the site, or of the app, to match
+     * @return a filter of auctions whose request is for one of the domains
+     */
+    public static AuctionFilter domain(String... domains) {
+        return new StringIn(AuctionFileFormat.DOMAIN, domains);
+    }
+
+    /**
+     * @param bundles the bundles of the app to match
+     * @return a filter of auctions whose request is for one of the apps
+     */
+    public static AuctionFilter bundle(String... bundles) {
+        return new StringIn(AuctionFileFormat.BUNDLE, bundles);
+    }
+
+    /**
+     * @param devicetypes the devicetypes of the device to match
+     * @return a filter of auctions whose request comes from one of the types
+     *         of device
+     */
+    public static AuctionFilter devicetype(int... devicetypes) {
+        return new IntIn(AuctionFileFormat.DEVICETYPE, devicetypes);
+    }
+
+    /**
+     * @param price the price to exceed
+     * @return a filter of auctions whose response has a bid above the price
+     */
+    public static AuctionFilter priceAbove(float price) {
+        return new PriceAbove(price);
+    }
+
+    /**
+     * @param filters the filters to combine
+     * @return a filter of the auctions matching every filter
+     */
+    public static AuctionFilter and(AuctionFilter... filters) {
+        return new And(filters.clone());
+    }
+
+    /**
+     * @param chunks the column chunks of a row group
+     * @return false if no auction of the group can match
+     */
+    abstract boolean mayMatch(ColumnChunk[] chunks);
+
+    /**
+     * Clears the selection of the auctions of a group that do not match.
+     */
+    abstract void filter(RowGroup group, boolean[] selected);
+
+    private static final class StringIn extends AuctionFilter {
+
+        private final int column;
+
+        private final Set<String> values;
+
+        StringIn(int column, String[] values) {
+            this.column = column;
+            this.values = new HashSet<String>(Arrays.asList(values));
+        }
+
+        @Override
+        boolean mayMatch(ColumnChunk[] chunks) {
+            ColumnChunk chunk = chunks[column];
+            if (values.contains(null) && chunk.nullCount > 0) {
+                return true;
+            }
+            if (chunk.dictionary != null) {
+                for (String value : chunk.dictionary) {
+                    if (values.contains(value)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (chunk.min == null) {
+                return false;
+            }
+            for (String value : values) {
+                if (value != null && value.compareTo((String) chunk.min) >= 0
+                        && value.compareTo((String) chunk.max) <= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        void filter(RowGroup group, boolean[] selected) {
+            StringColumn strings = group.strings(column);
+            String[] dictionary = strings.getDictionary();
+            boolean[] matches = new boolean[dictionary.length];
+            for (int i = 0; i < dictionary.length; i++) {
+                matches[i] = values.contains(dictionary[i]);
+            }
+            boolean nulls = values.contains(null);
+            int[] codes = strings.getCodes();
+            for (int row = 0; row < codes.length; row++) {
+                int code = codes[row];
+                selected[row] &= code < 0 ? nulls : matches[code];
+            }
+        }
+
+    }
+
+    private static final class IntIn extends AuctionFilter {
+
+        private final int column;
+
+        private final int[] values;
+
+        IntIn(int column, int[] values) {
+            this.column = column;
+            this.values = values.clone();
+        }
+
+        @Override
+        boolean mayMatch(ColumnChunk[] chunks) {
+            ColumnChunk chunk = chunks[column];
+            if (chunk.min == null) {
+                return false;
+            }
+            int min = ((Integer) chunk.min).intValue();
+            int max = ((Integer) chunk.max).intValue();
+            for (int value : values) {
+                if (value >= min && value <= max) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        void filter(RowGroup group, boolean[] selected) {
+            int[] column = group.ints(this.column);
+            for (int row = 0; row < column.length; row++) {
+                boolean match = false;
+                for (int value : values) {
+                    match |= column[row] == value;
+                }
+                selected[row] &= match;
+            }
+        }
+
+    }
+
+    private static final class PriceAbove extends AuctionFilter {
+
+        private final float price;
+
+        PriceAbove(float price) {
+            this.price = price;
+        }
+
+        @Override
+        boolean mayMatch(ColumnChunk[] chunks) {
+            ColumnChunk chunk = chunks[AuctionFileFormat.PRICE];
+            return chunk.max != null && ((Float) chunk.max).floatValue() > price;
+        }
+
+        @Override
+        void filter(RowGroup group, boolean[] selected) {
+            float[] prices = group.floats(AuctionFileFormat.PRICE);
+            for (int row = 0; row < prices.length; row++) {
+                selected[row] &= prices[row] > price;
+            }
+        }
+
+    }
+
+    private static final class And extends AuctionFilter {
+
+        private final AuctionFilter[] filters;
+
+        And(AuctionFilter[] filters) {
+            this.filters = filters;
+        }
+
+        @Override
+        boolean mayMatch(ColumnChunk[] chunks) {
+            for (AuctionFilter filter : filters) {
+                if (!filter.mayMatch(chunks)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void filter(RowGroup group, boolean[] selected) {
+            for (AuctionFilter filter : filters) {
+                filter.filter(group, selected);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,494 @@
+package org.openrtb4j.v21.columnar;
+
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.request.Video;
+import org.openrtb4j.v21.json.BidRequestDecoder;
+import org.openrtb4j.v21.json.Projection;
+
+/**
+ * Columnar batch of bid requests for scoring and analytics: the fields used
+ * by filters and models are held as one array per field, a struct of arrays,
+ * so that a pass over a field reads contiguous memory instead of chasing
+ * pointers through the object graph.
+ *
+ * Request columns have a row per request. Impression columns have a row per
+ * impression, the impressions of request i being the rows from
+ * <code>getImpOffsets()[i]</code> to <code>getImpOffsets()[i + 1]</code>
+ * excluded. Absent integers are held as {@link #NULL}, absent floats as NaN,
+ * and low-cardinality strings as a {@link StringColumn}. Null impressions are
+ * left out.
+ *
+ * Batches are built with a {@link Builder}, either from bid requests or
+ * straight from their JSON encoding. They are immutable and may be shared by
+ * any number of threads; the arrays returned by the getters are those of the
+ * batch and must not be modified.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public final class BidRequestBatch {
+
+    /**
+     * The value of an absent integer.
+     */
+    public static final int NULL = Integer.MIN_VALUE;
+
+    /**
+     * The fields held by a batch, for decoders feeding a builder.
+     */
+    public static final Projection PROJECTION = Projection.of("id", "at", "tmax", "site.domain", "app.domain",
+            "app.bundle", "device.devicetype", "device.connectiontype", "device.os", "device.geo.country",
+            "device.geo.lat", "device.geo.lon", "imp.id", "imp.bidfloor", "imp.bidfloorcur", "imp.instl",
+            "imp.banner.w", "imp.banner.h", "imp.banner.pos", "imp.video.w", "imp.video.h",
+            "imp.video.minduration", "imp.video.maxduration");
+
+    private int size;
+
+    private String[] id;
+
+    private int[] at;
+
+    private int[] tmax;
+
+    private StringColumn domain;
+
+    private StringColumn bundle;
+
+    private int[] devicetype;
+
+    private int[] connectiontype;
+
+    private StringColumn os;
+
+    private StringColumn country;
+
+    private float[] lat;
+
+    private float[] lon;
+
+    private int[] impOffsets;
+
+    private StringColumn impId;
+
+    private float[] bidfloor;
+
+    private StringColumn bidfloorcur;
+
+    private int[] instl;
+
+    private int[] bannerW;
+
+    private int[] bannerH;
+
+    private int[] bannerPos;
+
+    private int[] videoW;
+
+    private int[] videoH;
+
+    private int[] videoMinduration;
+
+    private int[] videoMaxduration;
+
+    private BidRequestBatch() {
+    }
+
+    /**
+     * @param requests the bid requests, none of which may be null
+     * @return the batch of the requests
+     */
+    public static BidRequestBatch of(BidRequest... requests) {
+        Builder builder = new Builder();
+        for (BidRequest request : requests) {
+            builder.add(request);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the number of requests
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of impressions
+     */
+    public int getImpCount() {
+        return impOffsets[size];
+    }
+
+    /**
+     * @return the id of every request
+     */
+    public String[] getId() {
+        return id;
+    }
+
+    /**
+     * @return the at of every request
+     */
+    public int[] getAt() {
+        return at;
+    }
+
+    /**
+     * @return the tmax of every request
+     */
+    public int[] getTmax() {
+        return tmax;
+    }
+
+    /**
+     * @return the domain of the site, or of the app, of every request
+     */
+    public StringColumn getDomain() {
+        return domain;
+    }
+
+    /**
+     * @return the bundle of the app of every request
+     */
+    public StringColumn getBundle() {
+        return bundle;
+    }
+
+    /**
+     * @return the devicetype of every request
+     */
+    public int[] getDevicetype() {
+        return devicetype;
+    }
+
+    /**
+     * @return the connectiontype of every request
+     */
+    public int[] getConnectiontype() {
+        return connectiontype;
+    }
+
+    /**
+     * @return the os of the device of every request
+     */
+    public StringColumn getOs() {
+        return os;
+    }
+
+    /**
+     * @return the country of the geo of the device of every request
+     */
+    public StringColumn getCountry() {
+        return country;
+    }
+
+    /**
+     * @return the lat of the geo of the device of every request
+     */
+    public float[] getLat() {
+        return lat;
+    }
+
+    /**
+     * @return the lon of the geo of the device of every request
+     */
+    public float[] getLon() {
+        return lon;
+    }
+
+    /**
+     * @return the offset of the first impression of every request, followed
+     *         by the number of impressions
+     */
+    public int[] getImpOffsets() {
+        return impOffsets;
+    }
+
+    /**
+     * @return the id of every impression
+     */
+    public StringColumn getImpId() {
+        return impId;
+    }
+
+    /**
+     * @return the bidfloor of every impression
+     */
+    public float[] getBidfloor() {
+        return bidfloor;
+    }
+
+    /**
+     * @return the bidfloorcur of every impression
+     */
+    public StringColumn getBidfloorcur() {
+        return bidfloorcur;
+    }
+
+    /**
+     * @return the instl of every impression
+     */
+    public int[] getInstl() {
+        return instl;
+    }
+
+    /**
+     * @return the w of the banner of every impression
+     */
+    public int[] getBannerW() {
+        return bannerW;
+    }
+
+    /**
+     * @return the h of the banner of every impression
+     */
+    public int[] getBannerH() {
+        return bannerH;
+    }
+
+    /**
+     * @return the pos of the banner of every impression
+     */
+    public int[] getBannerPos() {
+        return bannerPos;
+    }
+
+    /**
+     * @return the w of the video of every impression
+     */
+    public int[] getVideoW() {
+        return videoW;
+    }
+
+    /**
+     * @return the h of the video of every impression
+     */
+    public int[] getVideoH() {
+        return videoH;
+    }
+
+    /**
+     * @return the minduration of the video of every impression
+     */
+    public int[] getVideoMinduration() {
+        return videoMinduration;
+    }
+
+    /**
+     * @return the maxduration of the video of every impression
+     */
+    public int[] getVideoMaxduration() {
+        return videoMaxduration;
+    }
+
+    /**
+     * Builder of a batch, appending one request at a time. A builder is not
+     * thread-safe.
+     */
+    public static final class Builder {
+
+        private int size;
+
+        private int imps;
+
+        private String[] id = new String[64];
+
+        private int[] at = new int[64];
+
+        private int[] tmax = new int[64];
+
+        private final StringColumn.Builder domain = new StringColumn.Builder();
+
+        private final StringColumn.Builder bundle = new StringColumn.Builder();
+
+        private int[] devicetype = new int[64];
+
+        private int[] connectiontype = new int[64];
+
+        private final StringColumn.Builder os = new StringColumn.Builder();
+
+        private final StringColumn.Builder country = new StringColumn.Builder();
+
+        private float[] lat = new float[64];
+
+        private float[] lon = new float[64];
+
+        private int[] impOffsets = new int[65];
+
+        private final StringColumn.Builder impId = new StringColumn.Builder();
+
+        private float[] bidfloor = new float[64];
+
+        private final StringColumn.Builder bidfloorcur = new StringColumn.Builder();
+
+        private int[] instl = new int[64];
+
+        private int[] bannerW = new int[64];
+
+        private int[] bannerH = new int[64];
+
+        private int[] bannerPos = new int[64];
+
+        private int[] videoW = new int[64];
+
+        private int[] videoH = new int[64];
+
+        private int[] videoMinduration = new int[64];
+
+        private int[] videoMaxduration = new int[64];
+
+        private BidRequestDecoder decoder;
+
+        private BidRequest target;
+
+        /**
+         * @return the number of requests added
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Appends a request decoded from JSON, decoding only the fields the
+         * batch holds into an instance reused for every request.
+         *
+         * @param json the UTF-8 encoded bid request
+         * @param off the offset of the first byte of the bid request
+         * @param len the length of the bid request in bytes
+         * @throws org.openrtb4j.v21.json.JsonParseException if the input is
+         *             not a valid bid request, nothing is then appended
+         */
+        public void add(byte[] json, int off, int len) {
+            if (decoder == null) {
+                decoder = new BidRequestDecoder(PROJECTION);
+                target = new BidRequest();
+            }
+            add(decoder.decode(json, off, len, target));
+        }
+
+        /**
+         * Appends a request.
+         *
+         * @param request the bid request
+         */
+        public void add(BidRequest request) {
+            if (size == id.length) {
+                int n = size * 2;
+                id = Arrays.copyOf(id, n);
+                at = Arrays.copyOf(at, n);
+                tmax = Arrays.copyOf(tmax, n);
+                devicetype = Arrays.copyOf(devicetype, n);
+                connectiontype = Arrays.copyOf(connectiontype, n);
+                lat = Arrays.copyOf(lat, n);
+                lon = Arrays.copyOf(lon, n);
+                impOffsets = Arrays.copyOf(impOffsets, n + 1);
+            }
+            int i = size;
+            id[i] = request.getId();
+            at[i] = request.getAt();
+            tmax[i] = value(request.getTmax());
+            Site site = request.getSite();
+            App app = request.getApp();
+            domain.add(site != null && site.getDomain() != null ? site.getDomain()
+                    : app != null ? app.getDomain() : null);
+            bundle.add(app == null ? null : app.getBundle());
+            Device device = request.getDevice();
+            Geo geo = device == null ? null : device.getGeo();
+            devicetype[i] = device == null ? NULL : value(device.getDevicetype());
+            connectiontype[i] = device == null ? NULL : value(device.getConnectiontype());
+            os.add(device == null ? null : device.getOs());
+            country.add(geo == null ? null : geo.getCountry());
+            lat[i] = geo == null ? Float.NaN : value(geo.getLat());
+            lon[i] = geo == null ? Float.NaN : value(geo.getLon());
+            if (request.getImp() != null) {
+                for (Impression imp : request.getImp()) {
+                    if (imp != null) {
+                        add(imp);
+                    }
+                }
+            }
+            impOffsets[i + 1] = imps;
+            size++;
+        }
+
+        private void add(Impression imp) {
+            if (imps == bidfloor.length) {
+                int n = imps * 2;
+                bidfloor = Arrays.copyOf(bidfloor, n);
+                instl = Arrays.copyOf(instl, n);
+                bannerW = Arrays.copyOf(bannerW, n);
+                bannerH = Arrays.copyOf(bannerH, n);
+                bannerPos = Arrays.copyOf(bannerPos, n);
+                videoW = Arrays.copyOf(videoW, n);
+                videoH = Arrays.copyOf(videoH, n);
+                videoMinduration = Arrays.copyOf(videoMinduration, n);
+                videoMaxduration = Arrays.copyOf(videoMaxduration, n);
+            }
+            int j = imps++;
+            impId.add(imp.getId());
+            bidfloor[j] = imp.getBidfloor();
+            bidfloorcur.add(imp.getBidfloorcur());
+            instl[j] = imp.getInstl();
+            Banner banner = imp.getBanner();
+            bannerW[j] = banner == null ? NULL : value(banner.getW());
+            bannerH[j] = banner == null ? NULL : value(banner.getH());
+            bannerPos[j] = banner == null ? NULL : value(banner.getPos());
+            Video video = imp.getVideo();
+            videoW[j] = video == null ? NULL : value(video.getW());
+            videoH[j] = video == null ? NULL : value(video.getH());
+            videoMinduration[j] = video == null ? NULL : value(video.getMinduration());
+            videoMaxduration[j] = video == null ? NULL : value(video.getMaxduration());
+        }
+
+        /**
+         * @return the batch of the requests added so far, the builder
+         *         going on appending after it
+         */
+        public BidRequestBatch build() {
+            BidRequestBatch b = new BidRequestBatch();
+            b.size = size;
+            b.id = Arrays.copyOf(id, size);
+            b.at = Arrays.copyOf(at, size);
+            b.tmax = Arrays.copyOf(tmax, size);
+            b.domain = domain.build();
+            b.bundle = bundle.build();
+            b.devicetype = Arrays.copyOf(devicetype, size);
+            b.connectiontype = Arrays.copyOf(connectiontype, size);
+            b.os = os.build();
+            b.country = country.build();
+            b.lat = Arrays.copyOf(lat, size);
+            b.lon = Arrays.copyOf(lon, size);
+            b.impOffsets = Arrays.copyOf(impOffsets, size + 1);
+            b.impId = impId.build();
+            b.bidfloor = Arrays.copyOf(bidfloor, imps);
+            b.bidfloorcur = bidfloorcur.build();
+            b.instl = Arrays.copyOf(instl, imps);
+            b.bannerW = Arrays.copyOf(bannerW, imps);
+            b.bannerH = Arrays.copyOf(bannerH, imps);
+            b.bannerPos = Arrays.copyOf(bannerPos, imps);
+            b.videoW = Arrays.copyOf(videoW, imps);
+            b.videoH = Arrays.copyOf(videoH, imps);
+            b.videoMinduration = Arrays.copyOf(videoMinduration, imps);
+            b.videoMaxduration = Arrays.copyOf(videoMaxduration, imps);
+            return b;
+        }
+
+        private static int value(Integer value) {
+            return value == null ? NULL : value.intValue();
+        }
+
+        private static float value(Float value) {
+            return value == null ? Float.NaN : value.floatValue();
+        }
+
+    }
+
+}
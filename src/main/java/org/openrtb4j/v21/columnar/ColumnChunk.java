@@ -0,0 +1,143 @@
+package org.openrtb4j.v21.columnar;
+
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Footer entry of a column chunk: where the chunk is, how it is encoded and
+ * the statistics of its values.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class ColumnChunk {
+
+    long offset;
+
+    int length;
+
+    int rawLength;
+
+    byte encoding;
+
+    int nullCount;
+
+    /**
+     * The smallest non-null value, an Integer, a Float or a String, or null if
+     * every value is null or the column holds bytes.
+     */
+    Comparable<?> min;
+
+    /**
+     * The largest non-null value, like {@link #min}.
+     */
+    Comparable<?> max;
+
+    /**
+     * The distinct values of a {@link AuctionFileFormat#DICTIONARY} chunk, by
+     * code, or null.
+     */
+    String[] dictionary;
+
+    void write(DataOutput out, byte type) throws IOException {
+        out.writeLong(offset);
+        out.writeInt(length);
+        out.writeInt(rawLength);
+        out.writeByte(encoding);
+        out.writeInt(nullCount);
+        if (type != AuctionFileFormat.BYTES) {
+            out.writeBoolean(min != null);
+            if (min != null) {
+                writeValue(out, type, min);
+                writeValue(out, type, max);
+            }
+        }
+        if (encoding == AuctionFileFormat.DICTIONARY) {
+            out.writeInt(dictionary.length);
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if the entry is truncated or malformed
+     */
+    static ColumnChunk read(DataInputStream in, byte type) throws IOException {
+        ColumnChunk chunk = new ColumnChunk();
+        chunk.offset = in.readLong();
+        chunk.length = in.readInt();
+        chunk.rawLength = in.readInt();
+        if (chunk.length < 0 || chunk.rawLength < 0
+                || chunk.rawLength > (long) chunk.length * AuctionFileFormat.MAX_COMPRESSION_RATIO) {
+            throw new IOException("Invalid chunk length " + chunk.length + " / " + chunk.rawLength + ".");
+        }
+        chunk.encoding = in.readByte();
+        chunk.nullCount = in.readInt();
+        if (type != AuctionFileFormat.BYTES && in.readBoolean()) {
+            chunk.min = readValue(in, type);
+            chunk.max = readValue(in, type);
+        }
+        if (chunk.encoding == AuctionFileFormat.DICTIONARY) {
+            int size = in.readInt();
+            if (size < 0 || size > in.available() / 4) {
+                throw new IOException("Invalid dictionary size " + size + ".");
+            }
+            chunk.dictionary = new String[size];
+            for (int i = 0; i < chunk.dictionary.length; i++) {
+                chunk.dictionary[i] = readString(in);
+            }
+        }
+        return chunk;
+    }
+
+    private static void writeValue(DataOutput out, byte type, Comparable<?> value) throws IOException {
+        switch (type) {
+        case AuctionFileFormat.INT:
+            out.writeInt(((Integer) value).intValue());
+            break;
+        case AuctionFileFormat.FLOAT:
+            out.writeFloat(((Float) value).floatValue());
+            break;
+        default:
+            writeString(out, (String) value);
+        }
+    }
+
+    private static Comparable<?> readValue(DataInputStream in, byte type) throws IOException {
+        switch (type) {
+        case AuctionFileFormat.INT:
+            return Integer.valueOf(in.readInt());
+        case AuctionFileFormat.FLOAT:
+            return Float.valueOf(in.readFloat());
+        default:
+            return readString(in);
+        }
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.available()) {
+            throw new IOException("Invalid string length " + length + ".");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,35 @@
+package org.openrtb4j.v21.columnar;
+
+/**
+ * Thrown when a columnar file cannot be read, because it is truncated,
+ * malformed or of an unsupported version.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class ColumnarFormatException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Offset in the file at which the problem was detected.
+     */
+    private final long offset;
+
+    /**
+     * @param message the problem description
+     * @param offset the offset in the file
+     */
+    public ColumnarFormatException(String message, long offset) {
+        super(message + " at offset " + offset);
+        this.offset = offset;
+    }
+
+    /**
+     * @return the offset in the file
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+}
@@ -0,0 +1,160 @@
+package org.openrtb4j.v21.columnar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * The columns of a row group read by an {@link AuctionCursor}, each being
+ * read and decoded on first use only, so that columns no filter looks at
+ * are only read for the groups holding a match.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class RowGroup {
+
+    private final AuctionFileReader reader;
+
+    private final ColumnChunk[] chunks;
+
+    private final int rows;
+
+    private final Object[] columns;
+
+    /**
+     * Offsets of the values of the {@link AuctionFileFormat#BYTES} columns,
+     * -1 for null.
+     */
+    private final int[][] offsets;
+
+    private final int[][] lengths;
+
+    RowGroup(AuctionFileReader reader, ColumnChunk[] chunks, int rows) {
+        this.reader = reader;
+        this.chunks = chunks;
+        this.rows = rows;
+        this.columns = new Object[chunks.length];
+        this.offsets = new int[chunks.length][];
+        this.lengths = new int[chunks.length][];
+    }
+
+    int size() {
+        return rows;
+    }
+
+    StringColumn strings(int column) {
+        if (columns[column] == null) {
+            ColumnChunk chunk = chunks[column];
+            ByteBuffer data = read(column);
+            int[] codes = new int[rows];
+            String[] dictionary;
+            if (chunk.encoding == AuctionFileFormat.DICTIONARY) {
+                dictionary = chunk.dictionary;
+                check(chunk, data.remaining() == rows * 4);
+                for (int row = 0; row < rows; row++) {
+                    codes[row] = data.getInt();
+                    check(chunk, codes[row] >= -1 && codes[row] < dictionary.length);
+                }
+            } else {
+                StringColumn.Builder builder = new StringColumn.Builder();
+                for (int row = 0; row < rows; row++) {
+                    int length = length(chunk, data);
+                    builder.add(length < 0 ? null : new String(data.array(), data.position(), length,
+                            StandardCharsets.UTF_8));
+                    data.position(data.position() + Math.max(length, 0));
+                }
+                check(chunk, !data.hasRemaining());
+                columns[column] = builder.build();
+                return (StringColumn) columns[column];
+            }
+            HashMap<String, Integer> index = new HashMap<String, Integer>();
+            for (int i = 0; i < dictionary.length; i++) {
+                index.put(dictionary[i], Integer.valueOf(i));
+            }
+            columns[column] = new StringColumn(codes, dictionary, index);
+        }
+        return (StringColumn) columns[column];
+    }
+
+    int[] ints(int column) {
+        if (columns[column] == null) {
+            ByteBuffer data = read(column);
+            check(chunks[column], data.remaining() == rows * 4);
+            int[] values = new int[rows];
+            data.asIntBuffer().get(values);
+            columns[column] = values;
+        }
+        return (int[]) columns[column];
+    }
+
+    float[] floats(int column) {
+        if (columns[column] == null) {
+            ByteBuffer data = read(column);
+            check(chunks[column], data.remaining() == rows * 4);
+            float[] values = new float[rows];
+            data.asFloatBuffer().get(values);
+            columns[column] = values;
+        }
+        return (float[]) columns[column];
+    }
+
+    /**
+     * @return the chunk of a {@link AuctionFileFormat#BYTES} column, whose
+     *         values are located by {@link #offsets(int)} and
+     *         {@link #lengths(int)}
+     */
+    byte[] bytes(int column) {
+        if (columns[column] == null) {
+            ColumnChunk chunk = chunks[column];
+            ByteBuffer data = read(column);
+            int[] starts = new int[rows];
+            int[] sizes = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                int length = length(chunk, data);
+                starts[row] = length < 0 ? -1 : data.position();
+                sizes[row] = length;
+                data.position(data.position() + Math.max(length, 0));
+            }
+            check(chunk, !data.hasRemaining());
+            offsets[column] = starts;
+            lengths[column] = sizes;
+            columns[column] = data.array();
+        }
+        return (byte[]) columns[column];
+    }
+
+    int[] offsets(int column) {
+        bytes(column);
+        return offsets[column];
+    }
+
+    int[] lengths(int column) {
+        bytes(column);
+        return lengths[column];
+    }
+
+    private ByteBuffer read(int column) {
+        try {
+            return reader.readChunk(chunks[column]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int length(ColumnChunk chunk, ByteBuffer data) {
+        check(chunk, data.remaining() >= 4);
+        int length = data.getInt();
+        check(chunk, length >= -1 && length <= data.remaining());
+        return length;
+    }
+
+    private static void check(ColumnChunk chunk, boolean valid) {
+        if (!valid) {
+            throw new ColumnarFormatException("Malformed column chunk", chunk.offset);
+        }
+    }
+
+}
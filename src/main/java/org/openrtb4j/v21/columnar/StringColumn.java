@@ -0,0 +1,114 @@
+package org.openrtb4j.v21.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Dictionary-encoded column of strings: every row holds the code of its
+ * value in the dictionary of the distinct values of the column, or -1 for
+ * null. Filters compare codes rather than strings, e.g. by looking up the
+ * code of the wanted value once with {@link #code(String)}.
+ *
+ * Columns are immutable and may be shared by any number of threads. The
+ * arrays returned by the getters are those of the column and must not be
+ * modified.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public final class StringColumn {
+
+    private final int[] codes;
+
+    private final String[] dictionary;
+
+    private final HashMap<String, Integer> index;
+
+    StringColumn(int[] codes, String[] dictionary, HashMap<String, Integer> index) {
+        this.codes = codes;
+        this.dictionary = dictionary;
+        this.index = index;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @return the code of every row, -1 for null
+     */
+    public int[] getCodes() {
+        return codes;
+    }
+
+    /**
+     * @return the distinct values by code
+     */
+    public String[] getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param row the index of a row
+     * @return the value of the row, or null
+     */
+    public String get(int row) {
+        int code = codes[row];
+        return code < 0 ? null : dictionary[code];
+    }
+
+    /**
+     * @param value a value
+     * @return the code of the value, or -1 if no row holds it
+     */
+    public int code(String value) {
+        Integer code = index.get(value);
+        return code == null ? -1 : code.intValue();
+    }
+
+    /**
+     * Appends the rows of a column, assigning codes in the order values are
+     * first seen.
+     */
+    static final class Builder {
+
+        private int[] codes = new int[64];
+
+        private int size;
+
+        private final HashMap<String, Integer> index = new HashMap<String, Integer>();
+
+        private String[] dictionary = new String[16];
+
+        void add(String value) {
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            codes[size++] = value == null ? -1 : code(value);
+        }
+
+        private int code(String value) {
+            Integer code = index.get(value);
+            if (code == null) {
+                int n = index.size();
+                if (n == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, n * 2);
+                }
+                dictionary[n] = value;
+                code = Integer.valueOf(n);
+                index.put(value, code);
+            }
+            return code.intValue();
+        }
+
+        StringColumn build() {
+            return new StringColumn(Arrays.copyOf(codes, size),
+                    Arrays.copyOf(dictionary, index.size()), new HashMap<String, Integer>(index));
+        }
+
+    }
+
+}
@@ -0,0 +1,132 @@
+package org.openrtb4j.v21.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Custom JSON, such as the “ext” placeholder objects, kept as the raw UTF-8
+ * bytes it was received in. The bytes are decoded into text only on first
+ * access, and encoders write them back byte-for-byte.
+ *
+ * A value captured by a decoder is a slice of the decoder input and shares its
+ * buffer, so the buffer must not be reused while the value is reachable.
+ * Use {@link #detach()} to keep a value beyond the lifetime of the input
+ * buffer.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public final class RawJson {
+
+    private final byte[] buf;
+
+    private final int off;
+
+    private final int len;
+
+    private String text;
+
+    /**
+     * @param buf the buffer holding the UTF-8 encoded JSON value
+     * @param off the offset of the first byte of the value
+     * @param len the length of the value in bytes
+     */
+    public RawJson(byte[] buf, int off, int len) {
+        if (off < 0 || len < 0 || off + len > buf.length) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + buf.length);
+        }
+        this.buf = buf;
+        this.off = off;
+        this.len = len;
+    }
+
+    private RawJson(byte[] buf, int off, int len, String text) {
+        this.buf = buf;
+        this.off = off;
+        this.len = len;
+        this.text = text;
+    }
+
+    /**
+     * @param json the JSON text of the value
+     * @return the raw value
+     */
+    public static RawJson valueOf(String json) {
+        if (json == null) {
+            throw new NullPointerException("json cannot be null.");
+        }
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new RawJson(bytes, 0, bytes.length, json);
+    }
+
+    /**
+     * @return the buffer holding the UTF-8 encoded value
+     */
+    public byte[] buffer() {
+        return buf;
+    }
+
+    /**
+     * @return the offset of the first byte of the value in {@link #buffer()}
+     */
+    public int offset() {
+        return off;
+    }
+
+    /**
+     * @return the length of the value in bytes
+     */
+    public int length() {
+        return len;
+    }
+
+    /**
+     * @return a value holding a private copy of the bytes, that no longer
+     *         refers to the buffer this value was captured from
+     */
+    public RawJson detach() {
+        return new RawJson(Arrays.copyOfRange(buf, off, off + len), 0, len, text);
+    }
+
+    /**
+     * @return the JSON text of the value
+     */
+    @Override
+    public String toString() {
+        String s = text;
+        if (s == null) {
+            s = text = new String(buf, off, len, StandardCharsets.UTF_8);
+        }
+        return s;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RawJson)) {
+            return false;
+        }
+        RawJson other = (RawJson) obj;
+        if (len != other.len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (buf[off + i] != other.buf[other.off + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = off, end = off + len; i < end; i++) {
+            h = 31 * h + buf[i];
+        }
+        return h;
+    }
+
+}
@@ -1,5 +1,7 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
+
 /**
  * An “app” object should be included if the ad supported content is part of a
  * mobile application (as opposed to a mobile website). A bid request must not
@@ -100,7 +102,7 @@ public class App {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in the specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the id
@@ -302,14 +304,50 @@ public class App {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        id = null;
+        name = null;
+        domain = null;
+        cat = null;
+        sectioncat = null;
+        pagecat = null;
+        ver = null;
+        bundle = null;
+        privacypolicy = null;
+        paid = null;
+        publisher = null;
+        content = null;
+        keywords = null;
+        storeurl = null;
+        ext = null;
+    }
+
 }
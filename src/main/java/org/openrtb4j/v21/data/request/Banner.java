@@ -1,5 +1,6 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
 import org.openrtb4j.v21.data.refs.APIFrameworks;
 import org.openrtb4j.v21.data.refs.AdPosition;
 import org.openrtb4j.v21.data.refs.BannerAdTypes;
@@ -90,7 +91,7 @@ public class Banner {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the w
@@ -236,14 +237,46 @@ public class Banner {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        w = null;
+        h = null;
+        id = null;
+        pos = null;
+        btype = null;
+        battr = null;
+        mimes = null;
+        topframe = 0;
+        expdir = null;
+        api = null;
+        ext = null;
+    }
+
 }
@@ -1,5 +1,7 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
+
 /**
  * Bid Request object due to OpenRTB 2.1 specification.
  * http://www.iab.net/media/file/OpenRTB-API-Specification-Version-2-1-FINAL.pdf
@@ -112,7 +114,7 @@ public class BidRequest {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the id
@@ -300,16 +302,51 @@ public class BidRequest {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        id = null;
+        imp = null;
+        site = null;
+        app = null;
+        device = null;
+        user = null;
+        at = 2;
+        tmax = null;
+        wseat = null;
+        allimps = 0;
+        cur = null;
+        bcat = null;
+        badv = null;
+        ext = null;
+    }
+
     /**
      * Validate the required fields.
      * 
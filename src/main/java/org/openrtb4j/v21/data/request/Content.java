@@ -1,5 +1,6 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
 import org.openrtb4j.v21.data.refs.ContentContext;
 import org.openrtb4j.v21.data.refs.QAGMediaRatings;
 import org.openrtb4j.v21.data.refs.VideoQuality;
@@ -140,7 +141,7 @@ public class Content {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the id
@@ -412,14 +413,55 @@ public class Content {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        id = null;
+        episode = null;
+        title = null;
+        series = null;
+        season = null;
+        url = null;
+        cat = null;
+        videoquality = null;
+        keywords = null;
+        contentrating = null;
+        userrating = null;
+        context = null;
+        livestream = null;
+        sourcerelationship = null;
+        producer = null;
+        len = null;
+        qagmediarating = null;
+        embeddable = null;
+        language = null;
+        ext = null;
+    }
+
 }
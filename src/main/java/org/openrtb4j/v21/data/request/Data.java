@@ -1,5 +1,7 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
+
 /**
  * The data and segment objects together allow data about the user to be passed
  * to bidders in the bid request. This data may be from multiple sources (e.g.,
@@ -35,7 +37,7 @@ public class Data {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the id
@@ -83,14 +85,39 @@ public class Data {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        id = null;
+        name = null;
+        segment = null;
+        ext = null;
+    }
+
 }
@@ -1,5 +1,6 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
 import org.openrtb4j.v21.data.refs.ConnectionType;
 import org.openrtb4j.v21.data.refs.DeviceType;
 
@@ -156,7 +157,7 @@ public class Device {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the dnt
@@ -428,14 +429,55 @@ public class Device {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        dnt = null;
+        ua = null;
+        ip = null;
+        geo = null;
+        didsha1 = null;
+        didmd5 = null;
+        dpidsha1 = null;
+        dpidmd5 = null;
+        ipv6 = null;
+        carrier = null;
+        language = null;
+        make = null;
+        model = null;
+        os = null;
+        osv = null;
+        js = null;
+        connectiontype = null;
+        devicetype = null;
+        flashver = null;
+        ext = null;
+    }
+
 }
@@ -1,5 +1,6 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
 import org.openrtb4j.v21.data.refs.LocationType;
 
 /**
@@ -78,7 +79,7 @@ public class Geo {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the lat
@@ -210,14 +211,45 @@ public class Geo {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        lat = null;
+        lon = null;
+        country = null;
+        region = null;
+        regionfips104 = null;
+        metro = null;
+        city = null;
+        zip = null;
+        type = null;
+        ext = null;
+    }
+
 }
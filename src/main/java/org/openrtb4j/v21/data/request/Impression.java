@@ -1,5 +1,7 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
+
 /**
  * The “imp” object describes the ad position or impression being auctioned. A
  * single bid request can include multiple “imp” objects, a use case for which
@@ -93,7 +95,7 @@ public class Impression {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext;
+    private RawJson ext;
 
     /**
      * @return the id
@@ -239,16 +241,48 @@ public class Impression {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        id = null;
+        banner = null;
+        video = null;
+        displaymanager = null;
+        displaymanagerver = null;
+        instl = 0;
+        tagid = null;
+        bidfloor = 0;
+        bidfloorcur = "USD";
+        iframebuster = null;
+        ext = null;
+    }
+
     /**
      * Validate the required fields.
      * 
@@ -1,5 +1,7 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
+
 /**
  * A site object should be included if the ad supported content is part of a
  * website (as opposed to an application). <b>A bid request must not contain
@@ -92,7 +94,7 @@ public class Site {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the id
@@ -280,14 +282,49 @@ public class Site {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        id = null;
+        name = null;
+        domain = null;
+        cat = null;
+        sectioncat = null;
+        pagecat = null;
+        page = null;
+        privacypolicy = null;
+        ref = null;
+        search = null;
+        publisher = null;
+        content = null;
+        keywords = null;
+        ext = null;
+    }
+
 }
@@ -1,5 +1,6 @@
 package org.openrtb4j.v21.data.request;
 
+import org.openrtb4j.v21.data.RawJson;
 import org.openrtb4j.v21.data.refs.APIFrameworks;
 import org.openrtb4j.v21.data.refs.AdPosition;
 import org.openrtb4j.v21.data.refs.ContentDeliveryMethods;
@@ -172,7 +173,7 @@ public class Video {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the mimes
@@ -458,16 +459,58 @@ public class Video {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        mimes = null;
+        linearity = null;
+        minduration = null;
+        maxduration = null;
+        protocol = null;
+        w = null;
+        h = null;
+        startdelay = null;
+        sequence = 1;
+        battr = null;
+        maxextended = null;
+        minbitrate = null;
+        maxbitrate = null;
+        boxingallowed = 1;
+        playbackmethod = null;
+        delivery = null;
+        pos = null;
+        companionad = null;
+        api = null;
+        companiontype = null;
+        ext = null;
+    }
+
     /**
      * Validate the required fields.
      * 
@@ -1,5 +1,6 @@
 package org.openrtb4j.v21.data.response;
 
+import org.openrtb4j.v21.data.RawJson;
 import org.openrtb4j.v21.data.refs.CreativeAttributes;
 
 /**
@@ -105,7 +106,7 @@ public class Bid {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the id
@@ -265,16 +266,49 @@ public class Bid {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        id = null;
+        impid = null;
+        price = null;
+        adid = null;
+        nurl = null;
+        adm = null;
+        adomain = null;
+        iurl = null;
+        cid = null;
+        crid = null;
+        attr = null;
+        ext = null;
+    }
+
     /**
      * Validate the required fields.
      * 
@@ -1,5 +1,7 @@
 package org.openrtb4j.v21.data.response;
 
+import org.openrtb4j.v21.data.RawJson;
+
 /**
  * The top-level bid response object. The “id” attribute is a reflection of the
  * bid request ID for logging purposes. Similarly, “bidid” is an optional
@@ -55,7 +57,7 @@ public class BidResponse {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the id
@@ -131,16 +133,43 @@ public class BidResponse {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        id = null;
+        seatbid = null;
+        bidid = null;
+        cur = "USD";
+        customdata = null;
+        ext = null;
+    }
+
     /**
      * Validate the required fields.
      * 
@@ -1,5 +1,7 @@
 package org.openrtb4j.v21.data.response;
 
+import org.openrtb4j.v21.data.RawJson;
+
 
 /**
  * A {@link BidResponse} can contain multiple “seatbid” objects, each on behalf
@@ -40,7 +42,7 @@ public class SeatBid {
      * the parties in an OpenRTB transaction to support flexibility beyond the
      * standard defined in this specification.
      */
-    private String ext = null;
+    private RawJson ext = null;
 
     /**
      * @return the bid
@@ -88,16 +90,41 @@ public class SeatBid {
      * @return the ext
      */
     public String getExt() {
-        return ext;
+        return ext == null ? null : ext.toString();
     }
 
     /**
      * @param ext the ext to set
      */
     public void setExt(String ext) {
+        this.ext = ext == null ? null : RawJson.valueOf(ext);
+    }
+
+    /**
+     * @return the ext as received, decoded only on access
+     */
+    public RawJson getRawExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setRawExt(RawJson ext) {
         this.ext = ext;
     }
 
+    /**
+     * Restores the default values of all fields, so that the instance can be
+     * reused.
+     */
+    public void reset() {
+        bid = null;
+        seat = null;
+        group = null;
+        ext = null;
+    }
+
     /**
      * Validate the required fields.
      * 
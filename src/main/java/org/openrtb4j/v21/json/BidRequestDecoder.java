@@ -0,0 +1,1182 @@
+package org.openrtb4j.v21.json;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Data;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Producer;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Segment;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.request.User;
+import org.openrtb4j.v21.data.request.Video;
+
+/**
+ * Streaming decoder of UTF-8 encoded JSON into the {@link BidRequest} object
+ * graph. The input is read in a single forward pass straight into the data
+ * objects, without an intermediate tree and without reflection. Members that
+ * are not part of the OpenRTB 2.1 specification are skipped.
+ *
+ * A decoder can be restricted to a {@link Projection} of the bid request, in
+ * which case every member outside of the projection is skipped.
+ *
+ * Untrusted input should be decoded under {@link DecoderLimits}, which reject
+ * oversized requests, overlong strings and arrays and deeply nested values
+ * early, before the work they would cause is spent.
+ *
+ * The “ext” members are captured as {@link org.openrtb4j.v21.data.RawJson}
+ * slices of the input, which is therefore referenced by the decoded request;
+ * a caller-supplied byte array or heap buffer must not be reused while the
+ * request is in use. Inputs the decoder copies into its own scratch array,
+ * such as direct buffers and channels, have their ext values copied out.
+ *
+ * A decoder keeps scratch buffers between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BidRequestDecoder {
+
+    private final JsonReader reader = new JsonReader();
+
+    private final Projection projection;
+
+    private StructuralIndex index;
+
+    private DecoderLimits limits;
+
+    /**
+     * Copy of the input when it is not available as a byte array.
+     */
+    private byte[] scratch = new byte[0];
+
+    private ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+
+    /**
+     * Creates a decoder of every field of the bid request.
+     */
+    public BidRequestDecoder() {
+        this(Projection.ALL);
+    }
+
+    /**
+     * @param projection the fields to decode
+     */
+    public BidRequestDecoder(Projection projection) {
+        this.projection = projection;
+    }
+
+    /**
+     * Enables or disables the structural indexing stage. When enabled, the
+     * quotes and brackets of every input are indexed 64 bytes at a time before
+     * decoding, and strings and skipped subtrees are then jumped over instead
+     * of being scanned byte by byte. This pays off for inputs with long
+     * strings or large skipped subtrees, such as projected decoding.
+     *
+     * @param enabled true to index the input before decoding it
+     */
+    public void setStructuralIndex(boolean enabled) {
+        index = enabled ? new StructuralIndex() : null;
+    }
+
+    /**
+     * @return the limits of the input, null if unlimited
+     */
+    public DecoderLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Sets the limits of the input, which may be shared with the decoders of
+     * other threads. A {@link LimitExceededException} is thrown as soon as
+     * the input exceeds one of them.
+     *
+     * @param limits the limits of the input, or null for none
+     */
+    public void setLimits(DecoderLimits limits) {
+        this.limits = limits;
+        reader.setLimits(limits);
+    }
+
+    /**
+     * @param json the UTF-8 encoded bid request
+     * @return the decoded bid request
+     * @throws JsonParseException if the input is not a valid bid request
+     */
+    public BidRequest decode(byte[] json) {
+        return decode(json, 0, json.length);
+    }
+
+    /**
+     * @param json the bid request
+     * @return the decoded bid request
+     * @throws JsonParseException if the input is not a valid bid request
+     */
+    public BidRequest decode(String json) {
+        return decode(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param buf the buffer holding the UTF-8 encoded bid request
+     * @param off the offset of the first byte of the bid request
+     * @param len the length of the bid request in bytes
+     * @return the decoded bid request
+     * @throws JsonParseException if the input is not a valid bid request
+     */
+    public BidRequest decode(byte[] buf, int off, int len) {
+        return decode(buf, off, len, null);
+    }
+
+    /**
+     * Decodes a bid request into an existing instance. The target is reset to
+     * the default values first, and its nested objects as well as arrays of
+     * objects of the same length are filled in place instead of being
+     * allocated again, so that pooled request graphs can be decoded without
+     * allocation once they have warmed up.
+     *
+     * @param json the UTF-8 encoded bid request
+     * @param target the instance to fill
+     * @return the target
+     * @throws JsonParseException if the input is not a valid bid request, the
+     *             target is then left in an unspecified state
+     */
+    public BidRequest decode(byte[] json, BidRequest target) {
+        return decode(json, 0, json.length, target);
+    }
+
+    /**
+     * Decodes a bid request into an existing instance, see
+     * {@link #decode(byte[], BidRequest)}.
+     *
+     * @param buf the buffer holding the UTF-8 encoded bid request
+     * @param off the offset of the first byte of the bid request
+     * @param len the length of the bid request in bytes
+     * @param target the instance to fill, or null to allocate a new one
+     * @return the decoded bid request
+     * @throws JsonParseException if the input is not a valid bid request
+     */
+    public BidRequest decode(byte[] buf, int off, int len, BidRequest target) {
+        return decode(buf, off, len, target, false);
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer. A heap buffer is read in place
+     * through its backing array, any other buffer, such as a direct one, is
+     * copied in bulk into a scratch array owned by the decoder. The position
+     * of the buffer is advanced past the bid request once it has been
+     * decoded.
+     *
+     * @param buf the buffer holding the UTF-8 encoded bid request
+     * @return the decoded bid request
+     * @throws JsonParseException if the input is not a valid bid request
+     */
+    public BidRequest decode(ByteBuffer buf) {
+        return decode(buf, null);
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer into an existing instance, see
+     * {@link #decode(ByteBuffer)} and {@link #decode(byte[], BidRequest)}.
+     *
+     * @param buf the buffer holding the UTF-8 encoded bid request
+     * @param target the instance to fill, or null to allocate a new one
+     * @return the decoded bid request
+     * @throws JsonParseException if the input is not a valid bid request
+     */
+    public BidRequest decode(ByteBuffer buf, BidRequest target) {
+        int start = buf.position();
+        int len = buf.remaining();
+        BidRequest request;
+        if (buf.hasArray()) {
+            request = decode(buf.array(), buf.arrayOffset() + start, len, target, false);
+        } else {
+            checkSize(len);
+            byte[] copy = scratch(len);
+            buf.get(copy, 0, len);
+            buf.position(start);
+            request = decode(copy, 0, len, target, true);
+        }
+        buf.position(start + len);
+        return request;
+    }
+
+    /**
+     * Reads a bid request of a known length, e.g. from the Content-Length of
+     * the HTTP request, from a channel into a scratch array owned by the
+     * decoder and decodes it.
+     *
+     * @param channel the channel to read from
+     * @param len the length of the bid request in bytes
+     * @param target the instance to fill, or null to allocate a new one
+     * @return the decoded bid request
+     * @throws IOException if reading from the channel fails or the channel
+     *             reaches its end before <code>len</code> bytes were read
+     * @throws JsonParseException if the input is not a valid bid request
+     */
+    public BidRequest decode(ReadableByteChannel channel, int len, BidRequest target) throws IOException {
+        checkSize(len);
+        scratch(len);
+        ByteBuffer buf = scratchBuffer;
+        buf.clear().limit(len);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) {
+                throw new EOFException("Expected " + len + " bytes, got " + buf.position());
+            }
+        }
+        return decode(scratch, 0, len, target, true);
+    }
+
+    /**
+     * Rejects an oversized input before it is copied.
+     */
+    private void checkSize(int len) {
+        if (limits != null && len > limits.getMaxBytes()) {
+            throw limits.exceeded(DecoderLimits.Limit.BYTES, limits.getMaxBytes(), 0);
+        }
+    }
+
+    private byte[] scratch(int len) {
+        if (scratch.length < len) {
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+            scratchBuffer = ByteBuffer.wrap(scratch);
+        }
+        return scratch;
+    }
+
+    private BidRequest decode(byte[] buf, int off, int len, BidRequest target, boolean transientInput) {
+        JsonReader r = reader;
+        r.reset(buf, off, len, index, transientInput);
+        try {
+            BidRequest request = readBidRequest(r, projection, target);
+            r.expectEnd();
+            return request;
+        } finally {
+            r.clear();
+        }
+    }
+
+    private static BidRequest readBidRequest(JsonReader r, Projection p, BidRequest o) {
+        Impression[] imp = null;
+        Site site = null;
+        App app = null;
+        Device device = null;
+        User user = null;
+        if (o == null) {
+            o = new BidRequest();
+        } else {
+            imp = o.getImp();
+            site = o.getSite();
+            app = o.getApp();
+            device = o.getDevice();
+            user = o.getUser();
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.BID_REQUEST)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // imp
+                o.setImp(readImpressions(r, p.child(1), imp));
+                break;
+            case 2: // site
+                o.setSite(r.readNull() ? null : readSite(r, p.child(2), site));
+                break;
+            case 3: // app
+                o.setApp(r.readNull() ? null : readApp(r, p.child(3), app));
+                break;
+            case 4: // device
+                o.setDevice(r.readNull() ? null : readDevice(r, p.child(4), device));
+                break;
+            case 5: // user
+                o.setUser(r.readNull() ? null : readUser(r, p.child(5), user));
+                break;
+            case 6: // at
+                o.setAt(r.readInt(o.getAt()));
+                break;
+            case 7: // tmax
+                o.setTmax(r.readInteger());
+                break;
+            case 8: // wseat
+                o.setWseat(r.readStringArray());
+                break;
+            case 9: // allimps
+                o.setAllimps(r.readInt(o.getAllimps()));
+                break;
+            case 10: // cur
+                o.setCur(r.readStringArray());
+                break;
+            case 11: // bcat
+                o.setBcat(r.readStringArray());
+                break;
+            case 12: // badv
+                o.setBadv(r.readStringArray());
+                break;
+            case 13: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Impression[] readImpressions(JsonReader r, Projection p, Impression[] items) {
+        if (r.readNull()) {
+            return null;
+        }
+        int max = r.maxArrayLength();
+        r.beginArray();
+        if (items == null || items.length == 0) {
+            items = new Impression[4];
+        }
+        int n = 0;
+        while (r.hasNextElement()) {
+            if (n == max) {
+                throw r.limitExceeded(DecoderLimits.Limit.ARRAY_LENGTH, max);
+            }
+            if (n == items.length) {
+                items = Arrays.copyOf(items, n * 2);
+            }
+            items[n] = readImpression(r, p, items[n]);
+            n++;
+        }
+        return n == items.length ? items : Arrays.copyOf(items, n);
+    }
+
+    private static Impression readImpression(JsonReader r, Projection p, Impression o) {
+        Banner banner = null;
+        Video video = null;
+        if (o == null) {
+            o = new Impression();
+        } else {
+            banner = o.getBanner();
+            video = o.getVideo();
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.IMPRESSION)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // banner
+                o.setBanner(r.readNull() ? null : readBanner(r, p.child(1), banner));
+                break;
+            case 2: // video
+                o.setVideo(r.readNull() ? null : readVideo(r, p.child(2), video));
+                break;
+            case 3: // displaymanager
+                o.setDisplaymanager(r.readString());
+                break;
+            case 4: // displaymanagerver
+                o.setDisplaymanagerver(r.readString());
+                break;
+            case 5: // instl
+                o.setInstl(r.readInt(o.getInstl()));
+                break;
+            case 6: // tagid
+                o.setTagid(r.readString());
+                break;
+            case 7: // bidfloor
+                o.setBidfloor(r.readFloat(o.getBidfloor()));
+                break;
+            case 8: // bidfloorcur
+                String bidfloorcur = r.readString();
+                if (bidfloorcur != null) {
+                    o.setBidfloorcur(bidfloorcur);
+                }
+                break;
+            case 9: // iframebuster
+                o.setIframebuster(r.readStringArray());
+                break;
+            case 10: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Banner[] readBanners(JsonReader r, Projection p, Banner[] items) {
+        if (r.readNull()) {
+            return null;
+        }
+        int max = r.maxArrayLength();
+        r.beginArray();
+        if (items == null || items.length == 0) {
+            items = new Banner[4];
+        }
+        int n = 0;
+        while (r.hasNextElement()) {
+            if (n == max) {
+                throw r.limitExceeded(DecoderLimits.Limit.ARRAY_LENGTH, max);
+            }
+            if (n == items.length) {
+                items = Arrays.copyOf(items, n * 2);
+            }
+            items[n] = readBanner(r, p, items[n]);
+            n++;
+        }
+        return n == items.length ? items : Arrays.copyOf(items, n);
+    }
+
+    private static Banner readBanner(JsonReader r, Projection p, Banner o) {
+        if (o == null) {
+            o = new Banner();
+        } else {
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.BANNER)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // w
+                o.setW(r.readInteger());
+                break;
+            case 1: // h
+                o.setH(r.readInteger());
+                break;
+            case 2: // id
+                o.setId(r.readString());
+                break;
+            case 3: // pos
+                o.setPos(r.readInteger());
+                break;
+            case 4: // btype
+                o.setBtype(r.readIntegerArray());
+                break;
+            case 5: // battr
+                o.setBattr(r.readIntegerArray());
+                break;
+            case 6: // mimes
+                o.setMimes(r.readStringArray());
+                break;
+            case 7: // topframe
+                o.setTopframe(r.readInt(o.getTopframe()));
+                break;
+            case 8: // expdir
+                o.setExpdir(r.readIntegerArray());
+                break;
+            case 9: // api
+                o.setApi(r.readIntegerArray());
+                break;
+            case 10: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Video readVideo(JsonReader r, Projection p, Video o) {
+        Banner[] companionad = null;
+        if (o == null) {
+            o = new Video();
+        } else {
+            companionad = o.getCompanionad();
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.VIDEO)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // mimes
+                o.setMimes(r.readStringArray());
+                break;
+            case 1: // linearity
+                o.setLinearity(r.readInteger());
+                break;
+            case 2: // minduration
+                o.setMinduration(r.readInteger());
+                break;
+            case 3: // maxduration
+                o.setMaxduration(r.readInteger());
+                break;
+            case 4: // protocol
+                o.setProtocol(r.readInteger());
+                break;
+            case 5: // w
+                o.setW(r.readInteger());
+                break;
+            case 6: // h
+                o.setH(r.readInteger());
+                break;
+            case 7: // startdelay
+                o.setStartdelay(r.readInteger());
+                break;
+            case 8: // sequence
+                o.setSequence(r.readInt(o.getSequence()));
+                break;
+            case 9: // battr
+                o.setBattr(r.readIntegerArray());
+                break;
+            case 10: // maxextended
+                o.setMaxextended(r.readInteger());
+                break;
+            case 11: // minbitrate
+                o.setMinbitrate(r.readInteger());
+                break;
+            case 12: // maxbitrate
+                o.setMaxbitrate(r.readInteger());
+                break;
+            case 13: // boxingallowed
+                o.setBoxingallowed(r.readInt(o.getBoxingallowed()));
+                break;
+            case 14: // playbackmethod
+                o.setPlaybackmethod(r.readIntegerArray());
+                break;
+            case 15: // delivery
+                o.setDelivery(r.readIntegerArray());
+                break;
+            case 16: // pos
+                o.setPos(r.readInteger());
+                break;
+            case 17: // companionad
+                o.setCompanionad(readBanners(r, p.child(17), companionad));
+                break;
+            case 18: // api
+                o.setApi(r.readIntegerArray());
+                break;
+            case 19: // companiontype
+                o.setCompaniontype(r.readIntegerArray());
+                break;
+            case 20: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Site readSite(JsonReader r, Projection p, Site o) {
+        Publisher publisher = null;
+        Content content = null;
+        if (o == null) {
+            o = new Site();
+        } else {
+            publisher = o.getPublisher();
+            content = o.getContent();
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.SITE)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // domain
+                o.setDomain(r.readString());
+                break;
+            case 3: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 4: // sectioncat
+                o.setSectioncat(r.readStringArray());
+                break;
+            case 5: // pagecat
+                o.setPagecat(r.readStringArray());
+                break;
+            case 6: // page
+                o.setPage(r.readString());
+                break;
+            case 7: // privacypolicy
+                o.setPrivacypolicy(r.readInteger());
+                break;
+            case 8: // ref
+                o.setRef(r.readString());
+                break;
+            case 9: // search
+                o.setSearch(r.readString());
+                break;
+            case 10: // publisher
+                o.setPublisher(r.readNull() ? null : readPublisher(r, p.child(10), publisher));
+                break;
+            case 11: // content
+                o.setContent(r.readNull() ? null : readContent(r, p.child(11), content));
+                break;
+            case 12: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 13: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static App readApp(JsonReader r, Projection p, App o) {
+        Publisher publisher = null;
+        Content content = null;
+        if (o == null) {
+            o = new App();
+        } else {
+            publisher = o.getPublisher();
+            content = o.getContent();
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.APP)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // domain
+                o.setDomain(r.readString());
+                break;
+            case 3: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 4: // sectioncat
+                o.setSectioncat(r.readStringArray());
+                break;
+            case 5: // pagecat
+                o.setPagecat(r.readStringArray());
+                break;
+            case 6: // ver
+                o.setVer(r.readString());
+                break;
+            case 7: // bundle
+                o.setBundle(r.readString());
+                break;
+            case 8: // privacypolicy
+                o.setPrivacypolicy(r.readInteger());
+                break;
+            case 9: // paid
+                o.setPaid(r.readInteger());
+                break;
+            case 10: // publisher
+                o.setPublisher(r.readNull() ? null : readPublisher(r, p.child(10), publisher));
+                break;
+            case 11: // content
+                o.setContent(r.readNull() ? null : readContent(r, p.child(11), content));
+                break;
+            case 12: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 13: // storeurl
+                o.setStoreurl(r.readString());
+                break;
+            case 14: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Publisher readPublisher(JsonReader r, Projection p, Publisher o) {
+        if (o == null) {
+            o = new Publisher();
+        } else {
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.PUBLISHER)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 3: // domain
+                o.setDomain(r.readString());
+                break;
+            case 4: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Content readContent(JsonReader r, Projection p, Content o) {
+        Producer producer = null;
+        if (o == null) {
+            o = new Content();
+        } else {
+            producer = o.getProducer();
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.CONTENT)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // episode
+                o.setEpisode(r.readInteger());
+                break;
+            case 2: // title
+                o.setTitle(r.readString());
+                break;
+            case 3: // series
+                o.setSeries(r.readString());
+                break;
+            case 4: // season
+                o.setSeason(r.readString());
+                break;
+            case 5: // url
+                o.setUrl(r.readString());
+                break;
+            case 6: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 7: // videoquality
+                o.setVideoquality(r.readInteger());
+                break;
+            case 8: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 9: // contentrating
+                o.setContentrating(r.readString());
+                break;
+            case 10: // userrating
+                o.setUserrating(r.readString());
+                break;
+            case 11: // context
+                o.setContext(r.readString());
+                break;
+            case 12: // livestream
+                o.setLivestream(r.readInteger());
+                break;
+            case 13: // sourcerelationship
+                o.setSourcerelationship(r.readInteger());
+                break;
+            case 14: // producer
+                o.setProducer(r.readNull() ? null : readProducer(r, p.child(14), producer));
+                break;
+            case 15: // len
+                o.setLen(r.readInteger());
+                break;
+            case 16: // qagmediarating
+                o.setQagmediarating(r.readInteger());
+                break;
+            case 17: // embeddable
+                o.setEmbeddable(r.readInteger());
+                break;
+            case 18: // language
+                o.setLanguage(r.readString());
+                break;
+            case 19: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Producer readProducer(JsonReader r, Projection p, Producer o) {
+        if (o == null) {
+            o = new Producer();
+        } else {
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.PRODUCER)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // cat
+                o.setCat(r.readStringArray());
+                break;
+            case 3: // domain
+                o.setDomain(r.readString());
+                break;
+            case 4: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Device readDevice(JsonReader r, Projection p, Device o) {
+        Geo geo = null;
+        if (o == null) {
+            o = new Device();
+        } else {
+            geo = o.getGeo();
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.DEVICE)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // dnt
+                o.setDnt(r.readInteger());
+                break;
+            case 1: // ua
+                o.setUa(r.readString());
+                break;
+            case 2: // ip
+                o.setIp(r.readString());
+                break;
+            case 3: // geo
+                o.setGeo(r.readNull() ? null : readGeo(r, p.child(3), geo));
+                break;
+            case 4: // didsha1
+                o.setDidsha1(r.readString());
+                break;
+            case 5: // didmd5
+                o.setDidmd5(r.readString());
+                break;
+            case 6: // dpidsha1
+                o.setDpidsha1(r.readString());
+                break;
+            case 7: // dpidmd5
+                o.setDpidmd5(r.readString());
+                break;
+            case 8: // ipv6
+                o.setIpv6(r.readString());
+                break;
+            case 9: // carrier
+                o.setCarrier(r.readString());
+                break;
+            case 10: // language
+                o.setLanguage(r.readString());
+                break;
+            case 11: // make
+                o.setMake(r.readString());
+                break;
+            case 12: // model
+                o.setModel(r.readString());
+                break;
+            case 13: // os
+                o.setOs(r.readString());
+                break;
+            case 14: // osv
+                o.setOsv(r.readString());
+                break;
+            case 15: // js
+                o.setJs(r.readInteger());
+                break;
+            case 16: // connectiontype
+                o.setConnectiontype(r.readInteger());
+                break;
+            case 17: // devicetype
+                o.setDevicetype(r.readInteger());
+                break;
+            case 18: // flashver
+                o.setFlashver(r.readString());
+                break;
+            case 19: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Geo readGeo(JsonReader r, Projection p, Geo o) {
+        if (o == null) {
+            o = new Geo();
+        } else {
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.GEO)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // lat
+                o.setLat(r.readFloatObject());
+                break;
+            case 1: // lon
+                o.setLon(r.readFloatObject());
+                break;
+            case 2: // country
+                o.setCountry(r.readString());
+                break;
+            case 3: // region
+                o.setRegion(r.readString());
+                break;
+            case 4: // regionfips104
+                o.setRegionfips104(r.readString());
+                break;
+            case 5: // metro
+                o.setMetro(r.readString());
+                break;
+            case 6: // city
+                o.setCity(r.readString());
+                break;
+            case 7: // zip
+                o.setZip(r.readString());
+                break;
+            case 8: // type
+                o.setType(r.readInteger());
+                break;
+            case 9: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static User readUser(JsonReader r, Projection p, User o) {
+        Geo geo = null;
+        Data[] data = null;
+        if (o == null) {
+            o = new User();
+        } else {
+            geo = o.getGeo();
+            data = o.getData();
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.USER)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // buyeruid
+                o.setBuyeruid(r.readString());
+                break;
+            case 2: // yob
+                o.setYob(r.readInteger());
+                break;
+            case 3: // gender
+                o.setGender(r.readString());
+                break;
+            case 4: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 5: // customdata
+                o.setCustomdata(r.readString());
+                break;
+            case 6: // geo
+                o.setGeo(r.readNull() ? null : readGeo(r, p.child(6), geo));
+                break;
+            case 7: // data
+                o.setData(readDataArray(r, p.child(7), data));
+                break;
+            case 8: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Data[] readDataArray(JsonReader r, Projection p, Data[] items) {
+        if (r.readNull()) {
+            return null;
+        }
+        int max = r.maxArrayLength();
+        r.beginArray();
+        if (items == null || items.length == 0) {
+            items = new Data[4];
+        }
+        int n = 0;
+        while (r.hasNextElement()) {
+            if (n == max) {
+                throw r.limitExceeded(DecoderLimits.Limit.ARRAY_LENGTH, max);
+            }
+            if (n == items.length) {
+                items = Arrays.copyOf(items, n * 2);
+            }
+            items[n] = readData(r, p, items[n]);
+            n++;
+        }
+        return n == items.length ? items : Arrays.copyOf(items, n);
+    }
+
+    private static Data readData(JsonReader r, Projection p, Data o) {
+        Segment[] segment = null;
+        if (o == null) {
+            o = new Data();
+        } else {
+            segment = o.getSegment();
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.DATA)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // segment
+                o.setSegment(readSegments(r, p.child(2), segment));
+                break;
+            case 3: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Segment[] readSegments(JsonReader r, Projection p, Segment[] items) {
+        if (r.readNull()) {
+            return null;
+        }
+        int max = r.maxArrayLength();
+        r.beginArray();
+        if (items == null || items.length == 0) {
+            items = new Segment[4];
+        }
+        int n = 0;
+        while (r.hasNextElement()) {
+            if (n == max) {
+                throw r.limitExceeded(DecoderLimits.Limit.ARRAY_LENGTH, max);
+            }
+            if (n == items.length) {
+                items = Arrays.copyOf(items, n * 2);
+            }
+            items[n] = readSegment(r, p, items[n]);
+            n++;
+        }
+        return n == items.length ? items : Arrays.copyOf(items, n);
+    }
+
+    private static Segment readSegment(JsonReader r, Projection p, Segment o) {
+        if (o == null) {
+            o = new Segment();
+        } else {
+            o.reset();
+        }
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.SEGMENT)) != JsonReader.END) {
+            if (!p.includes(field)) {
+                r.skipValue();
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // name
+                o.setName(r.readString());
+                break;
+            case 2: // value
+                o.setValue(r.readString());
+                break;
+            case 3: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+}
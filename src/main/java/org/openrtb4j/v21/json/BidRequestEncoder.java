@@ -0,0 +1,900 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Data;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Producer;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Segment;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.request.User;
+import org.openrtb4j.v21.data.request.Video;
+
+/**
+ * Streaming encoder of the {@link BidRequest} object graph into UTF-8 encoded
+ * JSON, the counterpart of {@link BidRequestDecoder}. Null fields and fields
+ * holding the default value of the specification are left out, and “ext”
+ * members are copied byte for byte, see {@link BidResponseEncoder}.
+ *
+ * The exact size of the encoded request can be computed up front with
+ * {@link #sizeOf(BidRequest)}. To send the same request to many bidders, see
+ * {@link BidRequestFanout}.
+ *
+ * An encoder keeps scratch buffers between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BidRequestEncoder {
+
+    private final JsonWriter writer = new JsonWriter();
+
+    /**
+     * @return the pre-encoded strings, or null
+     */
+    public StringCache getStrings() {
+        return writer.getStrings();
+    }
+
+    /**
+     * @param strings the pre-encoded strings to copy, or null to encode every
+     *            string
+     */
+    public void setStrings(StringCache strings) {
+        writer.setStrings(strings);
+    }
+
+    /**
+     * @return the number of decimals prices are written with, or -1 for the
+     *         shortest form that reads back as the same float
+     */
+    public int getPriceDecimals() {
+        return writer.getPriceDecimals();
+    }
+
+    /**
+     * Sets how prices, i.e. bid floors, are written. By default they are
+     * written in the shortest form that reads back as the same float, e.g.
+     * 0.1 or 0.0001; a fixed number of decimals, e.g. 2 for CPMs, rounds
+     * them half up instead. Either way they are never written in E notation.
+     *
+     * @param priceDecimals the number of decimals from 0 to 9, or -1 for the
+     *            shortest form
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    public void setPriceDecimals(int priceDecimals) {
+        writer.setPriceDecimals(priceDecimals);
+    }
+
+    /**
+     * @param request the bid request
+     * @return the UTF-8 encoded bid request
+     */
+    public byte[] encode(BidRequest request) {
+        JsonWriter w = writer;
+        w.reset();
+        writeBidRequest(w, request);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    /**
+     * Encodes a bid request into a region of an array.
+     *
+     * @param request the bid request
+     * @param buf the array to write to
+     * @param off the offset of the first byte to write
+     * @param len the number of bytes available
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the region is too small, its content
+     *             is then unspecified
+     */
+    public int encode(BidRequest request, byte[] buf, int off, int len) {
+        JsonWriter w = writer;
+        w.reset(buf, off, len);
+        try {
+            writeBidRequest(w, request);
+            return w.length();
+        } finally {
+            w.clear();
+        }
+    }
+
+    /**
+     * Encodes a bid request into the remaining space of a buffer, see
+     * {@link BidResponseEncoder#encode(org.openrtb4j.v21.data.response.BidResponse, ByteBuffer)}.
+     *
+     * @param request the bid request
+     * @param buf the buffer to write to
+     * @throws BufferOverflowException if the remaining space is too small, the
+     *             position is then left unchanged
+     */
+    public void encode(BidRequest request, ByteBuffer buf) {
+        int start = buf.position();
+        if (buf.hasArray()) {
+            int n = encode(request, buf.array(), buf.arrayOffset() + start, buf.remaining());
+            buf.position(start + n);
+        } else {
+            JsonWriter w = writer;
+            w.reset();
+            writeBidRequest(w, request);
+            buf.put(w.buffer(), 0, w.length());
+        }
+    }
+
+    /**
+     * Computes the exact length of the encoded bid request without encoding
+     * it, e.g. to allocate the output once or to set the Content-Length up
+     * front.
+     *
+     * @param request the bid request
+     * @return the number of bytes {@link #encode(BidRequest)} produces
+     */
+    public int sizeOf(BidRequest request) {
+        return size(request, writer.getPriceDecimals());
+    }
+
+    static void writeBidRequest(JsonWriter w, BidRequest o) {
+        w.beginObject();
+        writeBidRequestMembers(w, o, 0);
+        w.endObject();
+    }
+
+    /**
+     * Writes the members of a bid request into the current object.
+     *
+     * @param excluded the indexes of the fields to leave out, as bits
+     */
+    static void writeBidRequestMembers(JsonWriter w, BidRequest o, long excluded) {
+        FieldTable t = JsonFields.BID_REQUEST;
+        for (int field = 0; field < t.size(); field++) {
+            if ((excluded & 1L << field) != 0) {
+                continue;
+            }
+            switch (field) {
+            case 0: // id
+                w.field(t, 0, o.getId());
+                break;
+            case 1: // imp
+                writeImpressions(w, t, 1, o.getImp());
+                break;
+            case 2: // site
+                writeSite(w, t, 2, o.getSite());
+                break;
+            case 3: // app
+                writeApp(w, t, 3, o.getApp());
+                break;
+            case 4: // device
+                writeDevice(w, t, 4, o.getDevice());
+                break;
+            case 5: // user
+                writeUser(w, t, 5, o.getUser());
+                break;
+            case 6: // at
+                w.field(t, 6, o.getAt(), 2);
+                break;
+            case 7: // tmax
+                w.field(t, 7, o.getTmax());
+                break;
+            case 8: // wseat
+                w.field(t, 8, o.getWseat());
+                break;
+            case 9: // allimps
+                w.field(t, 9, o.getAllimps(), 0);
+                break;
+            case 10: // cur
+                w.field(t, 10, o.getCur());
+                break;
+            case 11: // bcat
+                w.field(t, 11, o.getBcat());
+                break;
+            case 12: // badv
+                w.field(t, 12, o.getBadv());
+                break;
+            case 13: // ext
+                w.field(t, 13, o.getRawExt());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    private static void writeImpressions(JsonWriter w, FieldTable parent, int field, Impression[] items) {
+        if (items != null) {
+            w.name(parent, field);
+            w.beginArray();
+            for (Impression item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeImpression(w, item);
+                }
+            }
+            w.endArray();
+        }
+    }
+
+    private static void writeImpression(JsonWriter w, Impression o) {
+        FieldTable t = JsonFields.IMPRESSION;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        writeBanner(w, t, 1, o.getBanner()); // banner
+        writeVideo(w, t, 2, o.getVideo()); // video
+        w.field(t, 3, o.getDisplaymanager()); // displaymanager
+        w.field(t, 4, o.getDisplaymanagerver()); // displaymanagerver
+        w.field(t, 5, o.getInstl(), 0); // instl
+        w.field(t, 6, o.getTagid()); // tagid
+        w.priceField(t, 7, o.getBidfloor(), 0f); // bidfloor
+        w.field(t, 8, o.getBidfloorcur(), "USD"); // bidfloorcur
+        w.field(t, 9, o.getIframebuster()); // iframebuster
+        w.field(t, 10, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeBanner(JsonWriter w, FieldTable parent, int field, Banner o) {
+        if (o != null) {
+            w.name(parent, field);
+            writeBanner(w, o);
+        }
+    }
+
+    private static void writeBanners(JsonWriter w, FieldTable parent, int field, Banner[] items) {
+        if (items != null) {
+            w.name(parent, field);
+            w.beginArray();
+            for (Banner item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeBanner(w, item);
+                }
+            }
+            w.endArray();
+        }
+    }
+
+    private static void writeBanner(JsonWriter w, Banner o) {
+        FieldTable t = JsonFields.BANNER;
+        w.beginObject();
+        w.field(t, 0, o.getW()); // w
+        w.field(t, 1, o.getH()); // h
+        w.field(t, 2, o.getId()); // id
+        w.field(t, 3, o.getPos()); // pos
+        w.field(t, 4, o.getBtype()); // btype
+        w.field(t, 5, o.getBattr()); // battr
+        w.field(t, 6, o.getMimes()); // mimes
+        w.field(t, 7, o.getTopframe(), 0); // topframe
+        w.field(t, 8, o.getExpdir()); // expdir
+        w.field(t, 9, o.getApi()); // api
+        w.field(t, 10, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeVideo(JsonWriter w, FieldTable parent, int field, Video o) {
+        if (o != null) {
+            w.name(parent, field);
+            writeVideo(w, o);
+        }
+    }
+
+    private static void writeVideo(JsonWriter w, Video o) {
+        FieldTable t = JsonFields.VIDEO;
+        w.beginObject();
+        w.field(t, 0, o.getMimes()); // mimes
+        w.field(t, 1, o.getLinearity()); // linearity
+        w.field(t, 2, o.getMinduration()); // minduration
+        w.field(t, 3, o.getMaxduration()); // maxduration
+        w.field(t, 4, o.getProtocol()); // protocol
+        w.field(t, 5, o.getW()); // w
+        w.field(t, 6, o.getH()); // h
+        w.field(t, 7, o.getStartdelay()); // startdelay
+        w.field(t, 8, o.getSequence(), 1); // sequence
+        w.field(t, 9, o.getBattr()); // battr
+        w.field(t, 10, o.getMaxextended()); // maxextended
+        w.field(t, 11, o.getMinbitrate()); // minbitrate
+        w.field(t, 12, o.getMaxbitrate()); // maxbitrate
+        w.field(t, 13, o.getBoxingallowed(), 1); // boxingallowed
+        w.field(t, 14, o.getPlaybackmethod()); // playbackmethod
+        w.field(t, 15, o.getDelivery()); // delivery
+        w.field(t, 16, o.getPos()); // pos
+        writeBanners(w, t, 17, o.getCompanionad()); // companionad
+        w.field(t, 18, o.getApi()); // api
+        w.field(t, 19, o.getCompaniontype()); // companiontype
+        w.field(t, 20, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeSite(JsonWriter w, FieldTable parent, int field, Site o) {
+        if (o != null) {
+            w.name(parent, field);
+            writeSite(w, o);
+        }
+    }
+
+    private static void writeSite(JsonWriter w, Site o) {
+        FieldTable t = JsonFields.SITE;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        w.field(t, 1, o.getName()); // name
+        w.field(t, 2, o.getDomain()); // domain
+        w.field(t, 3, o.getCat()); // cat
+        w.field(t, 4, o.getSectioncat()); // sectioncat
+        w.field(t, 5, o.getPagecat()); // pagecat
+        w.field(t, 6, o.getPage()); // page
+        w.field(t, 7, o.getPrivacypolicy()); // privacypolicy
+        w.field(t, 8, o.getRef()); // ref
+        w.field(t, 9, o.getSearch()); // search
+        writePublisher(w, t, 10, o.getPublisher()); // publisher
+        writeContent(w, t, 11, o.getContent()); // content
+        w.field(t, 12, o.getKeywords()); // keywords
+        w.field(t, 13, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeApp(JsonWriter w, FieldTable parent, int field, App o) {
+        if (o != null) {
+            w.name(parent, field);
+            writeApp(w, o);
+        }
+    }
+
+    private static void writeApp(JsonWriter w, App o) {
+        FieldTable t = JsonFields.APP;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        w.field(t, 1, o.getName()); // name
+        w.field(t, 2, o.getDomain()); // domain
+        w.field(t, 3, o.getCat()); // cat
+        w.field(t, 4, o.getSectioncat()); // sectioncat
+        w.field(t, 5, o.getPagecat()); // pagecat
+        w.field(t, 6, o.getVer()); // ver
+        w.field(t, 7, o.getBundle()); // bundle
+        w.field(t, 8, o.getPrivacypolicy()); // privacypolicy
+        w.field(t, 9, o.getPaid()); // paid
+        writePublisher(w, t, 10, o.getPublisher()); // publisher
+        writeContent(w, t, 11, o.getContent()); // content
+        w.field(t, 12, o.getKeywords()); // keywords
+        w.field(t, 13, o.getStoreurl()); // storeurl
+        w.field(t, 14, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writePublisher(JsonWriter w, FieldTable parent, int field, Publisher o) {
+        if (o != null) {
+            w.name(parent, field);
+            writePublisher(w, o);
+        }
+    }
+
+    private static void writePublisher(JsonWriter w, Publisher o) {
+        FieldTable t = JsonFields.PUBLISHER;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        w.field(t, 1, o.getName()); // name
+        w.field(t, 2, o.getCat()); // cat
+        w.field(t, 3, o.getDomain()); // domain
+        w.field(t, 4, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeContent(JsonWriter w, FieldTable parent, int field, Content o) {
+        if (o != null) {
+            w.name(parent, field);
+            writeContent(w, o);
+        }
+    }
+
+    private static void writeContent(JsonWriter w, Content o) {
+        FieldTable t = JsonFields.CONTENT;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        w.field(t, 1, o.getEpisode()); // episode
+        w.field(t, 2, o.getTitle()); // title
+        w.field(t, 3, o.getSeries()); // series
+        w.field(t, 4, o.getSeason()); // season
+        w.field(t, 5, o.getUrl()); // url
+        w.field(t, 6, o.getCat()); // cat
+        w.field(t, 7, o.getVideoquality()); // videoquality
+        w.field(t, 8, o.getKeywords()); // keywords
+        w.field(t, 9, o.getContentrating()); // contentrating
+        w.field(t, 10, o.getUserrating()); // userrating
+        w.field(t, 11, o.getContext()); // context
+        w.field(t, 12, o.getLivestream()); // livestream
+        w.field(t, 13, o.getSourcerelationship()); // sourcerelationship
+        writeProducer(w, t, 14, o.getProducer()); // producer
+        w.field(t, 15, o.getLen()); // len
+        w.field(t, 16, o.getQagmediarating()); // qagmediarating
+        w.field(t, 17, o.getEmbeddable()); // embeddable
+        w.field(t, 18, o.getLanguage()); // language
+        w.field(t, 19, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeProducer(JsonWriter w, FieldTable parent, int field, Producer o) {
+        if (o != null) {
+            w.name(parent, field);
+            writeProducer(w, o);
+        }
+    }
+
+    private static void writeProducer(JsonWriter w, Producer o) {
+        FieldTable t = JsonFields.PRODUCER;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        w.field(t, 1, o.getName()); // name
+        w.field(t, 2, o.getCat()); // cat
+        w.field(t, 3, o.getDomain()); // domain
+        w.field(t, 4, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeDevice(JsonWriter w, FieldTable parent, int field, Device o) {
+        if (o != null) {
+            w.name(parent, field);
+            writeDevice(w, o);
+        }
+    }
+
+    private static void writeDevice(JsonWriter w, Device o) {
+        FieldTable t = JsonFields.DEVICE;
+        w.beginObject();
+        w.field(t, 0, o.getDnt()); // dnt
+        w.field(t, 1, o.getUa()); // ua
+        w.field(t, 2, o.getIp()); // ip
+        writeGeo(w, t, 3, o.getGeo()); // geo
+        w.field(t, 4, o.getDidsha1()); // didsha1
+        w.field(t, 5, o.getDidmd5()); // didmd5
+        w.field(t, 6, o.getDpidsha1()); // dpidsha1
+        w.field(t, 7, o.getDpidmd5()); // dpidmd5
+        w.field(t, 8, o.getIpv6()); // ipv6
+        w.field(t, 9, o.getCarrier()); // carrier
+        w.field(t, 10, o.getLanguage()); // language
+        w.field(t, 11, o.getMake()); // make
+        w.field(t, 12, o.getModel()); // model
+        w.field(t, 13, o.getOs()); // os
+        w.field(t, 14, o.getOsv()); // osv
+        w.field(t, 15, o.getJs()); // js
+        w.field(t, 16, o.getConnectiontype()); // connectiontype
+        w.field(t, 17, o.getDevicetype()); // devicetype
+        w.field(t, 18, o.getFlashver()); // flashver
+        w.field(t, 19, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeGeo(JsonWriter w, FieldTable parent, int field, Geo o) {
+        if (o != null) {
+            w.name(parent, field);
+            writeGeo(w, o);
+        }
+    }
+
+    private static void writeGeo(JsonWriter w, Geo o) {
+        FieldTable t = JsonFields.GEO;
+        w.beginObject();
+        w.field(t, 0, o.getLat()); // lat
+        w.field(t, 1, o.getLon()); // lon
+        w.field(t, 2, o.getCountry()); // country
+        w.field(t, 3, o.getRegion()); // region
+        w.field(t, 4, o.getRegionfips104()); // regionfips104
+        w.field(t, 5, o.getMetro()); // metro
+        w.field(t, 6, o.getCity()); // city
+        w.field(t, 7, o.getZip()); // zip
+        w.field(t, 8, o.getType()); // type
+        w.field(t, 9, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeUser(JsonWriter w, FieldTable parent, int field, User o) {
+        if (o != null) {
+            w.name(parent, field);
+            writeUser(w, o);
+        }
+    }
+
+    private static void writeUser(JsonWriter w, User o) {
+        FieldTable t = JsonFields.USER;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        w.field(t, 1, o.getBuyeruid()); // buyeruid
+        w.field(t, 2, o.getYob()); // yob
+        w.field(t, 3, o.getGender()); // gender
+        w.field(t, 4, o.getKeywords()); // keywords
+        w.field(t, 5, o.getCustomdata()); // customdata
+        writeGeo(w, t, 6, o.getGeo()); // geo
+        writeDataArray(w, t, 7, o.getData()); // data
+        w.field(t, 8, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeDataArray(JsonWriter w, FieldTable parent, int field, Data[] items) {
+        if (items != null) {
+            w.name(parent, field);
+            w.beginArray();
+            for (Data item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeData(w, item);
+                }
+            }
+            w.endArray();
+        }
+    }
+
+    private static void writeData(JsonWriter w, Data o) {
+        FieldTable t = JsonFields.DATA;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        w.field(t, 1, o.getName()); // name
+        writeSegments(w, t, 2, o.getSegment()); // segment
+        w.field(t, 3, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeSegments(JsonWriter w, FieldTable parent, int field, Segment[] items) {
+        if (items != null) {
+            w.name(parent, field);
+            w.beginArray();
+            for (Segment item : items) {
+                if (item == null) {
+                    w.writeNull();
+                } else {
+                    writeSegment(w, item);
+                }
+            }
+            w.endArray();
+        }
+    }
+
+    private static void writeSegment(JsonWriter w, Segment o) {
+        FieldTable t = JsonFields.SEGMENT;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        w.field(t, 1, o.getName()); // name
+        w.field(t, 2, o.getValue()); // value
+        w.field(t, 3, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static int size(BidRequest o, int decimals) {
+        FieldTable t = JsonFields.BID_REQUEST;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += members(t, 1, o.getImp(), decimals); // imp
+        size += member(t, 2, o.getSite()); // site
+        size += member(t, 3, o.getApp()); // app
+        size += member(t, 4, o.getDevice()); // device
+        size += member(t, 5, o.getUser()); // user
+        size += JsonSize.field(t, 6, o.getAt(), 2); // at
+        size += JsonSize.field(t, 7, o.getTmax()); // tmax
+        size += JsonSize.field(t, 8, o.getWseat()); // wseat
+        size += JsonSize.field(t, 9, o.getAllimps(), 0); // allimps
+        size += JsonSize.field(t, 10, o.getCur()); // cur
+        size += JsonSize.field(t, 11, o.getBcat()); // bcat
+        size += JsonSize.field(t, 12, o.getBadv()); // badv
+        size += JsonSize.field(t, 13, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int members(FieldTable parent, int field, Impression[] items, int decimals) {
+        if (items == null) {
+            return 0;
+        }
+        int size = 0;
+        for (Impression item : items) {
+            size += 1 + (item == null ? JsonSize.NULL : size(item, decimals));
+        }
+        return JsonSize.member(parent, field, JsonSize.container(size));
+    }
+
+    private static int size(Impression o, int decimals) {
+        FieldTable t = JsonFields.IMPRESSION;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += member(t, 1, o.getBanner()); // banner
+        size += member(t, 2, o.getVideo()); // video
+        size += JsonSize.field(t, 3, o.getDisplaymanager()); // displaymanager
+        size += JsonSize.field(t, 4, o.getDisplaymanagerver()); // displaymanagerver
+        size += JsonSize.field(t, 5, o.getInstl(), 0); // instl
+        size += JsonSize.field(t, 6, o.getTagid()); // tagid
+        size += JsonSize.priceField(t, 7, o.getBidfloor(), 0f, decimals); // bidfloor
+        size += JsonSize.field(t, 8, o.getBidfloorcur(), "USD"); // bidfloorcur
+        size += JsonSize.field(t, 9, o.getIframebuster()); // iframebuster
+        size += JsonSize.field(t, 10, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, Banner o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int members(FieldTable parent, int field, Banner[] items) {
+        if (items == null) {
+            return 0;
+        }
+        int size = 0;
+        for (Banner item : items) {
+            size += 1 + (item == null ? JsonSize.NULL : size(item));
+        }
+        return JsonSize.member(parent, field, JsonSize.container(size));
+    }
+
+    private static int size(Banner o) {
+        FieldTable t = JsonFields.BANNER;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getW()); // w
+        size += JsonSize.field(t, 1, o.getH()); // h
+        size += JsonSize.field(t, 2, o.getId()); // id
+        size += JsonSize.field(t, 3, o.getPos()); // pos
+        size += JsonSize.field(t, 4, o.getBtype()); // btype
+        size += JsonSize.field(t, 5, o.getBattr()); // battr
+        size += JsonSize.field(t, 6, o.getMimes()); // mimes
+        size += JsonSize.field(t, 7, o.getTopframe(), 0); // topframe
+        size += JsonSize.field(t, 8, o.getExpdir()); // expdir
+        size += JsonSize.field(t, 9, o.getApi()); // api
+        size += JsonSize.field(t, 10, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, Video o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int size(Video o) {
+        FieldTable t = JsonFields.VIDEO;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getMimes()); // mimes
+        size += JsonSize.field(t, 1, o.getLinearity()); // linearity
+        size += JsonSize.field(t, 2, o.getMinduration()); // minduration
+        size += JsonSize.field(t, 3, o.getMaxduration()); // maxduration
+        size += JsonSize.field(t, 4, o.getProtocol()); // protocol
+        size += JsonSize.field(t, 5, o.getW()); // w
+        size += JsonSize.field(t, 6, o.getH()); // h
+        size += JsonSize.field(t, 7, o.getStartdelay()); // startdelay
+        size += JsonSize.field(t, 8, o.getSequence(), 1); // sequence
+        size += JsonSize.field(t, 9, o.getBattr()); // battr
+        size += JsonSize.field(t, 10, o.getMaxextended()); // maxextended
+        size += JsonSize.field(t, 11, o.getMinbitrate()); // minbitrate
+        size += JsonSize.field(t, 12, o.getMaxbitrate()); // maxbitrate
+        size += JsonSize.field(t, 13, o.getBoxingallowed(), 1); // boxingallowed
+        size += JsonSize.field(t, 14, o.getPlaybackmethod()); // playbackmethod
+        size += JsonSize.field(t, 15, o.getDelivery()); // delivery
+        size += JsonSize.field(t, 16, o.getPos()); // pos
+        size += members(t, 17, o.getCompanionad()); // companionad
+        size += JsonSize.field(t, 18, o.getApi()); // api
+        size += JsonSize.field(t, 19, o.getCompaniontype()); // companiontype
+        size += JsonSize.field(t, 20, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, Site o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int size(Site o) {
+        FieldTable t = JsonFields.SITE;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += JsonSize.field(t, 1, o.getName()); // name
+        size += JsonSize.field(t, 2, o.getDomain()); // domain
+        size += JsonSize.field(t, 3, o.getCat()); // cat
+        size += JsonSize.field(t, 4, o.getSectioncat()); // sectioncat
+        size += JsonSize.field(t, 5, o.getPagecat()); // pagecat
+        size += JsonSize.field(t, 6, o.getPage()); // page
+        size += JsonSize.field(t, 7, o.getPrivacypolicy()); // privacypolicy
+        size += JsonSize.field(t, 8, o.getRef()); // ref
+        size += JsonSize.field(t, 9, o.getSearch()); // search
+        size += member(t, 10, o.getPublisher()); // publisher
+        size += member(t, 11, o.getContent()); // content
+        size += JsonSize.field(t, 12, o.getKeywords()); // keywords
+        size += JsonSize.field(t, 13, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, App o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int size(App o) {
+        FieldTable t = JsonFields.APP;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += JsonSize.field(t, 1, o.getName()); // name
+        size += JsonSize.field(t, 2, o.getDomain()); // domain
+        size += JsonSize.field(t, 3, o.getCat()); // cat
+        size += JsonSize.field(t, 4, o.getSectioncat()); // sectioncat
+        size += JsonSize.field(t, 5, o.getPagecat()); // pagecat
+        size += JsonSize.field(t, 6, o.getVer()); // ver
+        size += JsonSize.field(t, 7, o.getBundle()); // bundle
+        size += JsonSize.field(t, 8, o.getPrivacypolicy()); // privacypolicy
+        size += JsonSize.field(t, 9, o.getPaid()); // paid
+        size += member(t, 10, o.getPublisher()); // publisher
+        size += member(t, 11, o.getContent()); // content
+        size += JsonSize.field(t, 12, o.getKeywords()); // keywords
+        size += JsonSize.field(t, 13, o.getStoreurl()); // storeurl
+        size += JsonSize.field(t, 14, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, Publisher o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int size(Publisher o) {
+        FieldTable t = JsonFields.PUBLISHER;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += JsonSize.field(t, 1, o.getName()); // name
+        size += JsonSize.field(t, 2, o.getCat()); // cat
+        size += JsonSize.field(t, 3, o.getDomain()); // domain
+        size += JsonSize.field(t, 4, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, Content o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int size(Content o) {
+        FieldTable t = JsonFields.CONTENT;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += JsonSize.field(t, 1, o.getEpisode()); // episode
+        size += JsonSize.field(t, 2, o.getTitle()); // title
+        size += JsonSize.field(t, 3, o.getSeries()); // series
+        size += JsonSize.field(t, 4, o.getSeason()); // season
+        size += JsonSize.field(t, 5, o.getUrl()); // url
+        size += JsonSize.field(t, 6, o.getCat()); // cat
+        size += JsonSize.field(t, 7, o.getVideoquality()); // videoquality
+        size += JsonSize.field(t, 8, o.getKeywords()); // keywords
+        size += JsonSize.field(t, 9, o.getContentrating()); // contentrating
+        size += JsonSize.field(t, 10, o.getUserrating()); // userrating
+        size += JsonSize.field(t, 11, o.getContext()); // context
+        size += JsonSize.field(t, 12, o.getLivestream()); // livestream
+        size += JsonSize.field(t, 13, o.getSourcerelationship()); // sourcerelationship
+        size += member(t, 14, o.getProducer()); // producer
+        size += JsonSize.field(t, 15, o.getLen()); // len
+        size += JsonSize.field(t, 16, o.getQagmediarating()); // qagmediarating
+        size += JsonSize.field(t, 17, o.getEmbeddable()); // embeddable
+        size += JsonSize.field(t, 18, o.getLanguage()); // language
+        size += JsonSize.field(t, 19, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, Producer o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int size(Producer o) {
+        FieldTable t = JsonFields.PRODUCER;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += JsonSize.field(t, 1, o.getName()); // name
+        size += JsonSize.field(t, 2, o.getCat()); // cat
+        size += JsonSize.field(t, 3, o.getDomain()); // domain
+        size += JsonSize.field(t, 4, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, Device o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int size(Device o) {
+        FieldTable t = JsonFields.DEVICE;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getDnt()); // dnt
+        size += JsonSize.field(t, 1, o.getUa()); // ua
+        size += JsonSize.field(t, 2, o.getIp()); // ip
+        size += member(t, 3, o.getGeo()); // geo
+        size += JsonSize.field(t, 4, o.getDidsha1()); // didsha1
+        size += JsonSize.field(t, 5, o.getDidmd5()); // didmd5
+        size += JsonSize.field(t, 6, o.getDpidsha1()); // dpidsha1
+        size += JsonSize.field(t, 7, o.getDpidmd5()); // dpidmd5
+        size += JsonSize.field(t, 8, o.getIpv6()); // ipv6
+        size += JsonSize.field(t, 9, o.getCarrier()); // carrier
+        size += JsonSize.field(t, 10, o.getLanguage()); // language
+        size += JsonSize.field(t, 11, o.getMake()); // make
+        size += JsonSize.field(t, 12, o.getModel()); // model
+        size += JsonSize.field(t, 13, o.getOs()); // os
+        size += JsonSize.field(t, 14, o.getOsv()); // osv
+        size += JsonSize.field(t, 15, o.getJs()); // js
+        size += JsonSize.field(t, 16, o.getConnectiontype()); // connectiontype
+        size += JsonSize.field(t, 17, o.getDevicetype()); // devicetype
+        size += JsonSize.field(t, 18, o.getFlashver()); // flashver
+        size += JsonSize.field(t, 19, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, Geo o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int size(Geo o) {
+        FieldTable t = JsonFields.GEO;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getLat()); // lat
+        size += JsonSize.field(t, 1, o.getLon()); // lon
+        size += JsonSize.field(t, 2, o.getCountry()); // country
+        size += JsonSize.field(t, 3, o.getRegion()); // region
+        size += JsonSize.field(t, 4, o.getRegionfips104()); // regionfips104
+        size += JsonSize.field(t, 5, o.getMetro()); // metro
+        size += JsonSize.field(t, 6, o.getCity()); // city
+        size += JsonSize.field(t, 7, o.getZip()); // zip
+        size += JsonSize.field(t, 8, o.getType()); // type
+        size += JsonSize.field(t, 9, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int member(FieldTable parent, int field, User o) {
+        return o == null ? 0 : JsonSize.member(parent, field, size(o));
+    }
+
+    private static int size(User o) {
+        FieldTable t = JsonFields.USER;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += JsonSize.field(t, 1, o.getBuyeruid()); // buyeruid
+        size += JsonSize.field(t, 2, o.getYob()); // yob
+        size += JsonSize.field(t, 3, o.getGender()); // gender
+        size += JsonSize.field(t, 4, o.getKeywords()); // keywords
+        size += JsonSize.field(t, 5, o.getCustomdata()); // customdata
+        size += member(t, 6, o.getGeo()); // geo
+        size += members(t, 7, o.getData()); // data
+        size += JsonSize.field(t, 8, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int members(FieldTable parent, int field, Data[] items) {
+        if (items == null) {
+            return 0;
+        }
+        int size = 0;
+        for (Data item : items) {
+            size += 1 + (item == null ? JsonSize.NULL : size(item));
+        }
+        return JsonSize.member(parent, field, JsonSize.container(size));
+    }
+
+    private static int size(Data o) {
+        FieldTable t = JsonFields.DATA;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += JsonSize.field(t, 1, o.getName()); // name
+        size += members(t, 2, o.getSegment()); // segment
+        size += JsonSize.field(t, 3, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int members(FieldTable parent, int field, Segment[] items) {
+        if (items == null) {
+            return 0;
+        }
+        int size = 0;
+        for (Segment item : items) {
+            size += 1 + (item == null ? JsonSize.NULL : size(item));
+        }
+        return JsonSize.member(parent, field, JsonSize.container(size));
+    }
+
+    private static int size(Segment o) {
+        FieldTable t = JsonFields.SEGMENT;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += JsonSize.field(t, 1, o.getName()); // name
+        size += JsonSize.field(t, 2, o.getValue()); // value
+        size += JsonSize.field(t, 3, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+}
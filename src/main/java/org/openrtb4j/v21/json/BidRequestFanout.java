@@ -0,0 +1,184 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+
+/**
+ * Encoder of one bid request for many bidders. The request is serialized once
+ * by {@link #prepare(BidRequest)}, leaving out the fields a
+ * {@link BidderPatch} may change, and the bytes for every bidder are then
+ * produced by copying the shared members and splicing in the pre-encoded
+ * members of its patch, so that the cost of a copy for one more bidder is
+ * little more than that of an array copy.
+ *
+ * The members replaced by a patch follow the shared members, so the output
+ * differs in member order, but not in content, from that of
+ * {@link BidRequestEncoder}.
+ *
+ * A fan-out keeps the prepared request and scratch buffers between calls and
+ * is therefore not thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BidRequestFanout {
+
+    /**
+     * The fields that may be replaced by a patch, in member order.
+     */
+    private static final int[] PATCHED = { BidderPatch.WSEAT, BidderPatch.BCAT, BidderPatch.BADV,
+            BidderPatch.EXT };
+
+    private static final long PATCHABLE = 1L << BidderPatch.TMAX | 1L << BidderPatch.WSEAT
+            | 1L << BidderPatch.BCAT | 1L << BidderPatch.BADV | 1L << BidderPatch.EXT;
+
+    private final JsonWriter preparer = new JsonWriter();
+
+    private final JsonWriter writer = new JsonWriter();
+
+    /**
+     * The shared members followed by the patchable members of the prepared
+     * request, null until a request has been prepared.
+     */
+    private byte[] prepared;
+
+    private int sharedLength;
+
+    /**
+     * The offsets of the patchable members of the request in
+     * {@link #prepared}, by field index.
+     */
+    private final int[] starts = new int[JsonFields.BID_REQUEST.size()];
+
+    private final int[] ends = new int[JsonFields.BID_REQUEST.size()];
+
+    private Integer tmax;
+
+    /**
+     * @return the number of decimals bid floors are written with, or -1 for
+     *         the shortest form, see {@link BidRequestEncoder#setPriceDecimals(int)}
+     */
+    public int getPriceDecimals() {
+        return preparer.getPriceDecimals();
+    }
+
+    /**
+     * @param priceDecimals the number of decimals from 0 to 9, or -1 for the
+     *            shortest form, applied from the next prepared request
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    public void setPriceDecimals(int priceDecimals) {
+        preparer.setPriceDecimals(priceDecimals);
+    }
+
+    /**
+     * Serializes the request shared by the bidders. The request may be
+     * modified afterwards without affecting the output, until it is prepared
+     * again.
+     *
+     * @param request the bid request
+     */
+    public void prepare(BidRequest request) {
+        JsonWriter w = preparer;
+        w.reset();
+        w.startMembers();
+        BidRequestEncoder.writeBidRequestMembers(w, request, PATCHABLE);
+        sharedLength = w.length();
+        for (int field : PATCHED) {
+            starts[field] = w.length();
+            w.startMembers();
+            BidRequestEncoder.writeBidRequestMembers(w, request, ~(1L << field));
+            ends[field] = w.length();
+        }
+        tmax = request.getTmax();
+        prepared = w.buffer();
+    }
+
+    /**
+     * @param patch the fields for the bidder, or null to keep those of the
+     *            request
+     * @return the UTF-8 encoded bid request for the bidder
+     * @throws IllegalStateException if no request has been prepared
+     */
+    public byte[] encode(BidderPatch patch) {
+        JsonWriter w = writer;
+        w.reset();
+        write(w, patch);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    /**
+     * Encodes the request for a bidder into a region of an array.
+     *
+     * @param patch the fields for the bidder, or null to keep those of the
+     *            request
+     * @param buf the array to write to
+     * @param off the offset of the first byte to write
+     * @param len the number of bytes available
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the region is too small, its content
+     *             is then unspecified
+     * @throws IllegalStateException if no request has been prepared
+     */
+    public int encode(BidderPatch patch, byte[] buf, int off, int len) {
+        JsonWriter w = writer;
+        w.reset(buf, off, len);
+        try {
+            write(w, patch);
+            return w.length();
+        } finally {
+            w.clear();
+        }
+    }
+
+    /**
+     * Encodes the request for a bidder into the remaining space of a buffer,
+     * see
+     * {@link BidResponseEncoder#encode(org.openrtb4j.v21.data.response.BidResponse, ByteBuffer)}.
+     *
+     * @param patch the fields for the bidder, or null to keep those of the
+     *            request
+     * @param buf the buffer to write to
+     * @throws BufferOverflowException if the remaining space is too small, the
+     *             position is then left unchanged
+     * @throws IllegalStateException if no request has been prepared
+     */
+    public void encode(BidderPatch patch, ByteBuffer buf) {
+        int start = buf.position();
+        if (buf.hasArray()) {
+            int n = encode(patch, buf.array(), buf.arrayOffset() + start, buf.remaining());
+            buf.position(start + n);
+        } else {
+            JsonWriter w = writer;
+            w.reset();
+            write(w, patch);
+            buf.put(w.buffer(), 0, w.length());
+        }
+    }
+
+    private void write(JsonWriter w, BidderPatch patch) {
+        if (prepared == null) {
+            throw new IllegalStateException("No bid request has been prepared.");
+        }
+        w.beginObject();
+        w.writeMembers(prepared, 0, sharedLength);
+        if (tmax != null) {
+            int overhead = patch == null ? 0 : patch.getTmaxOverhead();
+            w.name(JsonFields.BID_REQUEST, BidderPatch.TMAX);
+            w.writeInt(Math.max(0, tmax - overhead));
+        }
+        for (int field : PATCHED) {
+            byte[] member = patch == null ? null : patch.member(field);
+            if (member == null) {
+                w.writeMembers(prepared, starts[field], ends[field] - starts[field]);
+            } else {
+                w.writeMembers(member, 0, member.length);
+            }
+        }
+        w.endObject();
+    }
+
+}
@@ -0,0 +1,239 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+
+/**
+ * Streaming decoder of UTF-8 encoded JSON into the {@link BidResponse} object
+ * graph, the counterpart of {@link BidRequestDecoder} for responses. Members
+ * that are not part of the OpenRTB 2.1 specification are skipped, and “ext”
+ * members are captured as raw slices of the input.
+ *
+ * A decoder keeps scratch buffers between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BidResponseDecoder {
+
+    private final JsonReader reader = new JsonReader();
+
+    /**
+     * Copy of the input when it is not available as a byte array.
+     */
+    private byte[] scratch = new byte[0];
+
+    /**
+     * @param json the UTF-8 encoded bid response
+     * @return the decoded bid response
+     * @throws JsonParseException if the input is not a valid bid response
+     */
+    public BidResponse decode(byte[] json) {
+        return decode(json, 0, json.length);
+    }
+
+    /**
+     * @param json the bid response
+     * @return the decoded bid response
+     * @throws JsonParseException if the input is not a valid bid response
+     */
+    public BidResponse decode(String json) {
+        return decode(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param buf the buffer holding the UTF-8 encoded bid response
+     * @param off the offset of the first byte of the bid response
+     * @param len the length of the bid response in bytes
+     * @return the decoded bid response
+     * @throws JsonParseException if the input is not a valid bid response
+     */
+    public BidResponse decode(byte[] buf, int off, int len) {
+        return decode(buf, off, len, false);
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer, see
+     * {@link BidRequestDecoder#decode(ByteBuffer)}.
+     *
+     * @param buf the buffer holding the UTF-8 encoded bid response
+     * @return the decoded bid response
+     * @throws JsonParseException if the input is not a valid bid response
+     */
+    public BidResponse decode(ByteBuffer buf) {
+        int start = buf.position();
+        int len = buf.remaining();
+        BidResponse response;
+        if (buf.hasArray()) {
+            response = decode(buf.array(), buf.arrayOffset() + start, len, false);
+        } else {
+            if (scratch.length < len) {
+                scratch = new byte[Math.max(len, scratch.length * 2)];
+            }
+            buf.get(scratch, 0, len);
+            buf.position(start);
+            response = decode(scratch, 0, len, true);
+        }
+        buf.position(start + len);
+        return response;
+    }
+
+    private BidResponse decode(byte[] buf, int off, int len, boolean transientInput) {
+        JsonReader r = reader;
+        r.reset(buf, off, len, null, transientInput);
+        try {
+            BidResponse response = readBidResponse(r);
+            r.expectEnd();
+            return response;
+        } finally {
+            r.clear();
+        }
+    }
+
+    private static BidResponse readBidResponse(JsonReader r) {
+        BidResponse o = new BidResponse();
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.BID_RESPONSE)) != JsonReader.END) {
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // seatbid
+                o.setSeatbid(readSeatBids(r));
+                break;
+            case 2: // bidid
+                o.setBidid(r.readString());
+                break;
+            case 3: // cur
+                String cur = r.readString();
+                if (cur != null) {
+                    o.setCur(cur);
+                }
+                break;
+            case 4: // customdata
+                o.setCustomdata(r.readString());
+                break;
+            case 5: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static SeatBid[] readSeatBids(JsonReader r) {
+        if (r.readNull()) {
+            return null;
+        }
+        r.beginArray();
+        SeatBid[] items = new SeatBid[2];
+        int n = 0;
+        while (r.hasNextElement()) {
+            if (n == items.length) {
+                items = Arrays.copyOf(items, n * 2);
+            }
+            items[n++] = readSeatBid(r);
+        }
+        return n == items.length ? items : Arrays.copyOf(items, n);
+    }
+
+    private static SeatBid readSeatBid(JsonReader r) {
+        SeatBid o = new SeatBid();
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.SEAT_BID)) != JsonReader.END) {
+            switch (field) {
+            case 0: // bid
+                o.setBid(readBids(r));
+                break;
+            case 1: // seat
+                o.setSeat(r.readString());
+                break;
+            case 2: // group
+                o.setGroup(r.readInteger());
+                break;
+            case 3: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+    private static Bid[] readBids(JsonReader r) {
+        if (r.readNull()) {
+            return null;
+        }
+        r.beginArray();
+        Bid[] items = new Bid[2];
+        int n = 0;
+        while (r.hasNextElement()) {
+            if (n == items.length) {
+                items = Arrays.copyOf(items, n * 2);
+            }
+            items[n++] = readBid(r);
+        }
+        return n == items.length ? items : Arrays.copyOf(items, n);
+    }
+
+    private static Bid readBid(JsonReader r) {
+        Bid o = new Bid();
+        r.beginObject();
+        int field;
+        while ((field = r.nextField(JsonFields.BID)) != JsonReader.END) {
+            switch (field) {
+            case 0: // id
+                o.setId(r.readString());
+                break;
+            case 1: // impid
+                o.setImpid(r.readString());
+                break;
+            case 2: // price
+                o.setPrice(r.readFloatObject());
+                break;
+            case 3: // adid
+                o.setAdid(r.readString());
+                break;
+            case 4: // nurl
+                o.setNurl(r.readString());
+                break;
+            case 5: // adm
+                o.setAdm(r.readString());
+                break;
+            case 6: // adomain
+                o.setAdomain(r.readStringArray());
+                break;
+            case 7: // iurl
+                o.setIurl(r.readString());
+                break;
+            case 8: // cid
+                o.setCid(r.readString());
+                break;
+            case 9: // crid
+                o.setCrid(r.readString());
+                break;
+            case 10: // attr
+                o.setAttr(r.readIntegerArray());
+                break;
+            case 11: // ext
+                o.setRawExt(r.readRawJson());
+                break;
+            default:
+                r.skipValue();
+            }
+        }
+        return o;
+    }
+
+}
@@ -0,0 +1,325 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+
+/**
+ * Streaming encoder of the {@link BidResponse} object graph into UTF-8 encoded
+ * JSON, the counterpart of {@link BidResponseDecoder}. The response is written
+ * in a single pass straight into a byte array, without reflection and without
+ * intermediate Strings. Null fields and fields holding the default value of
+ * the specification, such as a “USD” currency, are left out, and “ext”
+ * members are copied byte for byte.
+ *
+ * Writing into a caller-supplied array or buffer allocates nothing once the
+ * encoder has warmed up. The static content of creatives can be kept
+ * pre-encoded in a {@link CreativeCache}, recurring strings in a
+ * {@link StringCache}, and large pre-encoded content can
+ * be referenced instead of copied by encoding into a gather list with
+ * {@link #encodeSegments(BidResponse)}.
+ *
+ * An encoder keeps scratch buffers between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class BidResponseEncoder {
+
+    private final JsonWriter writer = new JsonWriter();
+
+    private CreativeCache creatives;
+
+    private int gatherThreshold = 1024;
+
+    /**
+     * @return the cache of the static content of creatives, or null
+     */
+    public CreativeCache getCreatives() {
+        return creatives;
+    }
+
+    /**
+     * @param creatives the cache of the static content of creatives, or null
+     *            to encode every field of every bid
+     */
+    public void setCreatives(CreativeCache creatives) {
+        this.creatives = creatives;
+    }
+
+    /**
+     * @return the pre-encoded strings, or null
+     */
+    public StringCache getStrings() {
+        return writer.getStrings();
+    }
+
+    /**
+     * @param strings the pre-encoded strings to copy, or null to encode every
+     *            string
+     */
+    public void setStrings(StringCache strings) {
+        writer.setStrings(strings);
+    }
+
+    /**
+     * @return the number of decimals prices are written with, or -1 for the
+     *         shortest form that reads back as the same float
+     */
+    public int getPriceDecimals() {
+        return writer.getPriceDecimals();
+    }
+
+    /**
+     * Sets how prices, i.e. the prices of bids, are written. By default they are
+     * written in the shortest form that reads back as the same float, e.g.
+     * 0.1 or 0.0001; a fixed number of decimals, e.g. 2 for CPMs, rounds
+     * them half up instead. Either way they are never written in E notation.
+     *
+     * @param priceDecimals the number of decimals from 0 to 9, or -1 for the
+     *            shortest form
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    public void setPriceDecimals(int priceDecimals) {
+        writer.setPriceDecimals(priceDecimals);
+    }
+
+    /**
+     * @return the gatherThreshold
+     */
+    public int getGatherThreshold() {
+        return gatherThreshold;
+    }
+
+    /**
+     * @param gatherThreshold the size in bytes from which pre-encoded content
+     *            is referenced by {@link #encodeSegments(BidResponse)} instead
+     *            of being copied
+     */
+    public void setGatherThreshold(int gatherThreshold) {
+        this.gatherThreshold = gatherThreshold;
+    }
+
+    /**
+     * @param response the bid response
+     * @return the UTF-8 encoded bid response
+     */
+    public byte[] encode(BidResponse response) {
+        JsonWriter w = writer;
+        w.reset();
+        writeBidResponse(w, response, creatives);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    /**
+     * Encodes a bid response into a region of an array.
+     *
+     * @param response the bid response
+     * @param buf the array to write to
+     * @param off the offset of the first byte to write
+     * @param len the number of bytes available
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the region is too small, its content
+     *             is then unspecified
+     */
+    public int encode(BidResponse response, byte[] buf, int off, int len) {
+        JsonWriter w = writer;
+        w.reset(buf, off, len);
+        try {
+            writeBidResponse(w, response, creatives);
+            return w.length();
+        } finally {
+            w.clear();
+        }
+    }
+
+    /**
+     * Encodes a bid response into the remaining space of a buffer, advancing
+     * its position past the written bytes. A heap buffer is written in place
+     * through its backing array, any other buffer, such as a direct one,
+     * receives a bulk copy of a scratch array owned by the encoder.
+     *
+     * @param response the bid response
+     * @param buf the buffer to write to
+     * @throws BufferOverflowException if the remaining space is too small, the
+     *             position is then left unchanged
+     */
+    public void encode(BidResponse response, ByteBuffer buf) {
+        int start = buf.position();
+        if (buf.hasArray()) {
+            int n = encode(response, buf.array(), buf.arrayOffset() + start, buf.remaining());
+            buf.position(start + n);
+        } else {
+            JsonWriter w = writer;
+            w.reset();
+            writeBidResponse(w, response, creatives);
+            buf.put(w.buffer(), 0, w.length());
+        }
+    }
+
+    /**
+     * Encodes a bid response into a list of buffers for a gathering write,
+     * e.g. with {@link java.nio.channels.GatheringByteChannel#write(ByteBuffer[])}.
+     * Pre-encoded content of at least the gather threshold, i.e. the fragments
+     * of a {@link CreativeCache} and ext values, is referenced by buffers of
+     * its own instead of being copied, while everything else is written to a
+     * scratch array owned by the encoder.
+     *
+     * @param response the bid response
+     * @return the buffers holding the encoded bid response in order, valid
+     *         until the encoder is used again
+     */
+    public ByteBuffer[] encodeSegments(BidResponse response) {
+        JsonWriter w = writer;
+        w.resetGathering(gatherThreshold);
+        writeBidResponse(w, response, creatives);
+        return w.segments();
+    }
+
+    /**
+     * Computes the exact length of the encoded bid response without encoding
+     * it, e.g. to allocate the output once or to set the Content-Length up
+     * front.
+     *
+     * @param response the bid response
+     * @return the number of bytes {@link #encode(BidResponse)} produces
+     */
+    public int sizeOf(BidResponse response) {
+        return size(response, creatives, writer.getPriceDecimals());
+    }
+
+    static void writeBidResponse(JsonWriter w, BidResponse o, CreativeCache creatives) {
+        FieldTable t = JsonFields.BID_RESPONSE;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        SeatBid[] seatbid = o.getSeatbid();
+        if (seatbid != null) {
+            w.name(t, 1); // seatbid
+            w.beginArray();
+            for (SeatBid item : seatbid) {
+                writeSeatBid(w, item, creatives);
+            }
+            w.endArray();
+        }
+        w.field(t, 2, o.getBidid()); // bidid
+        w.field(t, 3, o.getCur(), "USD"); // cur
+        w.field(t, 4, o.getCustomdata()); // customdata
+        w.field(t, 5, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeSeatBid(JsonWriter w, SeatBid o, CreativeCache creatives) {
+        if (o == null) {
+            w.writeNull();
+            return;
+        }
+        FieldTable t = JsonFields.SEAT_BID;
+        w.beginObject();
+        Bid[] bid = o.getBid();
+        if (bid != null) {
+            w.name(t, 0); // bid
+            w.beginArray();
+            for (Bid item : bid) {
+                writeBid(w, item, creatives);
+            }
+            w.endArray();
+        }
+        w.field(t, 1, o.getSeat()); // seat
+        w.field(t, 2, o.getGroup()); // group
+        w.field(t, 3, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static void writeBid(JsonWriter w, Bid o, CreativeCache creatives) {
+        if (o == null) {
+            w.writeNull();
+            return;
+        }
+        FieldTable t = JsonFields.BID;
+        w.beginObject();
+        w.field(t, 0, o.getId()); // id
+        w.field(t, 1, o.getImpid()); // impid
+        w.priceField(t, 2, o.getPrice()); // price
+        CreativeCache.Fragment fragment = creatives == null ? null : creatives.match(o);
+        if (fragment != null) {
+            w.field(t, 4, o.getNurl()); // nurl
+            w.writeMembers(fragment.members, 0, fragment.members.length);
+        } else {
+            w.field(t, 3, o.getAdid()); // adid
+            w.field(t, 4, o.getNurl()); // nurl
+            w.field(t, 5, o.getAdm()); // adm
+            w.field(t, 6, o.getAdomain()); // adomain
+            w.field(t, 7, o.getIurl()); // iurl
+            w.field(t, 8, o.getCid()); // cid
+            w.field(t, 9, o.getCrid()); // crid
+            w.field(t, 10, o.getAttr()); // attr
+        }
+        w.field(t, 11, o.getRawExt()); // ext
+        w.endObject();
+    }
+
+    private static int size(BidResponse o, CreativeCache creatives, int decimals) {
+        FieldTable t = JsonFields.BID_RESPONSE;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        SeatBid[] seatbid = o.getSeatbid();
+        if (seatbid != null) {
+            int items = 0;
+            for (SeatBid item : seatbid) {
+                items += 1 + (item == null ? JsonSize.NULL : size(item, creatives, decimals));
+            }
+            size += JsonSize.member(t, 1, JsonSize.container(items)); // seatbid
+        }
+        size += JsonSize.field(t, 2, o.getBidid()); // bidid
+        size += JsonSize.field(t, 3, o.getCur(), "USD"); // cur
+        size += JsonSize.field(t, 4, o.getCustomdata()); // customdata
+        size += JsonSize.field(t, 5, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int size(SeatBid o, CreativeCache creatives, int decimals) {
+        FieldTable t = JsonFields.SEAT_BID;
+        int size = 0;
+        Bid[] bid = o.getBid();
+        if (bid != null) {
+            int items = 0;
+            for (Bid item : bid) {
+                items += 1 + (item == null ? JsonSize.NULL : size(item, creatives, decimals));
+            }
+            size += JsonSize.member(t, 0, JsonSize.container(items)); // bid
+        }
+        size += JsonSize.field(t, 1, o.getSeat()); // seat
+        size += JsonSize.field(t, 2, o.getGroup()); // group
+        size += JsonSize.field(t, 3, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+    private static int size(Bid o, CreativeCache creatives, int decimals) {
+        FieldTable t = JsonFields.BID;
+        int size = 0;
+        size += JsonSize.field(t, 0, o.getId()); // id
+        size += JsonSize.field(t, 1, o.getImpid()); // impid
+        size += JsonSize.priceField(t, 2, o.getPrice(), decimals); // price
+        size += JsonSize.field(t, 4, o.getNurl()); // nurl
+        CreativeCache.Fragment fragment = creatives == null ? null : creatives.match(o);
+        if (fragment != null) {
+            size += fragment.members.length == 0 ? 0 : 1 + fragment.members.length;
+        } else {
+            size += JsonSize.field(t, 3, o.getAdid()); // adid
+            size += JsonSize.field(t, 5, o.getAdm()); // adm
+            size += JsonSize.field(t, 6, o.getAdomain()); // adomain
+            size += JsonSize.field(t, 7, o.getIurl()); // iurl
+            size += JsonSize.field(t, 8, o.getCid()); // cid
+            size += JsonSize.field(t, 9, o.getCrid()); // crid
+            size += JsonSize.field(t, 10, o.getAttr()); // attr
+        }
+        size += JsonSize.field(t, 11, o.getRawExt()); // ext
+        return JsonSize.container(size);
+    }
+
+}
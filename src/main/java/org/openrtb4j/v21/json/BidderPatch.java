@@ -0,0 +1,152 @@
+package org.openrtb4j.v21.json;
+
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.RawJson;
+
+/**
+ * The fields of a bid request that differ for one bidder when the request is
+ * sent to many of them with a {@link BidRequestFanout}: the allowed seats, the
+ * blocked categories and advertisers, the ext, and the network overhead that
+ * is deducted from the maximum time of the auction.
+ *
+ * A field that is set replaces the value of the request, a null value then
+ * leaving the field out, while a field that is not set keeps the value of the
+ * request. Values are encoded when they are set, so that a patch is built once
+ * for every bidder and reused across auctions. A patch may be shared by
+ * threads once it has been built.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public final class BidderPatch {
+
+    static final int TMAX = 7;
+
+    static final int WSEAT = 8;
+
+    static final int BCAT = 11;
+
+    static final int BADV = 12;
+
+    static final int EXT = 13;
+
+    private static final byte[] NONE = new byte[0];
+
+    /**
+     * The encoded members replacing those of the request, by field index,
+     * null for the fields that are not set.
+     */
+    private final byte[][] members = new byte[JsonFields.BID_REQUEST.size()][];
+
+    private String[] wseat;
+
+    private String[] bcat;
+
+    private String[] badv;
+
+    private RawJson ext;
+
+    private int tmaxOverhead;
+
+    /**
+     * @return the wseat
+     */
+    public String[] getWseat() {
+        return wseat;
+    }
+
+    /**
+     * @param wseat the wseat to set
+     */
+    public void setWseat(String[] wseat) {
+        this.wseat = wseat;
+        members[WSEAT] = encode(WSEAT, wseat);
+    }
+
+    /**
+     * @return the bcat
+     */
+    public String[] getBcat() {
+        return bcat;
+    }
+
+    /**
+     * @param bcat the bcat to set
+     */
+    public void setBcat(String[] bcat) {
+        this.bcat = bcat;
+        members[BCAT] = encode(BCAT, bcat);
+    }
+
+    /**
+     * @return the badv
+     */
+    public String[] getBadv() {
+        return badv;
+    }
+
+    /**
+     * @param badv the badv to set
+     */
+    public void setBadv(String[] badv) {
+        this.badv = badv;
+        members[BADV] = encode(BADV, badv);
+    }
+
+    /**
+     * @return the ext
+     */
+    public RawJson getExt() {
+        return ext;
+    }
+
+    /**
+     * @param ext the ext to set
+     */
+    public void setExt(RawJson ext) {
+        this.ext = ext;
+        JsonWriter w = new JsonWriter();
+        w.reset();
+        w.startMembers();
+        w.field(JsonFields.BID_REQUEST, EXT, ext);
+        members[EXT] = bytes(w);
+    }
+
+    /**
+     * @return the tmaxOverhead
+     */
+    public int getTmaxOverhead() {
+        return tmaxOverhead;
+    }
+
+    /**
+     * @param tmaxOverhead the time in milliseconds deducted from the tmax of
+     *            the request, such as the round trip time to the bidder
+     */
+    public void setTmaxOverhead(int tmaxOverhead) {
+        this.tmaxOverhead = tmaxOverhead;
+    }
+
+    /**
+     * @param field the index of the field
+     * @return the encoded member replacing that of the request, empty to
+     *         leave the field out, or null to keep the field of the request
+     */
+    byte[] member(int field) {
+        return members[field];
+    }
+
+    private static byte[] encode(int field, String[] values) {
+        JsonWriter w = new JsonWriter();
+        w.reset();
+        w.startMembers();
+        w.field(JsonFields.BID_REQUEST, field, values);
+        return bytes(w);
+    }
+
+    private static byte[] bytes(JsonWriter w) {
+        return w.length() == 0 ? NONE : Arrays.copyOf(w.buffer(), w.length());
+    }
+
+}
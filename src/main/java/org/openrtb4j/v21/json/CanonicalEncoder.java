@@ -0,0 +1,118 @@
+package org.openrtb4j.v21.json;
+
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.response.BidResponse;
+
+/**
+ * Encoder of bid requests and responses into a canonical JSON form, such that
+ * equal object graphs always give equal bytes whatever JSON they were decoded
+ * from. In the canonical form members appear in the order of the
+ * specification, null fields and fields holding a default value are left out,
+ * numbers are written in their shortest plain decimal form where one exists,
+ * and “ext” values are stripped of the whitespace outside of their strings.
+ * Beyond whitespace, ext values are kept as they were received.
+ *
+ * The canonical form can be hashed with MurmurHash3 (x64, 128 bit, seed 0)
+ * while it is written, without being held in memory as a whole, e.g. to
+ * detect retried requests or to key a cache of responses.
+ *
+ * An encoder keeps scratch buffers between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class CanonicalEncoder {
+
+    private final JsonWriter writer = new JsonWriter();
+
+    private final Murmur3 hash = new Murmur3();
+
+    /**
+     * @param request the bid request
+     * @return the UTF-8 encoded canonical form of the bid request
+     */
+    public byte[] encode(BidRequest request) {
+        JsonWriter w = writer;
+        w.reset();
+        w.setCanonical(true);
+        BidRequestEncoder.writeBidRequest(w, request);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    /**
+     * @param response the bid response
+     * @return the UTF-8 encoded canonical form of the bid response
+     */
+    public byte[] encode(BidResponse response) {
+        JsonWriter w = writer;
+        w.reset();
+        w.setCanonical(true);
+        BidResponseEncoder.writeBidResponse(w, response, null);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    /**
+     * @param request the bid request
+     * @return the 64 bit hash of the canonical form of the bid request
+     */
+    public long hash64(BidRequest request) {
+        hash(request);
+        return hash.low();
+    }
+
+    /**
+     * @param response the bid response
+     * @return the 64 bit hash of the canonical form of the bid response
+     */
+    public long hash64(BidResponse response) {
+        hash(response);
+        return hash.low();
+    }
+
+    /**
+     * @param request the bid request
+     * @return the 128 bit hash of the canonical form of the bid request
+     */
+    public Fingerprint fingerprint(BidRequest request) {
+        hash(request);
+        return new Fingerprint(hash.high(), hash.low());
+    }
+
+    /**
+     * @param response the bid response
+     * @return the 128 bit hash of the canonical form of the bid response
+     */
+    public Fingerprint fingerprint(BidResponse response) {
+        hash(response);
+        return new Fingerprint(hash.high(), hash.low());
+    }
+
+    private void hash(BidRequest request) {
+        JsonWriter w = startHashing();
+        BidRequestEncoder.writeBidRequest(w, request);
+        finishHashing(w);
+    }
+
+    private void hash(BidResponse response) {
+        JsonWriter w = startHashing();
+        BidResponseEncoder.writeBidResponse(w, response, null);
+        finishHashing(w);
+    }
+
+    private JsonWriter startHashing() {
+        JsonWriter w = writer;
+        hash.reset();
+        w.resetHashing(hash);
+        w.setCanonical(true);
+        return w;
+    }
+
+    private void finishHashing(JsonWriter w) {
+        w.flush();
+        hash.finish();
+    }
+
+}
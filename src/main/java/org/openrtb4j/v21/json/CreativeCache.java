@@ -0,0 +1,131 @@
+package org.openrtb4j.v21.json;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openrtb4j.v21.data.response.Bid;
+
+/**
+ * Cache of the static content of creatives, pre-encoded as JSON. The fields of
+ * a bid that only depend on the creative, i.e. adid, adm, adomain, iurl, cid,
+ * crid and attr, repeat across every bid for it, and a
+ * {@link BidResponseEncoder} using the cache copies them as a single
+ * pre-escaped fragment instead of encoding them again, which pays off for
+ * large ad markup.
+ *
+ * A fragment is used for a bid whose crid is registered and whose static
+ * fields equal those of the registered creative; bids filled from the
+ * registered instances pass this check by reference. Other bids are encoded
+ * as usual.
+ *
+ * The cache may be shared by the encoders of several threads and updated
+ * while in use.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class CreativeCache {
+
+    private final ConcurrentHashMap<String, Fragment> fragments = new ConcurrentHashMap<String, Fragment>();
+
+    /**
+     * Registers the static content of a creative, replacing any creative with
+     * the same crid.
+     *
+     * @param creative a bid holding the static fields of the creative
+     * @throws NullPointerException if the crid of the creative is null
+     */
+    public void register(Bid creative) {
+        if (creative.getCrid() == null) {
+            throw new NullPointerException("crid cannot be null.");
+        }
+        fragments.put(creative.getCrid(), new Fragment(creative));
+    }
+
+    /**
+     * @param crid the crid of the creative to remove
+     */
+    public void unregister(String crid) {
+        fragments.remove(crid);
+    }
+
+    /**
+     * @return the number of registered creatives
+     */
+    public int size() {
+        return fragments.size();
+    }
+
+    /**
+     * @param bid the bid to encode
+     * @return the fragment holding the static fields of the bid, or null if
+     *         they must be encoded
+     */
+    Fragment match(Bid bid) {
+        String crid = bid.getCrid();
+        if (crid == null) {
+            return null;
+        }
+        Fragment fragment = fragments.get(crid);
+        return fragment != null && fragment.matches(bid) ? fragment : null;
+    }
+
+    /**
+     * The encoded static fields of a creative along with their values.
+     */
+    static final class Fragment {
+
+        private final String adid;
+
+        private final String adm;
+
+        private final String[] adomain;
+
+        private final String iurl;
+
+        private final String cid;
+
+        private final String crid;
+
+        private final Integer[] attr;
+
+        /**
+         * The members of the static fields, in member order.
+         */
+        final byte[] members;
+
+        Fragment(Bid creative) {
+            this.adid = creative.getAdid();
+            this.adm = creative.getAdm();
+            this.adomain = creative.getAdomain() == null ? null : creative.getAdomain().clone();
+            this.iurl = creative.getIurl();
+            this.cid = creative.getCid();
+            this.crid = creative.getCrid();
+            this.attr = creative.getAttr() == null ? null : creative.getAttr().clone();
+            FieldTable t = JsonFields.BID;
+            JsonWriter w = new JsonWriter();
+            w.reset();
+            w.startMembers();
+            w.field(t, 3, adid); // adid
+            w.field(t, 5, adm); // adm
+            w.field(t, 6, adomain); // adomain
+            w.field(t, 7, iurl); // iurl
+            w.field(t, 8, cid); // cid
+            w.field(t, 9, crid); // crid
+            w.field(t, 10, attr); // attr
+            this.members = Arrays.copyOf(w.buffer(), w.length());
+        }
+
+        boolean matches(Bid bid) {
+            return equal(adm, bid.getAdm()) && equal(adid, bid.getAdid()) && equal(iurl, bid.getIurl())
+                    && equal(cid, bid.getCid()) && equal(crid, bid.getCrid())
+                    && Arrays.equals(adomain, bid.getAdomain()) && Arrays.equals(attr, bid.getAttr());
+        }
+
+        private static boolean equal(String a, String b) {
+            return a == b || (a != null && a.equals(b));
+        }
+
+    }
+
+}
@@ -0,0 +1,195 @@
+package org.openrtb4j.v21.json;
+
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits enforced by a decoder on its input, so that a single pathological
+ * payload, such as a request with thousands of blocked advertisers or a deeply
+ * nested ext, is rejected early and cheaply instead of stalling a worker. A
+ * decoder aborts with a {@link LimitExceededException} as soon as a limit is
+ * exceeded, and the limits count how often each of them fired.
+ *
+ * Every limit is unbounded unless set. The limits may be shared by the
+ * decoders of several threads, but should be configured before they are
+ * used.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class DecoderLimits {
+
+    /**
+     * The kinds of limits.
+     */
+    public enum Limit {
+
+        /**
+         * Total size of the input in bytes.
+         */
+        BYTES,
+
+        /**
+         * Nesting depth of objects and arrays, including skipped values.
+         */
+        DEPTH,
+
+        /**
+         * Length of a string in bytes, including skipped values.
+         */
+        STRING_LENGTH,
+
+        /**
+         * Number of elements of an array field.
+         */
+        ARRAY_LENGTH
+
+    }
+
+    private int maxBytes = Integer.MAX_VALUE;
+
+    private int maxDepth = Integer.MAX_VALUE;
+
+    private int maxStringLength = Integer.MAX_VALUE;
+
+    private int maxArrayLength = Integer.MAX_VALUE;
+
+    /**
+     * Array limits of individual fields, by field index of the table.
+     */
+    private final Map<FieldTable, int[]> arrayLimits = new IdentityHashMap<FieldTable, int[]>();
+
+    private final Map<Limit, LongAdder> counters = new EnumMap<Limit, LongAdder>(Limit.class);
+
+    public DecoderLimits() {
+        for (Limit limit : Limit.values()) {
+            counters.put(limit, new LongAdder());
+        }
+    }
+
+    /**
+     * @return the maxBytes
+     */
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @param maxBytes the maximum size of the input in bytes
+     */
+    public void setMaxBytes(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the maxDepth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @param maxDepth the maximum nesting depth of objects and arrays, the
+     *            bid request object itself being at depth 1
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @return the maxStringLength
+     */
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    /**
+     * @param maxStringLength the maximum length of a string in bytes, as
+     *            encoded in the input
+     */
+    public void setMaxStringLength(int maxStringLength) {
+        this.maxStringLength = maxStringLength;
+    }
+
+    /**
+     * @return the maxArrayLength
+     */
+    public int getMaxArrayLength() {
+        return maxArrayLength;
+    }
+
+    /**
+     * @param maxArrayLength the maximum number of elements of the array fields
+     *            without a limit of their own
+     */
+    public void setMaxArrayLength(int maxArrayLength) {
+        this.maxArrayLength = maxArrayLength;
+    }
+
+    /**
+     * Limits the number of elements of one array field. The field is named by
+     * its dot-separated path from the bid request, e.g. <code>badv</code>,
+     * <code>imp</code> or <code>user.data.segment</code>, and the limit
+     * applies wherever the object holding it appears, so that
+     * <code>imp.banner.mimes</code> also limits the companion banners of a
+     * video.
+     *
+     * @param path the path of the array field
+     * @param maxLength the maximum number of elements
+     * @throws IllegalArgumentException if the path does not name a field
+     */
+    public void setMaxArrayLength(String path, int maxLength) {
+        FieldTable table = JsonFields.BID_REQUEST;
+        FieldTable owner = null;
+        int field = FieldTable.UNKNOWN;
+        for (String name : path.split("\\.", -1)) {
+            if (table == null) {
+                throw new IllegalArgumentException("Not an object in " + path);
+            }
+            field = table.indexOf(name);
+            if (field == FieldTable.UNKNOWN) {
+                throw new IllegalArgumentException("Unknown field '" + name + "' in " + path);
+            }
+            owner = table;
+            table = table.nested(field);
+        }
+        int[] limits = arrayLimits.get(owner);
+        if (limits == null) {
+            limits = new int[owner.size()];
+            arrayLimits.put(owner, limits);
+        }
+        limits[field] = maxLength + 1;
+    }
+
+    /**
+     * @param limit the kind of limit
+     * @return how often the limit has been exceeded
+     */
+    public long getCount(Limit limit) {
+        return counters.get(limit).sum();
+    }
+
+    /**
+     * @param table the table of the object holding the array
+     * @param field the index of the array field
+     * @return the maximum number of elements of the array
+     */
+    int maxArrayLength(FieldTable table, int field) {
+        int[] limits = arrayLimits.get(table);
+        if (limits == null || limits[field] == 0) {
+            return maxArrayLength;
+        }
+        return limits[field] - 1;
+    }
+
+    /**
+     * Counts a limit that fired and creates the exception reporting it.
+     */
+    LimitExceededException exceeded(Limit limit, int max, long offset) {
+        counters.get(limit).increment();
+        return new LimitExceededException(limit, max, offset);
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Open-addressing lookup table from the raw UTF-8 bytes of a JSON member name
+ * to the index of the field in the owning object. Lets the decoder dispatch on
+ * member names without creating a String for every key, and holds the encoded
+ * member names written by the encoders.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class FieldTable {
+
+    /**
+     * Returned by {@link #lookup(byte[], int, int)} for names that are not part
+     * of the table.
+     */
+    static final int UNKNOWN = -1;
+
+    private final String[] names;
+
+    private final byte[][] keys;
+
+    private final int[] indexes;
+
+    /**
+     * The quoted member names followed by a colon, by field index.
+     */
+    private final byte[][] members;
+
+    private final int mask;
+
+    /**
+     * Tables of the nested objects by field index.
+     */
+    private final FieldTable[] nested;
+
+    /**
+     * @param names the field names, the position of a name in the array is its
+     *            index
+     */
+    FieldTable(String... names) {
+        this.names = names;
+        int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 4 - 1) << 1;
+        this.keys = new byte[capacity][];
+        this.indexes = new int[capacity];
+        this.mask = capacity - 1;
+        this.nested = new FieldTable[names.length];
+        this.members = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            byte[] key = names[i].getBytes(StandardCharsets.UTF_8);
+            members[i] = ('"' + names[i] + "\":").getBytes(StandardCharsets.UTF_8);
+            int slot = hash(key, 0, key.length) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            indexes[slot] = i;
+        }
+    }
+
+    /**
+     * @return the number of fields
+     */
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * @param index the field index
+     * @return the field name
+     */
+    String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * @param index the field index
+     * @return the UTF-8 encoded member name in quotes, followed by a colon
+     */
+    byte[] member(int index) {
+        return members[index];
+    }
+
+    /**
+     * @param name the field name
+     * @return the index of the field or {@link #UNKNOWN}
+     */
+    int indexOf(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        return lookup(key, 0, key.length);
+    }
+
+    /**
+     * Declares the table of the object, or of the elements of the array of
+     * objects, held by a field.
+     *
+     * @param name the field name
+     * @param table the table of the nested object
+     * @return this table
+     */
+    FieldTable nest(String name, FieldTable table) {
+        nested[indexOf(name)] = table;
+        return this;
+    }
+
+    /**
+     * @param index the field index
+     * @return the table of the nested object, or null if the field does not
+     *         hold objects
+     */
+    FieldTable nested(int index) {
+        return nested[index];
+    }
+
+    /**
+     * @param buf the buffer holding the name
+     * @param off the offset of the first byte of the name
+     * @param len the length of the name in bytes
+     * @return the index of the field or {@link #UNKNOWN}
+     */
+    int lookup(byte[] buf, int off, int len) {
+        int slot = hash(buf, off, len) & mask;
+        byte[] key;
+        while ((key = keys[slot]) != null) {
+            if (key.length == len && equal(key, buf, off)) {
+                return indexes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean equal(byte[] key, byte[] buf, int off) {
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buf[off + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] buf, int off, int len) {
+        int h = len;
+        for (int i = off, end = off + len; i < end; i++) {
+            h = 31 * h + buf[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+}
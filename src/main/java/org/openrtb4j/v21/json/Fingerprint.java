@@ -0,0 +1,72 @@
+package org.openrtb4j.v21.json;
+
+/**
+ * A 128 bit hash of the canonical form of a bid request or response, see
+ * {@link CanonicalEncoder}. Fingerprints are values and can key maps and
+ * caches.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public final class Fingerprint {
+
+    private final long high;
+
+    private final long low;
+
+    public Fingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * @return the high 64 bits
+     */
+    public long getHigh() {
+        return high;
+    }
+
+    /**
+     * @return the low 64 bits, which are also the 64 bit hash
+     */
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Fingerprint)) {
+            return false;
+        }
+        Fingerprint other = (Fingerprint) obj;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) low;
+    }
+
+    /**
+     * @return the 32 hexadecimal digits of the fingerprint, high bits first
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(32);
+        hex(sb, high);
+        hex(sb, low);
+        return sb.toString();
+    }
+
+    private static void hex(StringBuilder sb, long value) {
+        String digits = Long.toHexString(value);
+        for (int i = digits.length(); i < 16; i++) {
+            sb.append('0');
+        }
+        sb.append(digits);
+    }
+
+}
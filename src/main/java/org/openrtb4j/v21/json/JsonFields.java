@@ -0,0 +1,81 @@
+package org.openrtb4j.v21.json;
+
+/**
+ * Member names of the OpenRTB 2.1 objects, in the declaration order of the
+ * fields of the data classes. The index of a name in its table is the field
+ * index the decoders dispatch on and the encoders write in, so that the
+ * codecs of the request and response objects share a single description of
+ * the model.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class JsonFields {
+
+    static final FieldTable BID_REQUEST = new FieldTable("id", "imp", "site", "app", "device", "user", "at",
+            "tmax", "wseat", "allimps", "cur", "bcat", "badv", "ext");
+
+    static final FieldTable IMPRESSION = new FieldTable("id", "banner", "video", "displaymanager",
+            "displaymanagerver", "instl", "tagid", "bidfloor", "bidfloorcur", "iframebuster", "ext");
+
+    static final FieldTable BANNER = new FieldTable("w", "h", "id", "pos", "btype", "battr", "mimes",
+            "topframe", "expdir", "api", "ext");
+
+    static final FieldTable VIDEO = new FieldTable("mimes", "linearity", "minduration", "maxduration",
+            "protocol", "w", "h", "startdelay", "sequence", "battr", "maxextended", "minbitrate", "maxbitrate",
+            "boxingallowed", "playbackmethod", "delivery", "pos", "companionad", "api", "companiontype", "ext");
+
+    static final FieldTable SITE = new FieldTable("id", "name", "domain", "cat", "sectioncat", "pagecat",
+            "page", "privacypolicy", "ref", "search", "publisher", "content", "keywords", "ext");
+
+    static final FieldTable APP = new FieldTable("id", "name", "domain", "cat", "sectioncat", "pagecat", "ver",
+            "bundle", "privacypolicy", "paid", "publisher", "content", "keywords", "storeurl", "ext");
+
+    static final FieldTable PUBLISHER = new FieldTable("id", "name", "cat", "domain", "ext");
+
+    static final FieldTable CONTENT = new FieldTable("id", "episode", "title", "series", "season", "url",
+            "cat", "videoquality", "keywords", "contentrating", "userrating", "context", "livestream",
+            "sourcerelationship", "producer", "len", "qagmediarating", "embeddable", "language", "ext");
+
+    static final FieldTable PRODUCER = new FieldTable("id", "name", "cat", "domain", "ext");
+
+    static final FieldTable DEVICE = new FieldTable("dnt", "ua", "ip", "geo", "didsha1", "didmd5",
+            "dpidsha1", "dpidmd5", "ipv6", "carrier", "language", "make", "model", "os", "osv", "js",
+            "connectiontype", "devicetype", "flashver", "ext");
+
+    static final FieldTable GEO = new FieldTable("lat", "lon", "country", "region", "regionfips104", "metro",
+            "city", "zip", "type", "ext");
+
+    static final FieldTable USER = new FieldTable("id", "buyeruid", "yob", "gender", "keywords",
+            "customdata", "geo", "data", "ext");
+
+    static final FieldTable DATA = new FieldTable("id", "name", "segment", "ext");
+
+    static final FieldTable SEGMENT = new FieldTable("id", "name", "value", "ext");
+
+    static final FieldTable BID_RESPONSE = new FieldTable("id", "seatbid", "bidid", "cur", "customdata", "ext");
+
+    static final FieldTable SEAT_BID = new FieldTable("bid", "seat", "group", "ext");
+
+    static final FieldTable BID = new FieldTable("id", "impid", "price", "adid", "nurl", "adm", "adomain", "iurl",
+            "cid", "crid", "attr", "ext");
+
+    static {
+        BID_REQUEST.nest("imp", IMPRESSION).nest("site", SITE).nest("app", APP).nest("device", DEVICE)
+                .nest("user", USER);
+        IMPRESSION.nest("banner", BANNER).nest("video", VIDEO);
+        VIDEO.nest("companionad", BANNER);
+        SITE.nest("publisher", PUBLISHER).nest("content", CONTENT);
+        APP.nest("publisher", PUBLISHER).nest("content", CONTENT);
+        CONTENT.nest("producer", PRODUCER);
+        DEVICE.nest("geo", GEO);
+        USER.nest("geo", GEO).nest("data", DATA);
+        DATA.nest("segment", SEGMENT);
+        BID_RESPONSE.nest("seatbid", SEAT_BID);
+        SEAT_BID.nest("bid", BID);
+    }
+
+    private JsonFields() {
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.openrtb4j.v21.json;
+
+/**
+ * Thrown when the JSON input cannot be decoded into the OpenRTB object graph,
+ * either because it is not well-formed or because a value does not have the
+ * type the specification requires for the field.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class JsonParseException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Offset in the input, relative to the start of the buffer, at which the
+     * problem was detected.
+     */
+    private final long offset;
+
+    /**
+     * @param message the problem description
+     * @param offset the offset in the input buffer
+     */
+    public JsonParseException(String message, long offset) {
+        super(message + " at offset " + offset);
+        this.offset = offset;
+    }
+
+    /**
+     * @return the offset in the input buffer
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+}
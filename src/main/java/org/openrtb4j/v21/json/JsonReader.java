@@ -0,0 +1,930 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.RawJson;
+
+/**
+ * Forward-only cursor over a UTF-8 encoded JSON document held in a byte array.
+ * Values are read straight from the bytes; Strings are only created for values
+ * the caller asks for, and unwanted values are skipped without decoding them.
+ *
+ * Optionally a {@link StructuralIndex} is built over the document up front, and
+ * strings and skipped containers are then jumped over using the index.
+ *
+ * The reader enforces the {@link DecoderLimits} it is given on every value,
+ * including skipped ones.
+ *
+ * A reader is reusable across documents through
+ * {@link #reset(byte[], int, int, StructuralIndex, boolean)} but is not
+ * thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class JsonReader {
+
+    /**
+     * Returned by {@link #nextField(FieldTable)} when the end of the current
+     * object has been reached.
+     */
+    static final int END = -2;
+
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+
+    /**
+     * Largest integer below which every integer is an exact float.
+     */
+    private static final long FLOAT_MANTISSA_MAX = 1 << 24;
+
+    private static final float[] POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f,
+            1e10f };
+
+    /**
+     * Boxed integers up to this value are cached, which covers the usual
+     * sizes, durations, bitrates and enumeration values of the specification.
+     */
+    private static final int CACHED_INTEGERS = 2048;
+
+    private static final Integer[] INTEGERS = new Integer[CACHED_INTEGERS + 1];
+
+    static {
+        for (int i = 0; i < INTEGERS.length; i++) {
+            INTEGERS[i] = Integer.valueOf(i);
+        }
+    }
+
+    private byte[] buf;
+
+    /**
+     * Structural index of the current document, null when the document is
+     * scanned byte by byte.
+     */
+    private StructuralIndex index;
+
+    /**
+     * Whether the buffer is reused once the document has been read.
+     */
+    private boolean transientInput;
+
+    private int pos;
+
+    private int limit;
+
+    /**
+     * The closing brackets expected by the containers being skipped, from
+     * the outermost.
+     */
+    private byte[] closers = new byte[16];
+
+    /**
+     * Limits of the input, null if unlimited.
+     */
+    private DecoderLimits limits;
+
+    private int maxDepth = Integer.MAX_VALUE;
+
+    private int maxStringLength = Integer.MAX_VALUE;
+
+    /**
+     * Number of objects and arrays that are open at the current position.
+     */
+    private int depth;
+
+    /**
+     * The table and index of the member last returned by
+     * {@link #nextField(FieldTable)}, which select the limit of an array
+     * value.
+     */
+    private FieldTable fieldTable;
+
+    private int field;
+
+    /**
+     * True right after an object or array has been opened, when the next
+     * member or element must not be preceded by a comma.
+     */
+    private boolean first;
+
+    /**
+     * Whether the string last found by {@link #stringEnd(int)} contains
+     * escape sequences.
+     */
+    private boolean escaped;
+
+    /**
+     * Scratch space for unescaped strings and member names.
+     */
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Scratch space for string arrays.
+     */
+    private String[] strings = new String[16];
+
+    /**
+     * Scratch space for integer arrays.
+     */
+    private int[] ints = new int[16];
+
+    /**
+     * @param limits the limits of the input, or null for none
+     */
+    void setLimits(DecoderLimits limits) {
+        this.limits = limits;
+        this.maxDepth = limits == null ? Integer.MAX_VALUE : limits.getMaxDepth();
+        this.maxStringLength = limits == null ? Integer.MAX_VALUE : limits.getMaxStringLength();
+    }
+
+    /**
+     * Points the reader at a new document.
+     *
+     * @param buf the buffer holding the document
+     * @param off the offset of the first byte of the document
+     * @param len the length of the document in bytes
+     * @param index the index to build over the document, or null to scan it
+     *            byte by byte
+     * @param transientInput true if the buffer is reused once the document
+     *            has been read, in which case raw values are copied out of it
+     * @throws LimitExceededException if the document is larger than allowed
+     * @throws JsonParseException if the index finds mismatched brackets
+     */
+    void reset(byte[] buf, int off, int len, StructuralIndex index, boolean transientInput) {
+        if (off < 0 || len < 0 || off + len > buf.length) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + buf.length);
+        }
+        this.buf = buf;
+        this.pos = off;
+        this.limit = off + len;
+        this.first = false;
+        this.depth = 0;
+        this.fieldTable = null;
+        this.index = index;
+        this.transientInput = transientInput;
+        if (limits != null && len > limits.getMaxBytes()) {
+            throw limitExceeded(DecoderLimits.Limit.BYTES, limits.getMaxBytes());
+        }
+        if (index != null) {
+            index.build(buf, off, len);
+            // Skipped containers are jumped over, so their depth and strings
+            // are checked once for the whole document
+            if (index.maxDepth() > maxDepth) {
+                pos = index.maxDepthPosition();
+                throw limitExceeded(DecoderLimits.Limit.DEPTH, maxDepth);
+            }
+            if (index.maxStringLength() > maxStringLength) {
+                pos = index.maxStringPosition();
+                throw limitExceeded(DecoderLimits.Limit.STRING_LENGTH, maxStringLength);
+            }
+            if (index.mismatchPosition() >= 0) {
+                pos = index.mismatchPosition();
+                throw error("Mismatched bracket");
+            }
+        }
+    }
+
+    /**
+     * Releases the reference to the current document.
+     */
+    void clear() {
+        this.buf = null;
+        this.pos = 0;
+        this.limit = 0;
+        this.index = null;
+    }
+
+    /**
+     * @return the current position in the buffer
+     */
+    int position() {
+        return pos;
+    }
+
+    /**
+     * Fails unless only whitespace remains in the document.
+     */
+    void expectEnd() {
+        skipWhitespace();
+        if (pos != limit) {
+            throw error("Unexpected trailing data");
+        }
+    }
+
+    /**
+     * Consumes the opening brace of an object.
+     */
+    void beginObject() {
+        expect('{');
+        enter();
+        first = true;
+    }
+
+    /**
+     * Consumes the next member name of the current object along with the
+     * following colon, leaving the reader positioned at the member value.
+     *
+     * @param fields the fields of the current object
+     * @return the index of the member in <code>fields</code>,
+     *         {@link FieldTable#UNKNOWN} for a member that is not in the table,
+     *         or {@link #END} once the closing brace has been consumed
+     */
+    int nextField(FieldTable fields) {
+        byte b = peek();
+        if (b == '}') {
+            pos++;
+            depth--;
+            first = false;
+            return END;
+        }
+        if (!first) {
+            if (b != ',') {
+                throw error("Expected ',' or '}'");
+            }
+            pos++;
+            b = peek();
+        }
+        first = false;
+        if (b != '"') {
+            throw error("Expected member name");
+        }
+        int start = ++pos;
+        int end = stringEnd(start);
+        int field;
+        if (escaped) {
+            int len = unescape();
+            field = fields.lookup(scratch, 0, len);
+        } else {
+            field = fields.lookup(buf, start, end - start);
+            pos = end + 1;
+        }
+        expect(':');
+        this.fieldTable = fields;
+        this.field = field;
+        return field;
+    }
+
+    /**
+     * Consumes the opening bracket of an array.
+     */
+    void beginArray() {
+        expect('[');
+        enter();
+        first = true;
+    }
+
+    private void enter() {
+        if (++depth > maxDepth) {
+            pos--;
+            throw limitExceeded(DecoderLimits.Limit.DEPTH, maxDepth);
+        }
+    }
+
+    /**
+     * @return the maximum number of elements of the value of the member last
+     *         returned by {@link #nextField(FieldTable)}
+     */
+    int maxArrayLength() {
+        if (limits == null) {
+            return Integer.MAX_VALUE;
+        }
+        return fieldTable == null || field < 0 ? limits.getMaxArrayLength() : limits.maxArrayLength(fieldTable, field);
+    }
+
+    /**
+     * Moves to the next element of the current array.
+     *
+     * @return true if the reader is positioned at an element, false once the
+     *         closing bracket has been consumed
+     */
+    boolean hasNextElement() {
+        byte b = peek();
+        if (b == ']') {
+            pos++;
+            depth--;
+            first = false;
+            return false;
+        }
+        if (!first) {
+            if (b != ',') {
+                throw error("Expected ',' or ']'");
+            }
+            pos++;
+        }
+        first = false;
+        return true;
+    }
+
+    /**
+     * Consumes a <code>null</code> literal if the next value is one.
+     *
+     * @return true if a null was consumed
+     */
+    boolean readNull() {
+        if (peek() == 'n') {
+            expectLiteral(NULL);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the next string value, or null for a JSON null
+     */
+    String readString() {
+        byte b = peek();
+        if (b == 'n') {
+            expectLiteral(NULL);
+            return null;
+        }
+        if (b != '"') {
+            throw error("Expected string");
+        }
+        int start = ++pos;
+        int end = stringEnd(start);
+        if (!escaped) {
+            pos = end + 1;
+            return new String(buf, start, end - start, StandardCharsets.UTF_8);
+        }
+        int len = unescape();
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param defaultValue the value to return for a JSON null
+     * @return the next integer value
+     */
+    int readInt(int defaultValue) {
+        byte b = peek();
+        if (b == 'n') {
+            expectLiteral(NULL);
+            return defaultValue;
+        }
+        return parseInt();
+    }
+
+    /**
+     * @return the next integer value, or null for a JSON null
+     */
+    Integer readInteger() {
+        byte b = peek();
+        if (b == 'n') {
+            expectLiteral(NULL);
+            return null;
+        }
+        return box(parseInt());
+    }
+
+    /**
+     * @param defaultValue the value to return for a JSON null
+     * @return the next number value
+     */
+    float readFloat(float defaultValue) {
+        byte b = peek();
+        if (b == 'n') {
+            expectLiteral(NULL);
+            return defaultValue;
+        }
+        return parseFloat();
+    }
+
+    /**
+     * @return the next number value, or null for a JSON null
+     */
+    Float readFloatObject() {
+        byte b = peek();
+        if (b == 'n') {
+            expectLiteral(NULL);
+            return null;
+        }
+        return Float.valueOf(parseFloat());
+    }
+
+    /**
+     * @return the next array of strings, or null for a JSON null
+     */
+    String[] readStringArray() {
+        if (readNull()) {
+            return null;
+        }
+        int max = maxArrayLength();
+        beginArray();
+        int n = 0;
+        while (hasNextElement()) {
+            if (n == max) {
+                Arrays.fill(strings, 0, n, null);
+                throw limitExceeded(DecoderLimits.Limit.ARRAY_LENGTH, max);
+            }
+            if (n == strings.length) {
+                strings = Arrays.copyOf(strings, n * 2);
+            }
+            strings[n++] = readString();
+        }
+        String[] result = Arrays.copyOf(strings, n);
+        Arrays.fill(strings, 0, n, null);
+        return result;
+    }
+
+    /**
+     * @return the next array of integers, or null for a JSON null
+     */
+    Integer[] readIntegerArray() {
+        if (readNull()) {
+            return null;
+        }
+        int max = maxArrayLength();
+        beginArray();
+        int n = 0;
+        while (hasNextElement()) {
+            if (n == max) {
+                throw limitExceeded(DecoderLimits.Limit.ARRAY_LENGTH, max);
+            }
+            if (n == ints.length) {
+                ints = Arrays.copyOf(ints, n * 2);
+            }
+            ints[n++] = parseInt();
+        }
+        Integer[] result = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = box(ints[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Captures the next value, whatever its type, as a slice of the input
+     * buffer without decoding it.
+     *
+     * @return the raw value, or null for a JSON null
+     */
+    RawJson readRawJson() {
+        if (readNull()) {
+            return null;
+        }
+        int start = pos;
+        skipValue();
+        if (transientInput) {
+            return new RawJson(Arrays.copyOfRange(buf, start, pos), 0, pos - start);
+        }
+        return new RawJson(buf, start, pos - start);
+    }
+
+    /**
+     * Skips the next value, whatever its type, without decoding it.
+     */
+    void skipValue() {
+        byte b = peek();
+        switch (b) {
+        case '"':
+            pos = skipString(pos + 1);
+            break;
+        case '{':
+        case '[':
+            skipContainer();
+            break;
+        case 't':
+            expectLiteral(TRUE);
+            break;
+        case 'f':
+            expectLiteral(FALSE);
+            break;
+        case 'n':
+            expectLiteral(NULL);
+            break;
+        default:
+            pos = scanNumber();
+        }
+        first = false;
+    }
+
+    private void skipContainer() {
+        if (index != null) {
+            int entry = index.seek(pos);
+            int end = entry < 0 ? -1 : index.partnerPosition(entry);
+            if (end >= 0) {
+                pos = end + 1;
+                return;
+            }
+        }
+        int nested = 0;
+        do {
+            if (pos >= limit) {
+                throw error("Unterminated container");
+            }
+            byte c = buf[pos];
+            if (c == '"') {
+                pos = skipString(pos + 1);
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                if (depth + nested >= maxDepth) {
+                    throw limitExceeded(DecoderLimits.Limit.DEPTH, maxDepth);
+                }
+                if (nested == closers.length) {
+                    closers = Arrays.copyOf(closers, nested * 2);
+                }
+                closers[nested++] = (byte) (c + 2);
+            } else if (c == '}' || c == ']') {
+                if (c != closers[--nested]) {
+                    throw error("Mismatched bracket");
+                }
+            }
+            pos++;
+        } while (nested > 0);
+    }
+
+    /**
+     * @param p the position right after the opening quote
+     * @return the position right after the closing quote
+     */
+    private int skipString(int p) {
+        return stringEnd(p) + 1;
+    }
+
+    /**
+     * Finds the end of a string and sets {@link #escaped} to whether it
+     * contains escape sequences.
+     *
+     * @param start the position right after the opening quote
+     * @return the position of the closing quote
+     */
+    private int stringEnd(int start) {
+        if (index != null) {
+            int entry = index.seek(start - 1);
+            int end = entry < 0 ? -1 : index.partnerPosition(entry);
+            if (end >= 0) {
+                escaped = index.escaped(entry);
+                return end;
+            }
+        }
+        boolean backslash = false;
+        int p = start;
+        int stop = (int) Math.min(limit, start + (long) maxStringLength + 1);
+        for (;;) {
+            if (p >= stop) {
+                pos = start - 1;
+                if (stop < limit) {
+                    throw limitExceeded(DecoderLimits.Limit.STRING_LENGTH, maxStringLength);
+                }
+                pos = p;
+                throw error("Unterminated string");
+            }
+            byte c = buf[p];
+            if (c == '"') {
+                escaped = backslash;
+                return p;
+            }
+            if (c == '\\') {
+                backslash = true;
+                p++;
+            }
+            p++;
+        }
+    }
+
+    private static Integer box(int value) {
+        return value >= 0 && value <= CACHED_INTEGERS ? INTEGERS[value] : Integer.valueOf(value);
+    }
+
+    private int parseInt() {
+        skipWhitespace();
+        int start = pos;
+        int p = pos;
+        boolean negative = false;
+        if (p < limit && buf[p] == '-') {
+            negative = true;
+            p++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (p < limit) {
+            int d = buf[p] - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            value = value * 10 + d;
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw error("Integer out of range");
+            }
+            digits++;
+            p++;
+        }
+        if (digits == 0) {
+            throw error("Expected number");
+        }
+        if (digits > 1 && buf[p - digits] == '0') {
+            throw error("Invalid number");
+        }
+        if (p < limit && (buf[p] == '.' || buf[p] == 'e' || buf[p] == 'E')) {
+            // Tolerate integral values written as decimals, e.g. 300.0
+            double d = parseDouble(start);
+            if (d != Math.rint(d) || d < Integer.MIN_VALUE || d > Integer.MAX_VALUE) {
+                throw new JsonParseException("Expected integer", start);
+            }
+            return (int) d;
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new JsonParseException("Integer out of range", start);
+        }
+        pos = p;
+        return (int) value;
+    }
+
+    /**
+     * Parses a number into the nearest float. Short decimals, such as prices
+     * and coordinates, are converted exactly from their digits without
+     * creating a String: when the digits fit in the 24 bit float mantissa
+     * and the power of ten is at most 10, both are exact floats and a single
+     * multiplication or division rounds correctly. Other forms fall back to
+     * {@link Float#parseFloat(String)}.
+     *
+     * @throws JsonParseException at the start of the number if it is
+     *             malformed or beyond the range of a float
+     */
+    private float parseFloat() {
+        skipWhitespace();
+        int start = pos;
+        int p = pos;
+        boolean negative = false;
+        if (p < limit && buf[p] == '-') {
+            negative = true;
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        int integerStart = p;
+        while (p < limit && isDigit(buf[p])) {
+            mantissa = mantissa * 10 + (buf[p++] - '0');
+            digits++;
+        }
+        if (p == integerStart) {
+            throw error("Expected number");
+        }
+        if (buf[integerStart] == '0' && p - integerStart > 1) {
+            throw error("Invalid number");
+        }
+        if (p < limit && buf[p] == '.') {
+            p++;
+            int fractionStart = p;
+            while (p < limit && isDigit(buf[p])) {
+                mantissa = mantissa * 10 + (buf[p++] - '0');
+                digits++;
+            }
+            scale = p - fractionStart;
+            if (scale == 0) {
+                throw error("Invalid number");
+            }
+        }
+        if (digits > 18 || mantissa > FLOAT_MANTISSA_MAX || scale > 10
+                || (p < limit && (buf[p] == 'e' || buf[p] == 'E'))) {
+            int end = scanNumber();
+            float value;
+            try {
+                value = Float.parseFloat(new String(buf, start, end - start, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number");
+            }
+            if (Float.isInfinite(value)) {
+                throw error("Number out of range");
+            }
+            pos = end;
+            return value;
+        }
+        pos = p;
+        float value = scale == 0 ? (float) mantissa : (float) mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private double parseDouble(int start) {
+        pos = start;
+        int end = scanNumber();
+        try {
+            double value = Double.parseDouble(new String(buf, start, end - start, StandardCharsets.US_ASCII));
+            pos = end;
+            return value;
+        } catch (NumberFormatException e) {
+            throw error("Invalid number");
+        }
+    }
+
+    /**
+     * Checks the grammar of the number starting at the current position: an
+     * optional minus sign, an integer part without leading zeros, and an
+     * optional fraction and exponent, each with at least one digit.
+     *
+     * @return the position right after the number
+     * @throws JsonParseException at the start of the number if it is
+     *             malformed
+     */
+    private int scanNumber() {
+        int p = pos;
+        if (p < limit && buf[p] == '-') {
+            p++;
+        }
+        int digits = p;
+        while (p < limit && isDigit(buf[p])) {
+            p++;
+        }
+        if (p == digits) {
+            throw error("Expected value");
+        }
+        if (buf[digits] == '0' && p - digits > 1) {
+            throw error("Invalid number");
+        }
+        if (p < limit && buf[p] == '.') {
+            digits = ++p;
+            while (p < limit && isDigit(buf[p])) {
+                p++;
+            }
+            if (p == digits) {
+                throw error("Invalid number");
+            }
+        }
+        if (p < limit && (buf[p] == 'e' || buf[p] == 'E')) {
+            p++;
+            if (p < limit && (buf[p] == '+' || buf[p] == '-')) {
+                p++;
+            }
+            digits = p;
+            while (p < limit && isDigit(buf[p])) {
+                p++;
+            }
+            if (p == digits) {
+                throw error("Invalid number");
+            }
+        }
+        return p;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Decodes the escaped string whose first content byte is at the current
+     * position into {@link #scratch}, leaving the reader after the closing
+     * quote.
+     *
+     * @return the number of bytes written to the scratch buffer
+     */
+    private int unescape() {
+        int n = 0;
+        for (;;) {
+            if (pos >= limit) {
+                throw error("Unterminated string");
+            }
+            if (n + 4 > scratch.length) {
+                scratch = Arrays.copyOf(scratch, scratch.length * 2);
+            }
+            byte c = buf[pos++];
+            if (c == '"') {
+                return n;
+            }
+            if (c != '\\') {
+                scratch[n++] = c;
+                continue;
+            }
+            if (pos >= limit) {
+                throw error("Unterminated string");
+            }
+            c = buf[pos++];
+            switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                scratch[n++] = c;
+                break;
+            case 'b':
+                scratch[n++] = '\b';
+                break;
+            case 'f':
+                scratch[n++] = '\f';
+                break;
+            case 'n':
+                scratch[n++] = '\n';
+                break;
+            case 'r':
+                scratch[n++] = '\r';
+                break;
+            case 't':
+                scratch[n++] = '\t';
+                break;
+            case 'u':
+                int cp = readHex4();
+                if (Character.isHighSurrogate((char) cp) && pos + 6 <= limit && buf[pos] == '\\'
+                        && buf[pos + 1] == 'u') {
+                    int save = pos;
+                    pos += 2;
+                    int low = readHex4();
+                    if (Character.isLowSurrogate((char) low)) {
+                        cp = Character.toCodePoint((char) cp, (char) low);
+                    } else {
+                        pos = save;
+                    }
+                }
+                n = putCodePoint(cp, n);
+                break;
+            default:
+                throw error("Invalid escape sequence");
+            }
+        }
+    }
+
+    private int readHex4() {
+        if (pos + 4 > limit) {
+            throw error("Invalid unicode escape");
+        }
+        int cp = 0;
+        for (int i = 0; i < 4; i++) {
+            int d = Character.digit(buf[pos++], 16);
+            if (d < 0) {
+                throw error("Invalid unicode escape");
+            }
+            cp = (cp << 4) | d;
+        }
+        return cp;
+    }
+
+    private int putCodePoint(int cp, int n) {
+        if (cp < 0x80) {
+            scratch[n++] = (byte) cp;
+        } else if (cp < 0x800) {
+            scratch[n++] = (byte) (0xC0 | (cp >> 6));
+            scratch[n++] = (byte) (0x80 | (cp & 0x3F));
+        } else if (cp < 0x10000) {
+            scratch[n++] = (byte) (0xE0 | (cp >> 12));
+            scratch[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            scratch[n++] = (byte) (0x80 | (cp & 0x3F));
+        } else {
+            scratch[n++] = (byte) (0xF0 | (cp >> 18));
+            scratch[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            scratch[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            scratch[n++] = (byte) (0x80 | (cp & 0x3F));
+        }
+        return n;
+    }
+
+    private void expectLiteral(byte[] literal) {
+        if (pos + literal.length > limit) {
+            throw error("Unexpected end of input");
+        }
+        for (int i = 0; i < literal.length; i++) {
+            if (buf[pos + i] != literal[i]) {
+                throw error("Invalid literal");
+            }
+        }
+        pos += literal.length;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    /**
+     * Skips whitespace and returns the next byte without consuming it.
+     */
+    private byte peek() {
+        skipWhitespace();
+        if (pos >= limit) {
+            throw error("Unexpected end of input");
+        }
+        return buf[pos];
+    }
+
+    private void skipWhitespace() {
+        while (pos < limit) {
+            byte b = buf[pos];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    JsonParseException error(String message) {
+        return new JsonParseException(message, pos);
+    }
+
+    /**
+     * Counts a limit that fired at the current position and creates the
+     * exception reporting it.
+     */
+    LimitExceededException limitExceeded(DecoderLimits.Limit limit, int max) {
+        if (limits == null) {
+            return new LimitExceededException(limit, max, pos);
+        }
+        return limits.exceeded(limit, max, pos);
+    }
+
+}
@@ -0,0 +1,135 @@
+package org.openrtb4j.v21.json;
+
+import org.openrtb4j.v21.data.RawJson;
+
+/**
+ * Exact sizes in bytes of the JSON written by {@link JsonWriter}, computed
+ * without encoding. The size of a member or of an element includes one
+ * separating comma, which {@link #container(int)} takes back for the first
+ * one.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class JsonSize {
+
+    static final int NULL = 4;
+
+    private JsonSize() {
+    }
+
+    /**
+     * @param items the sum of the sizes of the members or elements
+     * @return the size of the object or array holding them
+     */
+    static int container(int items) {
+        return items == 0 ? 2 : items + 1;
+    }
+
+    /**
+     * @return the size of a member with the given value size, including its
+     *         separator
+     */
+    static int member(FieldTable fields, int field, int value) {
+        return 1 + fields.member(field).length + value;
+    }
+
+    static int field(FieldTable fields, int field, String value) {
+        return value == null ? 0 : member(fields, field, string(value));
+    }
+
+    static int field(FieldTable fields, int field, String value, String defaultValue) {
+        return defaultValue.equals(value) ? 0 : field(fields, field, value);
+    }
+
+    static int field(FieldTable fields, int field, Integer value) {
+        return value == null ? 0 : member(fields, field, integer(value.intValue()));
+    }
+
+    static int field(FieldTable fields, int field, int value, int defaultValue) {
+        return value == defaultValue ? 0 : member(fields, field, integer(value));
+    }
+
+    static int field(FieldTable fields, int field, Float value) {
+        return value == null ? 0 : member(fields, field, number(value.floatValue()));
+    }
+
+    static int field(FieldTable fields, int field, float value, float defaultValue) {
+        return value == defaultValue ? 0 : member(fields, field, number(value));
+    }
+
+    static int priceField(FieldTable fields, int field, Float value, int decimals) {
+        return value == null ? 0 : member(fields, field, number(value.floatValue(), decimals));
+    }
+
+    static int priceField(FieldTable fields, int field, float value, float defaultValue, int decimals) {
+        return value == defaultValue ? 0 : member(fields, field, number(value, decimals));
+    }
+
+    static int field(FieldTable fields, int field, String[] values) {
+        if (values == null) {
+            return 0;
+        }
+        int items = 0;
+        for (String value : values) {
+            items += 1 + string(value);
+        }
+        return member(fields, field, container(items));
+    }
+
+    static int field(FieldTable fields, int field, Integer[] values) {
+        if (values == null) {
+            return 0;
+        }
+        int items = 0;
+        for (Integer value : values) {
+            items += 1 + (value == null ? NULL : integer(value.intValue()));
+        }
+        return member(fields, field, container(items));
+    }
+
+    static int field(FieldTable fields, int field, RawJson value) {
+        return value == null ? 0 : member(fields, field, value.length());
+    }
+
+    /**
+     * @return the size of a quoted and escaped string, or of null
+     */
+    static int string(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        int size = 2;
+        int n = value.length();
+        for (int i = 0; i < n; i++) {
+            int width = JsonWriter.width(value, i);
+            size += width;
+            if (width == 4) {
+                i++;
+            }
+        }
+        return size;
+    }
+
+    static int integer(int value) {
+        return value < 0 ? 1 + JsonWriter.digits(-(long) value) : JsonWriter.digits(value);
+    }
+
+    static int number(float value) {
+        return number(value, JsonWriter.SHORTEST);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not finite, as
+     *             {@link JsonWriter#writeNumber(float, int)} does
+     */
+    static int number(float value, int decimals) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            throw new IllegalArgumentException(value + " cannot be written as JSON.");
+        }
+        long decimal = JsonWriter.decimal(value, decimals);
+        int size = JsonWriter.negative(value, decimal, decimals) ? 1 : 0;
+        return size + JsonWriter.width(JsonWriter.significand(decimal), JsonWriter.exponent(decimal), decimals);
+    }
+
+}
@@ -0,0 +1,915 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.RawJson;
+
+/**
+ * Forward-only writer of UTF-8 encoded JSON into a byte array. Member names
+ * are copied pre-encoded from the {@link FieldTable}s, and strings and numbers
+ * are encoded straight into the array without intermediate objects.
+ *
+ * The writer either fills a caller-supplied region of an array, failing with
+ * a {@link BufferOverflowException} when the region is too small, or grows a
+ * scratch array of its own that is kept between documents.
+ *
+ * When writing into its scratch array, the writer can also gather the output:
+ * raw content of at least a threshold size, such as pre-encoded fragments, is
+ * then referenced as a segment of its own instead of being copied, and the
+ * output is a list of buffers for a gathering write. Alternatively the output
+ * can be streamed into a {@link Murmur3} hash chunk by chunk, without the
+ * document ever being held in memory as a whole.
+ *
+ * In canonical mode, raw values are written without the whitespace outside
+ * of their strings.
+ *
+ * A writer is reusable across documents but is not thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class JsonWriter {
+
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+
+    private static final byte[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e',
+            'f' };
+
+    /**
+     * Marks the shortest form that reads back as the same float, as opposed
+     * to a fixed number of decimals.
+     */
+    static final int SHORTEST = -1;
+
+    /**
+     * Largest number of fixed decimals.
+     */
+    static final int MAX_DECIMALS = 9;
+
+    /**
+     * The powers of ten from 10^0 to 10^54, the range needed to scale the
+     * digits of any float, each the double nearest to it.
+     */
+    private static final double[] POWERS_OF_TEN = new double[55];
+
+    static {
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = Double.parseDouble("1e" + i);
+        }
+    }
+
+    private byte[] buf;
+
+    private int start;
+
+    private int pos;
+
+    private int limit;
+
+    /**
+     * Whether {@link #buf} is the scratch array, which grows as needed.
+     */
+    private boolean growable;
+
+    private byte[] scratch = new byte[256];
+
+    /**
+     * True when the next member or element must be preceded by a comma.
+     */
+    private boolean comma;
+
+    /**
+     * Size from which raw content is referenced instead of copied,
+     * {@link Integer#MAX_VALUE} when not gathering.
+     */
+    private int gatherThreshold = Integer.MAX_VALUE;
+
+    /**
+     * The arrays of the gathered segments, null for segments of the scratch
+     * array, which may still be reallocated.
+     */
+    private byte[][] segmentArrays = new byte[8][];
+
+    private int[] segmentOffsets = new int[8];
+
+    private int[] segmentLengths = new int[8];
+
+    private int segments;
+
+    /**
+     * Start of the part of the scratch array not yet in a segment.
+     */
+    private int cut;
+
+    /**
+     * Hash receiving the output whenever the scratch array is full, null
+     * when the output is kept.
+     */
+    private Murmur3 sink;
+
+    /**
+     * Whether raw values are minified.
+     */
+    private boolean canonical;
+
+    /**
+     * Pre-encoded strings, or null.
+     */
+    private StringCache strings;
+
+    /**
+     * Number of decimals of prices, or {@link #SHORTEST}.
+     */
+    private int priceDecimals = SHORTEST;
+
+    /**
+     * Points the writer at a region of a caller-supplied array.
+     *
+     * @param buf the array to write to
+     * @param off the offset of the first byte to write
+     * @param len the number of bytes available
+     */
+    void reset(byte[] buf, int off, int len) {
+        if (off < 0 || len < 0 || off + len > buf.length) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + buf.length);
+        }
+        this.buf = buf;
+        this.start = off;
+        this.pos = off;
+        this.limit = off + len;
+        this.growable = false;
+        this.comma = false;
+        resetModes();
+    }
+
+    /**
+     * Points the writer at the start of its own scratch array.
+     */
+    void reset() {
+        this.buf = scratch;
+        this.start = 0;
+        this.pos = 0;
+        this.limit = scratch.length;
+        this.growable = true;
+        this.comma = false;
+        resetModes();
+    }
+
+    /**
+     * Turns gathering, hashing and canonical output off, so that they do not
+     * carry over to the next document.
+     */
+    private void resetModes() {
+        this.gatherThreshold = Integer.MAX_VALUE;
+        Arrays.fill(segmentArrays, 0, segments, null);
+        this.segments = 0;
+        this.cut = 0;
+        this.sink = null;
+        this.canonical = false;
+    }
+
+    /**
+     * Points the writer at the start of its own scratch array and streams
+     * the output into a hash, see {@link #flush()}.
+     *
+     * @param sink the hash receiving the output
+     */
+    void resetHashing(Murmur3 sink) {
+        reset();
+        this.sink = sink;
+    }
+
+    /**
+     * Hands the bytes written so far to the hash.
+     */
+    void flush() {
+        sink.update(buf, 0, pos);
+        pos = 0;
+    }
+
+    /**
+     * @return the pre-encoded strings, or null
+     */
+    StringCache getStrings() {
+        return strings;
+    }
+
+    /**
+     * @param strings the pre-encoded strings to copy, or null; kept across
+     *            documents
+     */
+    void setStrings(StringCache strings) {
+        this.strings = strings;
+    }
+
+    /**
+     * @return the number of decimals of prices, or {@link #SHORTEST}
+     */
+    int getPriceDecimals() {
+        return priceDecimals;
+    }
+
+    /**
+     * @param priceDecimals the number of decimals of prices, or
+     *            {@link #SHORTEST}; kept across documents
+     * @throws IllegalArgumentException if the number is neither
+     *             {@link #SHORTEST} nor between 0 and {@link #MAX_DECIMALS}
+     */
+    void setPriceDecimals(int priceDecimals) {
+        if (priceDecimals < SHORTEST || priceDecimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException(priceDecimals + " is not a valid number of decimals.");
+        }
+        this.priceDecimals = priceDecimals;
+    }
+
+    /**
+     * @param canonical true to minify raw values
+     */
+    void setCanonical(boolean canonical) {
+        this.canonical = canonical;
+    }
+
+    /**
+     * Points the writer at the start of its own scratch array and gathers
+     * the output, see {@link #segments()}.
+     *
+     * @param threshold the size from which raw content is referenced instead
+     *            of copied
+     */
+    void resetGathering(int threshold) {
+        reset();
+        this.gatherThreshold = threshold;
+    }
+
+    /**
+     * Ends a gathered output.
+     *
+     * @return the buffers holding the output in order, the parts written to
+     *         the scratch array being valid until the writer is reset
+     */
+    ByteBuffer[] segments() {
+        cutSegment();
+        ByteBuffer[] buffers = new ByteBuffer[segments];
+        for (int i = 0; i < segments; i++) {
+            byte[] array = segmentArrays[i] == null ? scratch : segmentArrays[i];
+            buffers[i] = ByteBuffer.wrap(array, segmentOffsets[i], segmentLengths[i]).slice();
+        }
+        return buffers;
+    }
+
+    private void cutSegment() {
+        if (pos > cut) {
+            addSegment(null, cut, pos - cut);
+            cut = pos;
+        }
+    }
+
+    private void addSegment(byte[] array, int off, int len) {
+        if (segments == segmentLengths.length) {
+            int capacity = segments * 2;
+            segmentArrays = Arrays.copyOf(segmentArrays, capacity);
+            segmentOffsets = Arrays.copyOf(segmentOffsets, capacity);
+            segmentLengths = Arrays.copyOf(segmentLengths, capacity);
+        }
+        segmentArrays[segments] = array;
+        segmentOffsets[segments] = off;
+        segmentLengths[segments] = len;
+        segments++;
+    }
+
+    /**
+     * Releases the reference to a caller-supplied array.
+     */
+    void clear() {
+        this.buf = null;
+        this.start = 0;
+        this.pos = 0;
+        this.limit = 0;
+    }
+
+    /**
+     * @return the array written to
+     */
+    byte[] buffer() {
+        return buf;
+    }
+
+    /**
+     * @return the offset of the first byte written
+     */
+    int offset() {
+        return start;
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    int length() {
+        return pos - start;
+    }
+
+    void beginObject() {
+        separate();
+        writeByte('{');
+        comma = false;
+    }
+
+    void endObject() {
+        writeByte('}');
+        comma = true;
+    }
+
+    void beginArray() {
+        separate();
+        writeByte('[');
+        comma = false;
+    }
+
+    void endArray() {
+        writeByte(']');
+        comma = true;
+    }
+
+    /**
+     * Starts a run of members continuing an object that is opened elsewhere,
+     * so that the first member is not preceded by a comma.
+     */
+    void startMembers() {
+        comma = false;
+    }
+
+    /**
+     * Copies a run of encoded members, as written after
+     * {@link #startMembers()}, into the current object.
+     *
+     * @param members the buffer holding the members
+     * @param off the offset of the first byte of the members
+     * @param len the length of the members in bytes, 0 for none
+     */
+    void writeMembers(byte[] members, int off, int len) {
+        if (len > 0) {
+            separate();
+            writeRaw(members, off, len);
+            comma = true;
+        }
+    }
+
+    /**
+     * Writes a member name, which must be followed by its value.
+     *
+     * @param fields the fields of the current object
+     * @param field the index of the member
+     */
+    void name(FieldTable fields, int field) {
+        separate();
+        writeRaw(fields.member(field));
+        comma = false;
+    }
+
+    /**
+     * Writes a string member unless the value is null.
+     */
+    void field(FieldTable fields, int field, String value) {
+        if (value != null) {
+            name(fields, field);
+            writeString(value);
+        }
+    }
+
+    /**
+     * Writes an integer member unless the value is null.
+     */
+    void field(FieldTable fields, int field, Integer value) {
+        if (value != null) {
+            name(fields, field);
+            writeInt(value.intValue());
+        }
+    }
+
+    /**
+     * Writes a number member unless the value is null.
+     */
+    void field(FieldTable fields, int field, Float value) {
+        if (value != null) {
+            name(fields, field);
+            writeFloat(value.floatValue());
+        }
+    }
+
+    /**
+     * Writes a price member unless the value is null, with the decimals of
+     * prices.
+     */
+    void priceField(FieldTable fields, int field, Float value) {
+        if (value != null) {
+            name(fields, field);
+            writeNumber(value.floatValue(), priceDecimals);
+        }
+    }
+
+    /**
+     * Writes a price member unless the value is the default, with the
+     * decimals of prices.
+     */
+    void priceField(FieldTable fields, int field, float value, float defaultValue) {
+        if (value != defaultValue) {
+            name(fields, field);
+            writeNumber(value, priceDecimals);
+        }
+    }
+
+    /**
+     * Writes a string array member unless the value is null.
+     */
+    void field(FieldTable fields, int field, String[] values) {
+        if (values != null) {
+            name(fields, field);
+            beginArray();
+            for (String value : values) {
+                writeString(value);
+            }
+            endArray();
+        }
+    }
+
+    /**
+     * Writes an integer array member unless the value is null.
+     */
+    void field(FieldTable fields, int field, Integer[] values) {
+        if (values != null) {
+            name(fields, field);
+            beginArray();
+            for (Integer value : values) {
+                if (value == null) {
+                    writeNull();
+                } else {
+                    writeInt(value.intValue());
+                }
+            }
+            endArray();
+        }
+    }
+
+    /**
+     * Writes a string member unless the value is null or the default.
+     */
+    void field(FieldTable fields, int field, String value, String defaultValue) {
+        if (!defaultValue.equals(value)) {
+            field(fields, field, value);
+        }
+    }
+
+    /**
+     * Writes an integer member unless the value is the default.
+     */
+    void field(FieldTable fields, int field, int value, int defaultValue) {
+        if (value != defaultValue) {
+            name(fields, field);
+            writeInt(value);
+        }
+    }
+
+    /**
+     * Writes a number member unless the value is the default.
+     */
+    void field(FieldTable fields, int field, float value, float defaultValue) {
+        if (value != defaultValue) {
+            name(fields, field);
+            writeFloat(value);
+        }
+    }
+
+    /**
+     * Writes a raw member, byte for byte, unless the value is null.
+     */
+    void field(FieldTable fields, int field, RawJson value) {
+        if (value != null) {
+            name(fields, field);
+            if (canonical) {
+                writeMinified(value.buffer(), value.offset(), value.length());
+            } else {
+                writeRaw(value.buffer(), value.offset(), value.length());
+            }
+            comma = true;
+        }
+    }
+
+    void writeNull() {
+        separate();
+        writeRaw(NULL);
+        comma = true;
+    }
+
+    /**
+     * Writes a string value in quotes, escaping quotes, backslashes and
+     * control characters, or null. Strings registered in the
+     * {@link StringCache} are copied pre-encoded.
+     *
+     * Runs of printable ASCII, which make up most ids, are copied by a tight
+     * loop that checks the space left once per run rather than once per
+     * character; only the characters in between take the escaping path.
+     */
+    void writeString(String value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        if (strings != null) {
+            byte[] encoded = strings.get(value);
+            if (encoded != null) {
+                separate();
+                writeRaw(encoded);
+                comma = true;
+                return;
+            }
+        }
+        separate();
+        int n = value.length();
+        ensure(1);
+        buf[pos++] = '"';
+        int i = 0;
+        while (i < n) {
+            byte[] b = buf;
+            int p = pos;
+            int end = Math.min(n, i + limit - p);
+            while (i < end) {
+                char c = value.charAt(i);
+                if (c < 0x20 || c >= 0x80 || c == '"' || c == '\\') {
+                    break;
+                }
+                b[p++] = (byte) c;
+                i++;
+            }
+            pos = p;
+            if (i < n) {
+                i = writeChar(value, i);
+            }
+        }
+        ensure(1);
+        buf[pos++] = '"';
+        comma = true;
+    }
+
+    /**
+     * Writes the character at an index, escaped or encoded as needed.
+     *
+     * @return the index of the next character
+     */
+    private int writeChar(String value, int i) {
+        char c = value.charAt(i);
+        if (pos + 6 > limit) {
+            ensure(width(value, i));
+        }
+        if (c >= 0x20 && c < 0x80) {
+            if (c == '"' || c == '\\') {
+                buf[pos++] = '\\';
+            }
+            buf[pos++] = (byte) c;
+        } else if (c < 0x20) {
+            writeControl(c);
+        } else if (c < 0x800) {
+            buf[pos++] = (byte) (0xC0 | (c >> 6));
+            buf[pos++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            int cp = Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1)) ? Character.toCodePoint(c, value.charAt(++i))
+                    : 0xFFFD;
+            if (cp < 0x10000) {
+                writeThreeBytes(cp);
+            } else {
+                buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+            }
+        } else {
+            writeThreeBytes(c);
+        }
+        return i + 1;
+    }
+
+    /**
+     * @return the number of bytes the character at an index is written as,
+     *         along with its low surrogate if it is a high one
+     */
+    static int width(String value, int i) {
+        char c = value.charAt(i);
+        if (c >= 0x20 && c < 0x80) {
+            return c == '"' || c == '\\' ? 2 : 1;
+        }
+        if (c < 0x20) {
+            return c == '\b' || c == '\f' || c == '\n' || c == '\r' || c == '\t' ? 2 : 6;
+        }
+        if (c < 0x800) {
+            return 2;
+        }
+        if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+            return 4;
+        }
+        return 3;
+    }
+
+    private void writeThreeBytes(int cp) {
+        buf[pos++] = (byte) (0xE0 | (cp >> 12));
+        buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+    }
+
+    private void writeControl(char c) {
+        buf[pos++] = '\\';
+        switch (c) {
+        case '\b':
+            buf[pos++] = 'b';
+            break;
+        case '\f':
+            buf[pos++] = 'f';
+            break;
+        case '\n':
+            buf[pos++] = 'n';
+            break;
+        case '\r':
+            buf[pos++] = 'r';
+            break;
+        case '\t':
+            buf[pos++] = 't';
+            break;
+        default:
+            buf[pos++] = 'u';
+            buf[pos++] = '0';
+            buf[pos++] = '0';
+            buf[pos++] = HEX[c >> 4];
+            buf[pos++] = HEX[c & 0xF];
+        }
+    }
+
+    void writeInt(int value) {
+        separate();
+        long v = value;
+        if (v < 0) {
+            ensure(1);
+            buf[pos++] = '-';
+            v = -v;
+        }
+        writeDigits(v);
+        comma = true;
+    }
+
+    /**
+     * Writes the shortest number that reads back as the same float.
+     *
+     * @throws IllegalArgumentException if the value is not finite
+     */
+    void writeFloat(float value) {
+        writeNumber(value, SHORTEST);
+    }
+
+    /**
+     * Writes a number as a plain decimal, never in E notation and without
+     * creating a String. With {@link #SHORTEST}, the number has the fewest
+     * significant digits that read back as the same float, e.g. 0.1 for
+     * 0.1f. Otherwise it is rounded half up to the given number of decimals,
+     * e.g. 0.10 for 0.1f with two.
+     *
+     * @throws IllegalArgumentException if the value is not finite
+     */
+    void writeNumber(float value, int decimals) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            throw new IllegalArgumentException(value + " cannot be written as JSON.");
+        }
+        separate();
+        long decimal = decimal(value, decimals);
+        if (negative(value, decimal, decimals)) {
+            writeByte('-');
+        }
+        writeDecimal(significand(decimal), exponent(decimal), decimals);
+        comma = true;
+    }
+
+    /**
+     * Converts a finite number into the digits and the exponent of the
+     * decimal it is written as, digits × 10^exponent, packed into a long and
+     * unpacked by {@link #significand(long)} and {@link #exponent(long)}.
+     *
+     * @param decimals the number of decimals, or {@link #SHORTEST}
+     */
+    static long decimal(float value, int decimals) {
+        float abs = Math.abs(value);
+        if (decimals != SHORTEST) {
+            double scaled = (double) abs * POWERS_OF_TEN[decimals];
+            if (scaled < (double) (1L << 55)) {
+                return Math.round(scaled) << 8 | (-decimals & 0xFF);
+            }
+            // Beyond the 55 bits left to the digits, and the precision of a
+            // float, the digits are those of the shortest form padded with
+            // zero decimals
+        }
+        return shortest(abs);
+    }
+
+    static long significand(long decimal) {
+        return decimal >> 8;
+    }
+
+    static int exponent(long decimal) {
+        return (byte) decimal;
+    }
+
+    /**
+     * Finds the decimal with the fewest significant digits inside the
+     * interval of the numbers that round to the given float, taking the one
+     * nearest to the float among them. Candidates are computed in double
+     * precision, which is exact for the bounds of the interval; a candidate
+     * within the rounding error of a bound is not taken, which at worst adds
+     * a digit. Nine significant digits always fall inside.
+     */
+    private static long shortest(float abs) {
+        if (abs == 0) {
+            return 0;
+        }
+        double value = abs;
+        double low = (value + Math.nextDown(abs)) / 2;
+        double high = abs == Float.MAX_VALUE ? value + (value - low) : (value + Math.nextUp(abs)) / 2;
+        double margin = value * 0x1p-49;
+        int magnitude = (int) Math.floor(Math.log10(value));
+        for (int precision = 1;; precision++) {
+            int exponent = magnitude - precision + 1;
+            long digits = Math.round(scale(value, -exponent));
+            double candidate = scale(digits, exponent);
+            if ((candidate - low > margin && high - candidate > margin) || precision == 17) {
+                while (digits % 10 == 0 && digits != 0) {
+                    digits /= 10;
+                    exponent++;
+                }
+                return digits << 8 | (exponent & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * @return the value times 10^exponent
+     */
+    private static double scale(double value, int exponent) {
+        return exponent >= 0 ? value * POWERS_OF_TEN[exponent] : value / POWERS_OF_TEN[-exponent];
+    }
+
+    /**
+     * @return true if the number is written with a minus sign, which negative
+     *         zero only has in the shortest form and numbers rounded to zero
+     *         never have
+     */
+    static boolean negative(float value, long decimal, int decimals) {
+        if (decimals == SHORTEST) {
+            return value < 0 || (value == 0 && 1 / value < 0);
+        }
+        return value < 0 && significand(decimal) != 0;
+    }
+
+    /**
+     * @return the number of decimal digits of a non-negative number
+     */
+    static int digits(long value) {
+        int digits = 1;
+        for (long v = value / 10; v != 0; v /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * @return the number of characters of an unsigned decimal, digits ×
+     *         10^exponent, written with at least the given decimals
+     */
+    static int width(long digits, int exponent, int decimals) {
+        int n = digits == 0 ? 1 : digits(digits);
+        int fraction = Math.max(0, Math.max(-exponent, decimals));
+        int integer = Math.max(1, n + exponent);
+        return integer + (fraction > 0 ? 1 + fraction : 0);
+    }
+
+    /**
+     * Writes an unsigned decimal, digits × 10^exponent, in plain notation
+     * with at least the given decimals.
+     */
+    private void writeDecimal(long digits, int exponent, int decimals) {
+        int fraction = Math.max(0, Math.max(-exponent, decimals));
+        int width = width(digits, exponent, decimals);
+        ensure(width);
+        int end = pos + width;
+        int i = end;
+        for (int power = -fraction; i > pos; power++) {
+            if (power == 0 && fraction > 0) {
+                buf[--i] = '.';
+            }
+            if (power < exponent) {
+                buf[--i] = '0';
+            } else {
+                buf[--i] = (byte) ('0' + digits % 10);
+                digits /= 10;
+            }
+        }
+        pos = end;
+    }
+
+    /**
+     * Writes the digits of a non-negative number.
+     */
+    private void writeDigits(long value) {
+        int digits = digits(value);
+        ensure(digits);
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        pos = end;
+    }
+
+    private void writeByte(char c) {
+        ensure(1);
+        buf[pos++] = (byte) c;
+    }
+
+    void writeRaw(byte[] bytes) {
+        writeRaw(bytes, 0, bytes.length);
+    }
+
+    void writeRaw(byte[] bytes, int off, int len) {
+        if (len >= gatherThreshold) {
+            cutSegment();
+            addSegment(bytes, off, len);
+            return;
+        }
+        if (sink != null && pos + len > limit) {
+            flush();
+            if (len > limit) {
+                sink.update(bytes, off, len);
+                return;
+            }
+        }
+        ensure(len);
+        System.arraycopy(bytes, off, buf, pos, len);
+        pos += len;
+    }
+
+    /**
+     * Copies well-formed JSON without the whitespace outside of its strings.
+     */
+    private void writeMinified(byte[] bytes, int off, int len) {
+        boolean string = false;
+        boolean escape = false;
+        for (int i = off, end = off + len; i < end; i++) {
+            byte c = bytes[i];
+            if (string) {
+                if (escape) {
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    string = false;
+                }
+            } else if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                continue;
+            } else if (c == '"') {
+                string = true;
+            }
+            if (pos == limit) {
+                ensure(1);
+            }
+            buf[pos++] = c;
+        }
+    }
+
+    private void separate() {
+        if (comma) {
+            writeByte(',');
+            comma = false;
+        }
+    }
+
+    /**
+     * Makes room for the given number of bytes.
+     *
+     * @throws BufferOverflowException if the caller-supplied region is too
+     *             small
+     */
+    private void ensure(int n) {
+        if (pos + n <= limit) {
+            return;
+        }
+        if (sink != null) {
+            flush();
+            if (n <= limit) {
+                return;
+            }
+        }
+        if (!growable) {
+            throw new BufferOverflowException();
+        }
+        scratch = Arrays.copyOf(scratch, Math.max(pos + n, scratch.length * 2));
+        buf = scratch;
+        limit = scratch.length;
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.openrtb4j.v21.json;
+
+/**
+ * Thrown when the input of a decoder exceeds one of its
+ * {@link DecoderLimits}.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class LimitExceededException extends JsonParseException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DecoderLimits.Limit limit;
+
+    /**
+     * @param limit the limit that was exceeded
+     * @param max the value of the limit
+     * @param offset the offset in the input buffer
+     */
+    public LimitExceededException(DecoderLimits.Limit limit, int max, long offset) {
+        super(limit + " limit of " + max + " exceeded", offset);
+        this.limit = limit;
+    }
+
+    /**
+     * @return the limit that was exceeded
+     */
+    public DecoderLimits.Limit getLimit() {
+        return limit;
+    }
+
+}
@@ -0,0 +1,152 @@
+package org.openrtb4j.v21.json;
+
+/**
+ * Streaming MurmurHash3, x64 128 bit variant with a zero seed. Input is
+ * hashed in 16-byte blocks as it arrives, so a document can be hashed in
+ * chunks without being held in memory as a whole; the result equals that of
+ * hashing the concatenated chunks at once.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class Murmur3 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private long h1;
+
+    private long h2;
+
+    private long length;
+
+    /**
+     * Input of an incomplete block.
+     */
+    private final byte[] tail = new byte[16];
+
+    private int tailLength;
+
+    /**
+     * Starts a new hash.
+     */
+    void reset() {
+        h1 = 0;
+        h2 = 0;
+        length = 0;
+        tailLength = 0;
+    }
+
+    /**
+     * Hashes the next chunk of input.
+     */
+    void update(byte[] buf, int off, int len) {
+        length += len;
+        if (tailLength > 0) {
+            int n = Math.min(16 - tailLength, len);
+            System.arraycopy(buf, off, tail, tailLength, n);
+            tailLength += n;
+            off += n;
+            len -= n;
+            if (tailLength < 16) {
+                return;
+            }
+            block(tail, 0);
+            tailLength = 0;
+        }
+        while (len >= 16) {
+            block(buf, off);
+            off += 16;
+            len -= 16;
+        }
+        System.arraycopy(buf, off, tail, 0, len);
+        tailLength = len;
+    }
+
+    /**
+     * Completes the hash, after which {@link #high()} and {@link #low()} hold
+     * its two halves.
+     */
+    void finish() {
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = tailLength - 1; i >= 8; i--) {
+            k2 ^= (long) (tail[i] & 0xFF) << ((i - 8) * 8);
+        }
+        for (int i = Math.min(tailLength, 8) - 1; i >= 0; i--) {
+            k1 ^= (long) (tail[i] & 0xFF) << (i * 8);
+        }
+        if (tailLength > 8) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+        }
+        if (tailLength > 0) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = mix(h1);
+        h2 = mix(h2);
+        h1 += h2;
+        h2 += h1;
+        tailLength = 0;
+    }
+
+    /**
+     * @return the first half of the finished hash, which is also the 64 bit
+     *         hash
+     */
+    long low() {
+        return h1;
+    }
+
+    /**
+     * @return the second half of the finished hash
+     */
+    long high() {
+        return h2;
+    }
+
+    private void block(byte[] buf, int off) {
+        long k1 = littleEndian(buf, off);
+        long k2 = littleEndian(buf, off + 8);
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        h1 ^= k1;
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        h2 ^= k2;
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private static long littleEndian(byte[] buf, int off) {
+        return (buf[off] & 0xFFL) | (buf[off + 1] & 0xFFL) << 8 | (buf[off + 2] & 0xFFL) << 16
+                | (buf[off + 3] & 0xFFL) << 24 | (buf[off + 4] & 0xFFL) << 32 | (buf[off + 5] & 0xFFL) << 40
+                | (buf[off + 6] & 0xFFL) << 48 | (buf[off + 7] & 0xFFL) << 56;
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+}
@@ -0,0 +1,280 @@
+package org.openrtb4j.v21.json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.response.BidResponse;
+
+/**
+ * Parallel reader of newline-delimited JSON files of bid requests or bid
+ * responses, one object per line, such as request logs kept for replay and
+ * offline analysis.
+ *
+ * The file is memory-mapped and split into chunks at line boundaries, which
+ * the returned parallel streams decode concurrently on the fork-join pool.
+ * Every chunk uses its own decoder, and blank lines are ignored. The streams
+ * hold the file open and must be closed, e.g. with try-with-resources.
+ *
+ * @author Andrey Karayvansky
+ *
+ * @param <T> the type of the decoded objects
+ */
+public final class NdjsonReader<T> {
+
+    /**
+     * Chunks smaller than this are not split any further.
+     */
+    private static final long MIN_CHUNK = 1 << 20;
+
+    /**
+     * Size of the regions of a chunk that are mapped at a time.
+     */
+    private static final int WINDOW = 64 << 20;
+
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final Path file;
+
+    private final Supplier<Function<ByteBuffer, T>> decoders;
+
+    /**
+     * @param file the file to read
+     * @param decoders the factory of the decoders of a line, called once for
+     *            every chunk
+     */
+    public NdjsonReader(Path file, Supplier<Function<ByteBuffer, T>> decoders) {
+        this.file = file;
+        this.decoders = decoders;
+    }
+
+    /**
+     * @param file a file of bid requests
+     * @return the reader
+     */
+    public static NdjsonReader<BidRequest> bidRequests(Path file) {
+        return new NdjsonReader<BidRequest>(file, () -> new BidRequestDecoder()::decode);
+    }
+
+    /**
+     * @param file a file of bid responses
+     * @return the reader
+     */
+    public static NdjsonReader<BidResponse> bidResponses(Path file) {
+        return new NdjsonReader<BidResponse>(file, () -> new BidResponseDecoder()::decode);
+    }
+
+    /**
+     * @return a parallel stream of the decoded objects, in file order
+     * @throws IOException if the file cannot be opened
+     */
+    public Stream<T> stream() throws IOException {
+        return batches(DEFAULT_BATCH_SIZE).flatMap(List::stream);
+    }
+
+    /**
+     * @param batchSize the maximum number of objects in a batch
+     * @return a parallel stream of batches of consecutive decoded objects, in
+     *         file order; a batch never spans two chunks
+     * @throws IOException if the file cannot be opened
+     */
+    public Stream<List<T>> batches(int batchSize) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive.");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            Chunk chunk = new Chunk(channel, 0, channel.size(), batchSize);
+            return StreamSupport.stream(chunk, true).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Range of complete lines of the file.
+     */
+    private final class Chunk implements Spliterator<List<T>> {
+
+        private final FileChannel channel;
+
+        private final int batchSize;
+
+        /**
+         * Offset of the next line to read.
+         */
+        private long start;
+
+        private final long end;
+
+        private Function<ByteBuffer, T> decoder;
+
+        private MappedByteBuffer window;
+
+        private long windowStart;
+
+        Chunk(FileChannel channel, long start, long end, int batchSize) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public Spliterator<List<T>> trySplit() {
+            if (end - start < 2 * MIN_CHUNK || window != null) {
+                return null;
+            }
+            long middle;
+            try {
+                middle = nextLine(start + (end - start) / 2);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (middle >= end) {
+                return null;
+            }
+            Chunk prefix = new Chunk(channel, start, middle, batchSize);
+            start = middle;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            if (start >= end) {
+                return false;
+            }
+            if (decoder == null) {
+                decoder = decoders.get();
+            }
+            List<T> batch = new ArrayList<T>(batchSize);
+            try {
+                while (batch.size() < batchSize && start < end) {
+                    long lineEnd = lineEnd(start);
+                    int from = (int) (start - windowStart);
+                    int to = (int) (lineEnd - windowStart);
+                    if (!blank(from, to)) {
+                        window.limit(to).position(from);
+                        try {
+                            batch.add(decoder.apply(window));
+                        } catch (JsonParseException e) {
+                            JsonParseException failure = new JsonParseException("Invalid record in " + file,
+                                    start + e.getOffset());
+                            failure.initCause(e);
+                            throw failure;
+                        } finally {
+                            window.limit(window.capacity());
+                        }
+                    }
+                    start = lineEnd + 1;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            action.accept(batch);
+            return true;
+        }
+
+        /**
+         * Maps the region holding the line starting at an offset.
+         *
+         * @param from the offset of the line
+         * @return the offset of the newline ending the line, or the end of the
+         *         chunk
+         */
+        private long lineEnd(long from) throws IOException {
+            int size = WINDOW;
+            for (;;) {
+                if (window == null || from < windowStart || from >= windowStart + window.capacity()) {
+                    windowStart = from;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(end - from, size));
+                }
+                int limit = window.capacity();
+                for (int i = (int) (from - windowStart); i < limit; i++) {
+                    if (window.get(i) == '\n') {
+                        return windowStart + i;
+                    }
+                }
+                if (windowStart + limit >= end) {
+                    return end;
+                }
+                if (windowStart == from) {
+                    if (size == Integer.MAX_VALUE) {
+                        throw new IOException("Line at offset " + from + " is too long");
+                    }
+                    size = (int) Math.min(Integer.MAX_VALUE, size * 2L);
+                }
+                window = null;
+            }
+        }
+
+        private boolean blank(int from, int to) {
+            for (int i = from; i < to; i++) {
+                byte b = window.get(i);
+                if (b != ' ' && b != '\r' && b != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param from an offset in the chunk
+         * @return the offset right after the first newline at or after the
+         *         given offset, or the end of the chunk
+         */
+        private long nextLine(long from) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(8192);
+            long p = from;
+            while (p < end) {
+                buf.clear();
+                int n = channel.read(buf, p);
+                if (n <= 0) {
+                    break;
+                }
+                for (int i = 0; i < n && p + i < end; i++) {
+                    if (buf.get(i) == '\n') {
+                        return p + i + 1;
+                    }
+                }
+                p += n;
+            }
+            return end;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - start;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+package org.openrtb4j.v21.json;
+
+/**
+ * Selection of the {@link org.openrtb4j.v21.data.request.BidRequest} fields a
+ * caller needs, given as dot-separated paths such as <code>imp.bidfloor</code>,
+ * <code>imp.banner.w</code> or <code>device.geo.country</code>. A path that
+ * ends at an object or array of objects selects the whole subtree.
+ *
+ * A decoder created with a projection skips every member outside of it at the
+ * byte level, without decoding strings or allocating objects for it. Fields
+ * that are not selected keep their default values.
+ *
+ * Projections are immutable and can be shared between threads.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public final class Projection {
+
+    /**
+     * Selects every field.
+     */
+    public static final Projection ALL = new Projection(-1L, null);
+
+    /**
+     * Bit set of the selected field indexes of the object.
+     */
+    private final long mask;
+
+    /**
+     * Projections of the nested objects by field index, null if every nested
+     * object is selected as a whole.
+     */
+    private final Projection[] children;
+
+    private Projection(long mask, Projection[] children) {
+        this.mask = mask;
+        this.children = children;
+    }
+
+    /**
+     * @param paths the dot-separated paths of the selected fields
+     * @return the projection
+     * @throws IllegalArgumentException if a path does not name a field
+     */
+    public static Projection of(String... paths) {
+        Node root = new Node();
+        for (String path : paths) {
+            Node node = root;
+            FieldTable table = JsonFields.BID_REQUEST;
+            for (String name : path.split("\\.", -1)) {
+                if (node.all) {
+                    break;
+                }
+                if (table == null) {
+                    throw new IllegalArgumentException("Not an object in " + path);
+                }
+                int field = table.indexOf(name);
+                if (field == FieldTable.UNKNOWN) {
+                    throw new IllegalArgumentException("Unknown field '" + name + "' in " + path);
+                }
+                node = node.child(field);
+                table = table.nested(field);
+            }
+            node.all = true;
+        }
+        return root.build();
+    }
+
+    /**
+     * @param field the field index
+     * @return true if the field is selected
+     */
+    boolean includes(int field) {
+        return field >= 0 && (mask & (1L << field)) != 0;
+    }
+
+    /**
+     * @param field the index of a selected object field
+     * @return the projection of the nested object
+     */
+    Projection child(int field) {
+        return children == null ? ALL : children[field];
+    }
+
+    /**
+     * Mutable tree the paths are collected into.
+     */
+    private static final class Node {
+
+        private boolean all;
+
+        private Node[] children = new Node[64];
+
+        Node child(int field) {
+            Node child = children[field];
+            if (child == null) {
+                child = children[field] = new Node();
+            }
+            return child;
+        }
+
+        Projection build() {
+            if (all) {
+                return ALL;
+            }
+            long mask = 0;
+            Projection[] built = new Projection[children.length];
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] != null) {
+                    mask |= 1L << i;
+                    built[i] = children[i].build();
+                }
+            }
+            return new Projection(mask, built);
+        }
+
+    }
+
+}
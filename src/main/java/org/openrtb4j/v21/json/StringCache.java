@@ -0,0 +1,124 @@
+package org.openrtb4j.v21.json;
+
+import java.util.Arrays;
+
+/**
+ * Cache of strings pre-encoded as quoted and escaped JSON, for the values
+ * that recur across most requests or responses, such as currencies, mime
+ * types, seats or the domains of advertisers. Strings are registered
+ * interned and looked up by reference, so the cache applies to values taken
+ * from the instances returned by {@link #register(String)}, to literals and
+ * to other interned strings; any other string is encoded as usual.
+ *
+ * The cache may be shared by the encoders of several threads and extended
+ * while in use. Looking up a string that is not registered costs an identity
+ * hash, unless no registered string has its length.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class StringCache {
+
+    private volatile Table table = new Table(16);
+
+    /**
+     * Registers a string.
+     *
+     * @param value the string to register
+     * @return the interned string, whose encoding is copied from the cache
+     * @throws NullPointerException if the value is null
+     */
+    public synchronized String register(String value) {
+        if (value == null) {
+            throw new NullPointerException("value cannot be null.");
+        }
+        String interned = value.intern();
+        if (table.get(interned) != null) {
+            return interned;
+        }
+        JsonWriter w = new JsonWriter();
+        w.reset();
+        w.writeString(interned);
+        byte[] encoded = Arrays.copyOf(w.buffer(), w.length());
+        Table current = table;
+        Table next = new Table(current.size + 1 > current.keys.length / 2 ? current.keys.length * 2
+                : current.keys.length);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != null) {
+                next.put(current.keys[i], current.values[i]);
+            }
+        }
+        next.put(interned, encoded);
+        table = next;
+        return interned;
+    }
+
+    /**
+     * @return the number of registered strings
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * @param value a string to encode
+     * @return the encoded string, or null if it is not registered
+     */
+    byte[] get(String value) {
+        return table.get(value);
+    }
+
+    /**
+     * Open addressing table keyed by reference, never modified once
+     * published.
+     */
+    private static final class Table {
+
+        final String[] keys;
+
+        final byte[][] values;
+
+        int size;
+
+        /**
+         * Bit i is set when a registered string has length i, bit 63 stands
+         * for all longer lengths.
+         */
+        long lengths;
+
+        Table(int capacity) {
+            keys = new String[capacity];
+            values = new byte[capacity][];
+        }
+
+        void put(String key, byte[] value) {
+            int mask = keys.length - 1;
+            int i = System.identityHashCode(key) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            lengths |= 1L << Math.min(key.length(), 63);
+        }
+
+        byte[] get(String key) {
+            if ((lengths & 1L << Math.min(key.length(), 63)) == 0) {
+                return null;
+            }
+            int mask = keys.length - 1;
+            for (int i = System.identityHashCode(key) & mask;; i = (i + 1) & mask) {
+                String k = keys[i];
+                if (k == key) {
+                    return values[i];
+                }
+                if (k == null) {
+                    return null;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,337 @@
+package org.openrtb4j.v21.json;
+
+import java.util.Arrays;
+
+/**
+ * Index of the string quotes and of the object and array brackets of a JSON
+ * document, in the style of the first stage of simdjson. The document is
+ * classified 64 bytes at a time with SWAR (SIMD within a register) arithmetic
+ * on eight-byte words: quotes, backslashes and brackets are turned into 64 bit
+ * masks, escaped quotes and the inside of strings are masked out with bit
+ * arithmetic, and the remaining positions are extracted in order.
+ *
+ * The index pairs every opening quote with its closing quote and every opening
+ * bracket with its matching closing bracket, so that a reader can jump over
+ * strings and nested containers instead of scanning them byte by byte. A
+ * closing bracket of the other type than the bracket it closes is recorded,
+ * see {@link #mismatchPosition()}, as jumping over its container would hide
+ * it.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class StructuralIndex {
+
+    private static final long ONES = 0x0101010101010101L;
+
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    private static final long QUOTES = '"' * ONES;
+
+    private static final long BACKSLASHES = '\\' * ONES;
+
+    private static final long CASE_BIT = 0x20 * ONES;
+
+    private static final long OPEN_BRACKETS = '{' * ONES;
+
+    private static final long CLOSE_BRACKETS = '}' * ONES;
+
+    /**
+     * Positions of the indexed bytes in the document buffer, in ascending
+     * order.
+     */
+    private int[] positions = new int[256];
+
+    /**
+     * For an opening quote or bracket, the index of the matching closing entry,
+     * -1 if there is none.
+     */
+    private int[] partners = new int[256];
+
+    /**
+     * For an opening quote, whether the string contains escape sequences.
+     */
+    private boolean[] escapes = new boolean[256];
+
+    private int size;
+
+    /**
+     * Read position in {@link #positions}, only ever moves forward.
+     */
+    private int cursor;
+
+    private int[] stack = new int[32];
+
+    /**
+     * Deepest nesting of containers in the document.
+     */
+    private int maxDepth;
+
+    /**
+     * Position of the first opening bracket at the deepest nesting.
+     */
+    private int maxDepthPosition;
+
+    /**
+     * Length in bytes of the longest string in the document.
+     */
+    private int maxStringLength;
+
+    /**
+     * Position of the opening quote of the first longest string.
+     */
+    private int maxStringPosition;
+
+    /**
+     * Position of the first closing bracket not matching the type of its
+     * opening bracket.
+     */
+    private int mismatchPosition;
+
+    private final byte[] tail = new byte[64];
+
+    /**
+     * Indexes a document.
+     *
+     * @param buf the buffer holding the document
+     * @param off the offset of the first byte of the document
+     * @param len the length of the document in bytes
+     */
+    void build(byte[] buf, int off, int len) {
+        size = 0;
+        cursor = 0;
+        maxDepth = 0;
+        maxDepthPosition = -1;
+        maxStringLength = 0;
+        maxStringPosition = -1;
+        mismatchPosition = -1;
+        int depth = 0;
+        int open = -1;
+        boolean escapedString = false;
+        boolean escapeCarry = false;
+        long inStringCarry = 0;
+        int end = off + len;
+        for (int block = off; block < end; block += 64) {
+            byte[] src = buf;
+            int base = block;
+            if (end - block < 64) {
+                Arrays.fill(tail, (byte) ' ');
+                System.arraycopy(buf, block, tail, 0, end - block);
+                src = tail;
+                base = 0;
+            }
+            long quote = 0;
+            long backslash = 0;
+            long opening = 0;
+            long closing = 0;
+            for (int w = 0; w < 8; w++) {
+                long word = word(src, base + w * 8);
+                long folded = word | CASE_BIT;
+                int shift = w * 8;
+                quote |= matches(word ^ QUOTES) << shift;
+                backslash |= matches(word ^ BACKSLASHES) << shift;
+                opening |= matches(folded ^ OPEN_BRACKETS) << shift;
+                closing |= matches(folded ^ CLOSE_BRACKETS) << shift;
+            }
+
+            long escaped = 0;
+            if (backslash != 0 || escapeCarry) {
+                long starts = backslash;
+                if (escapeCarry) {
+                    escaped = 1L;
+                    starts &= ~1L;
+                }
+                escapeCarry = false;
+                while (starts != 0) {
+                    int i = Long.numberOfTrailingZeros(starts);
+                    if (i == 63) {
+                        escapeCarry = true;
+                        break;
+                    }
+                    escaped |= 1L << (i + 1);
+                    starts &= ~(3L << i);
+                }
+            }
+            quote &= ~escaped;
+
+            long inString = prefixXor(quote) ^ inStringCarry;
+            inStringCarry = inString >> 63;
+
+            long bits = ((opening | closing) & ~inString) | quote | (backslash & inString);
+            while (bits != 0) {
+                int i = Long.numberOfTrailingZeros(bits);
+                long bit = 1L << i;
+                bits &= bits - 1;
+                int position = block + i;
+                if ((quote & bit) == 0 && (backslash & bit) != 0) {
+                    escapedString = true;
+                    continue;
+                }
+                if (position >= end) {
+                    break;
+                }
+                int entry = add(position);
+                if ((quote & bit) != 0) {
+                    if ((inString & bit) != 0) {
+                        open = entry;
+                        escapedString = false;
+                    } else if (open >= 0) {
+                        partners[open] = entry;
+                        escapes[open] = escapedString;
+                        int length = position - positions[open] - 1;
+                        if (length > maxStringLength) {
+                            maxStringLength = length;
+                            maxStringPosition = positions[open];
+                        }
+                        open = -1;
+                    }
+                } else if ((opening & bit) != 0) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = entry;
+                    if (depth > maxDepth) {
+                        maxDepth = depth;
+                        maxDepthPosition = position;
+                    }
+                } else if (depth > 0) {
+                    int opener = stack[--depth];
+                    partners[opener] = entry;
+                    // '{' and '}', or '[' and ']', differ in the 0x06 bits only
+                    if ((buf[positions[opener]] ^ buf[position]) != 0x06 && mismatchPosition < 0) {
+                        mismatchPosition = position;
+                    }
+                }
+            }
+        }
+    }
+
+    private int add(int position) {
+        if (size == positions.length) {
+            int capacity = size * 2;
+            positions = Arrays.copyOf(positions, capacity);
+            partners = Arrays.copyOf(partners, capacity);
+            escapes = Arrays.copyOf(escapes, capacity);
+        }
+        positions[size] = position;
+        partners[size] = -1;
+        escapes[size] = false;
+        return size++;
+    }
+
+    /**
+     * Finds the entry of an indexed position, moving the cursor past all
+     * entries before it.
+     *
+     * @param position the position in the document buffer
+     * @return the entry, or -1 if the position is not indexed
+     */
+    int seek(int position) {
+        int i = cursor;
+        while (i < size && positions[i] < position) {
+            i++;
+        }
+        cursor = i;
+        return i < size && positions[i] == position ? i : -1;
+    }
+
+    /**
+     * @param entry the entry of an opening quote or bracket
+     * @return the position of the matching closing quote or bracket, or -1 if
+     *         the document is not well-formed
+     */
+    int partnerPosition(int entry) {
+        int partner = partners[entry];
+        if (partner < 0) {
+            return -1;
+        }
+        cursor = partner + 1;
+        return positions[partner];
+    }
+
+    /**
+     * @param entry the entry of an opening quote
+     * @return true if the string contains escape sequences
+     */
+    boolean escaped(int entry) {
+        return escapes[entry];
+    }
+
+    /**
+     * @return the deepest nesting of objects and arrays in the document
+     */
+    int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the position of the first opening bracket at the deepest
+     *         nesting, -1 if there is none
+     */
+    int maxDepthPosition() {
+        return maxDepthPosition;
+    }
+
+    /**
+     * @return the length in bytes of the longest string in the document, as
+     *         encoded
+     */
+    int maxStringLength() {
+        return maxStringLength;
+    }
+
+    /**
+     * @return the position of the opening quote of the first longest string,
+     *         -1 if there is none
+     */
+    int maxStringPosition() {
+        return maxStringPosition;
+    }
+
+    /**
+     * @return the position of the first closing bracket whose type differs
+     *         from that of its opening bracket, -1 if there is none
+     */
+    int mismatchPosition() {
+        return mismatchPosition;
+    }
+
+    /**
+     * @return the number of indexed positions
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param word eight bytes xor-ed with the broadcast byte to look for
+     * @return one bit per zero byte of the word, in byte order
+     */
+    private static long matches(long word) {
+        long t = ~(((word & LOW7) + LOW7) | word | LOW7);
+        return ((t >>> 7) * 0x0102040810204080L) >>> 56;
+    }
+
+    /**
+     * @return for every bit, the parity of the set bits up to and including it
+     */
+    private static long prefixXor(long x) {
+        x ^= x << 1;
+        x ^= x << 2;
+        x ^= x << 4;
+        x ^= x << 8;
+        x ^= x << 16;
+        x ^= x << 32;
+        return x;
+    }
+
+    /**
+     * @return the little-endian word of the eight bytes at <code>i</code>
+     */
+    private static long word(byte[] b, int i) {
+        return (b[i] & 0xFFL) | (b[i + 1] & 0xFFL) << 8 | (b[i + 2] & 0xFFL) << 16 | (b[i + 3] & 0xFFL) << 24
+                | (b[i + 4] & 0xFFL) << 32 | (b[i + 5] & 0xFFL) << 40 | (b[i + 6] & 0xFFL) << 48
+                | (b[i + 7] & 0xFFL) << 56;
+    }
+
+}
@@ -0,0 +1,740 @@
+package org.openrtb4j.v21.protobuf;
+
+import static org.openrtb4j.v21.protobuf.ProtobufReader.FIXED64;
+import static org.openrtb4j.v21.protobuf.ProtobufReader.LENGTH;
+import static org.openrtb4j.v21.protobuf.ProtobufReader.VARINT;
+
+import java.nio.ByteBuffer;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Data;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Producer;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Segment;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.request.User;
+import org.openrtb4j.v21.data.request.Video;
+
+/**
+ * Decoder of the protobuf wire format of the community openrtb.proto into the
+ * {@link BidRequest} object graph, the counterpart of
+ * {@link ProtobufBidRequestEncoder}. Fields unknown to OpenRTB 2.1, extensions
+ * among them, are skipped, integer arrays are accepted packed and unpacked,
+ * and doubles are narrowed to floats.
+ *
+ * A decoder keeps the state of its reader between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class ProtobufBidRequestDecoder {
+
+    private final ProtobufReader reader = new ProtobufReader();
+
+    /**
+     * @param buf the encoded bid request
+     * @return the decoded bid request
+     * @throws ProtobufFormatException if the input is not a valid bid request
+     */
+    public BidRequest decode(byte[] buf) {
+        return decode(buf, 0, buf.length);
+    }
+
+    /**
+     * @param buf the buffer holding the encoded bid request
+     * @param off the offset of the first byte of the bid request
+     * @param len the length of the bid request in bytes
+     * @return the decoded bid request
+     * @throws ProtobufFormatException if the input is not a valid bid request
+     */
+    public BidRequest decode(byte[] buf, int off, int len) {
+        ProtobufReader r = reader;
+        return readBidRequest(r, r.reset(buf, off, len));
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer, advancing its position to its
+     * limit. The bytes of a buffer without an accessible array are copied.
+     *
+     * @param buf the buffer holding the encoded bid request
+     * @return the decoded bid request
+     * @throws ProtobufFormatException if the input is not a valid bid request
+     */
+    public BidRequest decode(ByteBuffer buf) {
+        int len = buf.remaining();
+        BidRequest request;
+        if (buf.hasArray()) {
+            request = decode(buf.array(), buf.arrayOffset() + buf.position(), len);
+            buf.position(buf.limit());
+        } else {
+            byte[] copy = new byte[len];
+            buf.get(copy);
+            request = decode(copy);
+        }
+        return request;
+    }
+
+    private static BidRequest readBidRequest(ProtobufReader r, int end) {
+        BidRequest o = new BidRequest();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // imp
+                o.setImp(ProtobufReader.append(o.getImp(), readImpression(r, r.beginMessage()), Impression.class));
+                break;
+            case 3 << 3 | LENGTH: // site
+                o.setSite(readSite(r, r.beginMessage()));
+                break;
+            case 4 << 3 | LENGTH: // app
+                o.setApp(readApp(r, r.beginMessage()));
+                break;
+            case 5 << 3 | LENGTH: // device
+                o.setDevice(readDevice(r, r.beginMessage()));
+                break;
+            case 6 << 3 | LENGTH: // user
+                o.setUser(readUser(r, r.beginMessage()));
+                break;
+            case 7 << 3 | VARINT: // at
+                o.setAt(r.readInt());
+                break;
+            case 8 << 3 | VARINT: // tmax
+                o.setTmax(r.readInteger());
+                break;
+            case 9 << 3 | LENGTH: // wseat
+                o.setWseat(r.appendString(o.getWseat()));
+                break;
+            case 10 << 3 | VARINT: // allimps
+                o.setAllimps(r.readInt());
+                break;
+            case 11 << 3 | LENGTH: // cur
+                o.setCur(r.appendString(o.getCur()));
+                break;
+            case 12 << 3 | LENGTH: // bcat
+                o.setBcat(r.appendString(o.getBcat()));
+                break;
+            case 13 << 3 | LENGTH: // badv
+                o.setBadv(r.appendString(o.getBadv()));
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Impression readImpression(ProtobufReader r, int end) {
+        Impression o = new Impression();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // banner
+                o.setBanner(readBanner(r, r.beginMessage()));
+                break;
+            case 3 << 3 | LENGTH: // video
+                o.setVideo(readVideo(r, r.beginMessage()));
+                break;
+            case 4 << 3 | LENGTH: // displaymanager
+                o.setDisplaymanager(r.readString());
+                break;
+            case 5 << 3 | LENGTH: // displaymanagerver
+                o.setDisplaymanagerver(r.readString());
+                break;
+            case 6 << 3 | VARINT: // instl
+                o.setInstl(r.readInt());
+                break;
+            case 7 << 3 | LENGTH: // tagid
+                o.setTagid(r.readString());
+                break;
+            case 8 << 3 | FIXED64: // bidfloor
+                o.setBidfloor(r.readDouble());
+                break;
+            case 9 << 3 | LENGTH: // bidfloorcur
+                o.setBidfloorcur(r.readString());
+                break;
+            case 10 << 3 | LENGTH: // iframebuster
+                o.setIframebuster(r.appendString(o.getIframebuster()));
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Banner readBanner(ProtobufReader r, int end) {
+        Banner o = new Banner();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | VARINT: // w
+                o.setW(r.readInteger());
+                break;
+            case 2 << 3 | VARINT: // h
+                o.setH(r.readInteger());
+                break;
+            case 3 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 4 << 3 | VARINT: // pos
+                o.setPos(r.readInteger());
+                break;
+            case 5 << 3 | LENGTH: // btype
+                o.setBtype(r.appendPacked(o.getBtype()));
+                break;
+            case 5 << 3 | VARINT: // btype, unpacked
+                o.setBtype(r.appendInteger(o.getBtype()));
+                break;
+            case 6 << 3 | LENGTH: // battr
+                o.setBattr(r.appendPacked(o.getBattr()));
+                break;
+            case 6 << 3 | VARINT: // battr, unpacked
+                o.setBattr(r.appendInteger(o.getBattr()));
+                break;
+            case 7 << 3 | LENGTH: // mimes
+                o.setMimes(r.appendString(o.getMimes()));
+                break;
+            case 8 << 3 | VARINT: // topframe
+                o.setTopframe(r.readInt());
+                break;
+            case 9 << 3 | LENGTH: // expdir
+                o.setExpdir(r.appendPacked(o.getExpdir()));
+                break;
+            case 9 << 3 | VARINT: // expdir, unpacked
+                o.setExpdir(r.appendInteger(o.getExpdir()));
+                break;
+            case 10 << 3 | LENGTH: // api
+                o.setApi(r.appendPacked(o.getApi()));
+                break;
+            case 10 << 3 | VARINT: // api, unpacked
+                o.setApi(r.appendInteger(o.getApi()));
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Video readVideo(ProtobufReader r, int end) {
+        Video o = new Video();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // mimes
+                o.setMimes(r.appendString(o.getMimes()));
+                break;
+            case 2 << 3 | VARINT: // linearity
+                o.setLinearity(r.readInteger());
+                break;
+            case 3 << 3 | VARINT: // minduration
+                o.setMinduration(r.readInteger());
+                break;
+            case 4 << 3 | VARINT: // maxduration
+                o.setMaxduration(r.readInteger());
+                break;
+            case 5 << 3 | VARINT: // protocol
+                o.setProtocol(r.readInteger());
+                break;
+            case 6 << 3 | VARINT: // w
+                o.setW(r.readInteger());
+                break;
+            case 7 << 3 | VARINT: // h
+                o.setH(r.readInteger());
+                break;
+            case 8 << 3 | VARINT: // startdelay
+                o.setStartdelay(r.readInteger());
+                break;
+            case 9 << 3 | VARINT: // sequence
+                o.setSequence(r.readInt());
+                break;
+            case 10 << 3 | LENGTH: // battr
+                o.setBattr(r.appendPacked(o.getBattr()));
+                break;
+            case 10 << 3 | VARINT: // battr, unpacked
+                o.setBattr(r.appendInteger(o.getBattr()));
+                break;
+            case 11 << 3 | VARINT: // maxextended
+                o.setMaxextended(r.readInteger());
+                break;
+            case 12 << 3 | VARINT: // minbitrate
+                o.setMinbitrate(r.readInteger());
+                break;
+            case 13 << 3 | VARINT: // maxbitrate
+                o.setMaxbitrate(r.readInteger());
+                break;
+            case 14 << 3 | VARINT: // boxingallowed
+                o.setBoxingallowed(r.readInt());
+                break;
+            case 15 << 3 | LENGTH: // playbackmethod
+                o.setPlaybackmethod(r.appendPacked(o.getPlaybackmethod()));
+                break;
+            case 15 << 3 | VARINT: // playbackmethod, unpacked
+                o.setPlaybackmethod(r.appendInteger(o.getPlaybackmethod()));
+                break;
+            case 16 << 3 | LENGTH: // delivery
+                o.setDelivery(r.appendPacked(o.getDelivery()));
+                break;
+            case 16 << 3 | VARINT: // delivery, unpacked
+                o.setDelivery(r.appendInteger(o.getDelivery()));
+                break;
+            case 17 << 3 | VARINT: // pos
+                o.setPos(r.readInteger());
+                break;
+            case 18 << 3 | LENGTH: // companionad
+                o.setCompanionad(ProtobufReader.append(o.getCompanionad(), readBanner(r, r.beginMessage()), Banner.class));
+                break;
+            case 19 << 3 | LENGTH: // api
+                o.setApi(r.appendPacked(o.getApi()));
+                break;
+            case 19 << 3 | VARINT: // api, unpacked
+                o.setApi(r.appendInteger(o.getApi()));
+                break;
+            case 20 << 3 | LENGTH: // companiontype
+                o.setCompaniontype(r.appendPacked(o.getCompaniontype()));
+                break;
+            case 20 << 3 | VARINT: // companiontype, unpacked
+                o.setCompaniontype(r.appendInteger(o.getCompaniontype()));
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Site readSite(ProtobufReader r, int end) {
+        Site o = new Site();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // name
+                o.setName(r.readString());
+                break;
+            case 3 << 3 | LENGTH: // domain
+                o.setDomain(r.readString());
+                break;
+            case 4 << 3 | LENGTH: // cat
+                o.setCat(r.appendString(o.getCat()));
+                break;
+            case 5 << 3 | LENGTH: // sectioncat
+                o.setSectioncat(r.appendString(o.getSectioncat()));
+                break;
+            case 6 << 3 | LENGTH: // pagecat
+                o.setPagecat(r.appendString(o.getPagecat()));
+                break;
+            case 7 << 3 | LENGTH: // page
+                o.setPage(r.readString());
+                break;
+            case 8 << 3 | VARINT: // privacypolicy
+                o.setPrivacypolicy(r.readInteger());
+                break;
+            case 9 << 3 | LENGTH: // ref
+                o.setRef(r.readString());
+                break;
+            case 10 << 3 | LENGTH: // search
+                o.setSearch(r.readString());
+                break;
+            case 11 << 3 | LENGTH: // publisher
+                o.setPublisher(readPublisher(r, r.beginMessage()));
+                break;
+            case 12 << 3 | LENGTH: // content
+                o.setContent(readContent(r, r.beginMessage()));
+                break;
+            case 13 << 3 | LENGTH: // keywords
+                o.setKeywords(r.readString());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static App readApp(ProtobufReader r, int end) {
+        App o = new App();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // name
+                o.setName(r.readString());
+                break;
+            case 3 << 3 | LENGTH: // domain
+                o.setDomain(r.readString());
+                break;
+            case 4 << 3 | LENGTH: // cat
+                o.setCat(r.appendString(o.getCat()));
+                break;
+            case 5 << 3 | LENGTH: // sectioncat
+                o.setSectioncat(r.appendString(o.getSectioncat()));
+                break;
+            case 6 << 3 | LENGTH: // pagecat
+                o.setPagecat(r.appendString(o.getPagecat()));
+                break;
+            case 7 << 3 | LENGTH: // ver
+                o.setVer(r.readString());
+                break;
+            case 8 << 3 | LENGTH: // bundle
+                o.setBundle(r.readString());
+                break;
+            case 9 << 3 | VARINT: // privacypolicy
+                o.setPrivacypolicy(r.readInteger());
+                break;
+            case 10 << 3 | VARINT: // paid
+                o.setPaid(r.readInteger());
+                break;
+            case 11 << 3 | LENGTH: // publisher
+                o.setPublisher(readPublisher(r, r.beginMessage()));
+                break;
+            case 12 << 3 | LENGTH: // content
+                o.setContent(readContent(r, r.beginMessage()));
+                break;
+            case 13 << 3 | LENGTH: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 16 << 3 | LENGTH: // storeurl
+                o.setStoreurl(r.readString());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Publisher readPublisher(ProtobufReader r, int end) {
+        Publisher o = new Publisher();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // name
+                o.setName(r.readString());
+                break;
+            case 3 << 3 | LENGTH: // cat
+                o.setCat(r.appendString(o.getCat()));
+                break;
+            case 4 << 3 | LENGTH: // domain
+                o.setDomain(r.readString());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Content readContent(ProtobufReader r, int end) {
+        Content o = new Content();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | VARINT: // episode
+                o.setEpisode(r.readInteger());
+                break;
+            case 3 << 3 | LENGTH: // title
+                o.setTitle(r.readString());
+                break;
+            case 4 << 3 | LENGTH: // series
+                o.setSeries(r.readString());
+                break;
+            case 5 << 3 | LENGTH: // season
+                o.setSeason(r.readString());
+                break;
+            case 6 << 3 | LENGTH: // url
+                o.setUrl(r.readString());
+                break;
+            case 7 << 3 | LENGTH: // cat
+                o.setCat(r.appendString(o.getCat()));
+                break;
+            case 8 << 3 | VARINT: // videoquality
+                o.setVideoquality(r.readInteger());
+                break;
+            case 9 << 3 | LENGTH: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 10 << 3 | LENGTH: // contentrating
+                o.setContentrating(r.readString());
+                break;
+            case 11 << 3 | LENGTH: // userrating
+                o.setUserrating(r.readString());
+                break;
+            case 12 << 3 | LENGTH: // context
+                o.setContext(r.readString());
+                break;
+            case 13 << 3 | VARINT: // livestream
+                o.setLivestream(r.readInteger());
+                break;
+            case 14 << 3 | VARINT: // sourcerelationship
+                o.setSourcerelationship(r.readInteger());
+                break;
+            case 15 << 3 | LENGTH: // producer
+                o.setProducer(readProducer(r, r.beginMessage()));
+                break;
+            case 16 << 3 | VARINT: // len
+                o.setLen(r.readInteger());
+                break;
+            case 17 << 3 | VARINT: // qagmediarating
+                o.setQagmediarating(r.readInteger());
+                break;
+            case 18 << 3 | VARINT: // embeddable
+                o.setEmbeddable(r.readInteger());
+                break;
+            case 19 << 3 | LENGTH: // language
+                o.setLanguage(r.readString());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Producer readProducer(ProtobufReader r, int end) {
+        Producer o = new Producer();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // name
+                o.setName(r.readString());
+                break;
+            case 3 << 3 | LENGTH: // cat
+                o.setCat(r.appendString(o.getCat()));
+                break;
+            case 4 << 3 | LENGTH: // domain
+                o.setDomain(r.readString());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Device readDevice(ProtobufReader r, int end) {
+        Device o = new Device();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | VARINT: // dnt
+                o.setDnt(r.readInteger());
+                break;
+            case 2 << 3 | LENGTH: // ua
+                o.setUa(r.readString());
+                break;
+            case 3 << 3 | LENGTH: // ip
+                o.setIp(r.readString());
+                break;
+            case 4 << 3 | LENGTH: // geo
+                o.setGeo(readGeo(r, r.beginMessage()));
+                break;
+            case 5 << 3 | LENGTH: // didsha1
+                o.setDidsha1(r.readString());
+                break;
+            case 6 << 3 | LENGTH: // didmd5
+                o.setDidmd5(r.readString());
+                break;
+            case 7 << 3 | LENGTH: // dpidsha1
+                o.setDpidsha1(r.readString());
+                break;
+            case 8 << 3 | LENGTH: // dpidmd5
+                o.setDpidmd5(r.readString());
+                break;
+            case 9 << 3 | LENGTH: // ipv6
+                o.setIpv6(r.readString());
+                break;
+            case 10 << 3 | LENGTH: // carrier
+                o.setCarrier(r.readString());
+                break;
+            case 11 << 3 | LENGTH: // language
+                o.setLanguage(r.readString());
+                break;
+            case 12 << 3 | LENGTH: // make
+                o.setMake(r.readString());
+                break;
+            case 13 << 3 | LENGTH: // model
+                o.setModel(r.readString());
+                break;
+            case 14 << 3 | LENGTH: // os
+                o.setOs(r.readString());
+                break;
+            case 15 << 3 | LENGTH: // osv
+                o.setOsv(r.readString());
+                break;
+            case 16 << 3 | VARINT: // js
+                o.setJs(r.readInteger());
+                break;
+            case 17 << 3 | VARINT: // connectiontype
+                o.setConnectiontype(r.readInteger());
+                break;
+            case 18 << 3 | VARINT: // devicetype
+                o.setDevicetype(r.readInteger());
+                break;
+            case 19 << 3 | LENGTH: // flashver
+                o.setFlashver(r.readString());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Geo readGeo(ProtobufReader r, int end) {
+        Geo o = new Geo();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | FIXED64: // lat
+                o.setLat(r.readDouble());
+                break;
+            case 2 << 3 | FIXED64: // lon
+                o.setLon(r.readDouble());
+                break;
+            case 3 << 3 | LENGTH: // country
+                o.setCountry(r.readString());
+                break;
+            case 4 << 3 | LENGTH: // region
+                o.setRegion(r.readString());
+                break;
+            case 5 << 3 | LENGTH: // regionfips104
+                o.setRegionfips104(r.readString());
+                break;
+            case 6 << 3 | LENGTH: // metro
+                o.setMetro(r.readString());
+                break;
+            case 7 << 3 | LENGTH: // city
+                o.setCity(r.readString());
+                break;
+            case 8 << 3 | LENGTH: // zip
+                o.setZip(r.readString());
+                break;
+            case 9 << 3 | VARINT: // type
+                o.setType(r.readInteger());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static User readUser(ProtobufReader r, int end) {
+        User o = new User();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // buyeruid
+                o.setBuyeruid(r.readString());
+                break;
+            case 3 << 3 | VARINT: // yob
+                o.setYob(r.readInteger());
+                break;
+            case 4 << 3 | LENGTH: // gender
+                o.setGender(r.readString());
+                break;
+            case 5 << 3 | LENGTH: // keywords
+                o.setKeywords(r.readString());
+                break;
+            case 6 << 3 | LENGTH: // customdata
+                o.setCustomdata(r.readString());
+                break;
+            case 7 << 3 | LENGTH: // geo
+                o.setGeo(readGeo(r, r.beginMessage()));
+                break;
+            case 8 << 3 | LENGTH: // data
+                o.setData(ProtobufReader.append(o.getData(), readData(r, r.beginMessage()), Data.class));
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Data readData(ProtobufReader r, int end) {
+        Data o = new Data();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // name
+                o.setName(r.readString());
+                break;
+            case 3 << 3 | LENGTH: // segment
+                o.setSegment(ProtobufReader.append(o.getSegment(), readSegment(r, r.beginMessage()), Segment.class));
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Segment readSegment(ProtobufReader r, int end) {
+        Segment o = new Segment();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // name
+                o.setName(r.readString());
+                break;
+            case 3 << 3 | LENGTH: // value
+                o.setValue(r.readString());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+}
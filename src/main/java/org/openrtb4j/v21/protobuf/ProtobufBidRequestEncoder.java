@@ -0,0 +1,396 @@
+package org.openrtb4j.v21.protobuf;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Data;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Producer;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Segment;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.request.User;
+import org.openrtb4j.v21.data.request.Video;
+
+/**
+ * Encoder of the {@link BidRequest} object graph into the protobuf wire format
+ * of the community openrtb.proto, so that the output can be parsed by any
+ * protobuf implementation of that schema; the counterpart of
+ * {@link ProtobufBidRequestDecoder}. Field numbers and wire types follow the
+ * schema: integers are int32 or enumerations, floats travel as doubles and
+ * integer arrays are packed. Null fields and fields holding their default
+ * value are left out. “ext” members have no counterpart in the schema, which
+ * carries extensions instead, and are not encoded.
+ *
+ * An encoder keeps a scratch buffer between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class ProtobufBidRequestEncoder {
+
+    private final ProtobufWriter writer = new ProtobufWriter();
+
+    /**
+     * @param request the bid request
+     * @return the encoded bid request
+     */
+    public byte[] encode(BidRequest request) {
+        ProtobufWriter w = writer;
+        w.reset();
+        writeBidRequest(w, request);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    /**
+     * Encodes a bid request into the remaining space of a buffer, advancing its
+     * position past the written bytes.
+     *
+     * @param request the bid request
+     * @param buf the buffer to write to
+     * @throws BufferOverflowException if the remaining space is too small, the
+     *             position is then left unchanged
+     */
+    public void encode(BidRequest request, ByteBuffer buf) {
+        ProtobufWriter w = writer;
+        w.reset();
+        writeBidRequest(w, request);
+        buf.put(w.buffer(), 0, w.length());
+    }
+
+    private static void writeBidRequest(ProtobufWriter w, BidRequest o) {
+        w.field(1, o.getId()); // id
+        writeImpressions(w, 2, o.getImp()); // imp
+        writeSite(w, 3, o.getSite()); // site
+        writeApp(w, 4, o.getApp()); // app
+        writeDevice(w, 5, o.getDevice()); // device
+        writeUser(w, 6, o.getUser()); // user
+        w.field(7, o.getAt(), 2); // at
+        w.field(8, o.getTmax()); // tmax
+        w.field(9, o.getWseat()); // wseat
+        w.field(10, o.getAllimps(), 0); // allimps
+        w.field(11, o.getCur()); // cur
+        w.field(12, o.getBcat()); // bcat
+        w.field(13, o.getBadv()); // badv
+    }
+
+    private static void writeImpression(ProtobufWriter w, int number, Impression o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeImpression(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeImpressions(ProtobufWriter w, int number, Impression[] items) {
+        if (items != null) {
+            for (Impression item : items) {
+                writeImpression(w, number, item);
+            }
+        }
+    }
+
+    private static void writeImpression(ProtobufWriter w, Impression o) {
+        w.field(1, o.getId()); // id
+        writeBanner(w, 2, o.getBanner()); // banner
+        writeVideo(w, 3, o.getVideo()); // video
+        w.field(4, o.getDisplaymanager()); // displaymanager
+        w.field(5, o.getDisplaymanagerver()); // displaymanagerver
+        w.field(6, o.getInstl(), 0); // instl
+        w.field(7, o.getTagid()); // tagid
+        w.field(8, o.getBidfloor(), 0f); // bidfloor
+        w.field(9, o.getBidfloorcur(), "USD"); // bidfloorcur
+        w.field(10, o.getIframebuster()); // iframebuster
+    }
+
+    private static void writeBanner(ProtobufWriter w, int number, Banner o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeBanner(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeBanners(ProtobufWriter w, int number, Banner[] items) {
+        if (items != null) {
+            for (Banner item : items) {
+                writeBanner(w, number, item);
+            }
+        }
+    }
+
+    private static void writeBanner(ProtobufWriter w, Banner o) {
+        w.field(1, o.getW()); // w
+        w.field(2, o.getH()); // h
+        w.field(3, o.getId()); // id
+        w.field(4, o.getPos()); // pos
+        w.field(5, o.getBtype()); // btype
+        w.field(6, o.getBattr()); // battr
+        w.field(7, o.getMimes()); // mimes
+        w.field(8, o.getTopframe(), 0); // topframe
+        w.field(9, o.getExpdir()); // expdir
+        w.field(10, o.getApi()); // api
+    }
+
+    private static void writeVideo(ProtobufWriter w, int number, Video o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeVideo(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeVideo(ProtobufWriter w, Video o) {
+        w.field(1, o.getMimes()); // mimes
+        w.field(2, o.getLinearity()); // linearity
+        w.field(3, o.getMinduration()); // minduration
+        w.field(4, o.getMaxduration()); // maxduration
+        w.field(5, o.getProtocol()); // protocol
+        w.field(6, o.getW()); // w
+        w.field(7, o.getH()); // h
+        w.field(8, o.getStartdelay()); // startdelay
+        w.field(9, o.getSequence(), 1); // sequence
+        w.field(10, o.getBattr()); // battr
+        w.field(11, o.getMaxextended()); // maxextended
+        w.field(12, o.getMinbitrate()); // minbitrate
+        w.field(13, o.getMaxbitrate()); // maxbitrate
+        w.field(14, o.getBoxingallowed(), 1); // boxingallowed
+        w.field(15, o.getPlaybackmethod()); // playbackmethod
+        w.field(16, o.getDelivery()); // delivery
+        w.field(17, o.getPos()); // pos
+        writeBanners(w, 18, o.getCompanionad()); // companionad
+        w.field(19, o.getApi()); // api
+        w.field(20, o.getCompaniontype()); // companiontype
+    }
+
+    private static void writeSite(ProtobufWriter w, int number, Site o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeSite(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeSite(ProtobufWriter w, Site o) {
+        w.field(1, o.getId()); // id
+        w.field(2, o.getName()); // name
+        w.field(3, o.getDomain()); // domain
+        w.field(4, o.getCat()); // cat
+        w.field(5, o.getSectioncat()); // sectioncat
+        w.field(6, o.getPagecat()); // pagecat
+        w.field(7, o.getPage()); // page
+        w.field(8, o.getPrivacypolicy()); // privacypolicy
+        w.field(9, o.getRef()); // ref
+        w.field(10, o.getSearch()); // search
+        writePublisher(w, 11, o.getPublisher()); // publisher
+        writeContent(w, 12, o.getContent()); // content
+        w.field(13, o.getKeywords()); // keywords
+    }
+
+    private static void writeApp(ProtobufWriter w, int number, App o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeApp(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeApp(ProtobufWriter w, App o) {
+        w.field(1, o.getId()); // id
+        w.field(2, o.getName()); // name
+        w.field(3, o.getDomain()); // domain
+        w.field(4, o.getCat()); // cat
+        w.field(5, o.getSectioncat()); // sectioncat
+        w.field(6, o.getPagecat()); // pagecat
+        w.field(7, o.getVer()); // ver
+        w.field(8, o.getBundle()); // bundle
+        w.field(9, o.getPrivacypolicy()); // privacypolicy
+        w.field(10, o.getPaid()); // paid
+        writePublisher(w, 11, o.getPublisher()); // publisher
+        writeContent(w, 12, o.getContent()); // content
+        w.field(13, o.getKeywords()); // keywords
+        w.field(16, o.getStoreurl()); // storeurl
+    }
+
+    private static void writePublisher(ProtobufWriter w, int number, Publisher o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writePublisher(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writePublisher(ProtobufWriter w, Publisher o) {
+        w.field(1, o.getId()); // id
+        w.field(2, o.getName()); // name
+        w.field(3, o.getCat()); // cat
+        w.field(4, o.getDomain()); // domain
+    }
+
+    private static void writeContent(ProtobufWriter w, int number, Content o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeContent(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeContent(ProtobufWriter w, Content o) {
+        w.field(1, o.getId()); // id
+        w.field(2, o.getEpisode()); // episode
+        w.field(3, o.getTitle()); // title
+        w.field(4, o.getSeries()); // series
+        w.field(5, o.getSeason()); // season
+        w.field(6, o.getUrl()); // url
+        w.field(7, o.getCat()); // cat
+        w.field(8, o.getVideoquality()); // videoquality
+        w.field(9, o.getKeywords()); // keywords
+        w.field(10, o.getContentrating()); // contentrating
+        w.field(11, o.getUserrating()); // userrating
+        w.field(12, o.getContext()); // context
+        w.field(13, o.getLivestream()); // livestream
+        w.field(14, o.getSourcerelationship()); // sourcerelationship
+        writeProducer(w, 15, o.getProducer()); // producer
+        w.field(16, o.getLen()); // len
+        w.field(17, o.getQagmediarating()); // qagmediarating
+        w.field(18, o.getEmbeddable()); // embeddable
+        w.field(19, o.getLanguage()); // language
+    }
+
+    private static void writeProducer(ProtobufWriter w, int number, Producer o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeProducer(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeProducer(ProtobufWriter w, Producer o) {
+        w.field(1, o.getId()); // id
+        w.field(2, o.getName()); // name
+        w.field(3, o.getCat()); // cat
+        w.field(4, o.getDomain()); // domain
+    }
+
+    private static void writeDevice(ProtobufWriter w, int number, Device o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeDevice(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeDevice(ProtobufWriter w, Device o) {
+        w.field(1, o.getDnt()); // dnt
+        w.field(2, o.getUa()); // ua
+        w.field(3, o.getIp()); // ip
+        writeGeo(w, 4, o.getGeo()); // geo
+        w.field(5, o.getDidsha1()); // didsha1
+        w.field(6, o.getDidmd5()); // didmd5
+        w.field(7, o.getDpidsha1()); // dpidsha1
+        w.field(8, o.getDpidmd5()); // dpidmd5
+        w.field(9, o.getIpv6()); // ipv6
+        w.field(10, o.getCarrier()); // carrier
+        w.field(11, o.getLanguage()); // language
+        w.field(12, o.getMake()); // make
+        w.field(13, o.getModel()); // model
+        w.field(14, o.getOs()); // os
+        w.field(15, o.getOsv()); // osv
+        w.field(16, o.getJs()); // js
+        w.field(17, o.getConnectiontype()); // connectiontype
+        w.field(18, o.getDevicetype()); // devicetype
+        w.field(19, o.getFlashver()); // flashver
+    }
+
+    private static void writeGeo(ProtobufWriter w, int number, Geo o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeGeo(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeGeo(ProtobufWriter w, Geo o) {
+        w.field(1, o.getLat()); // lat
+        w.field(2, o.getLon()); // lon
+        w.field(3, o.getCountry()); // country
+        w.field(4, o.getRegion()); // region
+        w.field(5, o.getRegionfips104()); // regionfips104
+        w.field(6, o.getMetro()); // metro
+        w.field(7, o.getCity()); // city
+        w.field(8, o.getZip()); // zip
+        w.field(9, o.getType()); // type
+    }
+
+    private static void writeUser(ProtobufWriter w, int number, User o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeUser(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeUser(ProtobufWriter w, User o) {
+        w.field(1, o.getId()); // id
+        w.field(2, o.getBuyeruid()); // buyeruid
+        w.field(3, o.getYob()); // yob
+        w.field(4, o.getGender()); // gender
+        w.field(5, o.getKeywords()); // keywords
+        w.field(6, o.getCustomdata()); // customdata
+        writeGeo(w, 7, o.getGeo()); // geo
+        writeDataArray(w, 8, o.getData()); // data
+    }
+
+    private static void writeData(ProtobufWriter w, int number, Data o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeData(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeDataArray(ProtobufWriter w, int number, Data[] items) {
+        if (items != null) {
+            for (Data item : items) {
+                writeData(w, number, item);
+            }
+        }
+    }
+
+    private static void writeData(ProtobufWriter w, Data o) {
+        w.field(1, o.getId()); // id
+        w.field(2, o.getName()); // name
+        writeSegments(w, 3, o.getSegment()); // segment
+    }
+
+    private static void writeSegment(ProtobufWriter w, int number, Segment o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeSegment(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeSegments(ProtobufWriter w, int number, Segment[] items) {
+        if (items != null) {
+            for (Segment item : items) {
+                writeSegment(w, number, item);
+            }
+        }
+    }
+
+    private static void writeSegment(ProtobufWriter w, Segment o) {
+        w.field(1, o.getId()); // id
+        w.field(2, o.getName()); // name
+        w.field(3, o.getValue()); // value
+    }
+
+}
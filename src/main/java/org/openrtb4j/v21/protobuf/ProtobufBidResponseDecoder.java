@@ -0,0 +1,172 @@
+package org.openrtb4j.v21.protobuf;
+
+import static org.openrtb4j.v21.protobuf.ProtobufReader.FIXED64;
+import static org.openrtb4j.v21.protobuf.ProtobufReader.LENGTH;
+import static org.openrtb4j.v21.protobuf.ProtobufReader.VARINT;
+
+import java.nio.ByteBuffer;
+
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+
+/**
+ * Decoder of the protobuf wire format of the community openrtb.proto into the
+ * {@link BidResponse} object graph, the counterpart of
+ * {@link ProtobufBidResponseEncoder}. Fields unknown to OpenRTB 2.1, extensions
+ * among them, are skipped, integer arrays are accepted packed and unpacked,
+ * and doubles are narrowed to floats.
+ *
+ * A decoder keeps the state of its reader between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class ProtobufBidResponseDecoder {
+
+    private final ProtobufReader reader = new ProtobufReader();
+
+    /**
+     * @param buf the encoded bid response
+     * @return the decoded bid response
+     * @throws ProtobufFormatException if the input is not a valid bid response
+     */
+    public BidResponse decode(byte[] buf) {
+        return decode(buf, 0, buf.length);
+    }
+
+    /**
+     * @param buf the buffer holding the encoded bid response
+     * @param off the offset of the first byte of the bid response
+     * @param len the length of the bid response in bytes
+     * @return the decoded bid response
+     * @throws ProtobufFormatException if the input is not a valid bid response
+     */
+    public BidResponse decode(byte[] buf, int off, int len) {
+        ProtobufReader r = reader;
+        return readBidResponse(r, r.reset(buf, off, len));
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer, advancing its position to its
+     * limit. The bytes of a buffer without an accessible array are copied.
+     *
+     * @param buf the buffer holding the encoded bid response
+     * @return the decoded bid response
+     * @throws ProtobufFormatException if the input is not a valid bid response
+     */
+    public BidResponse decode(ByteBuffer buf) {
+        int len = buf.remaining();
+        BidResponse response;
+        if (buf.hasArray()) {
+            response = decode(buf.array(), buf.arrayOffset() + buf.position(), len);
+            buf.position(buf.limit());
+        } else {
+            byte[] copy = new byte[len];
+            buf.get(copy);
+            response = decode(copy);
+        }
+        return response;
+    }
+
+    private static BidResponse readBidResponse(ProtobufReader r, int end) {
+        BidResponse o = new BidResponse();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // seatbid
+                o.setSeatbid(ProtobufReader.append(o.getSeatbid(), readSeatBid(r, r.beginMessage()), SeatBid.class));
+                break;
+            case 3 << 3 | LENGTH: // bidid
+                o.setBidid(r.readString());
+                break;
+            case 4 << 3 | LENGTH: // cur
+                o.setCur(r.readString());
+                break;
+            case 5 << 3 | LENGTH: // customdata
+                o.setCustomdata(r.readString());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static SeatBid readSeatBid(ProtobufReader r, int end) {
+        SeatBid o = new SeatBid();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // bid
+                o.setBid(ProtobufReader.append(o.getBid(), readBid(r, r.beginMessage()), Bid.class));
+                break;
+            case 2 << 3 | LENGTH: // seat
+                o.setSeat(r.readString());
+                break;
+            case 3 << 3 | VARINT: // group
+                o.setGroup(r.readInteger());
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+    private static Bid readBid(ProtobufReader r, int end) {
+        Bid o = new Bid();
+        while (r.position() < end) {
+            int tag = r.readTag();
+            switch (tag) {
+            case 1 << 3 | LENGTH: // id
+                o.setId(r.readString());
+                break;
+            case 2 << 3 | LENGTH: // impid
+                o.setImpid(r.readString());
+                break;
+            case 3 << 3 | FIXED64: // price
+                o.setPrice(r.readDouble());
+                break;
+            case 4 << 3 | LENGTH: // adid
+                o.setAdid(r.readString());
+                break;
+            case 5 << 3 | LENGTH: // nurl
+                o.setNurl(r.readString());
+                break;
+            case 6 << 3 | LENGTH: // adm
+                o.setAdm(r.readString());
+                break;
+            case 7 << 3 | LENGTH: // adomain
+                o.setAdomain(r.appendString(o.getAdomain()));
+                break;
+            case 8 << 3 | LENGTH: // iurl
+                o.setIurl(r.readString());
+                break;
+            case 9 << 3 | LENGTH: // cid
+                o.setCid(r.readString());
+                break;
+            case 10 << 3 | LENGTH: // crid
+                o.setCrid(r.readString());
+                break;
+            case 11 << 3 | LENGTH: // attr
+                o.setAttr(r.appendPacked(o.getAttr()));
+                break;
+            case 11 << 3 | VARINT: // attr, unpacked
+                o.setAttr(r.appendInteger(o.getAttr()));
+                break;
+            default:
+                r.skipField(tag);
+            }
+        }
+        r.endMessage(end);
+        return o;
+    }
+
+}
@@ -0,0 +1,118 @@
+package org.openrtb4j.v21.protobuf;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+
+/**
+ * Encoder of the {@link BidResponse} object graph into the protobuf wire format
+ * of the community openrtb.proto, so that the output can be parsed by any
+ * protobuf implementation of that schema; the counterpart of
+ * {@link ProtobufBidResponseDecoder}. Field numbers and wire types follow the
+ * schema: integers are int32 or enumerations, floats travel as doubles and
+ * integer arrays are packed. Null fields and fields holding their default
+ * value are left out. “ext” members have no counterpart in the schema, which
+ * carries extensions instead, and are not encoded.
+ *
+ * An encoder keeps a scratch buffer between calls and is therefore not
+ * thread-safe; use one instance per thread.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+public class ProtobufBidResponseEncoder {
+
+    private final ProtobufWriter writer = new ProtobufWriter();
+
+    /**
+     * @param response the bid response
+     * @return the encoded bid response
+     */
+    public byte[] encode(BidResponse response) {
+        ProtobufWriter w = writer;
+        w.reset();
+        writeBidResponse(w, response);
+        return Arrays.copyOf(w.buffer(), w.length());
+    }
+
+    /**
+     * Encodes a bid response into the remaining space of a buffer, advancing its
+     * position past the written bytes.
+     *
+     * @param response the bid response
+     * @param buf the buffer to write to
+     * @throws BufferOverflowException if the remaining space is too small, the
+     *             position is then left unchanged
+     */
+    public void encode(BidResponse response, ByteBuffer buf) {
+        ProtobufWriter w = writer;
+        w.reset();
+        writeBidResponse(w, response);
+        buf.put(w.buffer(), 0, w.length());
+    }
+
+    private static void writeBidResponse(ProtobufWriter w, BidResponse o) {
+        w.field(1, o.getId()); // id
+        writeSeatBids(w, 2, o.getSeatbid()); // seatbid
+        w.field(3, o.getBidid()); // bidid
+        w.field(4, o.getCur(), "USD"); // cur
+        w.field(5, o.getCustomdata()); // customdata
+    }
+
+    private static void writeSeatBid(ProtobufWriter w, int number, SeatBid o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeSeatBid(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeSeatBids(ProtobufWriter w, int number, SeatBid[] items) {
+        if (items != null) {
+            for (SeatBid item : items) {
+                writeSeatBid(w, number, item);
+            }
+        }
+    }
+
+    private static void writeSeatBid(ProtobufWriter w, SeatBid o) {
+        writeBids(w, 1, o.getBid()); // bid
+        w.field(2, o.getSeat()); // seat
+        w.field(3, o.getGroup()); // group
+    }
+
+    private static void writeBid(ProtobufWriter w, int number, Bid o) {
+        if (o != null) {
+            int m = w.beginMessage(number);
+            writeBid(w, o);
+            w.endMessage(m);
+        }
+    }
+
+    private static void writeBids(ProtobufWriter w, int number, Bid[] items) {
+        if (items != null) {
+            for (Bid item : items) {
+                writeBid(w, number, item);
+            }
+        }
+    }
+
+    private static void writeBid(ProtobufWriter w, Bid o) {
+        w.field(1, o.getId()); // id
+        w.field(2, o.getImpid()); // impid
+        w.field(3, o.getPrice()); // price
+        w.field(4, o.getAdid()); // adid
+        w.field(5, o.getNurl()); // nurl
+        w.field(6, o.getAdm()); // adm
+        w.field(7, o.getAdomain()); // adomain
+        w.field(8, o.getIurl()); // iurl
+        w.field(9, o.getCid()); // cid
+        w.field(10, o.getCrid()); // crid
+        w.field(11, o.getAttr()); // attr
+    }
+
+}
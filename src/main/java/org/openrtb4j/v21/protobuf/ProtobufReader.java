@@ -0,0 +1,245 @@
+package org.openrtb4j.v21.protobuf;
+
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Forward-only reader of the protobuf wire format over a region of a byte
+ * array. Every length is checked against the end of the input before it is
+ * used, and every embedded message must end exactly where its length says, so
+ * a malformed message fails with a {@link ProtobufFormatException} rather than
+ * an oversized allocation.
+ *
+ * Repeated fields arrive one element at a time and are appended to the array
+ * read so far; integer arrays are accepted both packed and unpacked, as
+ * protobuf parsers must.
+ *
+ * A reader is reusable across messages but is not thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class ProtobufReader {
+
+    static final int VARINT = 0;
+
+    static final int FIXED64 = 1;
+
+    static final int LENGTH = 2;
+
+    static final int FIXED32 = 5;
+
+    /**
+     * Boxed integers up to this value are cached, which covers the usual
+     * enumerations, sizes and durations.
+     */
+    private static final int CACHED_INTEGERS = 2048;
+
+    private static final Integer[] INTEGERS = new Integer[CACHED_INTEGERS + 1];
+
+    static {
+        for (int i = 0; i < INTEGERS.length; i++) {
+            INTEGERS[i] = Integer.valueOf(i);
+        }
+    }
+
+    private byte[] buf;
+
+    private int pos;
+
+    private int end;
+
+    /**
+     * Points the reader at a message.
+     *
+     * @return the offset of the end of the message
+     */
+    int reset(byte[] buf, int off, int len) {
+        this.buf = buf;
+        this.pos = off;
+        this.end = off + len;
+        return end;
+    }
+
+    /**
+     * Reads the length of an embedded message.
+     *
+     * @return the offset of the end of the message
+     */
+    int beginMessage() {
+        return check(readLength());
+    }
+
+    /**
+     * Fails unless the message ending at the given offset has been read
+     * completely.
+     */
+    void endMessage(int messageEnd) {
+        if (pos != messageEnd) {
+            throw error("Message length mismatch");
+        }
+    }
+
+    /**
+     * @return the tag of the next field
+     */
+    int readTag() {
+        long tag = readVarint();
+        if (tag >>> 32 != 0 || tag >>> 3 == 0) {
+            throw error("Invalid tag " + tag);
+        }
+        return (int) tag;
+    }
+
+    /**
+     * Skips a field that is unknown or has an unexpected wire type.
+     */
+    void skipField(int tag) {
+        switch (tag & 7) {
+        case VARINT:
+            readVarint();
+            break;
+        case FIXED64:
+            pos = check(8);
+            break;
+        case LENGTH:
+            pos = check(readLength());
+            break;
+        case FIXED32:
+            pos = check(4);
+            break;
+        default:
+            throw error("Unsupported wire type " + (tag & 7));
+        }
+    }
+
+    /**
+     * Reads an int32, which is encoded as a varint of its 64 bit sign
+     * extension; upper bits are truncated like protobuf parsers do.
+     */
+    int readInt() {
+        return (int) readVarint();
+    }
+
+    Integer readInteger() {
+        return box(readInt());
+    }
+
+    /**
+     * Reads a double, narrowed to the float of the OpenRTB object graph.
+     */
+    float readDouble() {
+        check(8);
+        long bits = 0;
+        for (int i = 7; i >= 0; i--) {
+            bits = bits << 8 | (buf[pos + i] & 0xFFL);
+        }
+        pos += 8;
+        return (float) Double.longBitsToDouble(bits);
+    }
+
+    String readString() {
+        int len = readLength();
+        check(len);
+        int start = pos;
+        pos += len;
+        return new String(buf, start, len, StandardCharsets.UTF_8);
+    }
+
+    String[] appendString(String[] values) {
+        return append(values, readString(), String.class);
+    }
+
+    Integer[] appendInteger(Integer[] values) {
+        return append(values, readInteger(), Integer.class);
+    }
+
+    /**
+     * Reads a packed run of integers and appends them to the given array.
+     */
+    Integer[] appendPacked(Integer[] values) {
+        int runEnd = check(readLength());
+        int n = 0;
+        for (int i = pos; i < runEnd; i++) {
+            if (buf[i] >= 0) {
+                n++;
+            }
+        }
+        if (runEnd > pos && buf[runEnd - 1] < 0) {
+            throw error("Truncated varint");
+        }
+        int offset = values == null ? 0 : values.length;
+        Integer[] result = values == null ? new Integer[n] : Arrays.copyOf(values, offset + n);
+        for (int i = 0; i < n; i++) {
+            result[offset + i] = readInteger();
+        }
+        return result;
+    }
+
+    /**
+     * @return the array with the item appended, or a new array if it was null
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T[] append(T[] items, T item, Class<T> type) {
+        T[] result;
+        if (items == null) {
+            result = (T[]) Array.newInstance(type, 1);
+        } else {
+            result = Arrays.copyOf(items, items.length + 1);
+        }
+        result[result.length - 1] = item;
+        return result;
+    }
+
+    /**
+     * @return the offset in the input
+     */
+    int position() {
+        return pos;
+    }
+
+    ProtobufFormatException error(String message) {
+        return new ProtobufFormatException(message, pos);
+    }
+
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos == end) {
+                throw error("Truncated varint");
+            }
+            byte b = buf[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw error("Varint too long");
+    }
+
+    private int readLength() {
+        long value = readVarint();
+        if (value > Integer.MAX_VALUE) {
+            throw error("Length out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Checks that the given number of bytes follows.
+     *
+     * @return the offset just past them
+     */
+    private int check(int len) {
+        if (len > end - pos) {
+            throw error("Truncated input");
+        }
+        return pos + len;
+    }
+
+    private static Integer box(int value) {
+        return value >= 0 && value <= CACHED_INTEGERS ? INTEGERS[value] : Integer.valueOf(value);
+    }
+
+}
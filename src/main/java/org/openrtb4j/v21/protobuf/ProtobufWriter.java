@@ -0,0 +1,263 @@
+package org.openrtb4j.v21.protobuf;
+
+import java.util.Arrays;
+
+/**
+ * Forward-only writer of the protobuf wire format into a scratch array that
+ * grows as needed and is kept between messages.
+ *
+ * The length of an embedded message is only known once the message is
+ * written, so one byte is reserved for it up front and the message is moved
+ * when its length turns out to need more, i.e. for messages of 128 bytes and
+ * more.
+ *
+ * Strings and messages are written as length-delimited fields, integers as
+ * int32 varints, floats as doubles and integer arrays as packed repeated
+ * fields. Null elements of arrays have no protobuf form and are left out.
+ * Floats are widened through their shortest decimal form, so that a price of
+ * 0.1f reaches the other side as the double 0.1, as it would in JSON, rather
+ * than as the exact binary value 0.10000000149011612.
+ *
+ * A writer is reusable across messages but is not thread-safe.
+ *
+ * @author Andrey Karayvansky
+ *
+ */
+final class ProtobufWriter {
+
+    private byte[] buf = new byte[256];
+
+    private int pos;
+
+    void reset() {
+        pos = 0;
+    }
+
+    /**
+     * @return the array holding the message
+     */
+    byte[] buffer() {
+        return buf;
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    int length() {
+        return pos;
+    }
+
+    /**
+     * Starts an embedded message field, reserving its length.
+     *
+     * @return the mark of the message, for {@link #endMessage(int)}
+     */
+    int beginMessage(int number) {
+        writeTag(number, ProtobufReader.LENGTH);
+        ensure(1);
+        return pos++;
+    }
+
+    /**
+     * Completes an embedded message by writing its length.
+     */
+    void endMessage(int mark) {
+        int len = pos - mark - 1;
+        int width = width(len);
+        if (width > 1) {
+            ensure(width - 1);
+            System.arraycopy(buf, mark + 1, buf, mark + width, len);
+            pos += width - 1;
+        }
+        int end = pos;
+        pos = mark;
+        writeVarint(len);
+        pos = end;
+    }
+
+    void field(int number, String value) {
+        if (value != null) {
+            writeTag(number, ProtobufReader.LENGTH);
+            writeString(value);
+        }
+    }
+
+    void field(int number, String value, String defaultValue) {
+        if (!defaultValue.equals(value)) {
+            field(number, value);
+        }
+    }
+
+    void field(int number, Integer value) {
+        if (value != null) {
+            writeTag(number, ProtobufReader.VARINT);
+            writeVarint(value.intValue());
+        }
+    }
+
+    void field(int number, int value, int defaultValue) {
+        if (value != defaultValue) {
+            writeTag(number, ProtobufReader.VARINT);
+            writeVarint(value);
+        }
+    }
+
+    void field(int number, Float value) {
+        if (value != null) {
+            writeTag(number, ProtobufReader.FIXED64);
+            writeDouble(widen(value.floatValue()));
+        }
+    }
+
+    void field(int number, float value, float defaultValue) {
+        if (value != defaultValue) {
+            writeTag(number, ProtobufReader.FIXED64);
+            writeDouble(widen(value));
+        }
+    }
+
+    void field(int number, String[] values) {
+        if (values != null) {
+            for (String value : values) {
+                field(number, value);
+            }
+        }
+    }
+
+    void field(int number, Integer[] values) {
+        if (values == null) {
+            return;
+        }
+        int len = 0;
+        for (Integer value : values) {
+            if (value != null) {
+                len += width(value.intValue());
+            }
+        }
+        if (len == 0) {
+            return;
+        }
+        writeTag(number, ProtobufReader.LENGTH);
+        writeVarint(len);
+        for (Integer value : values) {
+            if (value != null) {
+                writeVarint(value.intValue());
+            }
+        }
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes, lone
+     * surrogates being replaced by U+FFFD.
+     */
+    private void writeString(String value) {
+        int n = value.length();
+        int len = utf8Length(value);
+        writeVarint(len);
+        ensure(len);
+        byte[] b = buf;
+        int p = pos;
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                b[p++] = (byte) c;
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | (c >> 6));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                int cp = Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))
+                        ? Character.toCodePoint(c, value.charAt(++i)) : 0xFFFD;
+                if (cp < 0x10000) {
+                    b[p++] = (byte) (0xE0 | (cp >> 12));
+                    b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    b[p++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    b[p++] = (byte) (0xF0 | (cp >> 18));
+                    b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    b[p++] = (byte) (0x80 | (cp & 0x3F));
+                }
+            } else {
+                b[p++] = (byte) (0xE0 | (c >> 12));
+                b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        pos = p;
+    }
+
+    /**
+     * @return the double nearest to the shortest decimal of the float, which
+     *         narrows back to the same float
+     */
+    static double widen(float value) {
+        return Double.parseDouble(Float.toString(value));
+    }
+
+    private void writeDouble(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        ensure(8);
+        for (int i = 0; i < 8; i++) {
+            buf[pos++] = (byte) (bits >> (i * 8));
+        }
+    }
+
+    private void writeTag(int number, int wireType) {
+        writeVarint(number << 3 | wireType);
+    }
+
+    /**
+     * Writes an int32 varint; negative values take ten bytes, as they are
+     * sign-extended to 64 bits.
+     */
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    /**
+     * @return the number of bytes of the varint of an int32
+     */
+    static int width(long value) {
+        int width = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            width++;
+        }
+        return width;
+    }
+
+    /**
+     * @return the number of bytes of a string encoded as UTF-8
+     */
+    static int utf8Length(String value) {
+        int n = value.length();
+        int len = n;
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    len++;
+                } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // Four bytes for two chars
+                    len += 2;
+                    i++;
+                } else {
+                    len += 2;
+                }
+            }
+        }
+        return len;
+    }
+
+    private void ensure(int n) {
+        if (pos + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+        }
+    }
+
+}
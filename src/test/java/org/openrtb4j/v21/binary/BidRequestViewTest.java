@@ -0,0 +1,159 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.json.BidRequestDecoder;
+import org.openrtb4j.v21.json.BidRequestDecoderTest;
+import org.openrtb4j.v21.json.BidRequestEncoder;
+import org.openrtb4j.v21.json.JsonFieldsTest;
+
+/**
+ * Unit test for {@link BidRequestView}.
+ */
+public class BidRequestViewTest extends TestCase {
+
+    public void testReadsEveryField() {
+        BidRequest request = new BidRequestDecoder().decode(JsonFieldsTest.sample(BidRequest.class));
+        BidRequestView view = new BidRequestView().wrap(new BinaryBidRequestEncoder().encode(request));
+        assertEquals(request.getId(), view.getId());
+        assertEquals(request.getAt(), view.getAt());
+        assertEquals(Arrays.asList(request.getBadv()), Arrays.asList(view.getBadv()));
+        assertEquals(request.getExt(), view.getExt());
+        assertEquals(json(request), json(materialize(view)));
+
+        assertEquals(1, view.getImpCount());
+        ImpressionView imp = view.getImp(0, new ImpressionView());
+        assertEquals(request.getImp()[0].getBidfloor(), imp.getBidfloor());
+        BidRequest expected = new BidRequest();
+        expected.setImp(request.getImp());
+        BidRequest actual = new BidRequest();
+        actual.setImp(new Impression[] { materialize(imp) });
+        assertEquals(json(expected), json(actual));
+    }
+
+    public void testRepointsAtNewMessages() {
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        request.setImp(new Impression[] { request.getImp()[0], null, request.getImp()[1] });
+        BinaryBidRequestEncoder encoder = new BinaryBidRequestEncoder();
+        byte[] full = encoder.encode(request);
+        byte[] empty = encoder.encode(new BidRequest());
+        BidRequestView view = new BidRequestView();
+        ImpressionView imp = new ImpressionView();
+
+        view.wrap(full);
+        assertEquals(3, view.getImpCount());
+        assertSame(imp, view.getImp(2, imp));
+        assertEquals(request.getImp()[2].getId(), imp.getId());
+        assertEquals(request.getImp()[2].getBidfloor(), imp.getBidfloor());
+        assertNull(view.getImp(1, imp));
+        assertNull(imp.getId());
+        assertEquals("USD", imp.getBidfloorcur());
+        assertNull(imp.getVideo());
+        assertEquals(request.getImp()[0].getId(), view.getImp(0, imp).getId());
+        assertEquals(json(request), json(materialize(view)));
+
+        view.wrap(empty);
+        assertNull(view.getId());
+        assertEquals(2, view.getAt());
+        assertEquals(0, view.getImpCount());
+        assertNull(view.getImp());
+        assertNull(view.getSite());
+        try {
+            view.getImp(0, imp);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        byte[] padded = new byte[full.length + 2];
+        System.arraycopy(full, 0, padded, 1, full.length);
+        assertEquals(request.getId(), view.wrap(padded, 1, full.length).getId());
+        assertEquals(request.getImp()[2].getId(), view.getImp(2, imp).getId());
+        assertEquals("USD", view.getImp(0, imp).getBidfloorcur());
+    }
+
+    public void testReadsManyImpressions() {
+        Impression[] imps = new Impression[1000];
+        for (int i = 0; i < imps.length; i++) {
+            imps[i] = new Impression();
+            imps[i].setId(Integer.toString(i));
+        }
+        BidRequest request = new BidRequest();
+        request.setImp(imps);
+        BidRequestView view = new BidRequestView().wrap(new BinaryBidRequestEncoder().encode(request));
+        ImpressionView imp = new ImpressionView();
+        assertEquals(imps.length, view.getImpCount());
+        for (int i = imps.length - 1; i >= 0; i--) {
+            assertEquals(Integer.toString(i), view.getImp(i, imp).getId());
+        }
+        assertEquals(Integer.toString(7), view.getImp(7, imp).getId());
+        view.wrap(new BinaryBidRequestEncoder().encode(new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST)));
+        assertEquals(2, view.getImpCount());
+        assertEquals("2", view.getImp(1, imp).getId());
+    }
+
+    public void testRejectsMalformedInput() {
+        byte[] binary = new BinaryBidRequestEncoder().encode(new BidRequestDecoder().decode(
+                BidRequestDecoderTest.REQUEST));
+        BidRequestView view = new BidRequestView();
+        for (int len = 0; len < binary.length; len++) {
+            try {
+                view.wrap(Arrays.copyOf(binary, len));
+                fail();
+            } catch (BinaryFormatException e) {
+                // expected
+            }
+        }
+        try {
+            view.getId();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private static BidRequest materialize(BidRequestView view) {
+        BidRequest request = new BidRequest();
+        request.setId(view.getId());
+        request.setImp(view.getImp());
+        request.setSite(view.getSite());
+        request.setApp(view.getApp());
+        request.setDevice(view.getDevice());
+        request.setUser(view.getUser());
+        request.setAt(view.getAt());
+        request.setTmax(view.getTmax());
+        request.setWseat(view.getWseat());
+        request.setAllimps(view.getAllimps());
+        request.setCur(view.getCur());
+        request.setBcat(view.getBcat());
+        request.setBadv(view.getBadv());
+        request.setRawExt(view.getRawExt());
+        return request;
+    }
+
+    private static Impression materialize(ImpressionView view) {
+        Impression imp = new Impression();
+        imp.setId(view.getId());
+        imp.setBanner(view.getBanner());
+        imp.setVideo(view.getVideo());
+        imp.setDisplaymanager(view.getDisplaymanager());
+        imp.setDisplaymanagerver(view.getDisplaymanagerver());
+        imp.setInstl(view.getInstl());
+        imp.setTagid(view.getTagid());
+        imp.setBidfloor(view.getBidfloor());
+        imp.setBidfloorcur(view.getBidfloorcur());
+        imp.setIframebuster(view.getIframebuster());
+        imp.setRawExt(view.getRawExt());
+        return imp;
+    }
+
+    private static String json(BidRequest request) {
+        return new String(new BidRequestEncoder().encode(request), StandardCharsets.UTF_8);
+    }
+
+}
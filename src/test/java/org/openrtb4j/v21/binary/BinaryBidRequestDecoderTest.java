@@ -0,0 +1,122 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.json.BidRequestDecoder;
+import org.openrtb4j.v21.json.BidRequestDecoderTest;
+import org.openrtb4j.v21.json.BidRequestEncoder;
+import org.openrtb4j.v21.json.JsonFieldsTest;
+
+/**
+ * Unit test for {@link BinaryBidRequestDecoder}.
+ */
+public class BinaryBidRequestDecoderTest extends TestCase {
+
+    public void testRoundTripsEveryField() throws Exception {
+        String sample = JsonFieldsTest.sample(BidRequest.class);
+        byte[] binary = new BinaryBidRequestEncoder().encode(new BidRequestDecoder().decode(sample));
+        BidRequest decoded = new BinaryBidRequestDecoder().decode(binary);
+        JsonFieldsTest.assertFilled(decoded, "BidRequest");
+        assertEquals(sample, new String(new BidRequestEncoder().encode(decoded), StandardCharsets.UTF_8));
+    }
+
+    public void testRoundTripsRequest() {
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        StringBuilder ua = new StringBuilder();
+        while (ua.length() < 300) {
+            ua.append("Mozilla/5.0 \u00e9\u20ac\ud83d\ude00 ");
+        }
+        request.getDevice().setUa(ua.toString());
+        request.setBadv(new String[] { "a.com", null, "" });
+        request.getImp()[0].getBanner().setBattr(new Integer[] { 1, null, -7, Integer.MIN_VALUE, Integer.MAX_VALUE });
+        request.setImp(new Impression[] { request.getImp()[0], null, request.getImp()[1] });
+        request.getDevice().getGeo().setLat(-0.0f);
+        BidRequestEncoder json = new BidRequestEncoder();
+        byte[] expected = json.encode(request);
+        byte[] binary = new BinaryBidRequestEncoder().encode(request);
+        assertTrue(binary.length < expected.length);
+        BidRequest decoded = new BinaryBidRequestDecoder().decode(binary);
+        assertTrue(Arrays.equals(expected, json.encode(decoded)));
+        assertEquals(ua.toString(), decoded.getDevice().getUa());
+        assertNull(decoded.getImp()[1]);
+        assertEquals(Float.floatToIntBits(-0.0f), Float.floatToIntBits(decoded.getDevice().getGeo().getLat()));
+    }
+
+    public void testLeavesOutDefaults() {
+        BidRequest request = new BidRequest();
+        assertEquals(BinaryFormat.HEADER_LENGTH + 3, new BinaryBidRequestEncoder().encode(request).length);
+        request.setAt(1);
+        Impression imp = new Impression();
+        imp.setBidfloorcur("EUR");
+        request.setImp(new Impression[] { imp });
+        BidRequest decoded = new BinaryBidRequestDecoder().decode(new BinaryBidRequestEncoder().encode(request));
+        assertEquals(1, decoded.getAt());
+        assertEquals(0, decoded.getAllimps());
+        assertEquals("EUR", decoded.getImp()[0].getBidfloorcur());
+        assertEquals(0f, decoded.getImp()[0].getBidfloor());
+        assertNull(decoded.getImp()[0].getBanner());
+        assertNull(decoded.getSite());
+    }
+
+    public void testDecodesBuffers() {
+        BidRequest request = new BidRequest();
+        request.setId("r");
+        request.setSite(new Site());
+        request.getSite().setDomain("example.com");
+        byte[] binary = new BinaryBidRequestEncoder().encode(request);
+        BinaryBidRequestDecoder decoder = new BinaryBidRequestDecoder();
+        ByteBuffer direct = ByteBuffer.allocateDirect(binary.length);
+        new BinaryBidRequestEncoder().encode(request, direct);
+        direct.flip();
+        assertEquals("example.com", decoder.decode(direct).getSite().getDomain());
+        assertFalse(direct.hasRemaining());
+        byte[] padded = new byte[binary.length + 2];
+        System.arraycopy(binary, 0, padded, 1, binary.length);
+        assertEquals("r", decoder.decode(padded, 1, binary.length).getId());
+        ByteBuffer heap = ByteBuffer.wrap(padded, 1, binary.length);
+        assertEquals("r", decoder.decode(heap).getId());
+        assertEquals(binary.length + 1, heap.position());
+    }
+
+    public void testRejectsMalformedInput() {
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        byte[] binary = new BinaryBidRequestEncoder().encode(request);
+        BinaryBidRequestDecoder decoder = new BinaryBidRequestDecoder();
+        for (int len = 0; len < binary.length; len++) {
+            assertMalformed(decoder, Arrays.copyOf(binary, len));
+        }
+        assertMalformed(decoder, Arrays.copyOf(binary, binary.length + 1));
+        byte[] response = new BinaryBidResponseEncoder().encode(new BidResponse());
+        assertMalformed(decoder, response);
+        byte[] version = binary.clone();
+        version[3] = 99;
+        assertMalformed(decoder, version);
+        // Presence bit beyond the fields of Geo
+        BidRequest geo = new BidRequest();
+        geo.setDevice(new Device());
+        geo.getDevice().setGeo(new Geo());
+        byte[] bits = new BinaryBidRequestEncoder().encode(geo);
+        bits[bits.length - 1] = (byte) 0x80;
+        assertMalformed(decoder, bits);
+    }
+
+    private static void assertMalformed(BinaryBidRequestDecoder decoder, byte[] input) {
+        try {
+            decoder.decode(input);
+            fail(Arrays.toString(input));
+        } catch (BinaryFormatException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+import org.openrtb4j.v21.json.BidResponseDecoder;
+import org.openrtb4j.v21.json.BidResponseEncoder;
+import org.openrtb4j.v21.json.JsonFieldsTest;
+
+/**
+ * Unit test for {@link BinaryBidResponseDecoder}.
+ */
+public class BinaryBidResponseDecoderTest extends TestCase {
+
+    public void testRoundTripsEveryField() throws Exception {
+        String sample = JsonFieldsTest.sample(BidResponse.class);
+        byte[] binary = new BinaryBidResponseEncoder().encode(new BidResponseDecoder().decode(sample));
+        BidResponse decoded = new BinaryBidResponseDecoder().decode(binary);
+        JsonFieldsTest.assertFilled(decoded, "BidResponse");
+        assertEquals(sample, new String(new BidResponseEncoder().encode(decoded), StandardCharsets.UTF_8));
+    }
+
+    public void testRoundTripsResponse() {
+        Bid bid = new Bid();
+        bid.setId("b");
+        bid.setImpid("1");
+        bid.setPrice(1.25f);
+        StringBuilder adm = new StringBuilder();
+        while (adm.length() < 20000) {
+            adm.append("<VAST version=\"2.0\"><Ad id=\"1\"/></VAST>\n");
+        }
+        bid.setAdm(adm.toString());
+        SeatBid seatBid = new SeatBid();
+        seatBid.setBid(new Bid[] { bid, null });
+        BidResponse response = new BidResponse();
+        response.setId("r");
+        response.setSeatbid(new SeatBid[] { seatBid });
+        response.setExt("{\"a\": [1, 2]}");
+        BidResponseEncoder json = new BidResponseEncoder();
+        byte[] binary = new BinaryBidResponseEncoder().encode(response);
+        BidResponse decoded = new BinaryBidResponseDecoder().decode(binary);
+        assertTrue(Arrays.equals(json.encode(response), json.encode(decoded)));
+        assertEquals("USD", decoded.getCur());
+        assertEquals("{\"a\": [1, 2]}", decoded.getExt());
+        try {
+            new BinaryBidResponseDecoder().decode(Arrays.copyOf(binary, binary.length - 1));
+            fail();
+        } catch (BinaryFormatException e) {
+            assertTrue(e.getMessage().startsWith("Truncated input"));
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package org.openrtb4j.v21.binary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.json.BidRequestDecoder;
+import org.openrtb4j.v21.json.BidRequestDecoderTest;
+import org.openrtb4j.v21.json.BidRequestEncoder;
+
+/**
+ * Unit test for {@link DeltaBidRequestDecoder}.
+ */
+public class DeltaBidRequestDecoderTest extends TestCase {
+
+    public void testReusesUnchangedObjects() {
+        DeltaBidRequestEncoder encoder = new DeltaBidRequestEncoder();
+        DeltaBidRequestDecoder decoder = new DeltaBidRequestDecoder();
+        BidRequest request = request();
+        byte[] first = encoder.encode(request);
+        BidRequest a = roundTrip(decoder, first, request);
+        request.setId("req-2");
+        byte[] second = encoder.encode(request);
+        assertTrue(second.length < first.length - 30);
+        BidRequest b = roundTrip(decoder, second, request);
+        assertSame(a.getSite(), b.getSite());
+
+        request.getSite().setPage("http://example.com/2");
+        byte[] third = encoder.encode(request);
+        assertTrue(third.length < first.length);
+        BidRequest c = roundTrip(decoder, third, request);
+        assertNotSame(b.getSite(), c.getSite());
+        assertSame(b.getSite().getPublisher(), c.getSite().getPublisher());
+        assertSame(b.getSite().getContent(), c.getSite().getContent());
+
+        // A changed publisher changes the site referencing it
+        request.getSite().getPublisher().setName("Example");
+        BidRequest d = roundTrip(decoder, encoder.encode(request), request);
+        assertNotSame(c.getSite(), d.getSite());
+        assertEquals("Example", d.getSite().getPublisher().getName());
+        assertSame(c.getSite().getContent(), d.getSite().getContent());
+        assertEquals("http://example.com/2", d.getSite().getPage());
+
+        request.getSite().setPage(null);
+        request.getSite().setCat(null);
+        BidRequest e = roundTrip(decoder, encoder.encode(request), request);
+        assertNull(e.getSite().getPage());
+        assertSame(d.getSite().getPublisher(), e.getSite().getPublisher());
+    }
+
+    public void testSendsObjectsWithoutIdInline() {
+        DeltaBidRequestEncoder encoder = new DeltaBidRequestEncoder();
+        DeltaBidRequestDecoder decoder = new DeltaBidRequestDecoder();
+        BidRequest request = request();
+        request.getSite().setId(null);
+        request.getSite().getContent().setId(null);
+        BidRequest a = roundTrip(decoder, encoder.encode(request), request);
+        BidRequest b = roundTrip(decoder, encoder.encode(request), request);
+        assertNotSame(a.getSite(), b.getSite());
+        assertSame(a.getSite().getPublisher(), b.getSite().getPublisher());
+    }
+
+    public void testRecyclesSlots() {
+        DeltaBidRequestEncoder encoder = new DeltaBidRequestEncoder(1);
+        DeltaBidRequestDecoder decoder = new DeltaBidRequestDecoder(1);
+        BidRequest request = request();
+        App app = new App();
+        app.setId("a1");
+        app.setBundle("com.example");
+        app.setPublisher(new Publisher());
+        app.getPublisher().setId("p2");
+        request.setApp(app);
+        for (int i = 0; i < 6; i++) {
+            request.getSite().setId("s" + (i % 3));
+            request.getSite().getPublisher().setId("p" + (i % 2));
+            roundTrip(decoder, encoder.encode(request), request);
+        }
+    }
+
+    public void testRoundTripsRandomChanges() {
+        Random random = new Random(42);
+        DeltaBidRequestEncoder encoder = new DeltaBidRequestEncoder(3);
+        DeltaBidRequestDecoder decoder = new DeltaBidRequestDecoder(3);
+        StringDictionary dictionary = new StringDictionary(1, Arrays.asList("example.com", "IAB1", "p1"));
+        encoder.setDictionary(dictionary);
+        decoder.setDictionary(dictionary);
+        BidRequest request = request();
+        for (int i = 0; i < 500; i++) {
+            Site site = request.getSite();
+            switch (random.nextInt(8)) {
+            case 0:
+                site.setId("s" + random.nextInt(5));
+                break;
+            case 1:
+                site.setDomain(random.nextBoolean() ? null : "d" + random.nextInt(3) + ".com");
+                break;
+            case 2:
+                site.getPublisher().setId("p" + random.nextInt(5));
+                break;
+            case 3:
+                site.getPublisher().setCat(random.nextBoolean() ? null : new String[] { "IAB" + random.nextInt(3) });
+                break;
+            case 4:
+                site.setContent(random.nextBoolean() ? null : new Content());
+                break;
+            case 5:
+                if (site.getContent() != null) {
+                    site.getContent().setId(random.nextBoolean() ? null : "c" + random.nextInt(4));
+                    site.getContent().setEpisode(random.nextInt(3));
+                }
+                break;
+            case 6:
+                site.setKeywords(random.nextBoolean() ? null : "k" + random.nextInt(1000));
+                break;
+            default:
+                request.setId("req-" + i);
+                break;
+            }
+            roundTrip(decoder, encoder.encode(request), request);
+        }
+    }
+
+    public void testRejectsMessagesOutOfSequence() {
+        DeltaBidRequestEncoder encoder = new DeltaBidRequestEncoder();
+        DeltaBidRequestDecoder decoder = new DeltaBidRequestDecoder();
+        BidRequest request = request();
+        byte[] first = encoder.encode(request);
+        byte[] second = encoder.encode(request);
+        byte[] third = encoder.encode(request);
+        decoder.decode(first);
+        assertRejected(decoder, third);
+        // Out of sync from then on
+        assertRejected(decoder, second);
+        decoder.reset();
+        assertRejected(decoder, second);
+        decoder.reset();
+        roundTrip(decoder, first, request);
+
+        assertRejected(new DeltaBidRequestDecoder(), new BinaryBidRequestEncoder().encode(request));
+        try {
+            new BinaryBidRequestDecoder().decode(first);
+            fail();
+        } catch (BinaryFormatException e) {
+            // expected
+        }
+
+        encoder.reset();
+        decoder.reset();
+        roundTrip(decoder, encoder.encode(request), request);
+    }
+
+    private static void assertRejected(DeltaBidRequestDecoder decoder, byte[] message) {
+        try {
+            decoder.decode(message);
+            fail();
+        } catch (BinaryFormatException e) {
+            // expected
+        }
+    }
+
+    private static BidRequest roundTrip(DeltaBidRequestDecoder decoder, byte[] message, BidRequest expected) {
+        BidRequest decoded = decoder.decode(message);
+        BidRequestEncoder json = new BidRequestEncoder();
+        assertEquals(new String(json.encode(expected), StandardCharsets.UTF_8),
+                new String(json.encode(decoded), StandardCharsets.UTF_8));
+        return decoded;
+    }
+
+    private static BidRequest request() {
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        request.getSite().setPage("http://example.com/1");
+        request.getSite().getContent().setId("c1");
+        return request;
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.openrtb4j.v21.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.json.BidRequestDecoder;
+import org.openrtb4j.v21.json.BidRequestDecoderTest;
+import org.openrtb4j.v21.json.BidRequestEncoder;
+
+/**
+ * Unit test for {@link DictionaryBuilder}.
+ */
+public class DictionaryBuilderTest extends TestCase {
+
+    public void testKeepsRepeatedStrings() throws Exception {
+        DictionaryBuilder builder = new DictionaryBuilder();
+        for (int i = 0; i < 10; i++) {
+            builder.add(request(i));
+        }
+        BidRequest rare = request(10);
+        rare.getSite().setDomain("rare.com");
+        builder.add(rare);
+        StringDictionary dictionary = builder.build(3);
+        assertEquals(3, dictionary.getVersion());
+        assertEquals(11, builder.getRequests());
+        assertTrue(dictionary.code("example.com") >= 0);
+        assertTrue(dictionary.code("image/png") >= 0);
+        assertTrue(dictionary.code("USA") >= 0);
+        assertEquals(-1, dictionary.code("req-1"));
+        assertEquals(-1, dictionary.code("rare.com"));
+        // Strings as frequent as each other are in string order
+        assertEquals("1", dictionary.get(0));
+
+        builder.setMinFrequency(0.5);
+        builder.setMaxSize(2);
+        assertEquals(2, builder.build(4).size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dictionary.write(out);
+        StringDictionary read = StringDictionary.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(dictionary.getVersion(), read.getVersion());
+        assertEquals(dictionary.size(), read.size());
+        for (int i = 0; i < dictionary.size(); i++) {
+            assertSame(dictionary.get(i), read.get(i));
+        }
+    }
+
+    public void testEncodesStringsAsCodes() {
+        StringDictionary dictionary = new StringDictionary(7,
+                Arrays.asList("example.com", "image/png", "video/mp4", "USA", "EUR", "\u00e9"));
+        BidRequest request = request(1);
+        BinaryBidRequestEncoder encoder = new BinaryBidRequestEncoder();
+        int plain = encoder.encode(request).length;
+        encoder.setDictionary(dictionary);
+        byte[] binary = encoder.encode(request);
+        assertTrue(binary.length < plain - 20);
+
+        BinaryBidRequestDecoder decoder = new BinaryBidRequestDecoder();
+        decoder.setDictionary(dictionary);
+        BidRequest decoded = decoder.decode(binary);
+        assertSame(dictionary.get(0), decoded.getSite().getDomain());
+        assertSame(dictionary.get(3), decoded.getDevice().getGeo().getCountry());
+        BidRequestEncoder json = new BidRequestEncoder();
+        assertEquals(new String(json.encode(request), StandardCharsets.UTF_8),
+                new String(json.encode(decoded), StandardCharsets.UTF_8));
+
+        BidRequestView view = new BidRequestView();
+        view.setDictionary(dictionary);
+        assertEquals("EUR", view.wrap(binary).getImp(1, new ImpressionView()).getBidfloorcur());
+
+        decoder.setDictionary(null);
+        assertRejected(decoder, binary);
+        decoder.setDictionary(new StringDictionary(8, Arrays.asList("example.com")));
+        assertRejected(decoder, binary);
+        // Code beyond the dictionary of the same version
+        decoder.setDictionary(new StringDictionary(7, Arrays.asList("example.com")));
+        assertRejected(decoder, binary);
+    }
+
+    private static void assertRejected(BinaryBidRequestDecoder decoder, byte[] binary) {
+        try {
+            decoder.decode(binary);
+            fail();
+        } catch (BinaryFormatException e) {
+            // expected
+        }
+    }
+
+    private static BidRequest request(int i) {
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        request.setId("req-" + i);
+        return request;
+    }
+
+}
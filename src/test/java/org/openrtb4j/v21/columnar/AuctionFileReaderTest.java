@@ -0,0 +1,232 @@
+package org.openrtb4j.v21.columnar;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+import org.openrtb4j.v21.json.BidRequestDecoder;
+import org.openrtb4j.v21.json.BidRequestDecoderTest;
+import org.openrtb4j.v21.json.BidRequestEncoder;
+import org.openrtb4j.v21.json.BidResponseEncoder;
+
+/**
+ * Unit test for {@link AuctionFileReader}.
+ */
+public class AuctionFileReaderTest extends TestCase {
+
+    private static final String[] COUNTRIES = { "USA", "GBR", "DEU", null };
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("auctions", ".orta");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public void testRoundTripsAuctions() throws Exception {
+        write(100);
+        try (AuctionFileReader reader = new AuctionFileReader(file.toPath())) {
+            assertEquals(10, reader.getRowGroupCount());
+            assertEquals(100, reader.getRowCount());
+            AuctionCursor cursor = reader.scan(AuctionFilter.all());
+            for (int i = 0; i < 100; i++) {
+                assertTrue(cursor.next());
+                assertTrue(Arrays.equals(new BidRequestEncoder().encode(request(i)),
+                        new BidRequestEncoder().encode(cursor.getRequest())));
+                if (i % 5 == 0) {
+                    assertNull(cursor.getResponse());
+                } else {
+                    assertTrue(Arrays.equals(new BidResponseEncoder().encode(response(i)),
+                            new BidResponseEncoder().encode(cursor.getResponse())));
+                }
+            }
+            assertFalse(cursor.next());
+            assertFalse(cursor.next());
+            assertEquals(10, cursor.getRowGroupsRead());
+            assertEquals(0, cursor.getRowGroupsSkipped());
+        }
+    }
+
+    public void testKeepsStatistics() throws Exception {
+        write(100);
+        try (AuctionFileReader reader = new AuctionFileReader(file.toPath())) {
+            ColumnChunk[] chunks = reader.chunks(3);
+            assertEquals(AuctionFileFormat.PLAIN, chunks[AuctionFileFormat.ID].encoding);
+            assertEquals("req-30", chunks[AuctionFileFormat.ID].min);
+            assertEquals("req-39", chunks[AuctionFileFormat.ID].max);
+            assertEquals(AuctionFileFormat.DICTIONARY, chunks[AuctionFileFormat.COUNTRY].encoding);
+            assertEquals(Arrays.asList("GBR"), Arrays.asList(chunks[AuctionFileFormat.COUNTRY].dictionary));
+            assertEquals(5, chunks[AuctionFileFormat.BUNDLE].nullCount);
+            assertEquals(2, chunks[AuctionFileFormat.PRICE].nullCount);
+            assertEquals(Float.valueOf(3.1f), chunks[AuctionFileFormat.PRICE].min);
+            assertEquals(Float.valueOf(3.9f), chunks[AuctionFileFormat.PRICE].max);
+            assertEquals(10, reader.chunks(9)[AuctionFileFormat.COUNTRY].nullCount);
+            assertNull(reader.chunks(9)[AuctionFileFormat.COUNTRY].min);
+            assertTrue(chunks[AuctionFileFormat.REQUEST].length < chunks[AuctionFileFormat.REQUEST].rawLength);
+        }
+    }
+
+    public void testSkipsRowGroups() throws Exception {
+        write(100);
+        assertScan(AuctionFilter.country("GBR"), 30, 3);
+        assertScan(AuctionFilter.country("FRA"), 0, 0);
+        assertScan(AuctionFilter.country("USA", null), 40, 4);
+        assertScan(AuctionFilter.priceAbove(8.5f), 12, 2);
+        assertScan(AuctionFilter.domain("site1.com"), 16, 10);
+        assertScan(AuctionFilter.bundle("com.app1"), 25, 10);
+        assertScan(AuctionFilter.and(AuctionFilter.country("DEU"), AuctionFilter.priceAbove(6.5f)), 20, 3);
+        assertScan(AuctionFilter.devicetype(4, 5), 0, 0);
+        assertScan(AuctionFilter.devicetype(2), 100, 10);
+    }
+
+    public void testRejectsCorruptFiles() throws Exception {
+        write(20);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        try {
+            new AuctionFileReader(file.toPath()).close();
+            fail();
+        } catch (ColumnarFormatException e) {
+            // expected
+        }
+        write(20);
+        long offset;
+        try (AuctionFileReader reader = new AuctionFileReader(file.toPath())) {
+            offset = reader.chunks(0)[AuctionFileFormat.COUNTRY].offset;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(offset);
+            raf.write(new byte[] { 0x55, 0x55, 0x55, 0x55 });
+        }
+        try (AuctionFileReader reader = new AuctionFileReader(file.toPath())) {
+            AuctionCursor cursor = reader.scan(AuctionFilter.country("USA"));
+            cursor.next();
+            fail();
+        } catch (ColumnarFormatException e) {
+            assertEquals(offset, e.getOffset());
+        }
+    }
+
+    public void testRejectsCorruptChunkLengths() throws Exception {
+        write(20);
+        ColumnChunk id;
+        ColumnChunk request;
+        try (AuctionFileReader reader = new AuctionFileReader(file.toPath())) {
+            id = reader.chunks(0)[AuctionFileFormat.ID];
+            request = reader.chunks(0)[AuctionFileFormat.REQUEST];
+        }
+        byte[] original = Files.readAllBytes(file.toPath());
+        int[] rawLengths = { Integer.MAX_VALUE, request.length * AuctionFileFormat.MAX_COMPRESSION_RATIO + 1,
+                request.rawLength + 100, request.rawLength - 1, -1 };
+        for (int rawLength : rawLengths) {
+            byte[] bytes = original.clone();
+            ByteBuffer.wrap(bytes).putInt(footerEntry(bytes, request) + 12, rawLength);
+            Files.write(file.toPath(), bytes);
+            try (AuctionFileReader reader = new AuctionFileReader(file.toPath())) {
+                AuctionCursor cursor = reader.scan(AuctionFilter.all());
+                assertTrue(cursor.next());
+                cursor.getRequest();
+                fail("Expected failure for " + rawLength);
+            } catch (ColumnarFormatException e) {
+                // expected
+            }
+        }
+        byte[] bytes = original.clone();
+        // The row count of the group precedes its first chunk
+        ByteBuffer.wrap(bytes).putInt(footerEntry(bytes, id) - 4, 1 << 28);
+        Files.write(file.toPath(), bytes);
+        try {
+            new AuctionFileReader(file.toPath()).close();
+            fail();
+        } catch (ColumnarFormatException e) {
+            // expected
+        }
+    }
+
+    /**
+     * @return the position in the file of the footer entry of a chunk
+     */
+    private static int footerEntry(byte[] file, ColumnChunk chunk) {
+        byte[] entry = ByteBuffer.allocate(16).putLong(chunk.offset).putInt(chunk.length).putInt(chunk.rawLength)
+                .array();
+        for (int i = file.length - entry.length; i >= 0; i--) {
+            if (Arrays.equals(entry, Arrays.copyOfRange(file, i, i + entry.length))) {
+                return i;
+            }
+        }
+        throw new AssertionError("No footer entry");
+    }
+
+    private void assertScan(AuctionFilter filter, int matches, int rowGroupsRead) throws Exception {
+        try (AuctionFileReader reader = new AuctionFileReader(file.toPath())) {
+            AuctionCursor cursor = reader.scan(filter);
+            int count = 0;
+            while (cursor.next()) {
+                count++;
+            }
+            assertEquals(matches, count);
+            assertEquals(rowGroupsRead, cursor.getRowGroupsRead());
+            assertEquals(10 - rowGroupsRead, cursor.getRowGroupsSkipped());
+        }
+    }
+
+    private void write(int count) throws Exception {
+        try (AuctionFileWriter writer = new AuctionFileWriter(new FileOutputStream(file))) {
+            writer.setRowGroupSize(10);
+            for (int i = 0; i < count; i++) {
+                writer.write(request(i), i % 5 == 0 ? null : response(i));
+            }
+        }
+    }
+
+    private static BidRequest request(int i) {
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        request.setId("req-" + i);
+        if (i % 2 == 0) {
+            request.getSite().setDomain("site" + i % 3 + ".com");
+        } else {
+            App app = new App();
+            app.setBundle("com.app" + i % 4);
+            request.setSite(null);
+            request.setApp(app);
+        }
+        Geo geo = request.getDevice().getGeo();
+        geo.setCountry(COUNTRIES[Math.min(i / 30, 3)]);
+        return request;
+    }
+
+    private static BidResponse response(int i) {
+        Bid high = new Bid();
+        high.setId("b1");
+        high.setImpid("1");
+        high.setPrice(Float.valueOf(i / 10f));
+        Bid low = new Bid();
+        low.setId("b2");
+        low.setImpid("2");
+        low.setPrice(Float.valueOf(i / 20f));
+        SeatBid seatbid = new SeatBid();
+        seatbid.setBid(new Bid[] { low, high });
+        BidResponse response = new BidResponse();
+        response.setId("req-" + i);
+        response.setSeatbid(new SeatBid[] { seatbid });
+        return response;
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.openrtb4j.v21.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.json.BidRequestDecoder;
+import org.openrtb4j.v21.json.BidRequestDecoderTest;
+import org.openrtb4j.v21.json.JsonFieldsTest;
+
+/**
+ * Unit test for {@link BidRequestBatch}.
+ */
+public class BidRequestBatchTest extends TestCase {
+
+    public void testHoldsFieldsAsColumns() {
+        BidRequest empty = new BidRequest();
+        empty.setImp(new Impression[] { null });
+        BidRequestBatch batch = BidRequestBatch.of(new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST),
+                empty, new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST));
+        assertEquals(3, batch.size());
+        assertEquals(4, batch.getImpCount());
+        assertTrue(Arrays.equals(new int[] { 0, 2, 2, 4 }, batch.getImpOffsets()));
+        assertEquals(Arrays.asList("req-1", null, "req-1"), Arrays.asList(batch.getId()));
+        assertTrue(Arrays.equals(new int[] { 120, BidRequestBatch.NULL, 120 }, batch.getTmax()));
+        assertEquals("example.com", batch.getDomain().get(2));
+        assertNull(batch.getDomain().get(1));
+        assertTrue(Arrays.equals(new int[] { 0, -1, 0 }, batch.getCountry().getCodes()));
+        assertEquals(Arrays.asList("USA"), Arrays.asList(batch.getCountry().getDictionary()));
+        assertNull(batch.getBundle().get(0));
+        assertTrue(Arrays.equals(new int[] { 2, BidRequestBatch.NULL, 2 }, batch.getDevicetype()));
+        assertEquals(-12.5f, batch.getLat()[0], 0f);
+        assertTrue(Float.isNaN(batch.getLat()[1]));
+        assertEquals(10f, batch.getLon()[2], 0f);
+
+        assertEquals("2", batch.getImpId().get(3));
+        assertEquals(0.85f, batch.getBidfloor()[0], 0f);
+        assertEquals("EUR", batch.getBidfloorcur().get(1));
+        assertEquals("USD", batch.getBidfloorcur().get(2));
+        assertTrue(Arrays.equals(new int[] { 300, BidRequestBatch.NULL, 300, BidRequestBatch.NULL },
+                batch.getBannerW()));
+        assertTrue(Arrays.equals(new int[] { BidRequestBatch.NULL, 30, BidRequestBatch.NULL, 30 },
+                batch.getVideoMaxduration()));
+        assertEquals(5, batch.getVideoMinduration()[1]);
+    }
+
+    public void testBuildsFromJson() {
+        String[] inputs = { BidRequestDecoderTest.REQUEST, "{}", JsonFieldsTest.sample(BidRequest.class),
+                "{\"app\":{\"domain\":\"app.com\",\"bundle\":\"com.app\"},\"imp\":[{\"id\":\"x\"}]}",
+                BidRequestDecoderTest.REQUEST };
+        BidRequestBatch.Builder builder = new BidRequestBatch.Builder();
+        BidRequest[] requests = new BidRequest[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            byte[] json = inputs[i].getBytes(StandardCharsets.UTF_8);
+            builder.add(json, 0, json.length);
+            requests[i] = new BidRequestDecoder().decode(json);
+        }
+        assertEquals(inputs.length, builder.size());
+        BidRequestBatch fromJson = builder.build();
+        BidRequestBatch expected = BidRequestBatch.of(requests);
+        assertEquals("app.com", fromJson.getDomain().get(3));
+        assertEquals("com.app", fromJson.getBundle().get(3));
+        assertTrue(Arrays.equals(expected.getImpOffsets(), fromJson.getImpOffsets()));
+        assertTrue(Arrays.equals(expected.getId(), fromJson.getId()));
+        assertTrue(Arrays.equals(expected.getTmax(), fromJson.getTmax()));
+        assertTrue(Arrays.equals(expected.getDomain().getCodes(), fromJson.getDomain().getCodes()));
+        assertTrue(Arrays.equals(expected.getOs().getDictionary(), fromJson.getOs().getDictionary()));
+        assertTrue(Arrays.equals(expected.getConnectiontype(), fromJson.getConnectiontype()));
+        assertTrue(Arrays.equals(expected.getLon(), fromJson.getLon()));
+        assertTrue(Arrays.equals(expected.getBidfloor(), fromJson.getBidfloor()));
+        assertTrue(Arrays.equals(expected.getImpId().getCodes(), fromJson.getImpId().getCodes()));
+        assertTrue(Arrays.equals(expected.getInstl(), fromJson.getInstl()));
+        assertTrue(Arrays.equals(expected.getBannerPos(), fromJson.getBannerPos()));
+        assertTrue(Arrays.equals(expected.getVideoH(), fromJson.getVideoH()));
+    }
+
+    public void testGrowsColumns() {
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        BidRequestBatch.Builder builder = new BidRequestBatch.Builder();
+        for (int i = 0; i < 1000; i++) {
+            request.setId("r" + i);
+            builder.add(request);
+        }
+        BidRequestBatch batch = builder.build();
+        assertEquals(1000, batch.size());
+        assertEquals(2000, batch.getImpCount());
+        assertEquals("r999", batch.getId()[999]);
+        assertEquals(1998, batch.getImpOffsets()[999]);
+        assertEquals(1, batch.getDomain().getDictionary().length);
+        assertEquals(250, batch.getBannerH()[1998]);
+    }
+
+}
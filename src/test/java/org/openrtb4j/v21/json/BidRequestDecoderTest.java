@@ -0,0 +1,356 @@
+package org.openrtb4j.v21.json;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.RawJson;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Impression;
+
+/**
+ * Unit test for {@link BidRequestDecoder}.
+ */
+public class BidRequestDecoderTest extends TestCase {
+
+    public static final String REQUEST = "{\"id\":\"req-1\",\"at\":1,\"tmax\":120,"
+            + "\"imp\":[{\"id\":\"1\",\"bidfloor\":0.85,\"banner\":{\"w\":300,\"h\":250,\"battr\":[1,3],"
+            + "\"mimes\":[\"image/png\"]}},"
+            + "{\"id\":\"2\",\"bidfloorcur\":\"EUR\",\"video\":{\"mimes\":[\"video/mp4\"],\"linearity\":1,"
+            + "\"minduration\":5,\"maxduration\":30,\"protocol\":2,\"companionad\":[{\"w\":728,\"h\":90}]}}],"
+            + "\"site\":{\"id\":\"s1\",\"domain\":\"example.com\",\"cat\":[\"IAB1\"],"
+            + "\"publisher\":{\"id\":\"p1\"},\"content\":{\"title\":\"T\",\"producer\":{\"name\":\"P\"}}},"
+            + "\"device\":{\"ua\":\"Mozilla\\/5.0 \\\"x\\\" \\u00e9\",\"ip\":\"1.2.3.4\",\"devicetype\":2,"
+            + "\"geo\":{\"lat\":-12.5,\"lon\":1e1,\"country\":\"USA\"}},"
+            + "\"user\":{\"buyeruid\":\"b-1\",\"data\":[{\"id\":\"d\",\"segment\":[{\"id\":\"s\",\"value\":\"v\"}]}]},"
+            + "\"badv\":[\"a.com\",\"b.com\"],\"unknown\":{\"x\":[1,{\"y\":\"]}\"}]},"
+            + "\"ext\":{\"k\": [1, 2]}}";
+
+    public void testDecodesFullRequest() {
+        BidRequest request = new BidRequestDecoder().decode(REQUEST);
+
+        assertEquals("req-1", request.getId());
+        assertEquals(1, request.getAt());
+        assertEquals(Integer.valueOf(120), request.getTmax());
+        assertEquals(0, request.getAllimps());
+
+        Impression[] imp = request.getImp();
+        assertEquals(2, imp.length);
+        assertEquals(0.85f, imp[0].getBidfloor(), 0f);
+        assertEquals("USD", imp[0].getBidfloorcur());
+        assertEquals(Integer.valueOf(300), imp[0].getBanner().getW());
+        assertEquals(Integer.valueOf(3), imp[0].getBanner().getBattr()[1]);
+        assertEquals("image/png", imp[0].getBanner().getMimes()[0]);
+        assertEquals("EUR", imp[1].getBidfloorcur());
+        assertEquals(1, imp[1].getVideo().getSequence());
+        assertEquals(Integer.valueOf(728), imp[1].getVideo().getCompanionad()[0].getW());
+
+        assertEquals("example.com", request.getSite().getDomain());
+        assertEquals("p1", request.getSite().getPublisher().getId());
+        assertEquals("P", request.getSite().getContent().getProducer().getName());
+        assertEquals("Mozilla/5.0 \"x\" \u00e9", request.getDevice().getUa());
+        assertEquals(-12.5f, request.getDevice().getGeo().getLat().floatValue(), 0f);
+        assertEquals(10f, request.getDevice().getGeo().getLon().floatValue(), 0f);
+        assertEquals("USA", request.getDevice().getGeo().getCountry());
+        assertEquals("v", request.getUser().getData()[0].getSegment()[0].getValue());
+        assertEquals(2, request.getBadv().length);
+        assertEquals("{\"k\": [1, 2]}", request.getExt());
+    }
+
+    public void testExtIsCapturedAsSliceOfInput() {
+        byte[] json = "{\"id\":\"r\",\"ext\":{\"schain\":{\"nodes\":[]}},\"imp\":[]}".getBytes();
+        BidRequest request = new BidRequestDecoder().decode(json);
+
+        RawJson ext = request.getRawExt();
+        assertSame(json, ext.buffer());
+        assertEquals(16, ext.offset());
+        assertEquals("{\"schain\":{\"nodes\":[]}}", ext.toString());
+        assertEquals(ext, RawJson.valueOf(request.getExt()));
+        assertNotSame(json, ext.detach().buffer());
+    }
+
+    public void testNullsKeepDefaults() {
+        BidRequest request = new BidRequestDecoder()
+                .decode("{\"id\":\"r\",\"at\":null,\"site\":null,\"imp\":[{\"id\":\"1\",\"bidfloorcur\":null}]}");
+
+        assertEquals(2, request.getAt());
+        assertNull(request.getSite());
+        assertEquals("USD", request.getImp()[0].getBidfloorcur());
+    }
+
+    public void testProjectionSkipsUnselectedFields() {
+        Projection projection = Projection.of("imp.bidfloor", "imp.banner.w", "device.geo.country", "site.domain",
+                "user");
+        BidRequest request = new BidRequestDecoder(projection).decode(REQUEST);
+
+        assertNull(request.getId());
+        assertEquals(2, request.getAt());
+        assertNull(request.getExt());
+        assertNull(request.getImp()[0].getId());
+        assertEquals(0.85f, request.getImp()[0].getBidfloor(), 0f);
+        assertEquals(Integer.valueOf(300), request.getImp()[0].getBanner().getW());
+        assertNull(request.getImp()[0].getBanner().getH());
+        assertNull(request.getImp()[1].getVideo());
+        assertEquals("example.com", request.getSite().getDomain());
+        assertNull(request.getSite().getPublisher());
+        assertNull(request.getDevice().getUa());
+        assertEquals("USA", request.getDevice().getGeo().getCountry());
+        assertNull(request.getDevice().getGeo().getLat());
+        assertEquals("v", request.getUser().getData()[0].getSegment()[0].getValue());
+    }
+
+    public void testProjectionRejectsUnknownPaths() {
+        try {
+            Projection.of("imp.banner.x");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            Projection.of("imp.bidfloor.x");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testDecodesInPlace() {
+        BidRequestDecoder decoder = new BidRequestDecoder();
+        BidRequest target = decoder.decode(REQUEST);
+        Impression[] imp = target.getImp();
+        Impression first = imp[0];
+        Device device = target.getDevice();
+
+        String next = "{\"id\":\"req-2\",\"imp\":[{\"id\":\"a\",\"banner\":{\"w\":320}},"
+                + "{\"id\":\"b\",\"video\":{\"mimes\":[]}}],\"device\":{\"ip\":\"5.6.7.8\"}}";
+        assertSame(target, decoder.decode(next.getBytes(), target));
+
+        assertEquals("req-2", target.getId());
+        assertEquals(2, target.getAt());
+        assertNull(target.getTmax());
+        assertNull(target.getSite());
+        assertNull(target.getExt());
+        assertSame(imp, target.getImp());
+        assertSame(first, target.getImp()[0]);
+        assertEquals(0f, first.getBidfloor(), 0f);
+        assertEquals(Integer.valueOf(320), first.getBanner().getW());
+        assertNull(first.getBanner().getH());
+        assertEquals("USD", target.getImp()[1].getBidfloorcur());
+        assertNull(target.getImp()[1].getVideo().getCompanionad());
+        assertEquals(1, target.getImp()[1].getVideo().getBoxingallowed());
+        assertSame(device, target.getDevice());
+        assertNull(device.getGeo());
+        assertEquals("5.6.7.8", device.getIp());
+    }
+
+    public void testStructuralIndexMatchesScalarDecoding() {
+        BidRequestDecoder scalar = new BidRequestDecoder();
+        BidRequestDecoder indexed = new BidRequestDecoder(Projection.of("id", "device.ua", "user"));
+        indexed.setStructuralIndex(true);
+        String[] values = { "a\\\\", "\\\"{[", "x\\\\\\\"]}", "\\u00e9\\\\\\\\" };
+        for (int padding = 0; padding < 80; padding++) {
+            for (String value : values) {
+                StringBuilder pad = new StringBuilder();
+                for (int i = 0; i < padding; i++) {
+                    pad.append(i % 7 == 0 ? '\\' : 'p').append(i % 7 == 0 ? "\\" : "");
+                }
+                String json = "{\"skip\":{\"a\":[\"" + pad + "\",{\"b\":\"" + value + "\"}]},\"id\":\"" + value + pad
+                        + "\",\"device\":{\"ua\":\"" + pad + value + "\"},\"user\":{\"ext\":[\"" + value + "\"]}}";
+                BidRequest expected = scalar.decode(json);
+                BidRequest actual = indexed.decode(json);
+                assertEquals(expected.getId(), actual.getId());
+                assertEquals(expected.getDevice().getUa(), actual.getDevice().getUa());
+                assertEquals(expected.getUser().getExt(), actual.getUser().getExt());
+            }
+        }
+
+        BidRequest request = indexed.decode(REQUEST);
+        assertEquals("req-1", request.getId());
+        assertEquals("Mozilla/5.0 \"x\" \u00e9", request.getDevice().getUa());
+    }
+
+    public void testDecodesByteBuffersAndChannels() throws Exception {
+        BidRequestDecoder decoder = new BidRequestDecoder();
+        byte[] json = REQUEST.getBytes("UTF-8");
+
+        ByteBuffer heap = ByteBuffer.allocate(json.length + 8);
+        heap.position(3);
+        heap.slice().put(json);
+        heap.limit(3 + json.length);
+        BidRequest request = decoder.decode(heap);
+        assertEquals("req-1", request.getId());
+        assertSame(heap.array(), request.getRawExt().buffer());
+        assertEquals(heap.limit(), heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+        direct.put(json).flip();
+        request = decoder.decode(direct);
+        assertEquals("{\"k\": [1, 2]}", request.getExt());
+        assertEquals(request.getRawExt().length(), request.getRawExt().buffer().length);
+        assertFalse(direct.hasRemaining());
+
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(json));
+        request = decoder.decode(channel, json.length, null);
+        assertEquals("USA", request.getDevice().getGeo().getCountry());
+        assertEquals(request.getRawExt().length(), request.getRawExt().buffer().length);
+    }
+
+    public void testParsesNumbersLikeFloatParseFloat() {
+        BidRequestDecoder decoder = new BidRequestDecoder();
+        Random random = new Random(42);
+        String[] fixed = { "0", "-0", "0.85", "12.5", "1.0E-4", "3e2", "16777217", "0.1234567891",
+                "123456789012345678901", "-180.0", "89.99999", "0.000001" };
+        for (int i = 0; i < 20000 + fixed.length; i++) {
+            String number;
+            if (i < fixed.length) {
+                number = fixed[i];
+            } else {
+                StringBuilder sb = new StringBuilder();
+                if (random.nextBoolean()) {
+                    sb.append('-');
+                }
+                sb.append(random.nextInt(1 << random.nextInt(26)));
+                int scale = random.nextInt(12);
+                if (scale > 0) {
+                    sb.append('.');
+                    for (int j = 0; j < scale; j++) {
+                        sb.append(random.nextInt(10));
+                    }
+                }
+                number = sb.toString();
+            }
+            BidRequest request = decoder.decode("{\"imp\":[{\"bidfloor\":" + number + "}],"
+                    + "\"device\":{\"geo\":{\"lat\":" + number + "}}}");
+            float expected = Float.parseFloat(number);
+            assertEquals(number, Float.floatToIntBits(expected),
+                    Float.floatToIntBits(request.getImp()[0].getBidfloor()));
+            assertEquals(number, Float.valueOf(expected), request.getDevice().getGeo().getLat());
+        }
+    }
+
+    public void testRejectsMalformedAndOverflowingFloats() {
+        BidRequestDecoder decoder = new BidRequestDecoder();
+        String[] numbers = { "1.5e", "1.5e+", "1.5E-", "1.", "01.5", "-00", "3.4e39", "-3.4e39", "1e400" };
+        for (String number : numbers) {
+            for (String input : new String[] { "{\"imp\":[{\"bidfloor\":" + number + "}]}",
+                    "{\"device\":{\"geo\":{\"lon\":" + number + "}}}" }) {
+                try {
+                    decoder.decode(input);
+                    fail("Expected failure for " + input);
+                } catch (JsonParseException e) {
+                    assertEquals(input, input.indexOf(number), e.getOffset());
+                }
+            }
+        }
+        assertEquals(3.4e38f, decoder.decode("{\"imp\":[{\"bidfloor\":3.4e38}]}").getImp()[0].getBidfloor(), 0f);
+        assertEquals(0f, decoder.decode("{\"imp\":[{\"bidfloor\":1e-50}]}").getImp()[0].getBidfloor(), 0f);
+    }
+
+    public void testRejectsMalformedInput() {
+        BidRequestDecoder decoder = new BidRequestDecoder();
+        String[] inputs = { "", "{\"id\":\"r\"", "{\"id\" \"r\"}", "{\"id\":\"r\",}", "{\"imp\":[{\"id\":\"1\"},]}",
+                "{\"id\":\"r\"} x", "{\"at\":\"2\"}", "{\"at\":2.5}",
+                "{\"imp\":[{\"bidfloor\":-}]}", "{\"imp\":[{\"bidfloor\":.5}]}", "{\"tmax\":1e}",
+                "{\"tmax\":1e+}", "{\"tmax\":1.}", "{\"tmax\":01}", "{\"tmax\":-01}", "{\"tmax\":1.e2}",
+                "{\"unknown\":01}", "{\"unknown\":1.}", "{\"ext\":1E-}" };
+        for (String input : inputs) {
+            try {
+                decoder.decode(input);
+                fail("Expected failure for " + input);
+            } catch (JsonParseException e) {
+                // expected
+            }
+        }
+        try {
+            decoder.decode("{\"tmax\":1e}");
+            fail();
+        } catch (JsonParseException e) {
+            assertEquals(8, e.getOffset());
+        }
+        assertEquals(Integer.valueOf(0), decoder.decode("{\"tmax\":0}").getTmax());
+        assertEquals(Integer.valueOf(120), decoder.decode("{\"tmax\":1.2E+2,\"unknown\":-0.5e-3}").getTmax());
+    }
+
+    public void testRejectsMismatchedBracketsInSkippedValues() {
+        String[] inputs = { "{\"ext\":{\"a\":[1}]}", "{\"ext\":{\"x\":{\"a\":[1}]},\"id\":\"r\"}",
+                "{\"unknown\":[{\"a\":1]},\"id\":\"r\"}", "{\"site\":{\"ext\":[1,{\"b\":\"]}\"]}}}" };
+        BidRequestDecoder indexed = new BidRequestDecoder();
+        indexed.setStructuralIndex(true);
+        for (BidRequestDecoder decoder : new BidRequestDecoder[] { new BidRequestDecoder(), indexed }) {
+            for (String input : inputs) {
+                try {
+                    decoder.decode(input);
+                    fail("Expected failure for " + input);
+                } catch (JsonParseException e) {
+                    // expected
+                }
+            }
+            assertEquals("[1,{\"b\":\"]}\"}]",
+                    decoder.decode("{\"site\":{\"ext\":[1,{\"b\":\"]}\"}]}}").getSite().getExt());
+        }
+    }
+
+    public void testEnforcesLimits() {
+        DecoderLimits limits = new DecoderLimits();
+        limits.setMaxBytes(4096);
+        limits.setMaxDepth(8);
+        limits.setMaxStringLength(64);
+        limits.setMaxArrayLength(16);
+        limits.setMaxArrayLength("badv", 2);
+        limits.setMaxArrayLength("imp.banner.mimes", 1);
+        for (boolean indexed : new boolean[] { false, true }) {
+            BidRequestDecoder decoder = new BidRequestDecoder();
+            decoder.setStructuralIndex(indexed);
+            decoder.setLimits(limits);
+            assertEquals("req-1", decoder.decode(REQUEST).getId());
+            assertLimit(decoder, DecoderLimits.Limit.BYTES, "{\"id\":\"" + repeat("a", 4096) + "\"}", 0);
+            assertLimit(decoder, DecoderLimits.Limit.DEPTH, "{\"ext\":" + repeat("[", 8) + repeat("]", 8) + "}", 14);
+            assertLimit(decoder, DecoderLimits.Limit.DEPTH,
+                    "{\"unknown\":{\"a\":" + repeat("{\"a\":", 7) + "1" + repeat("}", 8) + "}", 46);
+            assertLimit(decoder, DecoderLimits.Limit.STRING_LENGTH, "{\"id\":\"" + repeat("a", 65) + "\"}", 6);
+            assertLimit(decoder, DecoderLimits.Limit.STRING_LENGTH,
+                    "{\"ext\":{\"k\":\"" + repeat("a", 65) + "\"}}", 12);
+            assertLimit(decoder, DecoderLimits.Limit.ARRAY_LENGTH, "{\"badv\":[\"a\",\"b\",\"c\"]}", 17);
+            assertLimit(decoder, DecoderLimits.Limit.ARRAY_LENGTH,
+                    "{\"imp\":[{\"banner\":{\"mimes\":[\"a\",\"b\"]}}]}", 32);
+            assertLimit(decoder, DecoderLimits.Limit.ARRAY_LENGTH,
+                    "{\"imp\":[{\"video\":{\"companionad\":[{\"mimes\":[\"a\",\"b\"]}]}}]}", 47);
+            assertLimit(decoder, DecoderLimits.Limit.ARRAY_LENGTH, "{\"imp\":[" + repeat("{},", 16) + "{}]}", 56);
+            assertEquals(2, decoder.decode("{\"badv\":[\"a\",\"b\"]}").getBadv().length);
+        }
+        assertEquals(2, limits.getCount(DecoderLimits.Limit.BYTES));
+        assertEquals(4, limits.getCount(DecoderLimits.Limit.DEPTH));
+        assertEquals(4, limits.getCount(DecoderLimits.Limit.STRING_LENGTH));
+        assertEquals(8, limits.getCount(DecoderLimits.Limit.ARRAY_LENGTH));
+        try {
+            limits.setMaxArrayLength("imp.size", 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static void assertLimit(BidRequestDecoder decoder, DecoderLimits.Limit limit, String input, long offset) {
+        try {
+            decoder.decode(input);
+            fail("Expected " + limit + " limit for " + input);
+        } catch (LimitExceededException e) {
+            assertEquals(input, limit, e.getLimit());
+            assertEquals(input, offset, e.getOffset());
+        }
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Video;
+
+/**
+ * Unit test for {@link BidRequestEncoder}.
+ */
+public class BidRequestEncoderTest extends TestCase {
+
+    public void testRoundTripsEveryField() throws Exception {
+        String sample = JsonFieldsTest.sample(BidRequest.class);
+        byte[] json = new BidRequestEncoder().encode(new BidRequestDecoder().decode(sample));
+        JsonFieldsTest.assertFilled(new BidRequestDecoder().decode(json), "BidRequest");
+        assertEquals(sample, new String(json, StandardCharsets.UTF_8));
+    }
+
+    public void testRoundTripsRequest() {
+        BidRequestEncoder encoder = new BidRequestEncoder();
+        byte[] json = encoder.encode(new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST));
+        assertEquals(new String(json, StandardCharsets.UTF_8),
+                new String(encoder.encode(new BidRequestDecoder().decode(json)), StandardCharsets.UTF_8));
+    }
+
+    public void testLeavesOutNullsAndDefaults() {
+        BidRequest request = new BidRequest();
+        request.setId("r");
+        Impression imp = new Impression();
+        imp.setId("1");
+        imp.setBanner(new Banner());
+        imp.setVideo(new Video());
+        request.setImp(new Impression[] { imp });
+        assertEquals("{\"id\":\"r\",\"imp\":[{\"id\":\"1\",\"banner\":{},\"video\":{}}]}", encode(request));
+        request.setAt(1);
+        imp.setBidfloor(0.5f);
+        imp.setBidfloorcur("EUR");
+        assertEquals("{\"id\":\"r\",\"imp\":[{\"id\":\"1\",\"banner\":{},\"video\":{},\"bidfloor\":0.5,"
+                + "\"bidfloorcur\":\"EUR\"}],\"at\":1}", encode(request));
+        BidRequestEncoder encoder = new BidRequestEncoder();
+        encoder.setPriceDecimals(3);
+        assertTrue(new String(encoder.encode(request), StandardCharsets.UTF_8).contains("\"bidfloor\":0.500,"));
+        assertEquals(encoder.encode(request).length, encoder.sizeOf(request));
+    }
+
+    public void testSizeOfMatchesEncodedLength() {
+        BidRequestEncoder encoder = new BidRequestEncoder();
+        BidRequestDecoder decoder = new BidRequestDecoder();
+        String[] inputs = { JsonFieldsTest.sample(BidRequest.class), BidRequestDecoderTest.REQUEST, "{}",
+                "{\"imp\":[],\"bcat\":[],\"at\":-7}",
+                "{\"id\":\"\\u0000\\\"\\\\\\n\\ud83d\\ude00\\ud800\u00e9\u20ac\",\"imp\":[{\"bidfloor\":-0.0},"
+                        + "{\"bidfloor\":1e-9},{\"bidfloor\":123456.7}]}" };
+        for (String input : inputs) {
+            BidRequest request = decoder.decode(input);
+            assertEquals(input, encoder.encode(request).length, encoder.sizeOf(request));
+        }
+        BidRequest request = new BidRequest();
+        request.setImp(new Impression[] { null, new Impression() });
+        request.setBadv(new String[] { null, "a" });
+        assertEquals(encoder.encode(request).length, encoder.sizeOf(request));
+    }
+
+    private static String encode(BidRequest request) {
+        return new String(new BidRequestEncoder().encode(request), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,80 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.RawJson;
+import org.openrtb4j.v21.data.request.BidRequest;
+
+/**
+ * Unit test for {@link BidRequestFanout}.
+ */
+public class BidRequestFanoutTest extends TestCase {
+
+    public void testSplicesPatchesIntoSharedRequest() {
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        request.setWseat(new String[] { "s1" });
+        BidRequestFanout fanout = new BidRequestFanout();
+        fanout.prepare(request);
+        request.setId("changed");
+
+        BidderPatch patch = new BidderPatch();
+        patch.setBcat(new String[] { "IAB25", "IAB26" });
+        patch.setWseat(null);
+        patch.setExt(RawJson.valueOf("{\"bidder\":1}"));
+        patch.setTmaxOverhead(30);
+        BidRequest patched = new BidRequestDecoder().decode(fanout.encode(patch));
+        assertEquals("req-1", patched.getId());
+        assertNull(patched.getWseat());
+        assertEquals(Arrays.asList("IAB25", "IAB26"), Arrays.asList(patched.getBcat()));
+        assertEquals(Arrays.asList(request.getBadv()), Arrays.asList(patched.getBadv()));
+        assertEquals("{\"bidder\":1}", patched.getExt());
+        assertEquals(Integer.valueOf(90), patched.getTmax());
+
+        request.setId("req-1");
+        BidRequestEncoder encoder = new BidRequestEncoder();
+        BidRequest unpatched = new BidRequestDecoder().decode(fanout.encode(null));
+        assertTrue(Arrays.equals(encoder.encode(request), encoder.encode(unpatched)));
+        patched.setWseat(request.getWseat());
+        patched.setBcat(request.getBcat());
+        patched.setRawExt(request.getRawExt());
+        patched.setTmax(request.getTmax());
+        assertTrue(Arrays.equals(encoder.encode(request), encoder.encode(patched)));
+    }
+
+    public void testPatchesEmptyRequest() {
+        BidRequestFanout fanout = new BidRequestFanout();
+        fanout.prepare(new BidRequest());
+        assertEquals("{}", new String(fanout.encode(null), StandardCharsets.UTF_8));
+        BidderPatch patch = new BidderPatch();
+        patch.setBadv(new String[] { "a.com" });
+        assertEquals("{\"badv\":[\"a.com\"]}", new String(fanout.encode(patch), StandardCharsets.UTF_8));
+    }
+
+    public void testWritesIntoArraysAndBuffers() {
+        BidRequestFanout fanout = new BidRequestFanout();
+        fanout.prepare(new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST));
+        BidderPatch patch = new BidderPatch();
+        patch.setTmaxOverhead(10);
+        byte[] expected = fanout.encode(patch);
+        byte[] buf = new byte[expected.length + 1];
+        assertEquals(expected.length, fanout.encode(patch, buf, 1, expected.length));
+        assertTrue(Arrays.equals(expected, Arrays.copyOfRange(buf, 1, buf.length)));
+        ByteBuffer out = ByteBuffer.allocateDirect(expected.length);
+        fanout.encode(patch, out);
+        assertEquals(expected.length, out.position());
+    }
+
+    public void testRequiresPreparedRequest() {
+        try {
+            new BidRequestFanout().encode(null);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+}
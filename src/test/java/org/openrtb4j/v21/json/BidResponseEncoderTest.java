@@ -0,0 +1,349 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+
+/**
+ * Unit test for {@link BidResponseEncoder}.
+ */
+public class BidResponseEncoderTest extends TestCase {
+
+    public void testRoundTripsEveryField() throws Exception {
+        BidResponse response = new BidResponseDecoder().decode(JsonFieldsTest.sample(BidResponse.class));
+        byte[] json = new BidResponseEncoder().encode(response);
+        BidResponse decoded = new BidResponseDecoder().decode(json);
+        JsonFieldsTest.assertFilled(decoded, "BidResponse");
+        assertEquals(JsonFieldsTest.sample(BidResponse.class), new String(json, StandardCharsets.UTF_8));
+    }
+
+    public void testLeavesOutNullsAndDefaults() {
+        BidResponse response = new BidResponse();
+        response.setId("r");
+        SeatBid seatBid = new SeatBid();
+        Bid bid = new Bid();
+        bid.setId("b");
+        bid.setImpid("1");
+        bid.setPrice(1.25f);
+        seatBid.setBid(new Bid[] { bid });
+        response.setSeatbid(new SeatBid[] { seatBid });
+        assertEquals("{\"id\":\"r\",\"seatbid\":[{\"bid\":[{\"id\":\"b\",\"impid\":\"1\",\"price\":1.25}]}]}",
+                encode(response));
+        response.setCur("EUR");
+        response.setExt("{\"a\": [1, 2]}");
+        assertEquals("{\"id\":\"r\",\"seatbid\":[{\"bid\":[{\"id\":\"b\",\"impid\":\"1\",\"price\":1.25}]}],"
+                + "\"cur\":\"EUR\",\"ext\":{\"a\": [1, 2]}}", encode(response));
+    }
+
+    public void testEscapesStrings() {
+        BidResponse response = new BidResponse();
+        String id = "q\"b\\s/\n\t\u0001\u00e9\u20ac\uD83D\uDE00\uD800";
+        response.setId(id);
+        String json = encode(response);
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length, new BidResponseEncoder().sizeOf(response));
+        assertEquals("{\"id\":\"q\\\"b\\\\s/\\n\\t\\u0001\u00e9\u20ac\uD83D\uDE00\uFFFD\"}", json);
+        assertEquals(id.replace('\uD800', '\uFFFD'), new BidResponseDecoder().decode(json).getId());
+    }
+
+    public void testWritesFloatsThatReadBack() {
+        Random random = new Random(42);
+        BidResponseEncoder encoder = new BidResponseEncoder();
+        BidResponseDecoder decoder = new BidResponseDecoder();
+        float[] values = { 0f, -0f, 1f, 0.1f, 1.25f, 12.345f, 0.0001f, 1e-9f, 3e9f, Float.MAX_VALUE, Float.MIN_VALUE };
+        for (int i = 0; i < 10000 + values.length; i++) {
+            float value = i < values.length ? values[i]
+                    : i % 2 == 0 ? random.nextInt(100000) / 100f : Float.intBitsToFloat(random.nextInt() & 0x7F7FFFFF);
+            byte[] json = encoder.encode(priced(value));
+            assertEquals(json.length, encoder.sizeOf(priced(value)));
+            BidResponse decoded = decoder.decode(json);
+            assertEquals(String.valueOf(value), Float.floatToIntBits(value),
+                    Float.floatToIntBits(decoded.getSeatbid()[0].getBid()[0].getPrice()));
+        }
+        assertTrue(encode(priced(2.5f)).contains("\"price\":2.5}"));
+        assertTrue(encode(priced(0.01f)).contains("\"price\":0.01}"));
+        assertTrue(encode(priced(3f)).contains("\"price\":3}"));
+        assertTrue(encode(priced(0.0001f)).contains("\"price\":0.0001}"));
+        assertTrue(encode(priced(3e9f)).contains("\"price\":3000000000}"));
+        assertTrue(encode(priced(-1e-9f)).contains("\"price\":-0.000000001}"));
+    }
+
+    public void testWritesPricesWithFixedDecimals() {
+        BidResponseEncoder encoder = new BidResponseEncoder();
+        assertEquals(-1, encoder.getPriceDecimals());
+        encoder.setPriceDecimals(2);
+        float[] values = { 0f, -0f, 1f, 0.1f, 1.255f, 0.125f, 12.345f, -0.001f, -2.5f, 0.0001f, 3e9f, 1e20f };
+        String[] expected = { "0.00", "0.00", "1.00", "0.10", "1.25", "0.13", "12.35", "0.00", "-2.50", "0.00",
+                "3000000000.00", "100000000000000000000.00" };
+        for (int i = 0; i < values.length; i++) {
+            String json = new String(encoder.encode(priced(values[i])), StandardCharsets.UTF_8);
+            assertEquals(String.valueOf(values[i]), "{\"seatbid\":[{\"bid\":[{\"price\":" + expected[i] + "}]}]}",
+                    json);
+            assertEquals(json.length(), encoder.sizeOf(priced(values[i])));
+        }
+        encoder.setPriceDecimals(0);
+        assertTrue(new String(encoder.encode(priced(2.5f)), StandardCharsets.UTF_8).contains("\"price\":3}"));
+        try {
+            encoder.setPriceDecimals(10);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, encoder.getPriceDecimals());
+        }
+        assertPrice(encoder, 2, 3.6e14f, "359999998001152.00");
+        assertPrice(encoder, 2, 3.61e14f, "361000000000000.00");
+        assertPrice(encoder, 2, 1e15f, "1000000000000000.00");
+        assertPrice(encoder, 9, 3.6e7f, "36000000.000000000");
+        assertPrice(encoder, 9, 3.61e7f, "36100000.000000000");
+        assertPrice(encoder, 9, 5e7f, "50000000.000000000");
+    }
+
+    public void testRejectsNonFiniteNumbers() {
+        BidResponseEncoder encoder = new BidResponseEncoder();
+        for (int decimals : new int[] { -1, 2 }) {
+            encoder.setPriceDecimals(decimals);
+            for (float price : new float[] { Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY }) {
+                try {
+                    encoder.encode(priced(price));
+                    fail();
+                } catch (IllegalArgumentException e) {
+                    // expected
+                }
+                try {
+                    encoder.sizeOf(priced(price));
+                    fail();
+                } catch (IllegalArgumentException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    private static void assertPrice(BidResponseEncoder encoder, int decimals, float price, String expected) {
+        encoder.setPriceDecimals(decimals);
+        String json = new String(encoder.encode(priced(price)), StandardCharsets.UTF_8);
+        assertEquals("{\"seatbid\":[{\"bid\":[{\"price\":" + expected + "}]}]}", json);
+        assertEquals(json.length(), encoder.sizeOf(priced(price)));
+    }
+
+    public void testWritesIntoArraysAndBuffers() {
+        BidResponse response = new BidResponseDecoder().decode(JsonFieldsTest.sample(BidResponse.class));
+        BidResponseEncoder encoder = new BidResponseEncoder();
+        byte[] expected = encoder.encode(response);
+        assertEquals(expected.length, encoder.sizeOf(response));
+
+        byte[] buf = new byte[expected.length + 4];
+        assertEquals(expected.length, encoder.encode(response, buf, 2, expected.length));
+        assertTrue(Arrays.equals(expected, Arrays.copyOfRange(buf, 2, 2 + expected.length)));
+        try {
+            encoder.encode(response, buf, 2, expected.length - 1);
+            fail();
+        } catch (BufferOverflowException e) {
+            // expected
+        }
+
+        for (ByteBuffer out : new ByteBuffer[] { ByteBuffer.allocate(expected.length + 1),
+                ByteBuffer.allocateDirect(expected.length + 1) }) {
+            out.put((byte) ' ');
+            encoder.encode(response, out);
+            assertEquals(expected.length + 1, out.position());
+            out.flip().position(1);
+            byte[] written = new byte[expected.length];
+            out.get(written);
+            assertTrue(Arrays.equals(expected, written));
+            out.clear().position(2);
+            try {
+                encoder.encode(response, out);
+                fail();
+            } catch (BufferOverflowException e) {
+                assertEquals(2, out.position());
+            }
+        }
+    }
+
+    public void testCopiesCachedCreatives() {
+        Bid creative = new Bid();
+        creative.setAdid("ad-1");
+        creative.setAdm("<VAST version=\"2.0\">\n<Ad id=\"1\"/>\n</VAST>");
+        creative.setAdomain(new String[] { "a.com" });
+        creative.setIurl("http://a.com/i.png");
+        creative.setCid("c-1");
+        creative.setCrid("cr-1");
+        creative.setAttr(new Integer[] { 1, 2 });
+        CreativeCache cache = new CreativeCache();
+        cache.register(creative);
+        assertEquals(1, cache.size());
+
+        Bid bid = new Bid();
+        bid.setId("b");
+        bid.setImpid("1");
+        bid.setPrice(2.5f);
+        bid.setNurl("http://win");
+        bid.setAdid(creative.getAdid());
+        bid.setAdm(creative.getAdm());
+        bid.setAdomain(creative.getAdomain());
+        bid.setIurl(creative.getIurl());
+        bid.setCid(creative.getCid());
+        bid.setCrid(creative.getCrid());
+        bid.setAttr(creative.getAttr());
+        SeatBid seatBid = new SeatBid();
+        seatBid.setBid(new Bid[] { bid });
+        BidResponse response = new BidResponse();
+        response.setSeatbid(new SeatBid[] { seatBid });
+
+        BidResponseEncoder encoder = new BidResponseEncoder();
+        String expected = encode(response);
+        encoder.setCreatives(cache);
+        String cached = new String(encoder.encode(response), StandardCharsets.UTF_8);
+        assertEquals(cached.length(), encoder.sizeOf(response));
+        // The fragment follows nurl
+        assertTrue(cached.indexOf("\"nurl\"") < cached.indexOf("\"adid\""));
+        assertEquals(expected, encode(new BidResponseDecoder().decode(cached)));
+
+        bid.setAdm(new String(creative.getAdm()));
+        assertEquals(cached, new String(encoder.encode(response), StandardCharsets.UTF_8));
+        bid.setAdm("<VAST/>");
+        assertEquals(encode(response), new String(encoder.encode(response), StandardCharsets.UTF_8));
+        bid.setAdm(creative.getAdm());
+        cache.unregister("cr-1");
+        assertEquals(expected, new String(encoder.encode(response), StandardCharsets.UTF_8));
+    }
+
+    public void testEscapesLongStringsIntoExactRegions() {
+        StringBuilder id = new StringBuilder();
+        while (id.length() < 300) {
+            id.append("ab\"c\u00e9\n\uD83D\uDE00xyz0123456789");
+        }
+        BidResponse response = new BidResponse();
+        response.setId(id.toString());
+        BidResponseEncoder encoder = new BidResponseEncoder();
+        byte[] expected = encoder.encode(response);
+        assertEquals(id.toString(), new BidResponseDecoder().decode(expected).getId());
+        byte[] buf = new byte[expected.length];
+        assertEquals(expected.length, encoder.encode(response, buf, 0, buf.length));
+        assertTrue(Arrays.equals(expected, buf));
+        try {
+            encoder.encode(response, buf, 0, buf.length - 1);
+            fail();
+        } catch (BufferOverflowException e) {
+            // expected
+        }
+    }
+
+    public void testCopiesCachedStrings() {
+        StringCache strings = new StringCache();
+        String cur = strings.register(new String("EUR"));
+        assertSame("EUR", cur);
+        assertSame(cur, strings.register("EUR"));
+        String domain = strings.register("b\u00e9\".com");
+        assertEquals(2, strings.size());
+        for (int i = 0; i < 100; i++) {
+            strings.register("seat-" + i);
+        }
+        Bid bid = new Bid();
+        bid.setAdomain(new String[] { domain, new String(domain) });
+        SeatBid seatBid = new SeatBid();
+        seatBid.setSeat("seat-7".intern());
+        seatBid.setBid(new Bid[] { bid });
+        BidResponse response = new BidResponse();
+        response.setCur(cur);
+        response.setSeatbid(new SeatBid[] { seatBid });
+        BidResponseEncoder encoder = new BidResponseEncoder();
+        String expected = encode(response);
+        encoder.setStrings(strings);
+        assertSame(strings, encoder.getStrings());
+        assertEquals(expected, new String(encoder.encode(response), StandardCharsets.UTF_8));
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, encoder.sizeOf(response));
+        assertEquals(strings.get(domain), strings.get(domain));
+        assertNotNull(strings.get("seat-7"));
+        assertNull(strings.get(new String("seat-7")));
+        assertNull(strings.get("unregistered"));
+    }
+
+    public void testGathersLargePreEncodedContent() {
+        CreativeCache cache = new CreativeCache();
+        BidResponse response = largeCreative(cache);
+        BidResponseEncoder encoder = new BidResponseEncoder();
+        encoder.setCreatives(cache);
+        byte[] expected = encoder.encode(response);
+        ByteBuffer[] segments = encoder.encodeSegments(response);
+        assertEquals(3, segments.length);
+        assertTrue(segments[1].remaining() > 4096);
+        ByteBuffer joined = ByteBuffer.allocate(expected.length);
+        for (ByteBuffer segment : segments) {
+            joined.put(segment);
+        }
+        assertTrue(Arrays.equals(expected, joined.array()));
+
+        encoder.setGatherThreshold(Integer.MAX_VALUE);
+        segments = encoder.encodeSegments(response);
+        assertEquals(1, segments.length);
+        assertEquals(ByteBuffer.wrap(expected), segments[0]);
+    }
+
+    public void testWritesWholeContentAfterGathering() {
+        CreativeCache cache = new CreativeCache();
+        BidResponse response = largeCreative(cache);
+        BidResponseEncoder encoder = new BidResponseEncoder();
+        encoder.setCreatives(cache);
+        byte[] expected = encoder.encode(response);
+        encoder.encodeSegments(response);
+
+        byte[] buf = new byte[expected.length];
+        assertEquals(expected.length, encoder.encode(response, buf, 0, buf.length));
+        assertTrue(Arrays.equals(expected, buf));
+        ByteBuffer out = ByteBuffer.allocate(expected.length);
+        encoder.encodeSegments(response);
+        encoder.encode(response, out);
+        assertTrue(Arrays.equals(expected, out.array()));
+        assertEquals(expected.length, encoder.sizeOf(response));
+    }
+
+    /**
+     * @return a response whose bid holds a large creative registered in the
+     *         cache, and a small ext
+     */
+    private static BidResponse largeCreative(CreativeCache cache) {
+        StringBuilder adm = new StringBuilder("<VAST version=\"2.0\">");
+        while (adm.length() < 4096) {
+            adm.append("<Tracking event=\"start\">http://t.example.com/s</Tracking>\n");
+        }
+        Bid creative = new Bid();
+        creative.setAdm(adm.toString());
+        creative.setCrid("cr-1");
+        cache.register(creative);
+        Bid bid = new Bid();
+        bid.setId("b");
+        bid.setPrice(1f);
+        bid.setAdm(creative.getAdm());
+        bid.setCrid(creative.getCrid());
+        bid.setExt("{\"small\":1}");
+        SeatBid seatBid = new SeatBid();
+        seatBid.setBid(new Bid[] { bid });
+        BidResponse response = new BidResponse();
+        response.setId("r");
+        response.setSeatbid(new SeatBid[] { seatBid });
+        return response;
+    }
+
+    private static BidResponse priced(float price) {
+        Bid bid = new Bid();
+        bid.setPrice(price);
+        SeatBid seatBid = new SeatBid();
+        seatBid.setBid(new Bid[] { bid });
+        BidResponse response = new BidResponse();
+        response.setSeatbid(new SeatBid[] { seatBid });
+        return response;
+    }
+
+    private static String encode(BidResponse response) {
+        return new String(new BidResponseEncoder().encode(response), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.openrtb4j.v21.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.response.BidResponse;
+
+/**
+ * Unit test for {@link CanonicalEncoder}.
+ */
+public class CanonicalEncoderTest extends TestCase {
+
+    public void testNormalizesEquivalentJson() {
+        String a = "{\"id\":\"r\",\"imp\":[{\"id\":\"1\",\"bidfloor\":0.85}],\"at\":2,"
+                + "\"ext\":{\"k\":[1,2],\"s\":\"a \\\" b\"}}";
+        String b = "{ \"ext\" : {\n\t\"k\": [1, 2], \"s\": \"a \\\" b\" },\"at\":2.0e0,\"unknown\":1,"
+                + " \"imp\": [ {\"bidfloorcur\":\"USD\",\"bidfloor\":8.50e-1,\"id\":\"1\"} ], \"id\" : \"r\" }";
+        BidRequestDecoder decoder = new BidRequestDecoder();
+        CanonicalEncoder encoder = new CanonicalEncoder();
+        BidRequest first = decoder.decode(a);
+        BidRequest second = decoder.decode(b);
+        assertEquals("{\"id\":\"r\",\"imp\":[{\"id\":\"1\",\"bidfloor\":0.85}],"
+                + "\"ext\":{\"k\":[1,2],\"s\":\"a \\\" b\"}}",
+                new String(encoder.encode(second), StandardCharsets.UTF_8));
+        assertTrue(Arrays.equals(encoder.encode(first), encoder.encode(second)));
+        assertEquals(encoder.fingerprint(first), encoder.fingerprint(second));
+        assertEquals(encoder.hash64(first), encoder.hash64(second));
+        second.setTmax(100);
+        assertFalse(encoder.fingerprint(first).equals(encoder.fingerprint(second)));
+
+        BidResponseDecoder responses = new BidResponseDecoder();
+        BidResponse response = responses.decode("{\"id\":\"r\",\"cur\":\"USD\",\"ext\":{ \"a\" : null }}");
+        assertEquals("{\"id\":\"r\",\"ext\":{\"a\":null}}",
+                new String(encoder.encode(response), StandardCharsets.UTF_8));
+        BidResponse reordered = responses.decode("{\"ext\":{\"a\":null},\"id\":\"r\"}");
+        assertEquals(encoder.fingerprint(response), encoder.fingerprint(reordered));
+    }
+
+    public void testHashesCanonicalFormWhileWritingIt() {
+        CanonicalEncoder encoder = new CanonicalEncoder();
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        assertHash(encoder.encode(request), encoder.fingerprint(request));
+        StringBuilder ext = new StringBuilder("{\"a\": [");
+        for (int i = 0; i < 500; i++) {
+            ext.append(i).append(", ");
+        }
+        request.setExt(ext.append("0]}").toString());
+        char[] id = new char[1000];
+        Arrays.fill(id, '\u00e9');
+        request.setId(new String(id));
+        assertHash(encoder.encode(request), encoder.fingerprint(request));
+        BidResponse response = new BidResponseDecoder().decode(JsonFieldsTest.sample(BidResponse.class));
+        assertHash(encoder.encode(response), encoder.fingerprint(response));
+        assertEquals(encoder.fingerprint(response).getLow(), encoder.hash64(response));
+    }
+
+    public void testMurmur3() {
+        assertMurmur3("", 0L, 0L);
+        assertMurmur3("hello", -3758069500696749310L, 6565844092913065241L);
+        assertMurmur3("The quick brown fox jumps over the lazy dog", -2068352364225029268L, 8809951995912426311L);
+        byte[] bytes = new byte[100];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        Murmur3 hash = new Murmur3();
+        for (int chunk = 1; chunk <= 40; chunk++) {
+            hash.reset();
+            for (int off = 0; off < bytes.length; off += chunk) {
+                hash.update(bytes, off, Math.min(chunk, bytes.length - off));
+            }
+            hash.finish();
+            assertEquals(-5733194914968088118L, hash.low());
+            assertEquals(1134183162653706137L, hash.high());
+        }
+        assertEquals("b0d0ba1cf6c2d9c68a3a39d0e8cb3be4",
+                new Fingerprint(0xb0d0ba1cf6c2d9c6L, 0x8a3a39d0e8cb3be4L).toString());
+        assertEquals("000000000000000f0000000000000001", new Fingerprint(15, 1).toString());
+    }
+
+    private static void assertMurmur3(String input, long low, long high) {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        Murmur3 hash = new Murmur3();
+        hash.reset();
+        hash.update(bytes, 0, bytes.length);
+        hash.finish();
+        assertEquals(low, hash.low());
+        assertEquals(high, hash.high());
+    }
+
+    private static void assertHash(byte[] canonical, Fingerprint fingerprint) {
+        Murmur3 hash = new Murmur3();
+        hash.reset();
+        hash.update(canonical, 0, canonical.length);
+        hash.finish();
+        assertEquals(new Fingerprint(hash.high(), hash.low()), fingerprint);
+    }
+
+}
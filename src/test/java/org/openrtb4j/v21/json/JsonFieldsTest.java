@@ -0,0 +1,158 @@
+package org.openrtb4j.v21.json;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.RawJson;
+import org.openrtb4j.v21.data.request.App;
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Content;
+import org.openrtb4j.v21.data.request.Data;
+import org.openrtb4j.v21.data.request.Device;
+import org.openrtb4j.v21.data.request.Geo;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.data.request.Producer;
+import org.openrtb4j.v21.data.request.Publisher;
+import org.openrtb4j.v21.data.request.Segment;
+import org.openrtb4j.v21.data.request.Site;
+import org.openrtb4j.v21.data.request.User;
+import org.openrtb4j.v21.data.request.Video;
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+
+/**
+ * Guards the codecs against drifting from the data classes: every field of
+ * the model must have a member name in {@link JsonFields}, in declaration
+ * order, and must be filled in by the decoders.
+ */
+public class JsonFieldsTest extends TestCase {
+
+    private static final Object[][] TABLES = { { BidRequest.class, JsonFields.BID_REQUEST },
+            { Impression.class, JsonFields.IMPRESSION }, { Banner.class, JsonFields.BANNER },
+            { Video.class, JsonFields.VIDEO }, { Site.class, JsonFields.SITE }, { App.class, JsonFields.APP },
+            { Publisher.class, JsonFields.PUBLISHER }, { Content.class, JsonFields.CONTENT },
+            { Producer.class, JsonFields.PRODUCER }, { Device.class, JsonFields.DEVICE }, { Geo.class, JsonFields.GEO },
+            { User.class, JsonFields.USER }, { Data.class, JsonFields.DATA }, { Segment.class, JsonFields.SEGMENT },
+            { BidResponse.class, JsonFields.BID_RESPONSE }, { SeatBid.class, JsonFields.SEAT_BID },
+            { Bid.class, JsonFields.BID } };
+
+    public void testTablesMatchDataClasses() {
+        for (Object[] entry : TABLES) {
+            Class<?> type = (Class<?>) entry[0];
+            FieldTable table = (FieldTable) entry[1];
+            List<String> names = new ArrayList<String>();
+            for (int i = 0; i < table.size(); i++) {
+                names.add(table.name(i));
+            }
+            List<String> declared = new ArrayList<String>();
+            for (Field field : fields(type)) {
+                declared.add(field.getName());
+            }
+            assertEquals(type.getSimpleName(), declared, names);
+            for (Field field : fields(type)) {
+                Class<?> nested = nestedType(field);
+                FieldTable nestedTable = table.nested(table.indexOf(field.getName()));
+                assertEquals(type.getSimpleName() + "." + field.getName(), nested == null ? null : tableOf(nested),
+                        nestedTable);
+            }
+        }
+    }
+
+    public void testDecoderFillsEveryField() throws Exception {
+        String json = sample(BidRequest.class);
+        assertFilled(new BidRequestDecoder().decode(json), "BidRequest");
+        assertFilled(new BidRequestDecoder().decode(json.getBytes("UTF-8"), new BidRequest()), "BidRequest");
+        assertFilled(new BidResponseDecoder().decode(sample(BidResponse.class)), "BidResponse");
+    }
+
+    /**
+     * @return a JSON document setting every field of the type to a value that
+     *         differs from the default
+     */
+    public static String sample(Class<?> type) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Field field : fields(type)) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append('"').append(field.getName()).append("\":");
+            Class<?> t = field.getType();
+            if (t == String.class) {
+                sb.append("\"v\"");
+            } else if (t == int.class || t == Integer.class) {
+                sb.append(7);
+            } else if (t == float.class || t == Float.class) {
+                sb.append(1.5);
+            } else if (t == String[].class) {
+                sb.append("[\"v\"]");
+            } else if (t == Integer[].class) {
+                sb.append("[7]");
+            } else if (t == RawJson.class) {
+                sb.append("{\"k\":[1]}");
+            } else if (t.isArray()) {
+                sb.append('[').append(sample(t.getComponentType())).append(']');
+            } else {
+                sb.append(sample(t));
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Asserts that every field of the object, recursively, holds a value that
+     * differs from the default.
+     */
+    public static void assertFilled(Object o, String path) throws Exception {
+        Object defaults = o.getClass().getDeclaredConstructor().newInstance();
+        for (Field field : fields(o.getClass())) {
+            field.setAccessible(true);
+            Object value = field.get(o);
+            String name = path + "." + field.getName();
+            assertNotNull(name, value);
+            assertFalse(name, value.equals(field.get(defaults)));
+            if (value instanceof Object[]) {
+                Object[] array = (Object[]) value;
+                assertEquals(name, 1, array.length);
+                if (nestedType(field) != null) {
+                    assertFilled(array[0], name);
+                }
+            } else if (nestedType(field) != null) {
+                assertFilled(value, name);
+            }
+        }
+    }
+
+    static List<Field> fields(Class<?> type) {
+        List<Field> fields = new ArrayList<Field>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * @return the data class held by the field, or null
+     */
+    private static Class<?> nestedType(Field field) {
+        Class<?> t = field.getType().isArray() ? field.getType().getComponentType() : field.getType();
+        return tableOf(t) == null ? null : t;
+    }
+
+    private static FieldTable tableOf(Class<?> type) {
+        for (Object[] entry : TABLES) {
+            if (entry[0] == type) {
+                return (FieldTable) entry[1];
+            }
+        }
+        return null;
+    }
+
+}
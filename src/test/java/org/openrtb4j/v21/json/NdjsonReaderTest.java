@@ -0,0 +1,70 @@
+package org.openrtb4j.v21.json;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.response.BidResponse;
+
+/**
+ * Unit test for {@link NdjsonReader}.
+ */
+public class NdjsonReaderTest extends TestCase {
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("requests", ".ndjson");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public void testReadsLargeFileInParallelInOrder() throws Exception {
+        int count = 6000;
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < count; i++) {
+                out.write(BidRequestDecoderTest.REQUEST.replace("req-1", "req-" + i).getBytes("UTF-8"));
+                out.write((i % 100 == 0 ? "\r\n\n" : "\n").getBytes("UTF-8"));
+            }
+        }
+        assertTrue(file.length() > 2 << 20);
+
+        List<String> ids;
+        try (Stream<BidRequest> requests = NdjsonReader.bidRequests(file.toPath()).stream()) {
+            ids = requests.map(BidRequest::getId).collect(Collectors.toList());
+        }
+        assertEquals(count, ids.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("req-" + i, ids.get(i));
+        }
+
+        try (Stream<List<BidRequest>> batches = NdjsonReader.bidRequests(file.toPath()).batches(100)) {
+            assertEquals(count, batches.mapToInt(List::size).sum());
+        }
+    }
+
+    public void testReadsResponsesAndReportsFileOffsets() throws Exception {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write("{\"id\":\"1\",\"seatbid\":[{\"bid\":[{\"id\":\"b\",\"impid\":\"1\",\"price\":1.5}]}]}\n"
+                    .getBytes("UTF-8"));
+            out.write("{\"id\":\"2\",\"seatbid\":[]}\n{\"id\":}\n".getBytes("UTF-8"));
+        }
+        try (Stream<BidResponse> responses = NdjsonReader.bidResponses(file.toPath()).stream()) {
+            responses.count();
+            fail();
+        } catch (JsonParseException e) {
+            assertEquals(98, e.getOffset());
+        }
+    }
+
+}
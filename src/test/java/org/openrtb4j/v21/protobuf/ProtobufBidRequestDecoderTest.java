@@ -0,0 +1,157 @@
+package org.openrtb4j.v21.protobuf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.request.Banner;
+import org.openrtb4j.v21.data.request.BidRequest;
+import org.openrtb4j.v21.data.request.Impression;
+import org.openrtb4j.v21.json.BidRequestDecoder;
+import org.openrtb4j.v21.json.BidRequestDecoderTest;
+import org.openrtb4j.v21.json.BidRequestEncoder;
+import org.openrtb4j.v21.json.JsonFieldsTest;
+
+/**
+ * Unit test for {@link ProtobufBidRequestDecoder}.
+ */
+public class ProtobufBidRequestDecoderTest extends TestCase {
+
+    public void testRoundTripsEveryFieldButExt() throws Exception {
+        String sample = JsonFieldsTest.sample(BidRequest.class);
+        byte[] protobuf = new ProtobufBidRequestEncoder().encode(new BidRequestDecoder().decode(sample));
+        BidRequest decoded = new ProtobufBidRequestDecoder().decode(protobuf);
+        String withoutExt = sample.replace(",\"ext\":{\"k\":[1]}", "");
+        assertEquals(withoutExt, new String(new BidRequestEncoder().encode(decoded), StandardCharsets.UTF_8));
+    }
+
+    public void testRoundTripsRequest() {
+        BidRequest request = new BidRequestDecoder().decode(BidRequestDecoderTest.REQUEST);
+        request.setRawExt(null);
+        StringBuilder ua = new StringBuilder();
+        while (ua.length() < 300) {
+            ua.append("Mozilla/5.0 \u00e9\u20ac\ud83d\ude00 ");
+        }
+        request.getDevice().setUa(ua.toString());
+        request.getImp()[0].getBanner().setBattr(new Integer[] { 1, -7, Integer.MIN_VALUE, Integer.MAX_VALUE });
+        BidRequestEncoder json = new BidRequestEncoder();
+        byte[] protobuf = new ProtobufBidRequestEncoder().encode(request);
+        BidRequest decoded = new ProtobufBidRequestDecoder().decode(protobuf);
+        assertEquals(new String(json.encode(request), StandardCharsets.UTF_8),
+                new String(json.encode(decoded), StandardCharsets.UTF_8));
+        assertEquals(ua.toString(), decoded.getDevice().getUa());
+    }
+
+    public void testWritesSchemaFieldNumbers() {
+        BidRequest request = new BidRequest();
+        request.setId("r");
+        Impression imp = new Impression();
+        imp.setId("1");
+        imp.setBidfloor(0.5f);
+        request.setImp(new Impression[] { imp });
+        request.setAt(1);
+        byte[] expected = { 0x0A, 1, 'r', 0x12, 12, 0x0A, 1, '1', 0x41, 0, 0, 0, 0, 0, 0, (byte) 0xE0, 0x3F, 0x38, 1 };
+        assertTrue(Arrays.equals(expected, new ProtobufBidRequestEncoder().encode(request)));
+        assertEquals(0, new ProtobufBidRequestEncoder().encode(new BidRequest()).length);
+    }
+
+    public void testWritesFloatsAsTheirDecimal() {
+        BidRequest request = new BidRequest();
+        Impression imp = new Impression();
+        imp.setBidfloor(0.1f);
+        request.setImp(new Impression[] { imp });
+        byte[] protobuf = new ProtobufBidRequestEncoder().encode(request);
+        // imp { bidfloor: 0.1 }
+        assertEquals(11, protobuf.length);
+        assertEquals(0x41, protobuf[2]);
+        assertEquals(Double.doubleToLongBits(0.1),
+                Double.doubleToLongBits(ByteBuffer.wrap(protobuf, 3, 8).order(ByteOrder.LITTLE_ENDIAN).getDouble()));
+        assertEquals(0.1f, new ProtobufBidRequestDecoder().decode(protobuf).getImp()[0].getBidfloor(), 0f);
+        for (float value : new float[] { 0.85f, 1.005f, -12.5f, 3e-7f, Float.MAX_VALUE, Float.MIN_VALUE }) {
+            assertEquals(value, (float) ProtobufWriter.widen(value), 0f);
+        }
+    }
+
+    public void testWritesBannerFieldNumbers() {
+        Banner banner = new Banner();
+        banner.setExpdir(new Integer[] { 1, 2 });
+        banner.setApi(new Integer[] { 3 });
+        Impression imp = new Impression();
+        imp.setId("1");
+        imp.setBanner(banner);
+        BidRequest request = new BidRequest();
+        request.setImp(new Impression[] { imp });
+        request.setAt(1);
+        byte[] expected = {
+                // imp { id: "1", banner { expdir: [1, 2], api: [3] } }
+                0x12, 12, 0x0A, 1, '1', 0x12, 7, 0x4A, 2, 1, 2, 0x52, 1, 3,
+                // at: 1
+                0x38, 1 };
+        assertTrue(Arrays.equals(expected, new ProtobufBidRequestEncoder().encode(request)));
+        Banner decoded = new ProtobufBidRequestDecoder().decode(expected).getImp()[0].getBanner();
+        assertEquals(Arrays.asList(1, 2), Arrays.asList(decoded.getExpdir()));
+        assertEquals(Arrays.asList(3), Arrays.asList(decoded.getApi()));
+
+        // imp { banner { wmin: 50, hmin: 40 } }, fields this model does not have
+        byte[] input = { 0x12, 6, 0x12, 4, 0x68, 50, 0x70, 40 };
+        decoded = new ProtobufBidRequestDecoder().decode(input).getImp()[0].getBanner();
+        assertNull(decoded.getExpdir());
+        assertNull(decoded.getApi());
+    }
+
+    public void testReadsUnpackedIntegersAndSkipsUnknownFields() {
+        byte[] input = {
+                // imp { banner { battr: 1, battr: [2, 3], battr: 300, unknown fixed32 } }
+                0x12, 16, 0x12, 14, 0x30, 1, 0x32, 2, 2, 3, 0x30, (byte) 0xAC, 2, 0x7D, 0, 0, 0, 0,
+                // unknown varint, fixed64 and length-delimited fields
+                (byte) 0xA0, 6, 5, (byte) 0xA1, 6, 1, 2, 3, 4, 5, 6, 7, 8, (byte) 0xA2, 6, 2, 'x', 'y',
+                // at: 1
+                0x38, 1 };
+        BidRequest request = new ProtobufBidRequestDecoder().decode(input);
+        Banner banner = request.getImp()[0].getBanner();
+        assertEquals(Arrays.asList(1, 2, 3, 300), Arrays.asList(banner.getBattr()));
+        assertEquals(1, request.getAt());
+    }
+
+    public void testDecodesBuffers() {
+        BidRequest request = new BidRequest();
+        request.setId("r");
+        byte[] protobuf = new ProtobufBidRequestEncoder().encode(request);
+        ProtobufBidRequestDecoder decoder = new ProtobufBidRequestDecoder();
+        ByteBuffer direct = ByteBuffer.allocateDirect(protobuf.length);
+        new ProtobufBidRequestEncoder().encode(request, direct);
+        direct.flip();
+        assertEquals("r", decoder.decode(direct).getId());
+        assertFalse(direct.hasRemaining());
+        byte[] padded = new byte[protobuf.length + 2];
+        System.arraycopy(protobuf, 0, padded, 1, protobuf.length);
+        assertEquals("r", decoder.decode(padded, 1, protobuf.length).getId());
+    }
+
+    public void testRejectsMalformedInput() {
+        ProtobufBidRequestDecoder decoder = new ProtobufBidRequestDecoder();
+        // Truncated tag, varint, string and message
+        assertMalformed(decoder, new byte[] { (byte) 0x80 });
+        assertMalformed(decoder, new byte[] { 0x38, (byte) 0x81 });
+        assertMalformed(decoder, new byte[] { 0x0A, 2, 'r' });
+        assertMalformed(decoder, new byte[] { 0x12, 4, 0x0A, 1, '1' });
+        // Message shorter than its last field
+        assertMalformed(decoder, new byte[] { 0x12, 2, 0x0A, 2, '1', '2' });
+        // Field number zero and group wire type
+        assertMalformed(decoder, new byte[] { 0x00, 0 });
+        assertMalformed(decoder, new byte[] { 0x0B, 0x0C });
+    }
+
+    private static void assertMalformed(ProtobufBidRequestDecoder decoder, byte[] input) {
+        try {
+            decoder.decode(input);
+            fail(Arrays.toString(input));
+        } catch (ProtobufFormatException e) {
+            // expected
+        }
+    }
+
+}
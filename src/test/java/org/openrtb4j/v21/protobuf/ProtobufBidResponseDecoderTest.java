@@ -0,0 +1,56 @@
+package org.openrtb4j.v21.protobuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openrtb4j.v21.data.response.Bid;
+import org.openrtb4j.v21.data.response.BidResponse;
+import org.openrtb4j.v21.data.response.SeatBid;
+import org.openrtb4j.v21.json.BidResponseDecoder;
+import org.openrtb4j.v21.json.BidResponseEncoder;
+import org.openrtb4j.v21.json.JsonFieldsTest;
+
+/**
+ * Unit test for {@link ProtobufBidResponseDecoder}.
+ */
+public class ProtobufBidResponseDecoderTest extends TestCase {
+
+    public void testRoundTripsEveryFieldButExt() throws Exception {
+        String sample = JsonFieldsTest.sample(BidResponse.class);
+        byte[] protobuf = new ProtobufBidResponseEncoder().encode(new BidResponseDecoder().decode(sample));
+        BidResponse decoded = new ProtobufBidResponseDecoder().decode(protobuf);
+        String withoutExt = sample.replace(",\"ext\":{\"k\":[1]}", "");
+        assertEquals(withoutExt, new String(new BidResponseEncoder().encode(decoded), StandardCharsets.UTF_8));
+    }
+
+    public void testRoundTripsResponse() {
+        Bid bid = new Bid();
+        bid.setId("b");
+        bid.setImpid("1");
+        bid.setPrice(1.25f);
+        StringBuilder adm = new StringBuilder();
+        while (adm.length() < 20000) {
+            adm.append("<VAST version=\"2.0\"><Ad id=\"1\"/></VAST>\n");
+        }
+        bid.setAdm(adm.toString());
+        SeatBid seatBid = new SeatBid();
+        seatBid.setBid(new Bid[] { bid, bid });
+        BidResponse response = new BidResponse();
+        response.setId("r");
+        response.setSeatbid(new SeatBid[] { seatBid });
+        BidResponseEncoder json = new BidResponseEncoder();
+        byte[] protobuf = new ProtobufBidResponseEncoder().encode(response);
+        BidResponse decoded = new ProtobufBidResponseDecoder().decode(protobuf);
+        assertTrue(Arrays.equals(json.encode(response), json.encode(decoded)));
+        assertEquals("USD", decoded.getCur());
+        try {
+            new ProtobufBidResponseDecoder().decode(Arrays.copyOf(protobuf, protobuf.length - 1));
+            fail();
+        } catch (ProtobufFormatException e) {
+            assertTrue(e.getMessage().startsWith("Truncated input"));
+        }
+    }
+
+}